@@ -17,6 +17,8 @@ package com.hazelcast.simulator.probes;
 
 import org.HdrHistogram.Histogram;
 
+import java.util.concurrent.TimeUnit;
+
 public interface Probe {
 
     /**
@@ -26,6 +28,35 @@ public interface Probe {
      */
     boolean isThroughputProbe();
 
+    /**
+     * Defines if a probe records latency values.
+     *
+     * A probe without latency values just counts the recorded operations, which is cheaper than a latency measurement. Its
+     * {@link #started()} method does nothing and each recording method counts a single operation. The operation count is
+     * retrieved via {@link #getIntervalCount()} instead of {@link #getIntervalHistogram()}.
+     *
+     * @return <tt>true</tt> if the probe records latency values, <tt>false</tt> if it only counts operations
+     */
+    boolean isLatencyProbe();
+
+    /**
+     * Returns the {@link TimeUnit} of the recorded latency values.
+     *
+     * @return the {@link TimeUnit} of the values in the interval {@link Histogram}
+     */
+    TimeUnit getLatencyUnit();
+
+    /**
+     * Returns the latency sample rate of the probe.
+     *
+     * With a sample rate of N only one in N operations recorded via a {@link ProbeHandle} is timed, see
+     * {@link ProbeHandle#isSampled()}. Each sampled value is recorded with a count of N, so the operation count of the interval
+     * {@link Histogram} still matches the number of operations. A sample rate of 1 records every operation.
+     *
+     * @return the latency sample rate
+     */
+    int getLatencySampleRate();
+
     /**
      * Starts a latency measurement in the local thread.
      */
@@ -36,6 +67,85 @@ public interface Probe {
      */
     void done();
 
+    /**
+     * Stops a latency measurement in the local thread and records the value.
+     *
+     * If the probe records latencies corrected for coordinated omission, the latency since the given intended start time is
+     * recorded as corrected value. The intended start time is usually provided by a metronome which paces the operations.
+     * Otherwise the intended start time is ignored.
+     *
+     * @param intendedStartNanos the intended start time of the measured operation as {@link System#nanoTime()} timestamp
+     */
+    void done(long intendedStartNanos);
+
+    /**
+     * Starts an asynchronous latency measurement and increases the in-flight count of the probe.
+     *
+     * In contrast to {@link #started()} the start time is not bound to the local thread, but returned as token. The token has to
+     * travel with the asynchronous operation, e.g. in its callback, so the measurement can be finished by any thread via
+     * {@link #doneAsync(long)} or {@link #abortAsync()}.
+     *
+     * @return the start token of the measurement
+     */
+    long startAsync();
+
+    /**
+     * Finishes an asynchronous latency measurement, records the value and decreases the in-flight count of the probe.
+     *
+     * This method is thread-safe and can be called from any thread, e.g. from a response thread.
+     *
+     * @param startToken the start token returned by {@link #startAsync()}
+     */
+    void doneAsync(long startToken);
+
+    /**
+     * Finishes an asynchronous latency measurement, records the value and decreases the in-flight count of the probe.
+     *
+     * If the probe records latencies corrected for coordinated omission, the latency since the given intended start time is
+     * recorded as corrected value, see {@link #done(long)}. Otherwise the intended start time is ignored.
+     *
+     * This method is thread-safe and can be called from any thread, e.g. from a response thread.
+     *
+     * @param startToken         the start token returned by {@link #startAsync()}
+     * @param intendedStartNanos the intended start time of the measured operation as {@link System#nanoTime()} timestamp
+     */
+    void doneAsync(long startToken, long intendedStartNanos);
+
+    /**
+     * Aborts an asynchronous latency measurement without recording a value and decreases the in-flight count of the probe.
+     *
+     * This method is thread-safe and can be called from any thread.
+     */
+    void abortAsync();
+
+    /**
+     * Returns the number of asynchronous measurements which have been started, but not finished or aborted yet.
+     *
+     * @return the current in-flight count
+     */
+    long getInFlightCount();
+
+    /**
+     * Returns the average in-flight count since the last call of this method.
+     *
+     * The in-flight count is sampled at each start of an asynchronous measurement, including the started measurement. So the
+     * average is the pipeline depth which has been seen by the asynchronous operations of the interval. Resets the average for
+     * the next interval.
+     *
+     * @return the average in-flight count of the interval or <tt>0</tt> if no asynchronous measurement has been started
+     */
+    double getIntervalAverageInFlightCount();
+
+    /**
+     * Creates a new {@link ProbeHandle} for the calling thread.
+     *
+     * The handle records into this probe, but keeps the start timestamp of a latency measurement in a primitive field. This
+     * avoids the allocation and the {@link ThreadLocal} lookups of {@link #started()} and {@link #done()}.
+     *
+     * @return a new {@link ProbeHandle} which must not be shared between threads
+     */
+    ProbeHandle threadHandle();
+
     /**
      * Adds a latency value in nanoseconds to the probe result.
      *
@@ -46,13 +156,38 @@ public interface Probe {
      */
     void recordValue(long latencyNanos);
 
+    /**
+     * Adds a latency value and a latency value corrected for coordinated omission in nanoseconds to the probe result.
+     *
+     * The corrected value is measured from the intended start time of the operation. It is ignored if the probe doesn't record
+     * corrected latencies.
+     *
+     * @param latencyNanos          latency value in nanoseconds
+     * @param correctedLatencyNanos latency value since the intended start time in nanoseconds
+     */
+    void recordValue(long latencyNanos, long correctedLatencyNanos);
+
     /**
      * Get an interval {@link Histogram}, which will include a stable, consistent view of all latency values accumulated since the
      * last interval histogram was taken.
      *
-     * Resets the latency values and starts accumulating value counts for the next interval.
+     * Resets the latency values and starts accumulating value counts for the next interval. The returned histogram may be
+     * recycled by the next call, so it has to be copied if it is needed afterwards.
+     *
+     * A probe which doesn't record latency values returns an empty {@link Histogram}, its operations are retrieved via
+     * {@link #getIntervalCount()}.
      *
      * @return a {@link Histogram} containing the latency values accumulated since the last interval histogram was taken
      */
     Histogram getIntervalHistogram();
+
+    /**
+     * Get the number of operations which have been recorded since the last interval count was taken.
+     *
+     * Only probes which don't record latency values count their operations this way. A latency probe always returns <tt>0</tt>,
+     * since its operation count is part of its interval {@link Histogram}.
+     *
+     * @return the number of operations recorded since the last interval count was taken
+     */
+    long getIntervalCount();
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes;
+
+/**
+ * Single-threaded handle of a {@link Probe}, which keeps the start timestamp of a latency measurement in a primitive field.
+ *
+ * In contrast to {@link Probe#started()} and {@link Probe#done()} this handle needs no allocation and no {@link ThreadLocal}
+ * lookup per measurement. A handle must not be shared between threads, so create one instance per worker thread via
+ * {@link Probe#threadHandle()}.
+ */
+public interface ProbeHandle {
+
+    /**
+     * Counts an operation and returns if its latency has to be measured.
+     *
+     * With a latency sample rate of N this method returns <tt>true</tt> for every Nth call, so the sampling is deterministic and
+     * independent of the measured values. The operations which are not sampled must not be recorded, since each recorded value
+     * accounts for N operations. The method always returns <tt>true</tt> for a sample rate of 1.
+     *
+     * @return <tt>true</tt> if the latency of the operation has to be measured, <tt>false</tt> otherwise
+     * @see Probe#getLatencySampleRate()
+     */
+    boolean isSampled();
+
+    /**
+     * Starts a latency measurement.
+     */
+    void started();
+
+    /**
+     * Stops a latency measurement and records the value.
+     */
+    void done();
+
+    /**
+     * Stops a latency measurement and records the value, as well as the value corrected for coordinated omission.
+     *
+     * @param intendedStartNanos the intended start time of the measured operation as {@link System#nanoTime()} timestamp
+     * @see Probe#done(long)
+     */
+    void done(long intendedStartNanos);
+
+    /**
+     * Adds a latency value in nanoseconds to the probe result.
+     *
+     * The value is recorded with a count of the latency sample rate of the probe.
+     *
+     * @param latencyNanos latency value in nanoseconds
+     */
+    void recordValue(long latencyNanos);
+
+    /**
+     * Adds a latency value and a latency value corrected for coordinated omission in nanoseconds to the probe result.
+     *
+     * Both values are recorded with a count of the latency sample rate of the probe.
+     *
+     * @param latencyNanos          latency value in nanoseconds
+     * @param correctedLatencyNanos latency value since the intended start time in nanoseconds
+     * @see Probe#recordValue(long, long)
+     */
+    void recordValue(long latencyNanos, long correctedLatencyNanos);
+}
@@ -18,21 +18,42 @@ package com.hazelcast.simulator.probes;
 import org.HdrHistogram.Histogram;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public interface Result {
 
+    /**
+     * Steady state cut-off of a result which contains all intervals, since the steady state has not been reached.
+     */
+    long NO_STEADY_STATE = -1;
+
     String getTestName();
 
     long getInvocations();
 
     double getThroughput();
 
+    /**
+     * Returns the start of the intervals which are included in the result.
+     *
+     * The invocations, the throughput and the histograms cover the same intervals. The intervals before the cut-off are the
+     * warm-up of the test.
+     *
+     * @return the cut-off in milliseconds since the start of the test, <tt>0</tt> if no intervals have been excluded or
+     * {@link #NO_STEADY_STATE} if the steady state has not been reached
+     */
+    long getSteadyStateCutOff();
+
     boolean isEmpty();
 
     void addHistogram(String probeName, Histogram histogram);
 
+    void addHistogram(String probeName, Histogram histogram, TimeUnit latencyUnit);
+
     Histogram getHistogram(String probeName);
 
+    TimeUnit getLatencyUnit(String probeName);
+
     Set<String> probeNames();
 
     String toHumanString(String probeName);
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.binary;
+
+import com.hazelcast.simulator.probes.Result;
+import com.hazelcast.simulator.probes.impl.ResultImpl;
+import com.hazelcast.simulator.probes.xml.ResultXmlUtils;
+import com.hazelcast.simulator.utils.FileUtilsException;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static org.HdrHistogram.Histogram.decodeFromCompressedByteBuffer;
+
+/**
+ * Reads and writes a {@link Result} in a compact binary format.
+ *
+ * The format consists of a small header with the test name, the invocations, the throughput and the steady state cut-off,
+ * followed by one record per probe with its name, its latency unit and its histogram in the compressed encoding of HdrHistogram.
+ * All values are written and read as a stream, so no intermediate document is built and only a single histogram is decoded at a
+ * time.
+ *
+ * Files of version 1 have no steady state cut-off and are read with a cut-off of <tt>0</tt>.
+ */
+public final class ResultBinaryUtils {
+
+    public static final String FILE_EXTENSION = ".bin";
+
+    static final int MAGIC_NUMBER = 0x53494D52;
+    static final int FORMAT_VERSION = 2;
+
+    private static final int FORMAT_VERSION_WITHOUT_CUT_OFF = 1;
+
+    private ResultBinaryUtils() {
+    }
+
+    public static void toBinary(Result result, File file) {
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(file);
+            toBinary(result, outputStream);
+        } catch (IOException e) {
+            throw new FileUtilsException("Could not write result to " + file, e);
+        } finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    public static void toBinary(Result result, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC_NUMBER);
+        out.writeInt(FORMAT_VERSION);
+        out.writeBoolean(result.getTestName() != null);
+        if (result.getTestName() != null) {
+            out.writeUTF(result.getTestName());
+        }
+        out.writeLong(result.getInvocations());
+        out.writeDouble(result.getThroughput());
+        out.writeLong(result.getSteadyStateCutOff());
+
+        out.writeInt(result.probeNames().size());
+        ByteBuffer buffer = null;
+        for (String probeName : result.probeNames()) {
+            Histogram histogram = result.getHistogram(probeName);
+            int neededCapacity = histogram.getNeededByteBufferCapacity();
+            if (buffer == null || buffer.capacity() < neededCapacity) {
+                buffer = ByteBuffer.allocate(neededCapacity);
+            }
+            buffer.clear();
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+
+            out.writeUTF(probeName);
+            out.writeUTF(result.getLatencyUnit(probeName).name());
+            out.writeInt(length);
+            out.write(buffer.array(), 0, length);
+        }
+        out.flush();
+    }
+
+    public static Result fromBinary(File file) {
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            return fromBinary(inputStream);
+        } catch (IOException e) {
+            throw new FileUtilsException("Could not read result from " + file, e);
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    public static Result fromBinary(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        int magicNumber = in.readInt();
+        if (magicNumber != MAGIC_NUMBER) {
+            throw new IllegalArgumentException("Input is not a binary probe result");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITHOUT_CUT_OFF) {
+            throw new IllegalArgumentException("Unsupported binary probe result version " + version);
+        }
+        String testName = in.readBoolean() ? in.readUTF() : null;
+        long invocations = in.readLong();
+        double throughput = in.readDouble();
+        long steadyStateCutOff = (version == FORMAT_VERSION_WITHOUT_CUT_OFF) ? 0 : in.readLong();
+
+        Result result = new ResultImpl(testName, invocations, throughput, steadyStateCutOff);
+        int probeCount = in.readInt();
+        byte[] bytes = new byte[0];
+        for (int i = 0; i < probeCount; i++) {
+            String probeName = in.readUTF();
+            TimeUnit latencyUnit = TimeUnit.valueOf(in.readUTF());
+            int length = in.readInt();
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            in.readFully(bytes, 0, length);
+            result.addHistogram(probeName, decodeHistogram(probeName, bytes, length), latencyUnit);
+        }
+        return result;
+    }
+
+    /**
+     * Reads a {@link Result} from a file in the binary or in the XML format.
+     *
+     * @param file the result file
+     * @return the {@link Result}
+     */
+    public static Result fromFile(File file) {
+        if (isBinary(file)) {
+            return fromBinary(file);
+        }
+        return ResultXmlUtils.fromXml(file);
+    }
+
+    /**
+     * Converts a result file from the XML format to the binary format.
+     *
+     * @param xmlFile    the result file in the XML format
+     * @param binaryFile the target file in the binary format
+     */
+    public static void convertXmlToBinary(File xmlFile, File binaryFile) {
+        Result result = ResultXmlUtils.fromXml(xmlFile);
+        toBinary(result, binaryFile);
+    }
+
+    static boolean isBinary(File file) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(file));
+            return in.readInt() == MAGIC_NUMBER;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private static Histogram decodeHistogram(String probeName, byte[] bytes, int length) {
+        try {
+            return decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes, 0, length), 0);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not decode histogram of probe " + probeName, e);
+        }
+    }
+}
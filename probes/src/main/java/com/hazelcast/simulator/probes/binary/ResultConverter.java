@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.binary;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.FILE_EXTENSION;
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.convertXmlToBinary;
+import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
+
+/**
+ * Converts probe result files from the XML format to the binary format.
+ *
+ * Each given XML file is converted into a file with the same name and the extension {@value ResultBinaryUtils#FILE_EXTENSION}
+ * in the same directory.
+ */
+public final class ResultConverter {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultConverter.class);
+
+    private ResultConverter() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            convert(args);
+        } catch (Exception e) {
+            exitWithError(LOGGER, "Could not convert probe results!", e);
+        }
+    }
+
+    static void convert(String[] fileNames) {
+        if (fileNames.length == 0) {
+            throw new CommandLineExitException("Usage: ResultConverter <probes.xml> [<probes.xml> ...]");
+        }
+
+        for (String fileName : fileNames) {
+            File xmlFile = new File(fileName);
+            File binaryFile = getBinaryFile(xmlFile);
+            convertXmlToBinary(xmlFile, binaryFile);
+            LOGGER.info("Converted " + xmlFile + " to " + binaryFile);
+        }
+    }
+
+    static File getBinaryFile(File xmlFile) {
+        String fileName = xmlFile.getName();
+        int extensionIndex = fileName.lastIndexOf('.');
+        String baseName = (extensionIndex > 0) ? fileName.substring(0, extensionIndex) : fileName;
+        return new File(xmlFile.getParentFile(), baseName + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.ProbeHandle;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Counts the operations of a single thread in a primitive field.
+ *
+ * The recording methods must only be called by a single thread. The counter is published with an ordered store, which is cheaper
+ * than a volatile write or an atomic increment, and read by the thread which calls {@link CounterProbeImpl#getIntervalCount()}.
+ * The first counting thread becomes the owner of the handle, so the probe can release the handle after that thread has
+ * terminated.
+ */
+final class CounterProbeHandleImpl implements ProbeHandle {
+
+    private static final AtomicLongFieldUpdater<CounterProbeHandleImpl> COUNT
+            = AtomicLongFieldUpdater.newUpdater(CounterProbeHandleImpl.class, "count");
+
+    private volatile long count;
+    private volatile Thread owner;
+
+    @Override
+    public boolean isSampled() {
+        // a counter has no latency sampling, so each operation is recorded
+        return true;
+    }
+
+    @Override
+    public void started() {
+    }
+
+    @Override
+    public void done() {
+        increment();
+    }
+
+    @Override
+    public void done(long intendedStartNanos) {
+        increment();
+    }
+
+    @Override
+    public void recordValue(long latencyNanos) {
+        increment();
+    }
+
+    @Override
+    public void recordValue(long latencyNanos, long correctedLatencyNanos) {
+        increment();
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    boolean isOwnerTerminated() {
+        Thread thread = owner;
+        return thread != null && !thread.isAlive();
+    }
+
+    private void increment() {
+        if (owner == null) {
+            owner = Thread.currentThread();
+        }
+        COUNT.lazySet(this, count + 1);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_PRECISION;
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
+
+/**
+ * Counts the operations of a test without measuring their latency.
+ *
+ * Each {@link ProbeHandle} created by {@link #threadHandle()} increments its own primitive counter, so concurrent worker threads
+ * neither contend on a shared counter nor call {@link System#nanoTime()}. Values recorded via {@link #recordValue(long)} and
+ * asynchronous measurements are counted in a shared {@link AtomicLong}, since they can be recorded by arbitrary threads. The
+ * counters of all handles are summed up on each call of {@link #getIntervalCount()}. A handle is released once the thread which
+ * counted into it has terminated, and its final count is kept as retired count.
+ *
+ * Since there are no latency values, {@link #getIntervalHistogram()} just returns an empty histogram.
+ */
+public class CounterProbeImpl implements Probe {
+
+    private final AtomicLong sharedCount = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong inFlightSum = new AtomicLong();
+    private final AtomicLong inFlightSamples = new AtomicLong();
+    private final List<CounterProbeHandleImpl> handles = new CopyOnWriteArrayList<CounterProbeHandleImpl>();
+    private final ThreadLocal<ProbeHandle> threadLocalHandle = new ThreadLocal<ProbeHandle>() {
+        @Override
+        protected ProbeHandle initialValue() {
+            return threadHandle();
+        }
+    };
+
+    private final boolean isThroughputProbe;
+
+    private long retiredCount;
+    private long lastTotalCount;
+
+    public CounterProbeImpl(boolean isThroughputProbe) {
+        this.isThroughputProbe = isThroughputProbe;
+    }
+
+    @Override
+    public boolean isThroughputProbe() {
+        return isThroughputProbe;
+    }
+
+    @Override
+    public boolean isLatencyProbe() {
+        return false;
+    }
+
+    @Override
+    public TimeUnit getLatencyUnit() {
+        return LATENCY_UNIT;
+    }
+
+    @Override
+    public int getLatencySampleRate() {
+        return 1;
+    }
+
+    @Override
+    public void started() {
+    }
+
+    @Override
+    public void done() {
+        threadLocalHandle.get().done();
+    }
+
+    @Override
+    public void done(long intendedStartNanos) {
+        threadLocalHandle.get().done();
+    }
+
+    @Override
+    public long startAsync() {
+        inFlightSum.addAndGet(inFlight.incrementAndGet());
+        inFlightSamples.incrementAndGet();
+        return 0;
+    }
+
+    @Override
+    public void doneAsync(long startToken) {
+        inFlight.decrementAndGet();
+        sharedCount.incrementAndGet();
+    }
+
+    @Override
+    public void doneAsync(long startToken, long intendedStartNanos) {
+        doneAsync(startToken);
+    }
+
+    @Override
+    public void abortAsync() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getIntervalAverageInFlightCount() {
+        long samples = inFlightSamples.getAndSet(0);
+        long sum = inFlightSum.getAndSet(0);
+        return (samples == 0) ? 0 : (double) sum / samples;
+    }
+
+    @Override
+    public ProbeHandle threadHandle() {
+        CounterProbeHandleImpl handle = new CounterProbeHandleImpl();
+        handles.add(handle);
+        return handle;
+    }
+
+    @Override
+    public void recordValue(long latencyNanos) {
+        sharedCount.incrementAndGet();
+    }
+
+    @Override
+    public void recordValue(long latencyNanos, long correctedLatencyNanos) {
+        sharedCount.incrementAndGet();
+    }
+
+    @Override
+    public Histogram getIntervalHistogram() {
+        return new Histogram(LATENCY_PRECISION);
+    }
+
+    int getHandleCount() {
+        return handles.size();
+    }
+
+    @Override
+    public synchronized long getIntervalCount() {
+        long totalCount = sharedCount.get();
+        for (CounterProbeHandleImpl handle : handles) {
+            // the termination is checked first, so the last increments of the owner are included before the handle is released
+            if (handle.isOwnerTerminated()) {
+                retiredCount += handle.getCount();
+                handles.remove(handle);
+            } else {
+                totalCount += handle.getCount();
+            }
+        }
+        totalCount += retiredCount;
+        long intervalCount = totalCount - lastTotalCount;
+        lastTotalCount = totalCount;
+        return intervalCount;
+    }
+}
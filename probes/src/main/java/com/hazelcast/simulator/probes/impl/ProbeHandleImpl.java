@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.ProbeHandle;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+/**
+ * Stores the start timestamp of a latency measurement in a primitive field and records the values into its own
+ * {@link SingleWriterRecorder}.
+ *
+ * The histograms of the recorder are auto-resizing, so they just cover the range of the recorded values. The values are clamped
+ * by {@link ProbeImpl#toRecordableValue(long)}, so the histograms never grow beyond the range of the probe.
+ *
+ * With a latency sample rate of N, {@link #isSampled()} counts down the operations and selects every Nth operation for a
+ * measurement. Each value is recorded with a count of N.
+ *
+ * The recording methods must only be called by a single thread. The interval histogram is taken by the thread which calls
+ * {@link ProbeImpl#getIntervalHistogram()}. The first recording thread becomes the owner of the handle, so the probe can release
+ * the handle after that thread has terminated.
+ */
+final class ProbeHandleImpl implements ProbeHandle {
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final ProbeImpl probe;
+    private final ProbeHandleImpl correctedHandle;
+    private final SingleWriterRecorder recorder;
+    private final int sampleRate;
+
+    private volatile Thread owner;
+
+    private long started = NOT_STARTED;
+    private int samplingCountdown;
+
+    ProbeHandleImpl(ProbeImpl probe, ProbeHandleImpl correctedHandle, int numberOfSignificantValueDigits, int sampleRate) {
+        this.probe = probe;
+        this.correctedHandle = correctedHandle;
+        this.recorder = new SingleWriterRecorder(numberOfSignificantValueDigits);
+        this.sampleRate = sampleRate;
+        this.samplingCountdown = sampleRate;
+    }
+
+    @Override
+    public boolean isSampled() {
+        if (--samplingCountdown > 0) {
+            return false;
+        }
+        samplingCountdown = sampleRate;
+        return true;
+    }
+
+    @Override
+    public void started() {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void done() {
+        long now = System.nanoTime();
+        if (started == NOT_STARTED) {
+            throw new IllegalStateException("You have to call started() before done()");
+        }
+        recordValue(now - started);
+    }
+
+    @Override
+    public void done(long intendedStartNanos) {
+        long now = System.nanoTime();
+        if (started == NOT_STARTED) {
+            throw new IllegalStateException("You have to call started() before done()");
+        }
+        recordValue(now - started, now - intendedStartNanos);
+    }
+
+    @Override
+    public void recordValue(long latencyNanos) {
+        bindOwner();
+        recorder.recordValueWithCount(probe.toRecordableValue(latencyNanos), sampleRate);
+    }
+
+    @Override
+    public void recordValue(long latencyNanos, long correctedLatencyNanos) {
+        bindOwner();
+        recorder.recordValueWithCount(probe.toRecordableValue(latencyNanos), sampleRate);
+        if (correctedHandle != null) {
+            correctedHandle.recordValue(correctedLatencyNanos);
+        }
+    }
+
+    /**
+     * Checks if the owner of the handle has terminated, so no more values will be recorded.
+     *
+     * All values recorded by the owner are visible to the calling thread, if this method returns <tt>true</tt>.
+     *
+     * @return <tt>true</tt> if the owner thread has terminated, <tt>false</tt> otherwise
+     */
+    boolean isOwnerTerminated() {
+        Thread thread = owner;
+        return thread != null && !thread.isAlive();
+    }
+
+    /**
+     * Adds the interval histogram of the handle to the target histogram.
+     *
+     * @param targetHistogram  the {@link Histogram} to add the interval histogram to
+     * @param scratchHistogram an auto-resizing {@link Histogram} which is overwritten with the interval histogram
+     */
+    void addIntervalHistogramTo(Histogram targetHistogram, Histogram scratchHistogram) {
+        recorder.getIntervalHistogramInto(scratchHistogram);
+        targetHistogram.add(scratchHistogram);
+    }
+
+    private void bindOwner() {
+        if (owner == null) {
+            owner = Thread.currentThread();
+        }
+    }
+}
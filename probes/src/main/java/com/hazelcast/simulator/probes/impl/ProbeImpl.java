@@ -16,26 +16,99 @@
 package com.hazelcast.simulator.probes.impl;
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.Recorder;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Measures the latency distribution of a test.
+ *
+ * Values recorded via {@link #recordValue(long)} are stored in a shared {@link Recorder}. Each {@link ProbeHandle} created by
+ * {@link #threadHandle()} has its own single-writer recorder, so concurrent worker threads do not contend on a shared recorder.
+ * The interval histograms of all recorders are merged on each call of {@link #getIntervalHistogram()} into the interval
+ * histogram of the shared recorder, which is recycled by the next call, so no histograms are allocated per interval. A handle is
+ * released after its last interval histogram has been merged, once the thread which recorded into it has terminated. So handles
+ * of short-lived threads, e.g. created by {@link #started()} and {@link #done()} on pooled callback threads, do not accumulate.
+ *
+ * The two histograms of a handle are auto-resizing, so their footprint depends on the largest recorded value and the number of
+ * significant digits. With the default of {@value #LATENCY_PRECISION} significant digits a histogram takes 256 KB for values
+ * below 32768 and 128 KB more for each doubling of the largest value. So a handle takes about 0.5 MB if the latencies stay
+ * below 32 ms (in microseconds) and up to 3.4 MB if a latency reaches the default range of {@value #MAXIMUM_LATENCY_SECONDS}
+ * seconds. With one significant digit less a handle takes about a tenth of this. A worker thread has a handle per probe it
+ * records into, e.g. the worker probe, the per-operation probes and their corrected probes.
+ *
+ * Asynchronous measurements via {@link #startAsync()} and {@link #doneAsync(long)} are also recorded in the shared
+ * {@link Recorder}, since they are finished by arbitrary threads.
+ *
+ * The latency values are recorded in a configurable {@link TimeUnit} (nanoseconds, microseconds or milliseconds) up to a
+ * highest trackable value, which is expressed in the same unit. Larger values are clamped to the highest trackable value.
+ *
+ * For operations which are as fast as the latency measurement itself, a latency sample rate can be configured via
+ * {@link #setLatencySampleRate(int)}. The {@link ProbeHandle} instances then just time one in N operations and record each value
+ * with a count of N. Values which are recorded directly to the probe are not sampled.
  */
 public class ProbeImpl implements Probe {
 
-    public static final long MAXIMUM_LATENCY = TimeUnit.SECONDS.toMicros(60);
+    public static final TimeUnit LATENCY_UNIT = TimeUnit.MICROSECONDS;
+    public static final long MAXIMUM_LATENCY_SECONDS = 60;
+    public static final long MAXIMUM_LATENCY = LATENCY_UNIT.convert(MAXIMUM_LATENCY_SECONDS, TimeUnit.SECONDS);
     public static final int LATENCY_PRECISION = 4;
 
-    private final Recorder recorder = new Recorder(MAXIMUM_LATENCY, LATENCY_PRECISION);
-    private final ThreadLocal<Long> threadLocalStarted = new ThreadLocal<Long>();
+    private final Recorder recorder;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong inFlightSum = new AtomicLong();
+    private final AtomicLong inFlightSamples = new AtomicLong();
+    private final List<ProbeHandleImpl> handles = new CopyOnWriteArrayList<ProbeHandleImpl>();
+    private final ThreadLocal<ProbeHandle> threadLocalHandle = new ThreadLocal<ProbeHandle>() {
+        @Override
+        protected ProbeHandle initialValue() {
+            return threadHandle();
+        }
+    };
 
+    // the interval histograms of the handles are copied into this histogram before they are merged
+    private final Histogram handleHistogram;
+    // the last interval histogram, which is recycled by the recorder on the next call of getIntervalHistogram()
+    private Histogram intervalHistogram;
     private final boolean isThroughputProbe;
+    private final TimeUnit latencyUnit;
+    private final long highestTrackableValue;
+    private final int significantDigits;
+
+    private volatile ProbeImpl correctedProbe;
+    private volatile int latencySampleRate = 1;
 
     public ProbeImpl(boolean isThroughputProbe) {
+        this(isThroughputProbe, LATENCY_UNIT, MAXIMUM_LATENCY, LATENCY_PRECISION);
+    }
+
+    /**
+     * Creates a probe with a custom resolution and range.
+     *
+     * @param isThroughputProbe     <tt>true</tt> if the probe is relevant for throughput, <tt>false</tt> otherwise
+     * @param latencyUnit           the {@link TimeUnit} of the recorded values (nanoseconds, microseconds or milliseconds)
+     * @param highestTrackableValue the highest trackable value in the given {@link TimeUnit},
+     *                              or <tt>0</tt> to use {@value #MAXIMUM_LATENCY_SECONDS} seconds
+     * @param significantDigits     the number of significant decimal digits of the recorded values (0 to 5)
+     */
+    public ProbeImpl(boolean isThroughputProbe, TimeUnit latencyUnit, long highestTrackableValue, int significantDigits) {
+        checkLatencyUnit(latencyUnit);
+        if (highestTrackableValue < 0) {
+            throw new IllegalArgumentException("Highest trackable value must not be negative, but was " + highestTrackableValue);
+        }
+
         this.isThroughputProbe = isThroughputProbe;
+        this.latencyUnit = latencyUnit;
+        this.highestTrackableValue = (highestTrackableValue == 0)
+                ? latencyUnit.convert(MAXIMUM_LATENCY_SECONDS, TimeUnit.SECONDS) : highestTrackableValue;
+        this.significantDigits = significantDigits;
+        this.recorder = new Recorder(this.highestTrackableValue, significantDigits);
+        this.handleHistogram = new Histogram(significantDigits);
     }
 
     @Override
@@ -43,30 +116,168 @@ public class ProbeImpl implements Probe {
         return isThroughputProbe;
     }
 
+    @Override
+    public boolean isLatencyProbe() {
+        return true;
+    }
+
+    @Override
+    public TimeUnit getLatencyUnit() {
+        return latencyUnit;
+    }
+
+    @Override
+    public int getLatencySampleRate() {
+        return latencySampleRate;
+    }
+
+    /**
+     * Sets the latency sample rate of the probe and its corrected probe.
+     *
+     * The sample rate should be set before the first {@link ProbeHandle} is created, since existing handles keep their rate.
+     *
+     * @param latencySampleRate the number of operations per timed operation, <tt>1</tt> to time all operations
+     * @see Probe#getLatencySampleRate()
+     */
+    public void setLatencySampleRate(int latencySampleRate) {
+        if (latencySampleRate < 1) {
+            throw new IllegalArgumentException("Latency sample rate must be at least 1, but was " + latencySampleRate);
+        }
+        this.latencySampleRate = latencySampleRate;
+        ProbeImpl corrected = correctedProbe;
+        if (corrected != null) {
+            corrected.setLatencySampleRate(latencySampleRate);
+        }
+    }
+
     @Override
     public void started() {
-        long now = System.nanoTime();
-        threadLocalStarted.set(now);
+        threadLocalHandle.get().started();
     }
 
     @Override
     public void done() {
+        threadLocalHandle.get().done();
+    }
+
+    @Override
+    public void done(long intendedStartNanos) {
+        threadLocalHandle.get().done(intendedStartNanos);
+    }
+
+    @Override
+    public long startAsync() {
+        inFlightSum.addAndGet(inFlight.incrementAndGet());
+        inFlightSamples.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void doneAsync(long startToken) {
         long now = System.nanoTime();
-        Long started = threadLocalStarted.get();
-        if (started == null) {
-            throw new IllegalStateException("You have to call started() before done()");
-        }
-        recordValue(now - started);
+        inFlight.decrementAndGet();
+        recorder.recordValue(toRecordableValue(now - startToken));
+    }
+
+    @Override
+    public void doneAsync(long startToken, long intendedStartNanos) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        recordValue(now - startToken, now - intendedStartNanos);
+    }
+
+    @Override
+    public void abortAsync() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getIntervalAverageInFlightCount() {
+        long samples = inFlightSamples.getAndSet(0);
+        long sum = inFlightSum.getAndSet(0);
+        return (samples == 0) ? 0 : (double) sum / samples;
+    }
+
+    @Override
+    public ProbeHandle threadHandle() {
+        ProbeImpl corrected = correctedProbe;
+        ProbeHandleImpl correctedHandle = (corrected == null) ? null : (ProbeHandleImpl) corrected.threadHandle();
+        ProbeHandleImpl handle = new ProbeHandleImpl(this, correctedHandle, significantDigits, latencySampleRate);
+        handles.add(handle);
+        return handle;
     }
 
     @Override
     public void recordValue(long latencyNanos) {
-        int latencyMicros = (int) TimeUnit.NANOSECONDS.toMicros(latencyNanos);
-        recorder.recordValue(latencyMicros > MAXIMUM_LATENCY ? MAXIMUM_LATENCY : (latencyMicros < 0 ? 0 : latencyMicros));
+        recorder.recordValue(toRecordableValue(latencyNanos));
+    }
+
+    @Override
+    public void recordValue(long latencyNanos, long correctedLatencyNanos) {
+        recordValue(latencyNanos);
+        ProbeImpl corrected = correctedProbe;
+        if (corrected != null) {
+            corrected.recordValue(correctedLatencyNanos);
+        }
     }
 
     @Override
     public Histogram getIntervalHistogram() {
-        return recorder.getIntervalHistogram();
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        for (ProbeHandleImpl handle : handles) {
+            // the termination is checked first, so the last values of the owner are included before the handle is released
+            boolean isOwnerTerminated = handle.isOwnerTerminated();
+            handle.addIntervalHistogramTo(intervalHistogram, handleHistogram);
+            if (isOwnerTerminated) {
+                handles.remove(handle);
+            }
+        }
+        return intervalHistogram;
+    }
+
+    @Override
+    public long getIntervalCount() {
+        // the operation count of a latency probe is part of its interval histogram
+        return 0;
+    }
+
+    /**
+     * Returns the probe which records the latencies of this probe corrected for coordinated omission.
+     *
+     * The corrected probe is created on the first call with the same latency unit, range, precision and latency sample rate. It
+     * is never used for throughput calculation, since it records the same operations as this probe. It should be created before
+     * the first {@link ProbeHandle} is created, since existing handles will not record into it.
+     *
+     * @return the {@link Probe} for the corrected latency values
+     */
+    public synchronized Probe getOrCreateCorrectedProbe() {
+        if (correctedProbe == null) {
+            ProbeImpl corrected = new ProbeImpl(false, latencyUnit, highestTrackableValue, significantDigits);
+            corrected.latencySampleRate = latencySampleRate;
+            correctedProbe = corrected;
+        }
+        return correctedProbe;
+    }
+
+    int getHandleCount() {
+        return handles.size();
+    }
+
+    long toRecordableValue(long latencyNanos) {
+        long latency = latencyUnit.convert(latencyNanos, TimeUnit.NANOSECONDS);
+        return latency > highestTrackableValue ? highestTrackableValue : (latency < 0 ? 0 : latency);
+    }
+
+    private static void checkLatencyUnit(TimeUnit latencyUnit) {
+        if (latencyUnit != TimeUnit.NANOSECONDS && latencyUnit != TimeUnit.MICROSECONDS
+                && latencyUnit != TimeUnit.MILLISECONDS) {
+            throw new IllegalArgumentException("Latency unit must be NANOSECONDS, MICROSECONDS or MILLISECONDS, but was "
+                    + latencyUnit);
+        }
     }
 }
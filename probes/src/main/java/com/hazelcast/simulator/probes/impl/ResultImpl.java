@@ -23,23 +23,34 @@ import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.lang.String.format;
 
 public class ResultImpl implements Result {
 
     private final String testName;
     private final long invocations;
     private final double throughput;
+    private final long steadyStateCutOff;
 
     private final Map<String, Histogram> probeHistogramMap;
+    private final Map<String, TimeUnit> probeLatencyUnitMap;
 
     public ResultImpl(String testName, long invocations, double throughput) {
+        this(testName, invocations, throughput, 0);
+    }
+
+    public ResultImpl(String testName, long invocations, double throughput, long steadyStateCutOff) {
         this.testName = testName;
         this.invocations = invocations;
         this.throughput = throughput;
+        this.steadyStateCutOff = steadyStateCutOff;
 
         this.probeHistogramMap = new HashMap<String, Histogram>();
+        this.probeLatencyUnitMap = new HashMap<String, TimeUnit>();
     }
 
     @Override
@@ -57,6 +68,11 @@ public class ResultImpl implements Result {
         return throughput;
     }
 
+    @Override
+    public long getSteadyStateCutOff() {
+        return steadyStateCutOff;
+    }
+
     @Override
     public boolean isEmpty() {
         return probeHistogramMap.isEmpty();
@@ -64,10 +80,22 @@ public class ResultImpl implements Result {
 
     @Override
     public void addHistogram(String probeName, Histogram histogram) {
+        addHistogram(probeName, histogram, LATENCY_UNIT);
+    }
+
+    @Override
+    public void addHistogram(String probeName, Histogram histogram, TimeUnit latencyUnit) {
         if (histogram == null) {
             return;
         }
 
+        TimeUnit existingLatencyUnit = getLatencyUnit(probeName);
+        if (probeHistogramMap.containsKey(probeName) && existingLatencyUnit != latencyUnit) {
+            throw new IllegalArgumentException(format("Cannot add histogram with latency unit %s to probe %s with unit %s",
+                    latencyUnit, probeName, existingLatencyUnit));
+        }
+        probeLatencyUnitMap.put(probeName, latencyUnit);
+
         Histogram candidate = probeHistogramMap.get(probeName);
         if (candidate == null) {
             probeHistogramMap.put(probeName, histogram);
@@ -82,6 +110,13 @@ public class ResultImpl implements Result {
         return probeHistogramMap.get(probeName);
     }
 
+    @Override
+    public TimeUnit getLatencyUnit(String probeName) {
+        // the map is null if the result was deserialized from a file without latency units
+        TimeUnit latencyUnit = (probeLatencyUnitMap == null) ? null : probeLatencyUnitMap.get(probeName);
+        return (latencyUnit == null) ? LATENCY_UNIT : latencyUnit;
+    }
+
     @Override
     public Set<String> probeNames() {
         return probeHistogramMap.keySet();
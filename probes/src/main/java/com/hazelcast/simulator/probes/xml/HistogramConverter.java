@@ -23,6 +23,7 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import org.HdrHistogram.Histogram;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static org.HdrHistogram.Histogram.decodeFromCompressedByteBuffer;
 import static org.apache.commons.codec.binary.Base64.decodeBase64;
@@ -41,9 +42,8 @@ final class HistogramConverter implements Converter {
         int size = histogram.getNeededByteBufferCapacity();
         ByteBuffer byteBuffer = ByteBuffer.allocate(size);
         int bytesWritten = histogram.encodeIntoCompressedByteBuffer(byteBuffer);
-        byteBuffer.rewind();
-        byteBuffer.limit(bytesWritten);
-        String encodedHistogram = encodeBase64String(byteBuffer.array());
+        // just encode the written bytes, not the whole uncompressed capacity of the buffer
+        String encodedHistogram = encodeBase64String(Arrays.copyOf(byteBuffer.array(), bytesWritten));
 
         writer.setValue(encodedHistogram);
     }
@@ -24,6 +24,7 @@ import com.thoughtworks.xstream.mapper.Mapper;
 import org.HdrHistogram.Histogram;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
 
@@ -57,6 +58,10 @@ public final class ResultXmlUtils {
         xStream.alias("histogram", Histogram.class);
         xStream.aliasField("histograms", ResultImpl.class, "probeHistogramMap");
 
+        xStream.registerLocalConverter(ResultImpl.class, "probeLatencyUnitMap",
+                new NamedMapConverter(mapper, null, "name", String.class, "unit", TimeUnit.class));
+        xStream.aliasField("latencyUnits", ResultImpl.class, "probeLatencyUnitMap");
+
         return xStream;
     }
 }
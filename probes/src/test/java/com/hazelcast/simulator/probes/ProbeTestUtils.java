@@ -66,12 +66,14 @@ public final class ProbeTestUtils {
     public static void assertEqualsResult(Result firstResult, Result secondResult) {
         assertEquals(firstResult.getInvocations(), secondResult.getInvocations());
         assertEquals(firstResult.getThroughput(), secondResult.getThroughput(), 0.0001);
+        assertEquals(firstResult.getSteadyStateCutOff(), secondResult.getSteadyStateCutOff());
         assertEquals(firstResult.probeNames(), secondResult.probeNames());
 
         for (String probeName : firstResult.probeNames()) {
             Histogram firstHistogram = firstResult.getHistogram(probeName);
             Histogram secondHistogram = secondResult.getHistogram(probeName);
             assertEquals(firstHistogram, secondHistogram);
+            assertEquals(firstResult.getLatencyUnit(probeName), secondResult.getLatencyUnit(probeName));
         }
     }
 
@@ -0,0 +1,216 @@
+package com.hazelcast.simulator.probes.binary;
+
+import com.hazelcast.simulator.probes.Result;
+import com.hazelcast.simulator.probes.impl.ResultImpl;
+import com.hazelcast.simulator.probes.xml.ResultXmlUtils;
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.utils.FileUtilsException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.probes.ProbeTestUtils.assertEqualsResult;
+import static com.hazelcast.simulator.probes.ProbeTestUtils.createProbeResult;
+import static com.hazelcast.simulator.probes.ProbeTestUtils.createRandomHistogram;
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.convertXmlToBinary;
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.fromBinary;
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.fromFile;
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.isBinary;
+import static com.hazelcast.simulator.probes.binary.ResultBinaryUtils.toBinary;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultBinaryUtilsTest {
+
+    private final File binaryFile = new File("tmpProbeResult.bin");
+    private final File xmlFile = new File("tmpProbeResult.xml");
+
+    @After
+    public void tearDown() {
+        deleteQuiet(binaryFile);
+        deleteQuiet(xmlFile);
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        invokePrivateConstructor(ResultBinaryUtils.class);
+    }
+
+    @Test
+    public void testProbeResult() {
+        Result expected = createProbeResult(1);
+        Result actual = serializeAndDeserializeAgain(expected);
+        assertEqualsResult(expected, actual);
+        assertEquals(expected.getTestName(), actual.getTestName());
+    }
+
+    @Test
+    public void testProbeResult_multipleProbes() {
+        Result expected = createProbeResult(3);
+        Result actual = serializeAndDeserializeAgain(expected);
+        assertEqualsResult(expected, actual);
+    }
+
+    @Test
+    public void testProbeResult_emptyResult() {
+        Result expected = createProbeResult(0);
+        Result actual = serializeAndDeserializeAgain(expected);
+        assertEqualsResult(expected, actual);
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void testProbeResult_withoutTestName() {
+        Result expected = new ResultImpl(null, 1000, 500.0);
+        Result actual = serializeAndDeserializeAgain(expected);
+        assertNull(actual.getTestName());
+    }
+
+    @Test
+    public void testProbeResult_withSteadyStateCutOff() {
+        Result expected = new ResultImpl("ResultBinaryUtilsTest", 1000, 500.0, 20000);
+        Result actual = serializeAndDeserializeAgain(expected);
+
+        assertEquals(20000, actual.getSteadyStateCutOff());
+    }
+
+    @Test
+    public void testFromBinary_versionWithoutSteadyStateCutOff() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(ResultBinaryUtils.MAGIC_NUMBER);
+        out.writeInt(1);
+        out.writeBoolean(false);
+        out.writeLong(1000);
+        out.writeDouble(500.0);
+        out.writeInt(0);
+        out.flush();
+
+        Result actual = fromBinary(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(1000, actual.getInvocations());
+        assertEquals(500.0, actual.getThroughput(), 0.0001);
+        assertEquals(0, actual.getSteadyStateCutOff());
+    }
+
+    @Test
+    public void testProbeResult_withLatencyUnits() {
+        Result expected = createProbeResult(1);
+        expected.addHistogram("nanosProbe", createRandomHistogram(100), TimeUnit.NANOSECONDS);
+        expected.addHistogram("millisProbe", createRandomHistogram(100), TimeUnit.MILLISECONDS);
+
+        Result actual = serializeAndDeserializeAgain(expected);
+
+        assertEqualsResult(expected, actual);
+        assertEquals(TimeUnit.NANOSECONDS, actual.getLatencyUnit("nanosProbe"));
+        assertEquals(TimeUnit.MILLISECONDS, actual.getLatencyUnit("millisProbe"));
+    }
+
+    @Test
+    public void testProbeResult_isSmallerThanXml() {
+        Result result = createProbeResult(3);
+        toBinary(result, binaryFile);
+        ResultXmlUtils.toXml(result, xmlFile);
+
+        assertTrue(binaryFile.length() < xmlFile.length());
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        Result expected = createProbeResult(2);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        toBinary(expected, outputStream);
+
+        Result actual = fromBinary(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEqualsResult(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBinary_invalidMagicNumber() {
+        writeText("invalid binary result", binaryFile);
+
+        fromBinary(binaryFile);
+    }
+
+    @Test(expected = FileUtilsException.class)
+    public void testFromBinary_truncatedFile() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        toBinary(createProbeResult(1), outputStream);
+        FileOutputStream fileOutputStream = new FileOutputStream(binaryFile);
+        try {
+            fileOutputStream.write(outputStream.toByteArray(), 0, 12);
+        } finally {
+            fileOutputStream.close();
+        }
+
+        fromBinary(binaryFile);
+    }
+
+    @Test
+    public void testIsBinary() {
+        toBinary(createProbeResult(1), binaryFile);
+        ResultXmlUtils.toXml(createProbeResult(1), xmlFile);
+
+        assertTrue(isBinary(binaryFile));
+        assertFalse(isBinary(xmlFile));
+        assertFalse(isBinary(new File("notFound.bin")));
+    }
+
+    @Test
+    public void testFromFile() {
+        Result expected = createProbeResult(2);
+        toBinary(expected, binaryFile);
+        ResultXmlUtils.toXml(expected, xmlFile);
+
+        assertEqualsResult(expected, fromFile(binaryFile));
+        assertEqualsResult(expected, fromFile(xmlFile));
+    }
+
+    @Test
+    public void testConvertXmlToBinary() {
+        Result expected = createProbeResult(2);
+        expected.addHistogram("nanosProbe", createRandomHistogram(100), TimeUnit.NANOSECONDS);
+        ResultXmlUtils.toXml(expected, xmlFile);
+
+        convertXmlToBinary(xmlFile, binaryFile);
+
+        assertEqualsResult(expected, fromBinary(binaryFile));
+    }
+
+    @Test
+    public void testResultConverter() {
+        ResultXmlUtils.toXml(createProbeResult(1), xmlFile);
+
+        ResultConverter.convert(new String[]{xmlFile.getPath()});
+
+        assertTrue(isBinary(binaryFile));
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testResultConverter_noArguments() {
+        ResultConverter.convert(new String[0]);
+    }
+
+    @Test
+    public void testResultConverter_getBinaryFile() {
+        assertEquals(new File("dir", "probes-test.bin"), ResultConverter.getBinaryFile(new File("dir", "probes-test.xml")));
+        assertEquals(new File("probes-test.bin"), ResultConverter.getBinaryFile(new File("probes-test")));
+    }
+
+    private Result serializeAndDeserializeAgain(Result result) {
+        toBinary(result, binaryFile);
+        return fromBinary(binaryFile);
+    }
+}
@@ -0,0 +1,142 @@
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CounterProbeImplTest {
+
+    private CounterProbeImpl probe = new CounterProbeImpl(false);
+
+    @Test
+    public void testConstructor_throughputProbe() {
+        Probe tmpProbe = new CounterProbeImpl(true);
+        assertTrue(tmpProbe.isThroughputProbe());
+    }
+
+    @Test
+    public void testConstructor_noThroughputProbe() {
+        assertFalse(probe.isThroughputProbe());
+    }
+
+    @Test
+    public void testIsLatencyProbe() {
+        assertFalse(probe.isLatencyProbe());
+    }
+
+    @Test
+    public void testGetLatencyUnit() {
+        assertEquals(TimeUnit.MICROSECONDS, probe.getLatencyUnit());
+    }
+
+    @Test
+    public void testGetIntervalHistogram() {
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+        assertEquals(1, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testDone_withoutStarted() {
+        probe.done();
+        probe.done(System.nanoTime());
+
+        assertEquals(2, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testRecordValue() {
+        probe.recordValue(500);
+        probe.recordValue(500, 1000);
+
+        assertEquals(2, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testGetIntervalCount_isReset() {
+        probe.recordValue(500);
+        assertEquals(1, probe.getIntervalCount());
+        assertEquals(0, probe.getIntervalCount());
+
+        probe.recordValue(500);
+        assertEquals(1, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testThreadHandle() {
+        ProbeHandle handle = probe.threadHandle();
+        handle.started();
+        handle.done();
+        handle.done(System.nanoTime());
+        handle.recordValue(500);
+        handle.recordValue(500, 1000);
+        probe.recordValue(500);
+
+        assertEquals(5, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testThreadHandle_multipleThreads() throws Exception {
+        final int threadCount = 4;
+        final int countPerThread = 10000;
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    ProbeHandle handle = probe.threadHandle();
+                    for (int j = 0; j < countPerThread; j++) {
+                        handle.done();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * countPerThread, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testGetIntervalCount_releasesHandleOfTerminatedThread() throws Exception {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                probe.done();
+                probe.done();
+            }
+        };
+        thread.start();
+        thread.join();
+        probe.threadHandle().done();
+        assertEquals(2, probe.getHandleCount());
+
+        assertEquals(3, probe.getIntervalCount());
+        assertEquals(1, probe.getHandleCount());
+        assertEquals(0, probe.getIntervalCount());
+    }
+
+    @Test
+    public void testStartAsync_inFlightCount() {
+        long firstToken = probe.startAsync();
+        probe.startAsync();
+        probe.startAsync();
+        assertEquals(3, probe.getInFlightCount());
+
+        probe.doneAsync(firstToken);
+        probe.abortAsync();
+        assertEquals(1, probe.getInFlightCount());
+
+        assertEquals(1, probe.getIntervalCount());
+    }
+}
@@ -1,13 +1,17 @@
 package com.hazelcast.simulator.probes.impl;
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.probes.ProbeTestUtils.assertHistogram;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ProbeImplTest {
@@ -26,6 +30,63 @@ public class ProbeImplTest {
         assertFalse(tmpProbe.isThroughputProbe());
     }
 
+    @Test
+    public void testIsLatencyProbe() {
+        assertTrue(probe.isLatencyProbe());
+    }
+
+    @Test
+    public void testGetIntervalCount() {
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(0, probe.getIntervalCount());
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testConstructor_defaultLatencyUnit() {
+        assertEquals(TimeUnit.MICROSECONDS, probe.getLatencyUnit());
+    }
+
+    @Test
+    public void testConstructor_customLatencyUnit() {
+        Probe tmpProbe = new ProbeImpl(false, TimeUnit.NANOSECONDS, 0, 3);
+        assertEquals(TimeUnit.NANOSECONDS, tmpProbe.getLatencyUnit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalidLatencyUnit() {
+        new ProbeImpl(false, TimeUnit.SECONDS, 0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_negativeHighestTrackableValue() {
+        new ProbeImpl(false, TimeUnit.MILLISECONDS, -1, 3);
+    }
+
+    @Test
+    public void testRecordValue_nanoseconds() {
+        Probe tmpProbe = new ProbeImpl(false, TimeUnit.NANOSECONDS, 0, 3);
+        tmpProbe.recordValue(250);
+        tmpProbe.threadHandle().recordValue(750);
+
+        Histogram histogram = tmpProbe.getIntervalHistogram();
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(250, histogram.getMinValue());
+        assertTrue(histogram.valuesAreEquivalent(750, histogram.getMaxValue()));
+    }
+
+    @Test
+    public void testRecordValue_clampedToHighestTrackableValue() {
+        Probe tmpProbe = new ProbeImpl(false, TimeUnit.MILLISECONDS, TimeUnit.MINUTES.toMillis(10), 3);
+        tmpProbe.recordValue(TimeUnit.MINUTES.toNanos(5));
+        tmpProbe.recordValue(TimeUnit.MINUTES.toNanos(20));
+
+        Histogram histogram = tmpProbe.getIntervalHistogram();
+        assertTrue(histogram.valuesAreEquivalent(TimeUnit.MINUTES.toMillis(5), histogram.getMinValue()));
+        assertTrue(histogram.valuesAreEquivalent(TimeUnit.MINUTES.toMillis(10), histogram.getMaxValue()));
+    }
+
     @Test
     public void testDone_withStarted() {
         int expectedCount = 1;
@@ -43,6 +104,130 @@ public class ProbeImplTest {
         probe.done();
     }
 
+    @Test
+    public void testThreadHandle_doneWithStarted() {
+        int expectedCount = 1;
+        long expectedLatency = 150;
+
+        ProbeHandle handle = probe.threadHandle();
+        handle.started();
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(expectedLatency));
+        handle.done();
+
+        assertHistogram(probe.getIntervalHistogram(), expectedCount, expectedLatency, expectedLatency, expectedLatency);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThreadHandle_doneWithoutStarted() {
+        ProbeHandle handle = probe.threadHandle();
+        handle.done();
+    }
+
+    @Test
+    public void testThreadHandle_recordValues() {
+        int expectedCount = 2;
+        long expectedMinValue = 200;
+        long expectedMaxValue = 1000;
+        long expectedMeanValue = (expectedMinValue + expectedMaxValue) / expectedCount;
+
+        ProbeHandle handle = probe.threadHandle();
+        handle.recordValue(TimeUnit.MILLISECONDS.toNanos(expectedMinValue));
+        handle.recordValue(TimeUnit.MILLISECONDS.toNanos(expectedMaxValue));
+
+        assertHistogram(probe.getIntervalHistogram(), expectedCount, expectedMinValue, expectedMaxValue, expectedMeanValue);
+    }
+
+    @Test
+    public void testThreadHandle_clampedToHighestTrackableValue() {
+        ProbeImpl tmpProbe = new ProbeImpl(false, TimeUnit.MILLISECONDS, TimeUnit.MINUTES.toMillis(10), 3);
+        ProbeHandle handle = tmpProbe.threadHandle();
+        handle.recordValue(TimeUnit.MILLISECONDS.toNanos(1));
+        handle.recordValue(TimeUnit.MINUTES.toNanos(20));
+
+        Histogram histogram = tmpProbe.getIntervalHistogram();
+        assertTrue(histogram.valuesAreEquivalent(1, histogram.getMinValue()));
+        assertTrue(histogram.valuesAreEquivalent(TimeUnit.MINUTES.toMillis(10), histogram.getMaxValue()));
+    }
+
+    @Test
+    public void testThreadHandle_eachIntervalJustContainsItsValues() {
+        ProbeHandle handle1 = probe.threadHandle();
+        ProbeHandle handle2 = probe.threadHandle();
+        handle1.recordValue(TimeUnit.SECONDS.toNanos(10));
+        handle2.recordValue(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(2, probe.getIntervalHistogram().getTotalCount());
+
+        handle2.recordValue(TimeUnit.MILLISECONDS.toNanos(2));
+        Histogram histogram = probe.getIntervalHistogram();
+
+        assertEquals(1, histogram.getTotalCount());
+        assertTrue(histogram.valuesAreEquivalent(TimeUnit.MILLISECONDS.toMicros(2), histogram.getMaxValue()));
+    }
+
+    @Test
+    public void testThreadHandle_mergedIntoIntervalHistogram() throws Exception {
+        final ProbeHandle firstHandle = probe.threadHandle();
+        final ProbeHandle secondHandle = probe.threadHandle();
+
+        Thread firstThread = new Thread() {
+            @Override
+            public void run() {
+                firstHandle.recordValue(TimeUnit.MILLISECONDS.toNanos(200));
+            }
+        };
+        Thread secondThread = new Thread() {
+            @Override
+            public void run() {
+                secondHandle.recordValue(TimeUnit.MILLISECONDS.toNanos(1000));
+            }
+        };
+        firstThread.start();
+        secondThread.start();
+        firstThread.join();
+        secondThread.join();
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(600));
+
+        assertHistogram(probe.getIntervalHistogram(), 3, 200, 1000, 600);
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testGetIntervalHistogram_releasesHandleOfTerminatedThread() throws Exception {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                probe.started();
+                probe.done();
+            }
+        };
+        thread.start();
+        thread.join();
+        ProbeHandle unusedHandle = probe.threadHandle();
+        assertEquals(2, probe.getHandleCount());
+
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+        assertEquals(1, probe.getHandleCount());
+
+        unusedHandle.recordValue(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+        assertEquals(1, probe.getHandleCount());
+    }
+
+    @Test
+    public void testGetIntervalHistogram_recyclesHistogram() {
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(1));
+        Histogram firstHistogram = probe.getIntervalHistogram();
+        assertEquals(1, firstHistogram.getTotalCount());
+
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(2));
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(3));
+        assertEquals(2, probe.getIntervalHistogram().getTotalCount());
+
+        Histogram thirdHistogram = probe.getIntervalHistogram();
+        assertSame(firstHistogram, thirdHistogram);
+        assertEquals(0, thirdHistogram.getTotalCount());
+    }
+
     @Test
     public void testRecordValues() {
         int expectedCount = 3;
@@ -57,4 +242,177 @@ public class ProbeImplTest {
 
         assertHistogram(probe.getIntervalHistogram(), expectedCount, expectedMinValue, expectedMaxValue, expectedMeanValue);
     }
+
+    @Test
+    public void testGetOrCreateCorrectedProbe() {
+        Probe correctedProbe = probe.getOrCreateCorrectedProbe();
+
+        assertFalse(correctedProbe.isThroughputProbe());
+        assertEquals(probe.getLatencyUnit(), correctedProbe.getLatencyUnit());
+        assertSame(correctedProbe, probe.getOrCreateCorrectedProbe());
+    }
+
+    @Test
+    public void testRecordValue_withCorrectedValue() {
+        Probe correctedProbe = probe.getOrCreateCorrectedProbe();
+
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(500));
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertHistogram(probe.getIntervalHistogram(), 2, 200, 300, 250);
+        assertHistogram(correctedProbe.getIntervalHistogram(), 2, 500, 1000, 750);
+    }
+
+    @Test
+    public void testRecordValue_withCorrectedValue_noCorrectedProbe() {
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(500));
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertHistogram(probe.getIntervalHistogram(), 2, 200, 300, 250);
+    }
+
+    @Test
+    public void testThreadHandle_doneWithIntendedStart() {
+        Probe correctedProbe = probe.getOrCreateCorrectedProbe();
+        ProbeHandle handle = probe.threadHandle();
+
+        long intendedStart = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(500);
+        handle.started();
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        handle.done(intendedStart);
+
+        Histogram histogram = probe.getIntervalHistogram();
+        assertEquals(1, histogram.getTotalCount());
+        Histogram correctedHistogram = correctedProbe.getIntervalHistogram();
+        assertEquals(1, correctedHistogram.getTotalCount());
+        assertTrue(correctedHistogram.getMaxValue() >= TimeUnit.MILLISECONDS.toMicros(600));
+        assertTrue(correctedHistogram.getMaxValue() > histogram.getMaxValue());
+    }
+
+    @Test
+    public void testDone_withIntendedStart() {
+        Probe correctedProbe = probe.getOrCreateCorrectedProbe();
+
+        long intendedStart = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(500);
+        probe.started();
+        probe.done(intendedStart);
+
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+        Histogram correctedHistogram = correctedProbe.getIntervalHistogram();
+        assertEquals(1, correctedHistogram.getTotalCount());
+        assertTrue(correctedHistogram.getMaxValue() >= TimeUnit.MILLISECONDS.toMicros(500));
+    }
+
+    @Test
+    public void testLatencySampleRate_default() {
+        assertEquals(1, probe.getLatencySampleRate());
+
+        ProbeHandle handle = probe.threadHandle();
+        assertTrue(handle.isSampled());
+        assertTrue(handle.isSampled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetLatencySampleRate_invalid() {
+        probe.setLatencySampleRate(0);
+    }
+
+    @Test
+    public void testThreadHandle_sampledEveryNthOperation() {
+        probe.setLatencySampleRate(4);
+        ProbeHandle handle = probe.threadHandle();
+
+        int sampled = 0;
+        for (int i = 1; i <= 20; i++) {
+            if (handle.isSampled()) {
+                assertEquals(0, i % 4);
+                sampled++;
+            }
+        }
+        assertEquals(5, sampled);
+    }
+
+    @Test
+    public void testThreadHandle_sampledValuesAreScaled() {
+        Probe correctedProbe = probe.getOrCreateCorrectedProbe();
+        probe.setLatencySampleRate(100);
+        assertEquals(100, correctedProbe.getLatencySampleRate());
+
+        ProbeHandle handle = probe.threadHandle();
+        handle.recordValue(TimeUnit.MILLISECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(500));
+        handle.recordValue(TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.MILLISECONDS.toNanos(600));
+        // values recorded directly to the probe are not sampled
+        probe.recordValue(TimeUnit.MILLISECONDS.toNanos(250));
+
+        assertHistogram(probe.getIntervalHistogram(), 201, 200, 300, 250);
+        assertEquals(200, correctedProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testStartAsync_doneAsyncFromOtherThread() throws Exception {
+        final long startToken = probe.startAsync();
+        assertEquals(1, probe.getInFlightCount());
+
+        Thread responseThread = new Thread() {
+            @Override
+            public void run() {
+                sleepNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                probe.doneAsync(startToken);
+            }
+        };
+        responseThread.start();
+        responseThread.join();
+
+        assertEquals(0, probe.getInFlightCount());
+        Histogram histogram = probe.getIntervalHistogram();
+        assertEquals(1, histogram.getTotalCount());
+        assertTrue(histogram.getMaxValue() >= TimeUnit.MILLISECONDS.toMicros(100));
+    }
+
+    @Test
+    public void testDoneAsync_withIntendedStart() {
+        Probe correctedProbe = probe.getOrCreateCorrectedProbe();
+        long intendedStart = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        long startToken = probe.startAsync();
+
+        probe.doneAsync(startToken, intendedStart);
+
+        assertEquals(0, probe.getInFlightCount());
+        Histogram histogram = probe.getIntervalHistogram();
+        assertEquals(1, histogram.getTotalCount());
+        assertTrue(histogram.getMaxValue() < TimeUnit.SECONDS.toMicros(1));
+        Histogram correctedHistogram = correctedProbe.getIntervalHistogram();
+        assertEquals(1, correctedHistogram.getTotalCount());
+        assertTrue(correctedHistogram.getMaxValue() >= TimeUnit.SECONDS.toMicros(1));
+    }
+
+    @Test
+    public void testStartAsync_inFlightCount() {
+        long firstToken = probe.startAsync();
+        probe.startAsync();
+        probe.startAsync();
+        assertEquals(3, probe.getInFlightCount());
+
+        probe.doneAsync(firstToken);
+        probe.abortAsync();
+        assertEquals(1, probe.getInFlightCount());
+
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testGetIntervalAverageInFlightCount() {
+        assertEquals(0.0, probe.getIntervalAverageInFlightCount(), 0.0);
+
+        // sampled in-flight counts are 1, 2 and 3
+        long firstToken = probe.startAsync();
+        probe.startAsync();
+        probe.startAsync();
+        probe.doneAsync(firstToken);
+
+        assertEquals(2.0, probe.getIntervalAverageInFlightCount(), 0.0);
+        // the average is reset, but the pending measurements are still in flight
+        probe.startAsync();
+        assertEquals(3.0, probe.getIntervalAverageInFlightCount(), 0.0);
+    }
 }
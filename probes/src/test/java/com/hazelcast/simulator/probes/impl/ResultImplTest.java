@@ -5,6 +5,7 @@ import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.probes.ProbeTestUtils.createProbeResult;
 import static com.hazelcast.simulator.probes.ProbeTestUtils.createRandomHistogram;
@@ -45,6 +46,31 @@ public class ResultImplTest {
         assertEquals(expected, result.getHistogram("probe1"));
     }
 
+    @Test
+    public void testAddHistogram_withLatencyUnit() {
+        Result result = createProbeResult(0);
+        Histogram histogram = createRandomHistogram(500);
+        result.addHistogram("probe1", histogram, TimeUnit.NANOSECONDS);
+        result.addHistogram("probe1", createRandomHistogram(500), TimeUnit.NANOSECONDS);
+
+        assertEquals(1000, result.getHistogram("probe1").getTotalCount());
+        assertEquals(TimeUnit.NANOSECONDS, result.getLatencyUnit("probe1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddHistogram_withDifferentLatencyUnit() {
+        Result result = createProbeResult(1);
+        result.addHistogram("probe1", createRandomHistogram(500), TimeUnit.NANOSECONDS);
+    }
+
+    @Test
+    public void testGetLatencyUnit_default() {
+        Result result = createProbeResult(1);
+
+        assertEquals(TimeUnit.MICROSECONDS, result.getLatencyUnit("probe1"));
+        assertEquals(TimeUnit.MICROSECONDS, result.getLatencyUnit("notExisting"));
+    }
+
     @Test
     public void testAddHistogram_null() {
         Result result = createProbeResult(1);
@@ -6,9 +6,12 @@ import com.thoughtworks.xstream.converters.ConversionException;
 import org.junit.AfterClass;
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+
 import static com.hazelcast.simulator.probes.ProbeTestUtils.assertEqualsResult;
 import static com.hazelcast.simulator.probes.ProbeTestUtils.cleanup;
 import static com.hazelcast.simulator.probes.ProbeTestUtils.createProbeResult;
+import static com.hazelcast.simulator.probes.ProbeTestUtils.createRandomHistogram;
 import static com.hazelcast.simulator.probes.ProbeTestUtils.getResultFile;
 import static com.hazelcast.simulator.probes.ProbeTestUtils.serializeAndDeserializeAgain;
 import static com.hazelcast.simulator.probes.xml.ResultXmlUtils.fromXml;
@@ -16,6 +19,7 @@ import static com.hazelcast.simulator.probes.xml.ResultXmlUtils.toXml;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
 import static org.apache.commons.codec.binary.Base64.encodeBase64String;
+import static org.junit.Assert.assertEquals;
 
 public class ResultXmlUtilsTest {
 
@@ -50,6 +54,34 @@ public class ResultXmlUtilsTest {
         assertEqualsResult(expected, actual);
     }
 
+    @Test
+    public void testProbeResult_withLatencyUnits() {
+        Result expected = createProbeResult(1);
+        expected.addHistogram("nanosProbe", createRandomHistogram(100), TimeUnit.NANOSECONDS);
+        expected.addHistogram("millisProbe", createRandomHistogram(100), TimeUnit.MILLISECONDS);
+
+        Result actual = serializeAndDeserializeAgain(expected);
+
+        assertEqualsResult(expected, actual);
+        assertEquals(TimeUnit.NANOSECONDS, actual.getLatencyUnit("nanosProbe"));
+        assertEquals(TimeUnit.MILLISECONDS, actual.getLatencyUnit("millisProbe"));
+    }
+
+    @Test
+    public void testProbeResult_withoutLatencyUnits() {
+        Result result = createProbeResult(1);
+        result.addHistogram("nanosProbe", createRandomHistogram(100), TimeUnit.NANOSECONDS);
+
+        String xml = toXml(result);
+        String xmlWithoutLatencyUnits = xml.substring(0, xml.indexOf("<latencyUnits>"))
+                + xml.substring(xml.indexOf("</latencyUnits>") + "</latencyUnits>".length());
+        writeText(xmlWithoutLatencyUnits, getResultFile());
+
+        Result actual = fromXml(getResultFile());
+        assertEquals(TimeUnit.MICROSECONDS, actual.getLatencyUnit("probe1"));
+        assertEquals(TimeUnit.MICROSECONDS, actual.getLatencyUnit("nanosProbe"));
+    }
+
     @Test(expected = ConversionException.class)
     public void testProbeResult_invalidHistogramXml() {
         Result result = new ResultImpl("InvalidHistogramXmlTest", 1000, 500.0);
@@ -237,6 +237,7 @@ public class WorkerJvmLauncher {
         args.add("-DworkerPort=" + workerPort);
         args.add("-DautoCreateHzInstance=" + workerJvmSettings.isAutoCreateHzInstance());
         args.add("-DworkerPerformanceMonitorIntervalSeconds=" + workerJvmSettings.getWorkerPerformanceMonitorIntervalSeconds());
+        args.add("-DworkerLatencyLogIntervalMillis=" + workerJvmSettings.getWorkerLatencyLogIntervalMillis());
         args.add("-DhzConfigFile=" + hzConfigFile.getAbsolutePath());
 
         // add class name to start correct worker type
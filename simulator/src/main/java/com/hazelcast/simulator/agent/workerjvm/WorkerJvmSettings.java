@@ -37,6 +37,7 @@ public class WorkerJvmSettings {
     private final boolean autoCreateHzInstance;
     private final int workerStartupTimeout;
     private final int workerPerformanceMonitorIntervalSeconds;
+    private final int workerLatencyLogIntervalMillis;
 
     private final String profiler;
     private final String profilerSettings;
@@ -61,6 +62,7 @@ public class WorkerJvmSettings {
         this.autoCreateHzInstance = workerParameters.isAutoCreateHzInstance();
         this.workerStartupTimeout = workerParameters.getWorkerStartupTimeout();
         this.workerPerformanceMonitorIntervalSeconds = initWorkerPerformanceMonitorIntervalSeconds(workerParameters);
+        this.workerLatencyLogIntervalMillis = workerParameters.getWorkerLatencyLogIntervalMillis();
 
         this.profiler = workerParameters.getProfiler().name();
         this.profilerSettings = workerParameters.getProfilerSettings();
@@ -110,6 +112,10 @@ public class WorkerJvmSettings {
         return workerPerformanceMonitorIntervalSeconds;
     }
 
+    public int getWorkerLatencyLogIntervalMillis() {
+        return workerLatencyLogIntervalMillis;
+    }
+
     public JavaProfiler getProfiler() {
         return JavaProfiler.valueOf(profiler);
     }
@@ -133,6 +139,7 @@ public class WorkerJvmSettings {
                 + ", autoCreateHzInstance=" + autoCreateHzInstance
                 + ", workerStartupTimeout=" + workerStartupTimeout
                 + ", workerPerformanceMonitorIntervalSeconds=" + workerPerformanceMonitorIntervalSeconds
+                + ", workerLatencyLogIntervalMillis=" + workerLatencyLogIntervalMillis
                 + ", profiler='" + profiler + '\''
                 + ", profilerSettings='" + profilerSettings + '\''
                 + ", numaCtl='" + numaCtl + '\''
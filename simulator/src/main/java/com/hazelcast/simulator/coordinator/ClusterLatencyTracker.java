@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.HdrHistogram.Histogram;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
+import static com.hazelcast.simulator.worker.performance.PerformanceState.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static javax.xml.bind.DatatypeConverter.parseBase64Binary;
+import static org.HdrHistogram.Histogram.decodeFromCompressedByteBuffer;
+
+/**
+ * Merges the interval histograms of all workers of a single test into cluster-wide interval latencies.
+ *
+ * The workers report their intervals independently, so the histograms are merged by the index of the reporting interval, which
+ * each worker counts from the start of the test. A cluster interval is completed as soon as an interval has been reported which
+ * is {@value #PENDING_INTERVALS} intervals later, so a worker which is slightly behind still contributes to it. A histogram which
+ * arrives after its cluster interval has been completed is dropped.
+ *
+ * The percentiles of each completed cluster interval are appended to a performance time series file of the test.
+ *
+ * A measurement, e.g. of a step of a throughput search, just merges the cluster intervals which have been started after the
+ * measurement has been started. Its throughput is the average throughput of these intervals and its latencies are taken from
+ * their merged histograms.
+ */
+final class ClusterLatencyTracker {
+
+    static final int PENDING_INTERVALS = 2;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private static final Logger LOGGER = Logger.getLogger(ClusterLatencyTracker.class);
+
+    private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+    private final SortedMap<Long, ClusterInterval> pendingIntervalMap = new TreeMap<Long, ClusterInterval>();
+    private final Map<String, TimeUnit> latencyUnitMap = new TreeMap<String, TimeUnit>();
+    private final Map<String, Histogram> measuredHistogramMap = new TreeMap<String, Histogram>();
+    private final String testId;
+    private final File performanceFile;
+
+    private long lastCompletedIntervalIndex = Long.MIN_VALUE;
+    private long lastReportedIntervalIndex;
+    private long measurementStartIntervalIndex = Long.MAX_VALUE;
+    private int measuredIntervalCount;
+    private double measuredThroughputSum;
+    private boolean hasCompletedInterval;
+    private double intervalAvgLatency;
+    private long intervalPercentileLatency;
+    private long intervalMaxLatency;
+
+    ClusterLatencyTracker(String testId, File performanceFile) {
+        this.testId = testId;
+        this.performanceFile = performanceFile;
+    }
+
+    /**
+     * Adds the interval histograms of a worker to the cluster interval with the same interval index.
+     *
+     * @param workerAddress     the {@link SimulatorAddress} of the worker
+     * @param intervalIndex     the index of the reporting interval of the worker
+     * @param probeHistograms   the encoded interval histograms per probe
+     * @param probeLatencyUnits  the latency units per probe or <tt>null</tt> if the default latency unit is used
+     * @param intervalThroughput the throughput of the worker in the reporting interval
+     * @param timestamp          the time when the histograms have been received
+     */
+    void addIntervalHistograms(SimulatorAddress workerAddress, long intervalIndex, Map<String, String> probeHistograms,
+                               Map<String, TimeUnit> probeLatencyUnits, double intervalThroughput, long timestamp) {
+        if (intervalIndex <= lastCompletedIntervalIndex) {
+            LOGGER.warn(format("Dropped interval %d of test %s from %s, since the cluster interval has already been completed",
+                    intervalIndex, testId, workerAddress));
+            return;
+        }
+        if (probeLatencyUnits != null) {
+            latencyUnitMap.putAll(probeLatencyUnits);
+        }
+        ClusterInterval interval = pendingIntervalMap.get(intervalIndex);
+        if (interval == null) {
+            interval = new ClusterInterval();
+            pendingIntervalMap.put(intervalIndex, interval);
+        }
+        interval.timestamp = timestamp;
+        interval.throughput += intervalThroughput;
+        lastReportedIntervalIndex = max(lastReportedIntervalIndex, intervalIndex);
+        for (Map.Entry<String, String> histogramEntry : probeHistograms.entrySet()) {
+            String probeName = histogramEntry.getKey();
+            Histogram histogram = decodeHistogram(probeName, histogramEntry.getValue());
+            if (histogram != null) {
+                interval.add(probeName, histogram);
+            }
+        }
+
+        while (pendingIntervalMap.firstKey() <= intervalIndex - PENDING_INTERVALS) {
+            completeInterval(pendingIntervalMap.firstKey());
+        }
+    }
+
+    /**
+     * Writes the merged histograms of all pending cluster intervals to the performance time series.
+     */
+    void completeIntervals() {
+        while (!pendingIntervalMap.isEmpty()) {
+            completeInterval(pendingIntervalMap.firstKey());
+        }
+    }
+
+    /**
+     * Starts a new measurement of the cluster intervals.
+     *
+     * The interval which is in progress on the workers has been started before this call, so the measurement starts with the
+     * next interval after the given number of skipped intervals.
+     *
+     * @param skippedIntervals the number of intervals to skip, e.g. to give the test some time to settle
+     */
+    void startMeasurement(int skippedIntervals) {
+        measurementStartIntervalIndex = lastReportedIntervalIndex + 2 + skippedIntervals;
+        measuredHistogramMap.clear();
+        measuredIntervalCount = 0;
+        measuredThroughputSum = 0;
+    }
+
+    int getMeasuredIntervalCount() {
+        return measuredIntervalCount;
+    }
+
+    /**
+     * Returns the average cluster-wide throughput of the measured intervals.
+     *
+     * @return the measured throughput in operations per second
+     */
+    double getMeasuredThroughput() {
+        return (measuredIntervalCount == 0) ? 0 : measuredThroughputSum / measuredIntervalCount;
+    }
+
+    /**
+     * Returns the latency at the given percentile of the merged histograms of the measured intervals.
+     *
+     * @param percentile the percentile
+     * @return the latency of the slowest probe in µs or <tt>-1</tt> if no latency has been measured
+     */
+    long getMeasuredPercentileLatency(double percentile) {
+        long percentileLatency = -1;
+        for (Map.Entry<String, Histogram> histogramEntry : measuredHistogramMap.entrySet()) {
+            TimeUnit latencyUnit = getLatencyUnit(histogramEntry.getKey());
+            percentileLatency = max(percentileLatency,
+                    latencyUnit.toMicros(histogramEntry.getValue().getValueAtPercentile(percentile)));
+        }
+        return percentileLatency;
+    }
+
+    boolean hasCompletedInterval() {
+        return hasCompletedInterval;
+    }
+
+    double getIntervalAvgLatency() {
+        return intervalAvgLatency;
+    }
+
+    long getIntervalPercentileLatency() {
+        return intervalPercentileLatency;
+    }
+
+    long getIntervalMaxLatency() {
+        return intervalMaxLatency;
+    }
+
+    private void completeInterval(long intervalIndex) {
+        ClusterInterval interval = pendingIntervalMap.remove(intervalIndex);
+        lastCompletedIntervalIndex = intervalIndex;
+        if (intervalIndex >= measurementStartIntervalIndex) {
+            addToMeasurement(interval);
+        }
+        if (interval.histogramMap.isEmpty()) {
+            return;
+        }
+        if (!performanceFile.exists()) {
+            appendText(format("# Cluster-wide interval latencies of test %s in µs%n# %-19s %-20s %12s %10s %10s %10s %10s %10s"
+                            + " %10s %10s%n", testId, "timestamp", "probe", "operations", "avg", "p50", "p90", "p99", "p99.9",
+                    "p99.99", "max"), performanceFile);
+        }
+
+        String dateString = simpleDateFormat.format(new Date(interval.timestamp));
+        StringBuilder sb = new StringBuilder();
+        intervalAvgLatency = Long.MIN_VALUE;
+        intervalPercentileLatency = Long.MIN_VALUE;
+        intervalMaxLatency = Long.MIN_VALUE;
+        for (Map.Entry<String, Histogram> histogramEntry : interval.histogramMap.entrySet()) {
+            Histogram histogram = histogramEntry.getValue();
+            TimeUnit latencyUnit = getLatencyUnit(histogramEntry.getKey());
+
+            double avgValue = histogram.getMean() * latencyUnit.toNanos(1) / MICROSECONDS.toNanos(1);
+            sb.append(format("[%s] %-20s %,12d %10.1f", dateString, histogramEntry.getKey(), histogram.getTotalCount(),
+                    avgValue));
+            for (double percentile : PERCENTILES) {
+                sb.append(format(" %10d", latencyUnit.toMicros(histogram.getValueAtPercentile(percentile))));
+            }
+            long maxValue = latencyUnit.toMicros(histogram.getMaxValue());
+            sb.append(format(" %10d", maxValue)).append(NEW_LINE);
+
+            // the live performance numbers show the slowest probe, like the performance states of the workers
+            intervalAvgLatency = max(intervalAvgLatency, avgValue);
+            intervalPercentileLatency = max(intervalPercentileLatency,
+                    latencyUnit.toMicros(histogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE)));
+            intervalMaxLatency = max(intervalMaxLatency, maxValue);
+        }
+        appendText(sb.toString(), performanceFile);
+
+        hasCompletedInterval = true;
+    }
+
+    private void addToMeasurement(ClusterInterval interval) {
+        measuredIntervalCount++;
+        measuredThroughputSum += interval.throughput;
+        for (Map.Entry<String, Histogram> histogramEntry : interval.histogramMap.entrySet()) {
+            Histogram measuredHistogram = measuredHistogramMap.get(histogramEntry.getKey());
+            if (measuredHistogram == null) {
+                measuredHistogramMap.put(histogramEntry.getKey(), histogramEntry.getValue().copy());
+            } else {
+                measuredHistogram.add(histogramEntry.getValue());
+            }
+        }
+    }
+
+    private Histogram decodeHistogram(String probeName, String encodedHistogram) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(parseBase64Binary(encodedHistogram));
+            return decodeFromCompressedByteBuffer(buffer, 0);
+        } catch (Exception e) {
+            LOGGER.warn("Could not decode interval histogram from test " + testId + " of probe " + probeName);
+            return null;
+        }
+    }
+
+    private TimeUnit getLatencyUnit(String probeName) {
+        TimeUnit latencyUnit = latencyUnitMap.get(probeName);
+        return (latencyUnit == null) ? LATENCY_UNIT : latencyUnit;
+    }
+
+    private static final class ClusterInterval {
+
+        private final Map<String, Histogram> histogramMap = new TreeMap<String, Histogram>();
+
+        private long timestamp;
+        private double throughput;
+
+        private void add(String probeName, Histogram histogram) {
+            Histogram intervalHistogram = histogramMap.get(probeName);
+            if (intervalHistogram == null) {
+                histogramMap.put(probeName, histogram);
+            } else {
+                intervalHistogram.add(histogram);
+            }
+        }
+    }
+}
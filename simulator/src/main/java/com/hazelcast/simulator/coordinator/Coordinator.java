@@ -295,6 +295,7 @@ public final class Coordinator {
             LOGGER.warn(format("Unfinished workers: %s", componentRegistry.getMissingWorkers(finishedWorkers).toString()));
         }
 
+        performanceStateContainer.completeIntervalHistograms();
         performanceStateContainer.logDetailedPerformanceInfo();
         for (TestCase testCase : testSuite.getTestCaseList()) {
             testHistogramContainer.createProbeResults(testSuite.getId(), testCase.getId());
@@ -35,6 +35,7 @@ import java.util.concurrent.TimeUnit;
 import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
 import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
 import static com.hazelcast.simulator.common.SimulatorProperties.PROPERTIES_FILE_NAME;
+import static com.hazelcast.simulator.coordinator.TestCaseRunner.THROUGHPUT_SEARCH_LATENCY_PERCENTILE;
 import static com.hazelcast.simulator.coordinator.WorkerParameters.initClientHzConfig;
 import static com.hazelcast.simulator.coordinator.WorkerParameters.initMemberHzConfig;
 import static com.hazelcast.simulator.test.FailureType.fromPropertyValue;
@@ -123,6 +124,16 @@ final class CoordinatorCli {
             "Defines the last TestPhase which is synchronized between all parallel running tests.")
             .withRequiredArg().ofType(TestPhase.class).defaultsTo(TestPhase.SETUP);
 
+    private final OptionSpec<Long> throughputSearchSlaSpec = parser.accepts("throughputSearchSla",
+            format("Searches the maximum sustainable throughput of each test with a targetThroughput property, which is used as"
+                    + " start value. The SLA defines the maximum cluster-wide %sth percentile latency in microseconds.",
+                    THROUGHPUT_SEARCH_LATENCY_PERCENTILE))
+            .withRequiredArg().ofType(Long.class).defaultsTo(0L);
+
+    private final OptionSpec<Integer> throughputSearchStepSecondsSpec = parser.accepts("throughputSearchStepSeconds",
+            "Defines how long each target throughput of the throughput search is measured.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(30);
+
     private final OptionSpec<String> workerVmOptionsSpec = parser.accepts("workerVmOptions",
             "Member Worker JVM options (quotes can be used).")
             .withRequiredArg().ofType(String.class).defaultsTo("-XX:+HeapDumpOnOutOfMemoryError");
@@ -217,7 +228,9 @@ final class CoordinatorCli {
                 options.valueOf(cli.verifyEnabledSpec),
                 options.has(cli.parallelSpec),
                 options.valueOf(cli.workerRefreshSpec),
-                options.valueOf(cli.syncToTestPhaseSpec)
+                options.valueOf(cli.syncToTestPhaseSpec),
+                options.valueOf(cli.throughputSearchSlaSpec),
+                options.valueOf(cli.throughputSearchStepSecondsSpec)
         );
 
         String memberHzConfig = loadMemberHzConfig(options, cli);
@@ -37,9 +37,13 @@ class CoordinatorParameters {
 
     private final TestPhase lastTestPhaseToSync;
 
+    private final long throughputSearchLatencySlaUs;
+    private final int throughputSearchStepSeconds;
+
     public CoordinatorParameters(SimulatorProperties properties, String workerClassPath, boolean uploadHazelcastJARs,
                                  boolean enterpriseEnabled, boolean verifyEnabled, boolean parallel, boolean refreshJvm,
-                                 TestPhase lastTestPhaseToSync) {
+                                 TestPhase lastTestPhaseToSync, long throughputSearchLatencySlaUs,
+                                 int throughputSearchStepSeconds) {
         this.simulatorProperties = properties;
         this.workerClassPath = workerClassPath;
 
@@ -51,6 +55,9 @@ class CoordinatorParameters {
         this.passiveMembers = parseBoolean(properties.get("PASSIVE_MEMBERS", "true"));
 
         this.lastTestPhaseToSync = lastTestPhaseToSync;
+
+        this.throughputSearchLatencySlaUs = throughputSearchLatencySlaUs;
+        this.throughputSearchStepSeconds = throughputSearchStepSeconds;
     }
 
     public SimulatorProperties getSimulatorProperties() {
@@ -88,4 +95,12 @@ class CoordinatorParameters {
     public TestPhase getLastTestPhaseToSync() {
         return lastTestPhaseToSync;
     }
+
+    public long getThroughputSearchLatencySlaUs() {
+        return throughputSearchLatencySlaUs;
+    }
+
+    public int getThroughputSearchStepSeconds() {
+        return throughputSearchStepSeconds;
+    }
 }
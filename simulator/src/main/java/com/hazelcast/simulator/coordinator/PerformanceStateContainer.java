@@ -19,6 +19,8 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceState;
 import org.apache.log4j.Logger;
 
+import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,12 +33,16 @@ import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
 import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.worker.performance.PerformanceState.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.Math.max;
 import static java.lang.Math.round;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 /**
  * Responsible for storing and formatting performance metrics from Simulator workers.
+ *
+ * The interval histograms of the workers are merged per test by a {@link ClusterLatencyTracker}, so the live performance numbers
+ * show the cluster-wide interval latencies instead of the maximum of the latencies of the workers.
  */
 public class PerformanceStateContainer {
 
@@ -46,26 +52,90 @@ public class PerformanceStateContainer {
     public static final int LATENCY_FORMAT_LENGTH = 10;
 
     private static final long DISPLAY_LATENCY_AS_MICROS_MAX_VALUE = TimeUnit.SECONDS.toMicros(1);
+    private static final double MAX_PERCENTILE = 100;
 
     private static final Logger LOGGER = Logger.getLogger(PerformanceStateContainer.class);
 
     private final ConcurrentMap<SimulatorAddress, Map<String, PerformanceState>> workerPerformanceStateMap
             = new ConcurrentHashMap<SimulatorAddress, Map<String, PerformanceState>>();
+    private final Map<String, ClusterLatencyTracker> clusterLatencyTrackerMap = new HashMap<String, ClusterLatencyTracker>();
 
     public synchronized void updatePerformanceState(SimulatorAddress workerAddress,
                                                     Map<String, PerformanceState> performanceStates) {
         workerPerformanceStateMap.put(workerAddress, performanceStates);
     }
 
-    public String getPerformanceNumbers(String testCaseId) {
+    public synchronized void addIntervalHistograms(SimulatorAddress workerAddress, Map<String, Long> testIntervalIndexes,
+                                                   Map<String, Map<String, String>> testIntervalHistograms,
+                                                   Map<String, Map<String, TimeUnit>> testLatencyUnits) {
+        long timestamp = System.currentTimeMillis();
+        for (Map.Entry<String, Long> testEntry : testIntervalIndexes.entrySet()) {
+            String testId = testEntry.getKey();
+            // a test without latency probes just reports its interval throughput
+            Map<String, String> probeHistograms = testIntervalHistograms.get(testId);
+            if (probeHistograms == null) {
+                probeHistograms = Collections.emptyMap();
+            }
+            getOrCreateClusterLatencyTracker(testId).addIntervalHistograms(workerAddress, testEntry.getValue(), probeHistograms,
+                    testLatencyUnits.get(testId), getIntervalThroughput(workerAddress, testId), timestamp);
+        }
+    }
+
+    /**
+     * Starts a new measurement of the cluster intervals of a test, see {@link ClusterLatencyTracker#startMeasurement(int)}.
+     *
+     * @param testCaseId       the id of the test
+     * @param skippedIntervals the number of intervals to skip after the interval in progress
+     */
+    synchronized void startMeasurement(String testCaseId, int skippedIntervals) {
+        getOrCreateClusterLatencyTracker(testCaseId).startMeasurement(skippedIntervals);
+    }
+
+    synchronized int getMeasuredIntervalCount(String testCaseId) {
+        return getOrCreateClusterLatencyTracker(testCaseId).getMeasuredIntervalCount();
+    }
+
+    /**
+     * Returns the cluster-wide performance of the measured intervals of a test.
+     *
+     * @param testCaseId the id of the test
+     * @param percentile the percentile of the reported interval latency
+     * @return the {@link PerformanceState} with the measured throughput and latency, which is empty if no interval has been
+     * measured yet
+     */
+    synchronized PerformanceState getMeasuredPerformanceState(String testCaseId, double percentile) {
+        ClusterLatencyTracker tracker = getOrCreateClusterLatencyTracker(testCaseId);
+        if (tracker.getMeasuredIntervalCount() == 0) {
+            return new PerformanceState();
+        }
+        long operationCount = max(0, getPerformanceStateForTestCase(testCaseId).getOperationCount());
+        double throughput = tracker.getMeasuredThroughput();
+        long percentileLatency = tracker.getMeasuredPercentileLatency(percentile);
+        long maxLatency = tracker.getMeasuredPercentileLatency(MAX_PERCENTILE);
+        return new PerformanceState(operationCount, throughput, throughput, 0, percentileLatency, maxLatency);
+    }
+
+    public synchronized String getPerformanceNumbers(String testCaseId) {
         PerformanceState performanceState = getPerformanceStateForTestCase(testCaseId);
         if (performanceState.isEmpty() || performanceState.getOperationCount() < 1) {
             return "";
         }
+        if (performanceState.getIntervalMaxLatency() < 0) {
+            // the test has no latency probes, e.g. if it just counts operations
+            return String.format("%s ops %s ops/s",
+                    formatLong(performanceState.getOperationCount(), THROUGHPUT_FORMAT_LENGTH),
+                    formatDouble(performanceState.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH));
+        }
         String latencyUnit = "µs";
         long avgLatencyValue = round(performanceState.getIntervalAvgLatency());
         long percentileLatencyValue = performanceState.getIntervalPercentileLatency();
         long maxLatencyValue = performanceState.getIntervalMaxLatency();
+        ClusterLatencyTracker tracker = getClusterLatencyTracker(testCaseId);
+        if (tracker != null && tracker.hasCompletedInterval()) {
+            avgLatencyValue = round(tracker.getIntervalAvgLatency());
+            percentileLatencyValue = tracker.getIntervalPercentileLatency();
+            maxLatencyValue = tracker.getIntervalMaxLatency();
+        }
         if (avgLatencyValue > DISPLAY_LATENCY_AS_MICROS_MAX_VALUE) {
             latencyUnit = "ms";
             avgLatencyValue = MICROSECONDS.toMillis(avgLatencyValue);
@@ -96,6 +166,19 @@ public class PerformanceStateContainer {
         return performanceState;
     }
 
+    synchronized ClusterLatencyTracker getClusterLatencyTracker(String testCaseId) {
+        return clusterLatencyTrackerMap.get(testCaseId);
+    }
+
+    /**
+     * Writes the last cluster intervals of each test, which have not been completed by a later interval of a worker.
+     */
+    synchronized void completeIntervalHistograms() {
+        for (ClusterLatencyTracker tracker : clusterLatencyTrackerMap.values()) {
+            tracker.completeIntervals();
+        }
+    }
+
     void logDetailedPerformanceInfo() {
         PerformanceState totalPerformanceState = new PerformanceState();
         Map<SimulatorAddress, PerformanceState> agentPerformanceStateMap = new HashMap<SimulatorAddress, PerformanceState>();
@@ -146,4 +229,23 @@ public class PerformanceStateContainer {
             }
         }
     }
+
+    private ClusterLatencyTracker getOrCreateClusterLatencyTracker(String testId) {
+        ClusterLatencyTracker tracker = clusterLatencyTrackerMap.get(testId);
+        if (tracker == null) {
+            tracker = new ClusterLatencyTracker(testId, getClusterPerformanceFile(testId));
+            clusterLatencyTrackerMap.put(testId, tracker);
+        }
+        return tracker;
+    }
+
+    private double getIntervalThroughput(SimulatorAddress workerAddress, String testId) {
+        Map<String, PerformanceState> performanceStates = workerPerformanceStateMap.get(workerAddress);
+        PerformanceState performanceState = (performanceStates == null) ? null : performanceStates.get(testId);
+        return (performanceState == null || performanceState.isEmpty()) ? 0 : performanceState.getIntervalThroughput();
+    }
+
+    static File getClusterPerformanceFile(String testCaseId) {
+        return new File("performance-" + testCaseId + ".txt");
+    }
 }
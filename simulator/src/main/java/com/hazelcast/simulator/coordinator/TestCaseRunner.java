@@ -16,6 +16,7 @@
 package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.operation.CreateTestOperation;
+import com.hazelcast.simulator.protocol.operation.SetTargetThroughputOperation;
 import com.hazelcast.simulator.protocol.operation.StartTestOperation;
 import com.hazelcast.simulator.protocol.operation.StartTestPhaseOperation;
 import com.hazelcast.simulator.protocol.operation.StopTestOperation;
@@ -23,6 +24,7 @@ import com.hazelcast.simulator.protocol.registry.ComponentRegistry;
 import com.hazelcast.simulator.test.TestCase;
 import com.hazelcast.simulator.test.TestPhase;
 import com.hazelcast.simulator.test.TestSuite;
+import com.hazelcast.simulator.worker.performance.PerformanceState;
 import org.apache.log4j.Logger;
 
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,6 +33,8 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.hazelcast.simulator.coordinator.PerformanceStateContainer.LATENCY_FORMAT_LENGTH;
+import static com.hazelcast.simulator.coordinator.PerformanceStateContainer.THROUGHPUT_FORMAT_LENGTH;
 import static com.hazelcast.simulator.test.TestPhase.GLOBAL_TEARDOWN;
 import static com.hazelcast.simulator.test.TestPhase.GLOBAL_VERIFY;
 import static com.hazelcast.simulator.test.TestPhase.GLOBAL_WARMUP;
@@ -42,9 +46,14 @@ import static com.hazelcast.simulator.test.TestPhase.SETUP;
 import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
+import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
+import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.padRight;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 
 /**
@@ -54,9 +63,20 @@ import static java.lang.String.format;
  */
 final class TestCaseRunner implements TestPhaseListener {
 
+    // the SLA of the throughput search is checked against this percentile of the cluster-wide latency
+    static final int THROUGHPUT_SEARCH_LATENCY_PERCENTILE = 99;
+
     private static final int RUN_PHASE_LOG_INTERVAL_SECONDS = 30;
     private static final int WAIT_FOR_PHASE_COMPLETION_LOG_INTERVAL_SECONDS = 30;
 
+    private static final String THROUGHPUT_SEARCH_FILE_NAME = "throughput-search.txt";
+    private static final double THROUGHPUT_SEARCH_TOLERANCE = 0.1;
+    private static final int THROUGHPUT_SEARCH_SETTLE_DIVISOR = 3;
+
+    private static final String TARGET_THROUGHPUT = "targetThroughput";
+    private static final String WORKER_TARGET_THROUGHPUT = "workerTargetThroughput";
+    private static final String TARGET_THROUGHPUT_DURATION_SECONDS = "targetThroughputDurationSeconds";
+
     private static final Logger LOGGER = Logger.getLogger(TestCaseRunner.class);
     private static final ConcurrentMap<TestPhase, Object> LOG_TEST_PHASE_COMPLETION = new ConcurrentHashMap<TestPhase, Object>();
 
@@ -76,13 +96,16 @@ final class TestCaseRunner implements TestPhaseListener {
     private final String prefix;
     private final ConcurrentMap<TestPhase, CountDownLatch> testPhaseSyncMap;
 
-    private final boolean isVerifyEnabled;
+    private final CoordinatorParameters coordinatorParameters;
     private final boolean isPassiveMembers;
+    private final int clientWorkerCount;
 
     private final boolean monitorPerformance;
     private final int logPerformanceIntervalSeconds;
     private final int logRunPhaseIntervalSeconds;
 
+    private int activeWorkerCount;
+
     TestCaseRunner(int testIndex, TestCase testCase, Coordinator coordinator, int paddingLength,
                    ConcurrentMap<TestPhase, CountDownLatch> testPhaseSyncMap) {
         this.testIndex = testIndex;
@@ -98,11 +121,10 @@ final class TestCaseRunner implements TestPhaseListener {
         this.prefix = padRight(testCaseId, paddingLength + 1);
         this.testPhaseSyncMap = testPhaseSyncMap;
 
-        CoordinatorParameters coordinatorParameters = coordinator.getCoordinatorParameters();
-        this.isVerifyEnabled = coordinatorParameters.isVerifyEnabled();
+        this.coordinatorParameters = coordinator.getCoordinatorParameters();
 
-        ClusterLayoutParameters clusterLayoutParameters = coordinator.getClusterLayoutParameters();
-        this.isPassiveMembers = (coordinatorParameters.isPassiveMembers() && clusterLayoutParameters.getClientWorkerCount() > 0);
+        this.clientWorkerCount = coordinator.getClusterLayoutParameters().getClientWorkerCount();
+        this.isPassiveMembers = (coordinatorParameters.isPassiveMembers() && clientWorkerCount > 0);
 
         WorkerParameters workerParameters = coordinator.getWorkerParameters();
         this.monitorPerformance = workerParameters.isMonitorPerformance();
@@ -130,7 +152,7 @@ final class TestCaseRunner implements TestPhaseListener {
             startTest();
             waitForTestCompletion();
 
-            if (isVerifyEnabled) {
+            if (coordinatorParameters.isVerifyEnabled()) {
                 runPhase(GLOBAL_VERIFY);
                 runPhase(LOCAL_VERIFY);
             } else {
@@ -146,10 +168,46 @@ final class TestCaseRunner implements TestPhaseListener {
 
     private void createTest() throws TimeoutException {
         echo("Starting Test initialization");
-        remoteClient.sendToAllWorkers(new CreateTestOperation(testIndex, testCase));
+        // passive members don't run the test, so they don't get a share of the target throughput
+        activeWorkerCount = (isPassiveMembers) ? clientWorkerCount : componentRegistry.workerCount();
+        TestCase workerTestCase = createWorkerTestCase(testCase, activeWorkerCount, testSuite.getDurationSeconds());
+        remoteClient.sendToAllWorkers(new CreateTestOperation(testIndex, workerTestCase));
         echo("Completed Test initialization");
     }
 
+    /**
+     * Splits the target throughput of the whole test into the target throughput of a single worker.
+     *
+     * The run duration of the test suite is used as duration of the load profile, if the test doesn't define its own.
+     *
+     * @param testCase          the {@link TestCase} to split the target throughput for
+     * @param activeWorkerCount the number of workers which run the test
+     * @param durationSeconds   the run duration of the test suite
+     * @return a copy of the {@link TestCase} with the target throughput per worker or the original {@link TestCase} if it
+     * defines no target throughput
+     */
+    static TestCase createWorkerTestCase(TestCase testCase, int activeWorkerCount, int durationSeconds) {
+        String targetThroughput = testCase.getProperty(TARGET_THROUGHPUT);
+        if (targetThroughput == null || activeWorkerCount < 1) {
+            return testCase;
+        }
+
+        double workerTargetThroughput;
+        try {
+            workerTargetThroughput = Double.parseDouble(targetThroughput) / activeWorkerCount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(format("Invalid %s of test %s: %s", TARGET_THROUGHPUT, testCase.getId(),
+                    targetThroughput), e);
+        }
+
+        TestCase workerTestCase = new TestCase(testCase.getId(), testCase.getProperties());
+        workerTestCase.setProperty(WORKER_TARGET_THROUGHPUT, String.valueOf(workerTargetThroughput));
+        if (workerTestCase.getProperty(TARGET_THROUGHPUT_DURATION_SECONDS) == null) {
+            workerTestCase.setProperty(TARGET_THROUGHPUT_DURATION_SECONDS, String.valueOf(durationSeconds));
+        }
+        return workerTestCase;
+    }
+
     private void runPhase(TestPhase testPhase) throws TimeoutException {
         if (testSuite.isFailFast() && failureContainer.hasCriticalFailure(testCaseId)) {
             echo("Skipping Test " + testPhase.desc() + " (critical failure)");
@@ -174,6 +232,13 @@ final class TestCaseRunner implements TestPhaseListener {
     }
 
     private void waitForTestCompletion() throws Exception {
+        if (isThroughputSearchEnabled()) {
+            searchThroughput();
+            stopTest();
+            waitForGlobalTestPhaseCompletion(RUN);
+            return;
+        }
+
         StopThread stopThread = null;
         if (testSuite.getDurationSeconds() > 0) {
             stopThread = new StopThread();
@@ -196,6 +261,98 @@ final class TestCaseRunner implements TestPhaseListener {
         waitForGlobalTestPhaseCompletion(RUN);
     }
 
+    private void stopTest() {
+        echo("Starting Test stop");
+        remoteClient.sendToTestOnAllWorkers(testCaseId, new StopTestOperation());
+        waitForPhaseCompletion(RUN);
+        echo("Completed Test stop");
+    }
+
+    private boolean isThroughputSearchEnabled() {
+        if (coordinatorParameters.getThroughputSearchLatencySlaUs() <= 0) {
+            return false;
+        }
+        if (testCase.getProperty(TARGET_THROUGHPUT) == null) {
+            echo("Skipping throughput search (test has no " + TARGET_THROUGHPUT + ")");
+            return false;
+        }
+        if (!monitorPerformance) {
+            echo("Skipping throughput search (performance monitoring is disabled)");
+            return false;
+        }
+        return true;
+    }
+
+    private void searchThroughput() {
+        long latencySlaUs = coordinatorParameters.getThroughputSearchLatencySlaUs();
+        int stepSeconds = coordinatorParameters.getThroughputSearchStepSeconds();
+        ThroughputSearch search = new ThroughputSearch(Double.parseDouble(testCase.getProperty(TARGET_THROUGHPUT)));
+
+        echoThroughputSearch(format("Searching maximum sustainable throughput (SLA: %d µs %sth percentile latency)",
+                latencySlaUs, THROUGHPUT_SEARCH_LATENCY_PERCENTILE));
+        while (!search.isFinished()) {
+            if (failureContainer.hasCriticalFailure(testCaseId)) {
+                echo("Critical failure detected, aborting throughput search");
+                break;
+            }
+
+            double targetThroughput = search.getTargetThroughput();
+            double workerTargetThroughput = targetThroughput / activeWorkerCount;
+            remoteClient.sendToTestOnAllWorkers(testCaseId, new SetTargetThroughputOperation(workerTargetThroughput));
+
+            PerformanceState performanceState = measurePerformance(stepSeconds);
+            boolean isSlaMet = isSlaMet(performanceState, targetThroughput, latencySlaUs);
+            search.update(isSlaMet);
+
+            echoThroughputSearch(format("Step %2d: %s ops/s target %s ops/s actual %s µs (%sth) %s", search.getSteps(),
+                    formatDouble(targetThroughput, THROUGHPUT_FORMAT_LENGTH),
+                    formatDouble(performanceState.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH),
+                    formatLong(performanceState.getIntervalPercentileLatency(), LATENCY_FORMAT_LENGTH),
+                    THROUGHPUT_SEARCH_LATENCY_PERCENTILE, isSlaMet ? "passed" : "failed"));
+        }
+        echoThroughputSearch(format("Maximum sustainable throughput: %s ops/s",
+                formatDouble(search.getSustainableThroughput(), THROUGHPUT_FORMAT_LENGTH)));
+    }
+
+    private PerformanceState measurePerformance(int seconds) {
+        // each reporting interval of the workers is measured once by its cluster-wide throughput and latency, the intervals
+        // which have been started before the new target throughput has been set are skipped
+        int measuredIntervals = max(1, seconds / logPerformanceIntervalSeconds);
+        // give the test some time to settle on the new target throughput, before it is measured
+        int settleIntervals = measuredIntervals / THROUGHPUT_SEARCH_SETTLE_DIVISOR;
+        performanceStateContainer.startMeasurement(testCaseId, settleIntervals);
+
+        // a cluster interval is completed with a delay, so a worker which is slightly behind still contributes to it
+        int timeoutSeconds = (settleIntervals + measuredIntervals + ClusterLatencyTracker.PENDING_INTERVALS + 2)
+                * logPerformanceIntervalSeconds;
+        for (int i = 0; i < timeoutSeconds; i++) {
+            if (performanceStateContainer.getMeasuredIntervalCount(testCaseId) >= measuredIntervals
+                    || failureContainer.hasCriticalFailure(testCaseId)) {
+                break;
+            }
+            sleepSeconds(1);
+        }
+        return performanceStateContainer.getMeasuredPerformanceState(testCaseId, THROUGHPUT_SEARCH_LATENCY_PERCENTILE);
+    }
+
+    static boolean isSlaMet(PerformanceState performanceState, double targetThroughput, long latencySlaUs) {
+        if (performanceState.isEmpty()) {
+            return false;
+        }
+        // a saturated test cannot reach its target throughput, even if the latency of the completed operations is fine
+        if (performanceState.getIntervalThroughput() < targetThroughput * (1 - THROUGHPUT_SEARCH_TOLERANCE)) {
+            return false;
+        }
+        // a test without latency probes is just measured by its throughput
+        boolean hasLatency = performanceState.getIntervalMaxLatency() >= 0;
+        return !hasLatency || performanceState.getIntervalPercentileLatency() <= latencySlaUs;
+    }
+
+    private void echoThroughputSearch(String msg) {
+        echo(msg);
+        appendText(prefix + msg + NEW_LINE, THROUGHPUT_SEARCH_FILE_NAME);
+    }
+
     private void waitForPhaseCompletion(TestPhase testPhase) {
         int completedWorkers = phaseCompletedMap.get(testPhase).get();
         int expectedWorkers = getExpectedWorkerCount(testPhase);
@@ -264,10 +421,7 @@ final class TestCaseRunner implements TestPhaseListener {
                 sleepUntilFailure(testSuite.getDurationSeconds());
                 echo("Test finished running");
 
-                echo("Starting Test stop");
-                remoteClient.sendToTestOnAllWorkers(testCaseId, new StopTestOperation());
-                waitForPhaseCompletion(RUN);
-                echo("Completed Test stop");
+                stopTest();
             } finally {
                 waitForStopThread.countDown();
             }
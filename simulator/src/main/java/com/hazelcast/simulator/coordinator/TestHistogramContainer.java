@@ -17,7 +17,7 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.probes.Result;
 import com.hazelcast.simulator.probes.impl.ResultImpl;
-import com.hazelcast.simulator.probes.xml.ResultXmlUtils;
+import com.hazelcast.simulator.probes.binary.ResultBinaryUtils;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceState;
 import org.HdrHistogram.Histogram;
@@ -28,13 +28,22 @@ import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.probes.Result.NO_STEADY_STATE;
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
+import static com.hazelcast.simulator.utils.FormatUtils.getTimeUnitSymbol;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static javax.xml.bind.DatatypeConverter.parseBase64Binary;
 import static org.HdrHistogram.Histogram.decodeFromCompressedByteBuffer;
 
 /**
  * Responsible for storing and aggregating test histograms from Simulator workers.
+ *
+ * If the workers exclude the warm-up of a test from their histograms, they also report the operation count and the throughput of
+ * the aggregated intervals. These values are used for the result, so the invocations and the throughput cover the same intervals
+ * as the histograms. The result contains the latest steady state cut-off of all workers.
  */
 public class TestHistogramContainer {
 
@@ -42,6 +51,10 @@ public class TestHistogramContainer {
 
     private final ConcurrentMap<SimulatorAddress, ConcurrentMap<String, Map<String, String>>> workerTestProbeHistogramMap
             = new ConcurrentHashMap<SimulatorAddress, ConcurrentMap<String, Map<String, String>>>();
+    private final ConcurrentMap<String, Map<String, TimeUnit>> testProbeLatencyUnitMap
+            = new ConcurrentHashMap<String, Map<String, TimeUnit>>();
+    private final ConcurrentMap<SimulatorAddress, ConcurrentMap<String, AggregatedOperations>> workerTestOperationsMap
+            = new ConcurrentHashMap<SimulatorAddress, ConcurrentMap<String, AggregatedOperations>>();
 
     private final PerformanceStateContainer performanceStateContainer;
 
@@ -49,7 +62,16 @@ public class TestHistogramContainer {
         this.performanceStateContainer = performanceStateContainer;
     }
 
-    public synchronized void addTestHistograms(SimulatorAddress workerAddress, String testId, Map<String, String> histograms) {
+    public void addTestHistograms(SimulatorAddress workerAddress, String testId, Map<String, String> histograms) {
+        addTestHistograms(workerAddress, testId, histograms, null);
+    }
+
+    public synchronized void addTestHistograms(SimulatorAddress workerAddress, String testId, Map<String, String> histograms,
+                                               Map<String, TimeUnit> latencyUnits) {
+        if (latencyUnits != null && !latencyUnits.isEmpty()) {
+            testProbeLatencyUnitMap.put(testId, latencyUnits);
+        }
+
         ConcurrentMap<String, Map<String, String>> testHistogramMap = workerTestProbeHistogramMap.get(workerAddress);
         if (testHistogramMap == null) {
             testHistogramMap = new ConcurrentHashMap<String, Map<String, String>>();
@@ -58,6 +80,26 @@ public class TestHistogramContainer {
         testHistogramMap.put(testId, histograms);
     }
 
+    /**
+     * Adds the operation count and the throughput of the intervals which are aggregated in the test histograms of a worker.
+     *
+     * @param workerAddress     the address of the worker
+     * @param testId            the id of the test
+     * @param operationCount    the operation count of the aggregated intervals
+     * @param throughput        the throughput of the aggregated intervals
+     * @param steadyStateCutOff the start of the aggregated intervals in milliseconds since the start of the test or
+     *                          {@link Result#NO_STEADY_STATE}
+     */
+    public synchronized void addAggregatedOperations(SimulatorAddress workerAddress, String testId, long operationCount,
+                                                     double throughput, long steadyStateCutOff) {
+        ConcurrentMap<String, AggregatedOperations> testOperationsMap = workerTestOperationsMap.get(workerAddress);
+        if (testOperationsMap == null) {
+            testOperationsMap = new ConcurrentHashMap<String, AggregatedOperations>();
+            workerTestOperationsMap.put(workerAddress, testOperationsMap);
+        }
+        testOperationsMap.put(testId, new AggregatedOperations(operationCount, throughput, steadyStateCutOff));
+    }
+
     public ConcurrentMap<String, Map<String, String>> getTestHistograms(SimulatorAddress workerAddress) {
         return workerTestProbeHistogramMap.get(workerAddress);
     }
@@ -66,14 +108,19 @@ public class TestHistogramContainer {
         PerformanceState performanceState = performanceStateContainer.getPerformanceStateForTestCase(testCaseId);
         Result result = aggregateHistogramsForTestCase(testCaseId, performanceState);
         if (!result.isEmpty()) {
-            String fileName = "probes-" + testSuiteId + '_' + testCaseId + ".xml";
-            ResultXmlUtils.toXml(result, new File(fileName));
+            String fileName = "probes-" + testSuiteId + '_' + testCaseId + ResultBinaryUtils.FILE_EXTENSION;
+            ResultBinaryUtils.toBinary(result, new File(fileName));
+            if (result.getSteadyStateCutOff() > 0) {
+                LOGGER.info(format("%s Results exclude the warm-up of %d ms (%d ops, %.2f ops/s)", testCaseId,
+                        result.getSteadyStateCutOff(), result.getInvocations(), result.getThroughput()));
+            }
             logProbesResultInHumanReadableFormat(testCaseId, result);
         }
     }
 
     synchronized Result aggregateHistogramsForTestCase(String testCaseId, PerformanceState state) {
-        Result result = new ResultImpl(testCaseId, state.getOperationCount(), state.getTotalThroughput());
+        Result result = createResult(testCaseId, state);
+        Map<String, TimeUnit> latencyUnits = testProbeLatencyUnitMap.get(testCaseId);
         for (ConcurrentMap<String, Map<String, String>> testHistogramMap : workerTestProbeHistogramMap.values()) {
             Map<String, String> probeHistogramMap = testHistogramMap.get(testCaseId);
             if (probeHistogramMap == null) {
@@ -85,7 +132,7 @@ public class TestHistogramContainer {
                 try {
                     ByteBuffer buffer = ByteBuffer.wrap(parseBase64Binary(encodedHistogram));
                     Histogram histogram = decodeFromCompressedByteBuffer(buffer, 0);
-                    result.addHistogram(probeName, histogram);
+                    result.addHistogram(probeName, histogram, getLatencyUnit(latencyUnits, probeName));
                 } catch (Exception e) {
                     LOGGER.warn("Could not decode histogram from test " + testCaseId + " of probe " + probeName);
                 }
@@ -94,9 +141,61 @@ public class TestHistogramContainer {
         return result;
     }
 
+    private Result createResult(String testCaseId, PerformanceState state) {
+        long operationCount = 0;
+        double throughput = 0;
+        long steadyStateCutOff = 0;
+        boolean hasWorker = false;
+        for (Map.Entry<SimulatorAddress, ConcurrentMap<String, Map<String, String>>> entry
+                : workerTestProbeHistogramMap.entrySet()) {
+            if (!entry.getValue().containsKey(testCaseId)) {
+                continue;
+            }
+            AggregatedOperations operations = getAggregatedOperations(entry.getKey(), testCaseId);
+            if (operations == null) {
+                // the worker hasn't reported its aggregated intervals, so the totals of all intervals are used
+                return new ResultImpl(testCaseId, state.getOperationCount(), state.getTotalThroughput());
+            }
+            hasWorker = true;
+            operationCount += operations.operationCount;
+            throughput += operations.throughput;
+            steadyStateCutOff = (steadyStateCutOff == NO_STEADY_STATE || operations.steadyStateCutOff == NO_STEADY_STATE)
+                    ? NO_STEADY_STATE : max(steadyStateCutOff, operations.steadyStateCutOff);
+        }
+        if (!hasWorker) {
+            return new ResultImpl(testCaseId, state.getOperationCount(), state.getTotalThroughput());
+        }
+        return new ResultImpl(testCaseId, operationCount, throughput, steadyStateCutOff);
+    }
+
+    private AggregatedOperations getAggregatedOperations(SimulatorAddress workerAddress, String testCaseId) {
+        ConcurrentMap<String, AggregatedOperations> testOperationsMap = workerTestOperationsMap.get(workerAddress);
+        return (testOperationsMap == null) ? null : testOperationsMap.get(testCaseId);
+    }
+
+    private static TimeUnit getLatencyUnit(Map<String, TimeUnit> latencyUnits, String probeName) {
+        TimeUnit latencyUnit = (latencyUnits == null) ? null : latencyUnits.get(probeName);
+        return (latencyUnit == null) ? LATENCY_UNIT : latencyUnit;
+    }
+
     private void logProbesResultInHumanReadableFormat(String testId, Result result) {
         for (String probeName : result.probeNames()) {
-            LOGGER.info(format("%s Results of probe %s:%n%s", testId, probeName, result.toHumanString(probeName)));
+            // the percentile distribution is printed in the latency unit of the probe
+            LOGGER.info(format("%s Results of probe %s (latency unit: %s):%n%s", testId, probeName,
+                    getTimeUnitSymbol(result.getLatencyUnit(probeName)), result.toHumanString(probeName)));
+        }
+    }
+
+    private static final class AggregatedOperations {
+
+        private final long operationCount;
+        private final double throughput;
+        private final long steadyStateCutOff;
+
+        private AggregatedOperations(long operationCount, double throughput, long steadyStateCutOff) {
+            this.operationCount = operationCount;
+            this.throughput = throughput;
+            this.steadyStateCutOff = steadyStateCutOff;
         }
     }
 }
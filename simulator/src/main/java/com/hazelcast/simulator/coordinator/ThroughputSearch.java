@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+/**
+ * Searches the maximum sustainable throughput of a test.
+ *
+ * The search starts with an initial target throughput. As long as the SLA is met the target throughput is doubled, until an
+ * upper bound is found. Then the range between the highest passed and the lowest failed target throughput is searched binary,
+ * until the range is below the configured precision or the maximum number of steps is reached.
+ */
+final class ThroughputSearch {
+
+    static final int DEFAULT_MAX_STEPS = 10;
+    static final double DEFAULT_PRECISION = 0.05;
+
+    private static final double NO_UPPER_BOUND = -1;
+
+    private final int maxSteps;
+    private final double precision;
+
+    private double lowerBound;
+    private double upperBound = NO_UPPER_BOUND;
+    private double targetThroughput;
+    private int steps;
+
+    ThroughputSearch(double initialTargetThroughput) {
+        this(initialTargetThroughput, DEFAULT_MAX_STEPS, DEFAULT_PRECISION);
+    }
+
+    ThroughputSearch(double initialTargetThroughput, int maxSteps, double precision) {
+        if (initialTargetThroughput <= 0) {
+            throw new IllegalArgumentException("Initial target throughput must be positive, but was " + initialTargetThroughput);
+        }
+        this.targetThroughput = initialTargetThroughput;
+        this.maxSteps = maxSteps;
+        this.precision = precision;
+    }
+
+    /**
+     * Returns the target throughput of the next search step.
+     *
+     * @return the target throughput in operations per second
+     */
+    double getTargetThroughput() {
+        return targetThroughput;
+    }
+
+    /**
+     * Updates the search with the result of the current search step.
+     *
+     * @param isSlaMet <tt>true</tt> if the test has met the SLA with the current target throughput, <tt>false</tt> otherwise
+     */
+    void update(boolean isSlaMet) {
+        steps++;
+        if (isSlaMet) {
+            lowerBound = targetThroughput;
+            targetThroughput = (upperBound == NO_UPPER_BOUND) ? targetThroughput * 2 : (lowerBound + upperBound) / 2;
+        } else {
+            upperBound = targetThroughput;
+            targetThroughput = (lowerBound + upperBound) / 2;
+        }
+    }
+
+    boolean isFinished() {
+        if (steps >= maxSteps) {
+            return true;
+        }
+        return upperBound != NO_UPPER_BOUND && upperBound - lowerBound <= upperBound * precision;
+    }
+
+    int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the highest target throughput which has met the SLA.
+     *
+     * @return the maximum sustainable throughput in operations per second or <tt>0</tt> if no target throughput met the SLA
+     */
+    double getSustainableThroughput() {
+        return lowerBound;
+    }
+}
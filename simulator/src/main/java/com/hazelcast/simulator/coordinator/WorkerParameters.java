@@ -44,6 +44,7 @@ public class WorkerParameters {
 
     private final boolean monitorPerformance;
     private final int workerPerformanceMonitorIntervalSeconds;
+    private final int workerLatencyLogIntervalMillis;
 
     private final JavaProfiler profiler;
     private final String profilerSettings;
@@ -66,6 +67,7 @@ public class WorkerParameters {
 
         this.monitorPerformance = monitorPerformance;
         this.workerPerformanceMonitorIntervalSeconds = initWorkerPerformanceMonitorIntervalSeconds(properties);
+        this.workerLatencyLogIntervalMillis = initWorkerLatencyLogIntervalMillis(properties);
 
         this.profiler = initProfiler(properties);
         this.profilerSettings = initProfilerSettings(properties);
@@ -80,6 +82,14 @@ public class WorkerParameters {
         return Integer.parseInt(intervalSeconds);
     }
 
+    private int initWorkerLatencyLogIntervalMillis(SimulatorProperties properties) {
+        String intervalMillis = properties.get("WORKER_LATENCY_LOG_INTERVAL_MILLIS");
+        if (intervalMillis == null || intervalMillis.isEmpty()) {
+            return 0;
+        }
+        return Integer.parseInt(intervalMillis);
+    }
+
     private JavaProfiler initProfiler(SimulatorProperties properties) {
         String profilerName = properties.get("PROFILER");
         if (profilerName == null || profilerName.isEmpty()) {
@@ -142,6 +152,10 @@ public class WorkerParameters {
         return workerPerformanceMonitorIntervalSeconds;
     }
 
+    public int getWorkerLatencyLogIntervalMillis() {
+        return workerLatencyLogIntervalMillis;
+    }
+
     public int getRunPhaseLogIntervalSeconds(int runPhaseLogIntervalSeconds) {
         if (!monitorPerformance) {
             return runPhaseLogIntervalSeconds;
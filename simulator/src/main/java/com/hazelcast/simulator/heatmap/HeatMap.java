@@ -20,28 +20,50 @@ import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramLogReader;
 import org.apache.log4j.Logger;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
 import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
 import static com.hazelcast.simulator.heatmap.HeatMapCli.init;
 import static com.hazelcast.simulator.heatmap.HeatMapCli.run;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
 import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
+import static com.hazelcast.simulator.utils.FormatUtils.getTimeUnitSymbol;
 import static java.lang.Math.round;
 import static java.lang.String.format;
 
 /**
  * Commandline tool to create heatmaps from Simulator test runs.
+ *
+ * The rolled segments of a latency log are read in the order of their index, followed by the active segment. Compressed segments
+ * are decompressed on the fly.
  */
 public class HeatMap {
 
     private static final int DIMENSION_Y = 800;
 
+    private static final String LATENCY_UNIT_COMMENT_PREFIX = "#LatencyUnit=";
+    private static final TimeUnit DEFAULT_LATENCY_UNIT = TimeUnit.MICROSECONDS;
+
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("(.*\\.txt)(?:\\.(\\d+)(\\.gz)?)?");
+    private static final int ACTIVE_SEGMENT_INDEX = Integer.MAX_VALUE;
+
     private static final Logger LOGGER = Logger.getLogger(HeatMap.class);
 
     private final File directory;
@@ -49,6 +71,7 @@ public class HeatMap {
     private final String probeName;
 
     private int histogramCount;
+    private TimeUnit latencyUnit;
 
     public HeatMap(String directory, String testName, String probeName) {
         LOGGER.info("Hazelcast Simulator HeatMap");
@@ -74,6 +97,8 @@ public class HeatMap {
         histogramCount = histograms.size();
         LOGGER.info(format("Found %d histograms in total", histogramCount));
 
+        String unit = getTimeUnitSymbol(latencyUnit == null ? DEFAULT_LATENCY_UNIT : latencyUnit);
+
         long totalMinLatency = Long.MAX_VALUE;
         long totalMaxLatency = Long.MIN_VALUE;
         for (Histogram histogram : histograms) {
@@ -85,12 +110,13 @@ public class HeatMap {
             if (maxValue > totalMaxLatency) {
                 totalMaxLatency = maxValue;
             }
-            LOGGER.info(format("Minimum latency: %d µs, maximum latency: %d µs", minValue, maxValue));
+            LOGGER.info(format("Minimum latency: %d %s, maximum latency: %d %s", minValue, unit, maxValue, unit));
         }
-        LOGGER.info(format("Total minimum latency: %d µs, total maximum latency: %d µs", totalMinLatency, totalMaxLatency));
+        LOGGER.info(format("Total minimum latency: %d %s, total maximum latency: %d %s", totalMinLatency, unit,
+                totalMaxLatency, unit));
 
         double latencyWindowSize = totalMaxLatency / (double) DIMENSION_Y;
-        LOGGER.info(format("Latency window per pixel: %.2f µs", latencyWindowSize));
+        LOGGER.info(format("Latency window per pixel: %.2f %s", latencyWindowSize, unit));
 
         calculateLinearHeatMap(histograms, latencyWindowSize, totalMaxLatency);
     }
@@ -100,6 +126,11 @@ public class HeatMap {
         return histogramCount;
     }
 
+    // just for testing
+    TimeUnit getLatencyUnit() {
+        return latencyUnit;
+    }
+
     public static void main(String[] args) {
         try {
             run(init(args));
@@ -108,21 +139,112 @@ public class HeatMap {
         }
     }
 
-    static HistogramLogReader createHistogramLogReader(File latencyFile, String testName) {
+    static InputStream openLatencyFile(File latencyFile) throws IOException {
+        InputStream inputStream = new FileInputStream(latencyFile);
+        if (!latencyFile.getName().endsWith(".gz")) {
+            return inputStream;
+        }
         try {
-            return new HistogramLogReader(latencyFile);
+            return new GZIPInputStream(inputStream);
         } catch (IOException e) {
-            throw new CommandLineExitException("Could not initialize HistogramLogReader for test " + testName, e);
+            closeQuietly(inputStream);
+            throw e;
+        }
+    }
+
+    static TimeUnit readLatencyUnit(File latencyFile) {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(openLatencyFile(latencyFile), "UTF-8"));
+            String line = reader.readLine();
+            while (line != null && line.startsWith("#")) {
+                if (line.startsWith(LATENCY_UNIT_COMMENT_PREFIX)) {
+                    return parseLatencyUnit(latencyFile, line.substring(LATENCY_UNIT_COMMENT_PREFIX.length()).trim());
+                }
+                line = reader.readLine();
+            }
+            return DEFAULT_LATENCY_UNIT;
+        } catch (IOException e) {
+            throw new CommandLineExitException("Could not read latency unit from " + latencyFile, e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private static TimeUnit parseLatencyUnit(File latencyFile, String latencyUnit) {
+        try {
+            return TimeUnit.valueOf(latencyUnit);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLineExitException(format("Latency file %s has an invalid latency unit: %s", latencyFile,
+                    latencyUnit));
         }
     }
 
-    private static List<Histogram> getHistograms(String testName, FileWalker fileWalker) {
-        ArrayList<Histogram> histograms = new ArrayList<Histogram>();
-        for (File latencyFile : fileWalker.getGetFiles()) {
-            LOGGER.info(format("Processing latency file %s...", latencyFile.getAbsolutePath()));
-            HistogramLogReader histogramLogReader = createHistogramLogReader(latencyFile, testName);
+    /**
+     * Groups the segments of each latency log in the order in which they have been written.
+     *
+     * If a rolled segment exists uncompressed and compressed, the uncompressed segment is used, since its compression might not
+     * have been finished.
+     *
+     * @param latencyFiles the latency files and their rolled segments
+     * @return a list of the segments per latency log
+     */
+    static List<List<File>> getLatencyLogs(List<File> latencyFiles) {
+        Map<String, SortedMap<Integer, File>> latencyLogMap = new TreeMap<String, SortedMap<Integer, File>>();
+        for (File latencyFile : latencyFiles) {
+            Matcher matcher = SEGMENT_PATTERN.matcher(latencyFile.getPath());
+            if (!matcher.matches()) {
+                continue;
+            }
+            SortedMap<Integer, File> segments = latencyLogMap.get(matcher.group(1));
+            if (segments == null) {
+                segments = new TreeMap<Integer, File>();
+                latencyLogMap.put(matcher.group(1), segments);
+            }
+            int segmentIndex = (matcher.group(2) == null) ? ACTIVE_SEGMENT_INDEX : Integer.parseInt(matcher.group(2));
+            if (matcher.group(3) == null || !segments.containsKey(segmentIndex)) {
+                segments.put(segmentIndex, latencyFile);
+            }
+        }
+
+        List<List<File>> latencyLogs = new ArrayList<List<File>>(latencyLogMap.size());
+        for (SortedMap<Integer, File> segments : latencyLogMap.values()) {
+            latencyLogs.add(new ArrayList<File>(segments.values()));
+        }
+        return latencyLogs;
+    }
 
+    private List<Histogram> getHistograms(String testName, FileWalker fileWalker) {
+        List<Histogram> histograms = new ArrayList<Histogram>();
+        for (List<File> segments : getLatencyLogs(fileWalker.getGetFiles())) {
+            // the interval index continues in the next segment of the same latency log
             int index = 0;
+            for (File latencyFile : segments) {
+                LOGGER.info(format("Processing latency file %s...", latencyFile.getAbsolutePath()));
+                checkLatencyUnit(latencyFile);
+                index = addHistograms(histograms, latencyFile, index, testName);
+            }
+        }
+        return histograms;
+    }
+
+    private void checkLatencyUnit(File latencyFile) {
+        TimeUnit fileLatencyUnit = readLatencyUnit(latencyFile);
+        if (latencyUnit == null) {
+            latencyUnit = fileLatencyUnit;
+        } else if (latencyUnit != fileLatencyUnit) {
+            throw new CommandLineExitException(format("Latency file %s has latency unit %s, but expected %s", latencyFile,
+                    fileLatencyUnit, latencyUnit));
+        }
+    }
+
+    private static int addHistograms(List<Histogram> histograms, File latencyFile, int startIndex, String testName) {
+        InputStream inputStream = null;
+        try {
+            inputStream = openLatencyFile(latencyFile);
+            HistogramLogReader histogramLogReader = new HistogramLogReader(inputStream);
+
+            int index = startIndex;
             Histogram histogram = (Histogram) histogramLogReader.nextIntervalHistogram();
             while (histogram != null) {
                 if (histograms.size() > index) {
@@ -134,8 +256,12 @@ public class HeatMap {
                 index++;
                 histogram = (Histogram) histogramLogReader.nextIntervalHistogram();
             }
+            return index;
+        } catch (IOException e) {
+            throw new CommandLineExitException("Could not initialize HistogramLogReader for test " + testName, e);
+        } finally {
+            closeQuietly(inputStream);
         }
-        return histograms;
     }
 
     private static List<ArrayList<Long>> calculateLinearHeatMap(List<Histogram> histograms, double latencyWindowSize,
@@ -18,6 +18,9 @@ package com.hazelcast.simulator.heatmap;
 import java.io.File;
 import java.io.FilenameFilter;
 
+/**
+ * Accepts the latency logs of a probe, including their rolled segments <tt>.&lt;index&gt;</tt> and <tt>.&lt;index&gt;.gz</tt>.
+ */
 class HistogramFilenameFilter implements FilenameFilter {
 
     private final String aggregatedFileRegex;
@@ -28,7 +31,7 @@ class HistogramFilenameFilter implements FilenameFilter {
         probeName = (!probeName.isEmpty()) ? probeName : testName + "WorkerProbe";
 
         this.aggregatedFileRegex = "^latency-" + testName + "-aggregated\\.txt$";
-        this.latencyFileRegex = "^latency-" + testName + "-" + probeName + "\\.txt$";
+        this.latencyFileRegex = "^latency-" + testName + "-" + probeName + "\\.txt(\\.\\d+(\\.gz)?)?$";
     }
 
     @Override
@@ -19,16 +19,50 @@ import com.hazelcast.simulator.worker.performance.PerformanceState;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class PerformanceStateOperation implements SimulatorOperation {
 
     private final Map<String, PerformanceState> performanceStates = new HashMap<String, PerformanceState>();
+    private final Map<String, Long> intervalIndexes = new HashMap<String, Long>();
+    private final Map<String, Map<String, String>> intervalHistograms = new HashMap<String, Map<String, String>>();
+    private final Map<String, Map<String, TimeUnit>> latencyUnits = new HashMap<String, Map<String, TimeUnit>>();
 
     public void addPerformanceState(String testId, PerformanceState performanceState) {
         performanceStates.put(testId, performanceState);
     }
 
+    /**
+     * Adds the interval histograms of a test, which are merged with the histograms of the other workers by their interval index.
+     *
+     * The interval index relates the interval throughput of the {@link PerformanceState} of the test to the cluster interval, so
+     * it is also added if there are no histograms.
+     *
+     * @param testId            the id of the test
+     * @param intervalIndex     the index of the reporting interval, counted from the start of the test
+     * @param probeHistograms   the encoded interval histograms per probe
+     * @param probeLatencyUnits the latency units per probe
+     */
+    public void addIntervalHistograms(String testId, long intervalIndex, Map<String, String> probeHistograms,
+                                      Map<String, TimeUnit> probeLatencyUnits) {
+        intervalIndexes.put(testId, intervalIndex);
+        intervalHistograms.put(testId, probeHistograms);
+        latencyUnits.put(testId, probeLatencyUnits);
+    }
+
     public Map<String, PerformanceState> getPerformanceStates() {
         return performanceStates;
     }
+
+    public Map<String, Long> getIntervalIndexes() {
+        return intervalIndexes;
+    }
+
+    public Map<String, Map<String, String>> getIntervalHistograms() {
+        return intervalHistograms;
+    }
+
+    public Map<String, Map<String, TimeUnit>> getLatencyUnits() {
+        return latencyUnits;
+    }
 }
@@ -15,16 +15,49 @@
  */
 package com.hazelcast.simulator.protocol.operation;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class TestHistogramOperation implements SimulatorOperation {
 
+    private static final long UNKNOWN_OPERATION_COUNT = -1;
+    private static final long NO_STEADY_STATE = -1;
+
     private final String testId;
     private final Map<String, String> probeHistograms;
+    private final Map<String, TimeUnit> probeLatencyUnits;
+    private final long operationCount;
+    private final double throughput;
+    private final long steadyStateCutOff;
 
     public TestHistogramOperation(String testId, Map<String, String> probeHistograms) {
+        this(testId, probeHistograms, Collections.<String, TimeUnit>emptyMap());
+    }
+
+    public TestHistogramOperation(String testId, Map<String, String> probeHistograms, Map<String, TimeUnit> probeLatencyUnits) {
+        this(testId, probeHistograms, probeLatencyUnits, UNKNOWN_OPERATION_COUNT, 0, NO_STEADY_STATE);
+    }
+
+    /**
+     * Creates an operation with the operation count and the throughput of the aggregated intervals.
+     *
+     * @param testId            the id of the test
+     * @param probeHistograms   the encoded aggregated histograms per probe
+     * @param probeLatencyUnits the latency units per probe
+     * @param operationCount    the operation count of the aggregated intervals
+     * @param throughput        the throughput of the aggregated intervals
+     * @param steadyStateCutOff the start of the aggregated intervals in milliseconds since the start of the test or <tt>-1</tt>
+     *                          if the steady state has not been reached
+     */
+    public TestHistogramOperation(String testId, Map<String, String> probeHistograms, Map<String, TimeUnit> probeLatencyUnits,
+                                  long operationCount, double throughput, long steadyStateCutOff) {
         this.testId = testId;
         this.probeHistograms = probeHistograms;
+        this.probeLatencyUnits = probeLatencyUnits;
+        this.operationCount = operationCount;
+        this.throughput = throughput;
+        this.steadyStateCutOff = steadyStateCutOff;
     }
 
     public String getTestId() {
@@ -34,4 +67,25 @@ public class TestHistogramOperation implements SimulatorOperation {
     public Map<String, String> getProbeHistograms() {
         return probeHistograms;
     }
+
+    public Map<String, TimeUnit> getProbeLatencyUnits() {
+        return probeLatencyUnits;
+    }
+
+    /**
+     * Returns the operation count of the aggregated intervals.
+     *
+     * @return the operation count or <tt>-1</tt> if it is unknown
+     */
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public long getSteadyStateCutOff() {
+        return steadyStateCutOff;
+    }
 }
@@ -102,10 +102,19 @@ public class CoordinatorOperationProcessor extends OperationProcessor {
 
     private void processPerformanceState(PerformanceStateOperation operation, SimulatorAddress sourceAddress) {
         performanceStateContainer.updatePerformanceState(sourceAddress, operation.getPerformanceStates());
+        if (!operation.getIntervalIndexes().isEmpty()) {
+            performanceStateContainer.addIntervalHistograms(sourceAddress, operation.getIntervalIndexes(),
+                    operation.getIntervalHistograms(), operation.getLatencyUnits());
+        }
     }
 
     private void processTestHistogram(TestHistogramOperation operation, SimulatorAddress sourceAddress) {
-        testHistogramContainer.addTestHistograms(sourceAddress, operation.getTestId(), operation.getProbeHistograms());
+        testHistogramContainer.addTestHistograms(sourceAddress, operation.getTestId(), operation.getProbeHistograms(),
+                operation.getProbeLatencyUnits());
+        if (operation.getOperationCount() >= 0) {
+            testHistogramContainer.addAggregatedOperations(sourceAddress, operation.getTestId(), operation.getOperationCount(),
+                    operation.getThroughput(), operation.getSteadyStateCutOff());
+        }
     }
 
     private void processFailure(FailureOperation operation) {
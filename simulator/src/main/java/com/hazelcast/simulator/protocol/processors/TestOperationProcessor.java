@@ -20,6 +20,7 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.exception.ExceptionLogger;
 import com.hazelcast.simulator.protocol.operation.OperationType;
 import com.hazelcast.simulator.protocol.operation.PhaseCompletedOperation;
+import com.hazelcast.simulator.protocol.operation.SetTargetThroughputOperation;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.protocol.operation.StartTestOperation;
 import com.hazelcast.simulator.protocol.operation.StartTestPhaseOperation;
@@ -97,6 +98,9 @@ public class TestOperationProcessor extends OperationProcessor {
             case STOP_TEST:
                 processStopTest();
                 break;
+            case SET_TARGET_THROUGHPUT:
+                processSetTargetThroughput((SetTargetThroughputOperation) operation);
+                break;
             default:
                 return UNSUPPORTED_OPERATION_ON_THIS_PROCESSOR;
         }
@@ -161,6 +165,13 @@ public class TestOperationProcessor extends OperationProcessor {
         testContainer.getTestContext().stop();
     }
 
+    private void processSetTargetThroughput(SetTargetThroughputOperation operation) {
+        double workerTargetThroughput = operation.getWorkerTargetThroughput();
+        LOGGER.info(format("%s Setting target throughput of %s to %.1f ops/s %s", DASHES, testId, workerTargetThroughput,
+                DASHES));
+        testContainer.setWorkerTargetThroughput(workerTargetThroughput);
+    }
+
     private void sendPhaseCompletedOperation(TestPhase testPhase) {
         PhaseCompletedOperation operation = new PhaseCompletedOperation(testPhase);
         worker.getWorkerConnector().submitFromTest(testAddress, COORDINATOR, operation);
@@ -19,6 +19,9 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_PRECISION;
 
 /**
  * Annotates {@link com.hazelcast.simulator.probes.Probe} fields.
@@ -29,6 +32,8 @@ public @interface InjectProbe {
 
     String NULL = "probe name default";
 
+    String CORRECTED_PROBE_SUFFIX = "Corrected";
+
     /**
      * Defines the probe name.
      *
@@ -42,4 +47,53 @@ public @interface InjectProbe {
      * @return <tt>true</tt> if probe should be considered for throughput, <tt>false</tt> otherwise
      */
     boolean useForThroughput() default false;
+
+    /**
+     * Defines the unit of the recorded latency values.
+     *
+     * Use {@link TimeUnit#NANOSECONDS} for sub-microsecond operations and {@link TimeUnit#MILLISECONDS} for long running
+     * operations. Only nanoseconds, microseconds and milliseconds are supported.
+     *
+     * @return the {@link TimeUnit} of the recorded latency values
+     */
+    TimeUnit latencyUnit() default TimeUnit.MICROSECONDS;
+
+    /**
+     * Defines the highest latency value which can be tracked by the probe, expressed in {@link #latencyUnit()}.
+     *
+     * Larger values are clamped to this value. The default value of <tt>0</tt> tracks latencies up to 60 seconds.
+     *
+     * @return the highest trackable latency value
+     */
+    long highestTrackableValue() default 0;
+
+    /**
+     * Defines the number of significant decimal digits of the recorded latency values (0 to 5).
+     *
+     * A higher precision increases the memory footprint of the probe.
+     *
+     * @return the number of significant decimal digits
+     */
+    int significantDigits() default LATENCY_PRECISION;
+
+    /**
+     * Defines if the probe should also record latencies corrected for coordinated omission.
+     *
+     * The corrected latencies are measured from the intended start time of an operation, e.g. as returned by a
+     * {@link com.hazelcast.simulator.worker.metronome.Metronome}. They are reported as additional probe with the suffix
+     * {@value #CORRECTED_PROBE_SUFFIX}, next to the uncorrected latencies.
+     *
+     * @return <tt>true</tt> if the probe should record corrected latencies, <tt>false</tt> otherwise
+     */
+    boolean recordCorrectedLatency() default false;
+
+    /**
+     * Defines if the probe should record latency values.
+     *
+     * A probe without latency values just counts the operations, which avoids the {@link System#nanoTime()} calls and the
+     * histogram update of a latency measurement. Use it for tests which are only interested in the throughput.
+     *
+     * @return <tt>true</tt> if the probe should record latency values, <tt>false</tt> if it should only count operations
+     */
+    boolean recordLatency() default true;
 }
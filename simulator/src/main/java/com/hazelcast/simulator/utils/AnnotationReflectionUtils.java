@@ -23,7 +23,10 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_PRECISION;
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
 import static java.lang.String.format;
 
 public final class AnnotationReflectionUtils {
@@ -57,6 +60,66 @@ public final class AnnotationReflectionUtils {
         return false;
     }
 
+    public static boolean isCorrectedLatencyProbe(Field field) {
+        if (field == null) {
+            return false;
+        }
+
+        InjectProbe probeAnnotation = field.getAnnotation(InjectProbe.class);
+        if (probeAnnotation != null) {
+            return probeAnnotation.recordCorrectedLatency();
+        }
+        return false;
+    }
+
+    public static boolean isLatencyProbe(Field field) {
+        if (field == null) {
+            return true;
+        }
+
+        InjectProbe probeAnnotation = field.getAnnotation(InjectProbe.class);
+        if (probeAnnotation != null) {
+            return probeAnnotation.recordLatency();
+        }
+        return true;
+    }
+
+    public static TimeUnit getProbeLatencyUnit(Field field) {
+        if (field == null) {
+            return LATENCY_UNIT;
+        }
+
+        InjectProbe probeAnnotation = field.getAnnotation(InjectProbe.class);
+        if (probeAnnotation != null) {
+            return probeAnnotation.latencyUnit();
+        }
+        return LATENCY_UNIT;
+    }
+
+    public static long getProbeHighestTrackableValue(Field field) {
+        if (field == null) {
+            return 0;
+        }
+
+        InjectProbe probeAnnotation = field.getAnnotation(InjectProbe.class);
+        if (probeAnnotation != null) {
+            return probeAnnotation.highestTrackableValue();
+        }
+        return 0;
+    }
+
+    public static int getProbeSignificantDigits(Field field) {
+        if (field == null) {
+            return LATENCY_PRECISION;
+        }
+
+        InjectProbe probeAnnotation = field.getAnnotation(InjectProbe.class);
+        if (probeAnnotation != null) {
+            return probeAnnotation.significantDigits();
+        }
+        return LATENCY_PRECISION;
+    }
+
     /**
      * Searches for an optional void method of the given annotation type and skips the arguments check.
      *
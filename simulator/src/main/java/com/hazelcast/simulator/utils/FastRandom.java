@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fast, non-thread-safe {@link Random} implementation based on the SplitMix64 algorithm of {@code SplittableRandom}.
+ *
+ * {@link Random} updates its seed with a CAS operation on each call, which is contended if an instance is shared between
+ * threads. This implementation keeps its state in a plain field, so each thread has to use its own instance. All methods of
+ * {@link Random} are supported, since they are based on {@link #next(int)}.
+ */
+public final class FastRandom extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long MIX_MULTIPLIER_1 = 0xbf58476d1ce4e5b9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94d049bb133111ebL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final AtomicLong SEED_GENERATOR = new AtomicLong(System.nanoTime());
+
+    private long state;
+
+    public FastRandom() {
+        this(mix64(SEED_GENERATOR.getAndAdd(GOLDEN_GAMMA << 1)) ^ System.nanoTime());
+    }
+
+    public FastRandom(long seed) {
+        // the constructor of Random calls setSeed(), which initializes the state
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = mix64(seed);
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (Long.SIZE - bits));
+    }
+
+    private static long mix64(long value) {
+        long z = (value ^ (value >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        z = (z ^ (z >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return z ^ (z >>> MIX_SHIFT_3);
+    }
+}
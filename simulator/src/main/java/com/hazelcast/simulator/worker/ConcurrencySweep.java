@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.test.TestContext;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static java.lang.String.format;
+
+/**
+ * Tracks the number of worker threads of a test and adds worker threads step by step during the run phase.
+ *
+ * The sweep is configured by the test properties <tt>threadCountStep</tt>, <tt>threadCountStepIntervalSeconds</tt> and
+ * <tt>maxThreadCount</tt>, e.g. a step of 4 threads every 60 seconds. This way a single run covers the whole scalability curve
+ * of a test, without a cluster startup and warmup for each thread count.
+ */
+public class ConcurrencySweep {
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final Logger LOGGER = Logger.getLogger(ConcurrencySweep.class);
+
+    // properties
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int threadCountStep;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int threadCountStepIntervalSeconds;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int maxThreadCount;
+
+    private volatile int currentThreadCount;
+
+    /**
+     * Checks if worker threads are added to the test step by step during the run phase.
+     *
+     * @return <tt>true</tt> if the sweep is enabled, <tt>false</tt> otherwise
+     */
+    public boolean isEnabled() {
+        return threadCountStep > 0 && threadCountStepIntervalSeconds > 0;
+    }
+
+    /**
+     * Returns the number of worker threads, which have been started for the test so far.
+     *
+     * @return the current number of worker threads or <tt>0</tt> if no worker has been started yet
+     */
+    public int getCurrentThreadCount() {
+        return currentThreadCount;
+    }
+
+    void logSteps(String testId) {
+        if (isEnabled()) {
+            LOGGER.info(format("Adding %d worker threads to test %s every %d seconds (maximum: %s)", threadCountStep, testId,
+                    threadCountStepIntervalSeconds, (maxThreadCount > 0) ? maxThreadCount : "none"));
+        }
+    }
+
+    void increaseThreadCount(String testId, int stepSize) {
+        if (currentThreadCount > 0) {
+            LOGGER.info(format("Increasing the number of worker threads of test %s from %d to %d", testId, currentThreadCount,
+                    currentThreadCount + stepSize));
+        }
+        currentThreadCount += stepSize;
+    }
+
+    /**
+     * Waits for the next step of the sweep.
+     *
+     * @param testContext the {@link TestContext} to check if the test has been stopped
+     * @return the number of worker threads to add or <tt>0</tt> if the sweep is disabled, completed or the test has been stopped
+     */
+    int awaitNextStep(TestContext testContext) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        int stepSize = (maxThreadCount > 0) ? Math.min(threadCountStep, maxThreadCount - currentThreadCount) : threadCountStep;
+        if (stepSize <= 0) {
+            return 0;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(threadCountStepIntervalSeconds);
+        while (!testContext.isStopped()) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return stepSize;
+            }
+            sleepNanos(Math.min(remainingNanos, POLL_INTERVAL_NANOS));
+        }
+        return 0;
+    }
+}
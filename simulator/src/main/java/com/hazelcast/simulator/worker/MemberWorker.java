@@ -74,6 +74,13 @@ public final class MemberWorker implements Worker {
 
     MemberWorker(WorkerType type, String publicAddress, int agentIndex, int workerIndex, int workerPort,
                  boolean autoCreateHzInstance, int workerPerformanceMonitorIntervalSeconds, String hConfigFile) throws Exception {
+        this(type, publicAddress, agentIndex, workerIndex, workerPort, autoCreateHzInstance,
+                workerPerformanceMonitorIntervalSeconds, 0, hConfigFile);
+    }
+
+    MemberWorker(WorkerType type, String publicAddress, int agentIndex, int workerIndex, int workerPort,
+                 boolean autoCreateHzInstance, int workerPerformanceMonitorIntervalSeconds, int workerLatencyLogIntervalMillis,
+                 String hConfigFile) throws Exception {
         SHUTDOWN_STARTED.set(false);
 
         this.type = type;
@@ -87,19 +94,22 @@ public final class MemberWorker implements Worker {
         this.workerConnector = WorkerConnector.createInstance(agentIndex, workerIndex, workerPort, type, hazelcastInstance, this);
         this.workerConnector.start();
 
-        this.workerPerformanceMonitor = initWorkerPerformanceMonitor(workerPerformanceMonitorIntervalSeconds);
+        this.workerPerformanceMonitor = initWorkerPerformanceMonitor(workerPerformanceMonitorIntervalSeconds,
+                workerLatencyLogIntervalMillis);
 
         Runtime.getRuntime().addShutdownHook(new ShutdownThread(true));
 
         signalStartToAgent(hazelcastInstance);
     }
 
-    private WorkerPerformanceMonitor initWorkerPerformanceMonitor(int workerPerformanceMonitorIntervalSeconds) {
+    private WorkerPerformanceMonitor initWorkerPerformanceMonitor(int workerPerformanceMonitorIntervalSeconds,
+                                                                  int workerLatencyLogIntervalMillis) {
         if (workerPerformanceMonitorIntervalSeconds < 1) {
             return null;
         }
         WorkerOperationProcessor processor = (WorkerOperationProcessor) workerConnector.getProcessor();
-        return new WorkerPerformanceMonitor(workerConnector, processor.getTests(), workerPerformanceMonitorIntervalSeconds);
+        return new WorkerPerformanceMonitor(workerConnector, processor.getTests(), workerPerformanceMonitorIntervalSeconds,
+                workerLatencyLogIntervalMillis);
     }
 
     @Override
@@ -225,6 +235,7 @@ public final class MemberWorker implements Worker {
 
         boolean autoCreateHzInstance = parseBoolean(System.getProperty("autoCreateHzInstance", "true"));
         int workerPerformanceMonitorIntervalSeconds = parseInt(System.getProperty("workerPerformanceMonitorIntervalSeconds"));
+        int workerLatencyLogIntervalMillis = parseInt(System.getProperty("workerLatencyLogIntervalMillis", "0"));
 
         logHeader("Hazelcast Worker #" + workerIndex + " (" + type + ')');
         logInputArguments();
@@ -241,12 +252,13 @@ public final class MemberWorker implements Worker {
 
         LOGGER.info("autoCreateHzInstance: " + autoCreateHzInstance);
         LOGGER.info("workerPerformanceMonitorIntervalSeconds: " + workerPerformanceMonitorIntervalSeconds);
+        LOGGER.info("workerLatencyLogIntervalMillis: " + workerLatencyLogIntervalMillis);
 
         LOGGER.info("Hazelcast config file: " + hzConfigFile);
         LOGGER.info(fileAsText(new File(hzConfigFile)));
 
         MemberWorker worker = new MemberWorker(type, publicAddress, agentIndex, workerIndex, workerPort, autoCreateHzInstance,
-                workerPerformanceMonitorIntervalSeconds, hzConfigFile);
+                workerPerformanceMonitorIntervalSeconds, workerLatencyLogIntervalMillis, hzConfigFile);
 
         logHeader("Successfully started Hazelcast Worker #" + workerIndex);
 
@@ -16,10 +16,12 @@
 package com.hazelcast.simulator.worker;
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.CounterProbeImpl;
 import com.hazelcast.simulator.probes.impl.ProbeImpl;
 import com.hazelcast.simulator.test.TestCase;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.TestPhase;
+import com.hazelcast.simulator.test.annotations.InjectProbe;
 import com.hazelcast.simulator.test.annotations.Run;
 import com.hazelcast.simulator.test.annotations.RunWithWorker;
 import com.hazelcast.simulator.test.annotations.Setup;
@@ -29,33 +31,59 @@ import com.hazelcast.simulator.test.annotations.Warmup;
 import com.hazelcast.simulator.utils.AnnotationFilter.TeardownFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.VerifyFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.WarmupFilter;
+import com.hazelcast.simulator.utils.FastRandom;
 import com.hazelcast.simulator.utils.ThreadSpawner;
+import com.hazelcast.simulator.worker.metronome.AbstractMetronome;
+import com.hazelcast.simulator.worker.metronome.LoadProfile;
+import com.hazelcast.simulator.worker.metronome.LoadProfileMetronome;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.MetronomeType;
+import com.hazelcast.simulator.worker.tasks.AbstractAsyncWorker;
+import com.hazelcast.simulator.worker.tasks.AbstractEventLoopWorker;
+import com.hazelcast.simulator.worker.tasks.AbstractWorker;
+import com.hazelcast.simulator.worker.tasks.EventLoopGroup;
 import com.hazelcast.simulator.worker.tasks.IWorker;
+import com.hazelcast.simulator.worker.tasks.WorkerModel;
+import com.hazelcast.simulator.worker.trace.WorkloadTraceMode;
+import com.hazelcast.simulator.worker.trace.WorkloadTracer;
 import org.apache.log4j.Logger;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getAtMostOneMethodWithoutArgs;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getAtMostOneVoidMethodSkipArgsCheck;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getAtMostOneVoidMethodWithoutArgs;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeHighestTrackableValue;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeLatencyUnit;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeName;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeSignificantDigits;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.isCorrectedLatencyProbe;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.isLatencyProbe;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.isThroughputProbe;
 import static com.hazelcast.simulator.utils.PropertyBindingSupport.bindOptionalProperty;
 import static com.hazelcast.simulator.utils.ReflectionUtils.getField;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokeMethod;
 import static com.hazelcast.simulator.utils.ReflectionUtils.setFieldValue;
+import static com.hazelcast.simulator.worker.metronome.LoadProfileMetronome.withLoadProfile;
+import static com.hazelcast.simulator.worker.metronome.SimpleMetronome.withFixedIntervalUs;
 import static java.lang.String.format;
 
 /**
  * Since the test is based on annotations there is no API we can call easily.
  * That is the task of this test container.
  */
+@SuppressWarnings("checkstyle:methodcount")
 public class TestContainer {
 
     /**
@@ -64,12 +92,45 @@ public class TestContainer {
     public static final Set<String> OPTIONAL_TEST_PROPERTIES;
 
     private static final int DEFAULT_THREAD_COUNT = 10;
+    private static final int DEFAULT_STEADY_STATE_WINDOW = 0;
+    private static final double DEFAULT_STEADY_STATE_MAX_COEFFICIENT_OF_VARIATION = 0.1;
+    private static final int DEFAULT_LATENCY_LOG_ROLL_SIZE_MB = 256;
+    private static final int DEFAULT_TARGET_THROUGHPUT_PROFILE_STEPS = 5;
+
+    private static final String SCHEDULING_ERROR_PROBE_NAME = "MetronomeSchedulingError";
 
     private static final Logger LOGGER = Logger.getLogger(TestContainer.class);
 
     private enum OptionalTestProperties {
         THREAD_COUNT("threadCount"),
-        LOG_FREQUENCY("logFrequency");
+        THREAD_COUNT_STEP("threadCountStep"),
+        THREAD_COUNT_STEP_INTERVAL_SECONDS("threadCountStepIntervalSeconds"),
+        MAX_THREAD_COUNT("maxThreadCount"),
+        WORKER_MODEL("workerModel"),
+        CARRIER_THREAD_COUNT("carrierThreadCount"),
+        LOG_FREQUENCY("logFrequency"),
+        WORKER_METRONOME_INTERVAL_US("workerMetronomeIntervalUs"),
+        MAX_IN_FLIGHT("maxInFlight"),
+        METRONOME_TYPE("metronomeType"),
+        TARGET_THROUGHPUT("targetThroughput"),
+        WORKER_TARGET_THROUGHPUT("workerTargetThroughput"),
+        TARGET_THROUGHPUT_PROFILE("targetThroughputProfile"),
+        TARGET_THROUGHPUT_PROFILE_STEPS("targetThroughputProfileSteps"),
+        TARGET_THROUGHPUT_DURATION_SECONDS("targetThroughputDurationSeconds"),
+        WORKER_PROBE_LATENCY_UNIT("workerProbeLatencyUnit"),
+        WORKER_PROBE_HIGHEST_TRACKABLE_VALUE("workerProbeHighestTrackableValue"),
+        WORKER_PROBE_SIGNIFICANT_DIGITS("workerProbeSignificantDigits"),
+        WORKER_PROBE_RECORD_CORRECTED_LATENCY("workerProbeRecordCorrectedLatency"),
+        WORKER_PROBE_RECORD_LATENCY("workerProbeRecordLatency"),
+        LATENCY_SAMPLE_RATE("latencySampleRate"),
+        STEADY_STATE_WINDOW("steadyStateWindow"),
+        STEADY_STATE_MAX_COEFFICIENT_OF_VARIATION("steadyStateMaxCoefficientOfVariation"),
+        LATENCY_LOG_ROLL_SIZE_MB("latencyLogRollSizeMb"),
+        LATENCY_LOG_ROLL_INTERVAL_SECONDS("latencyLogRollIntervalSeconds"),
+        PERFORMANCE_LOG_FLUSH_INTERVAL_SECONDS("performanceLogFlushIntervalSeconds"),
+        WORKLOAD_TRACE_MODE("workloadTraceMode"),
+        WORKLOAD_TRACE_DIRECTORY("workloadTraceDirectory"),
+        WORKLOAD_TRACE_REPLAY_SPEED("workloadTraceReplaySpeed");
 
         private final String propertyName;
 
@@ -93,8 +154,55 @@ public class TestContainer {
     // properties
     @SuppressWarnings("checkstyle:visibilitymodifier")
     public int threadCount = DEFAULT_THREAD_COUNT;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public WorkerModel workerModel = WorkerModel.THREAD;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int carrierThreadCount;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public TimeUnit workerProbeLatencyUnit;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public long workerProbeHighestTrackableValue;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int workerProbeSignificantDigits;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public boolean workerProbeRecordCorrectedLatency;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public boolean workerProbeRecordLatency = true;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int latencySampleRate = 1;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public long workerMetronomeIntervalUs;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public MetronomeType metronomeType = MetronomeType.BUSY_SPIN;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public double workerTargetThroughput;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public LoadProfile targetThroughputProfile = LoadProfile.CONSTANT;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int targetThroughputProfileSteps = DEFAULT_TARGET_THROUGHPUT_PROFILE_STEPS;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int targetThroughputDurationSeconds;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int steadyStateWindow = DEFAULT_STEADY_STATE_WINDOW;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public double steadyStateMaxCoefficientOfVariation = DEFAULT_STEADY_STATE_MAX_COEFFICIENT_OF_VARIATION;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int latencyLogRollSizeMb = DEFAULT_LATENCY_LOG_ROLL_SIZE_MB;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int latencyLogRollIntervalSeconds;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int performanceLogFlushIntervalSeconds;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public WorkloadTraceMode workloadTraceMode = WorkloadTraceMode.NONE;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public String workloadTraceDirectory = ".";
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public double workloadTraceReplaySpeed = 1.0;
 
+    private final ConcurrencySweep concurrencySweep = new ConcurrencySweep();
+    private final Set<Long> workerThreadIds = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
     private final Map<String, Probe> probeMap = new ConcurrentHashMap<String, Probe>();
+    private final List<LoadProfileMetronome> metronomes = new ArrayList<LoadProfileMetronome>();
 
     private final Object testClassInstance;
     private final Class testClassType;
@@ -117,6 +225,7 @@ public class TestContainer {
     private Method globalTeardownMethod;
 
     private long testStartedTimestamp;
+    private int createdWorkerCount;
     private volatile boolean isRunning;
 
     public TestContainer(Object testObject, TestContext testContext, TestCase testCase) {
@@ -132,6 +241,20 @@ public class TestContainer {
         this.testContext = testContext;
         this.testCase = testCase;
 
+        bindOptionalProperty(this, testCase, OptionalTestProperties.STEADY_STATE_WINDOW.getPropertyName());
+        bindOptionalProperty(this, testCase,
+                OptionalTestProperties.STEADY_STATE_MAX_COEFFICIENT_OF_VARIATION.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.LATENCY_LOG_ROLL_SIZE_MB.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.LATENCY_LOG_ROLL_INTERVAL_SECONDS.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.PERFORMANCE_LOG_FLUSH_INTERVAL_SECONDS.getPropertyName());
+        // the concurrency sweep is bound early, since the performance monitor has to know about it when the test is started
+        bindOptionalProperty(concurrencySweep, testCase, OptionalTestProperties.THREAD_COUNT_STEP.getPropertyName());
+        bindOptionalProperty(concurrencySweep, testCase,
+                OptionalTestProperties.THREAD_COUNT_STEP_INTERVAL_SECONDS.getPropertyName());
+        bindOptionalProperty(concurrencySweep, testCase, OptionalTestProperties.MAX_THREAD_COUNT.getPropertyName());
+        // the target throughput is bound early, since it can be changed before the run phase has been started
+        bindTargetThroughputProperties();
+
         initMethods();
     }
 
@@ -143,6 +266,66 @@ public class TestContainer {
         return testStartedTimestamp;
     }
 
+    /**
+     * Returns the number of intervals whose throughput has to be stable to detect the steady state of the test.
+     *
+     * The steady state detection is opt-in, so all intervals are aggregated unless a window is configured.
+     *
+     * @return the steady state window or <tt>0</tt> if the steady state detection is disabled (default)
+     */
+    public int getSteadyStateWindow() {
+        return steadyStateWindow;
+    }
+
+    /**
+     * Returns the maximum coefficient of variation of the interval throughput within the steady state window.
+     *
+     * @return the maximum coefficient of variation
+     */
+    public double getSteadyStateMaxCoefficientOfVariation() {
+        return steadyStateMaxCoefficientOfVariation;
+    }
+
+    /**
+     * Returns the size after which the latency logs of the test are rolled.
+     *
+     * @return the roll size in megabytes or <tt>0</tt> if the latency logs are not rolled by size
+     */
+    public int getLatencyLogRollSizeMb() {
+        return latencyLogRollSizeMb;
+    }
+
+    /**
+     * Returns the interval after which the latency logs of the test are rolled.
+     *
+     * @return the roll interval in seconds or <tt>0</tt> if the latency logs are not rolled by time
+     */
+    public int getLatencyLogRollIntervalSeconds() {
+        return latencyLogRollIntervalSeconds;
+    }
+
+    /**
+     * Returns the interval after which the buffered throughput and latency logs of the test are flushed.
+     *
+     * @return the flush interval in seconds or <tt>0</tt> if the logs are flushed after each interval
+     */
+    public int getPerformanceLogFlushIntervalSeconds() {
+        return performanceLogFlushIntervalSeconds;
+    }
+
+    public ConcurrencySweep getConcurrencySweep() {
+        return concurrencySweep;
+    }
+
+    /**
+     * Returns the ids of the threads, which execute the workers of the test.
+     *
+     * @return the ids of the worker threads, or of the carrier threads with the event loop worker model
+     */
+    public Set<Long> getWorkerThreadIds() {
+        return workerThreadIds;
+    }
+
     public boolean isRunning() {
         return isRunning;
     }
@@ -274,9 +457,27 @@ public class TestContainer {
     }
 
     private Probe getOrCreateProbe(String probeName, Field field) {
+        // probes injected into the test class are used manually, so they are not sampled
+        return getOrCreateProbe(probeName, isThroughputProbe(field), isLatencyProbe(field), getProbeLatencyUnit(field),
+                getProbeHighestTrackableValue(field), getProbeSignificantDigits(field), isCorrectedLatencyProbe(field), 1);
+    }
+
+    private Probe getOrCreateProbe(String probeName, boolean isThroughputProbe, boolean recordLatency, TimeUnit latencyUnit,
+                                   long highestTrackableValue, int significantDigits, boolean recordCorrectedLatency,
+                                   int sampleRate) {
         Probe probe = probeMap.get(probeName);
         if (probe == null) {
-            probe = new ProbeImpl(isThroughputProbe(field));
+            if (recordLatency) {
+                ProbeImpl probeImpl = new ProbeImpl(isThroughputProbe, latencyUnit, highestTrackableValue, significantDigits);
+                probeImpl.setLatencySampleRate(sampleRate);
+                if (recordCorrectedLatency) {
+                    probeMap.put(probeName + InjectProbe.CORRECTED_PROBE_SUFFIX, probeImpl.getOrCreateCorrectedProbe());
+                }
+                probe = probeImpl;
+            } else {
+                // a counter probe has no latency values, so there are no corrected latency values either
+                probe = new CounterProbeImpl(isThroughputProbe);
+            }
             probeMap.put(probeName, probe);
         }
         return probe;
@@ -284,26 +485,52 @@ public class TestContainer {
 
     private void invokeRunWithWorkerMethod() throws Exception {
         bindOptionalProperty(this, testCase, OptionalTestProperties.THREAD_COUNT.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_MODEL.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.CARRIER_THREAD_COUNT.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKLOAD_TRACE_MODE.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKLOAD_TRACE_DIRECTORY.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKLOAD_TRACE_REPLAY_SPEED.getPropertyName());
 
         LOGGER.info(format("Spawning %d worker threads for test %s", threadCount, testContext.getTestId()));
+        concurrencySweep.logSteps(testContext.getTestId());
         if (threadCount <= 0) {
             return;
         }
 
         // create instance to get class of worker
-        Class workerClass = invokeMethod(testClassInstance, runWithWorkerMethod).getClass();
+        IWorker workerInstance = invokeMethod(testClassInstance, runWithWorkerMethod);
+        Class workerClass = workerInstance.getClass();
+        if (workerModel == WorkerModel.EVENT_LOOP && !(workerInstance instanceof AbstractEventLoopWorker)) {
+            throw new IllegalTestException(format("The %s worker model requires an %s, but the worker is a %s", workerModel,
+                    AbstractEventLoopWorker.class.getSimpleName(), workerClass.getName()));
+        }
+        assertWorkloadTraceSupport(workerInstance);
 
         Field testContextField = getField(workerClass, "testContext", TestContext.class);
         Field workerProbeField = getField(workerClass, "workerProbe", Probe.class);
+        Field operationProbesField = getField(workerClass, "operationProbes", Probe[].class);
+        Field metronomeField = getField(workerClass, "metronome", Metronome.class);
+        logTargetThroughput();
 
         Probe probe = null;
+        Probe[] operationProbes = null;
         if (workerProbeField != null) {
-            // create one probe per test and inject it in all worker instances of the test
-            probe = getOrCreateProbe(testContext.getTestId() + "WorkerProbe", workerProbeField);
+            bindWorkerProbeProperties(workerProbeField);
+
+            // create one probe per test and inject it in all worker instances of the test (each worker thread records via its own
+            // ProbeHandle, so there is no contention on a shared recorder)
+            probe = getOrCreateProbe(testContext.getTestId() + "WorkerProbe", isThroughputProbe(workerProbeField),
+                    workerProbeRecordLatency, workerProbeLatencyUnit, workerProbeHighestTrackableValue,
+                    workerProbeSignificantDigits, workerProbeRecordCorrectedLatency, latencySampleRate);
+
+            if (operationProbesField != null) {
+                operationProbes = createOperationProbes(workerInstance);
+            }
         }
 
         // spawn worker and wait for completion
-        IWorker worker = spawnWorkerThreads(testContextField, workerProbeField, probe);
+        IWorker worker = spawnWorkerThreads(testContextField, workerProbeField, probe, operationProbesField, operationProbes,
+                metronomeField);
 
         // call the afterCompletion method on a single instance of the worker
         if (worker != null) {
@@ -311,29 +538,231 @@ public class TestContainer {
         }
     }
 
-    private IWorker spawnWorkerThreads(Field testContextField, Field workerProbeField, Probe probe) throws Exception {
-        IWorker worker = null;
+    private void bindWorkerProbeProperties(Field workerProbeField) {
+        // the @InjectProbe annotation of the worker defines the defaults, which can be overridden by test properties
+        workerProbeLatencyUnit = getProbeLatencyUnit(workerProbeField);
+        workerProbeHighestTrackableValue = getProbeHighestTrackableValue(workerProbeField);
+        workerProbeSignificantDigits = getProbeSignificantDigits(workerProbeField);
+        workerProbeRecordCorrectedLatency = isCorrectedLatencyProbe(workerProbeField);
+        workerProbeRecordLatency = isLatencyProbe(workerProbeField);
+
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_PROBE_LATENCY_UNIT.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_PROBE_HIGHEST_TRACKABLE_VALUE.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_PROBE_SIGNIFICANT_DIGITS.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_PROBE_RECORD_CORRECTED_LATENCY.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_PROBE_RECORD_LATENCY.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.LATENCY_SAMPLE_RATE.getPropertyName());
+        if (latencySampleRate > 1 && workerProbeRecordLatency) {
+            LOGGER.info(format("Measuring the latency of one in %d operations of test %s", latencySampleRate,
+                    testContext.getTestId()));
+        }
+    }
 
-        ThreadSpawner spawner = new ThreadSpawner(testContext.getTestId());
-        for (int i = 0; i < threadCount; i++) {
-            worker = invokeMethod(testClassInstance, runWithWorkerMethod);
+    private Probe[] createOperationProbes(IWorker workerInstance) {
+        if (!(workerInstance instanceof AbstractWorker)) {
+            return null;
+        }
+        Set<? extends Enum> operations = ((AbstractWorker<?>) workerInstance).getOperations();
+        if (operations.size() < 2) {
+            // a single operation is already covered by the worker probe
+            return null;
+        }
 
-            if (testContextField != null) {
-                setFieldValue(worker, testContextField, testContext);
+        // the probes are indexed by the ordinal of the operation, so no map lookup is needed to record a value
+        Probe[] operationProbes = null;
+        for (Enum operation : operations) {
+            if (operationProbes == null) {
+                operationProbes = new Probe[operation.getDeclaringClass().getEnumConstants().length];
             }
-            if (workerProbeField != null) {
-                setFieldValue(worker, workerProbeField, probe);
+            // the operation probes are not used for throughput, since the worker probe already records all operations
+            operationProbes[operation.ordinal()] = getOrCreateProbe(testContext.getTestId() + "." + operation.name(), false,
+                    workerProbeRecordLatency, workerProbeLatencyUnit, workerProbeHighestTrackableValue,
+                    workerProbeSignificantDigits, workerProbeRecordCorrectedLatency, latencySampleRate);
+        }
+        return operationProbes;
+    }
+
+    private void bindTargetThroughputProperties() {
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_METRONOME_INTERVAL_US.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.METRONOME_TYPE.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.WORKER_TARGET_THROUGHPUT.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.TARGET_THROUGHPUT_PROFILE.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.TARGET_THROUGHPUT_PROFILE_STEPS.getPropertyName());
+        bindOptionalProperty(this, testCase, OptionalTestProperties.TARGET_THROUGHPUT_DURATION_SECONDS.getPropertyName());
+    }
+
+    private void logTargetThroughput() {
+        if (workerTargetThroughput > 0) {
+            LOGGER.info(format("Pacing test %s with %s ops/s per worker (%s profile over %d seconds)", testContext.getTestId(),
+                    workerTargetThroughput, targetThroughputProfile, targetThroughputDurationSeconds));
+            if (targetThroughputProfile != LoadProfile.CONSTANT && targetThroughputDurationSeconds <= 0) {
+                LOGGER.warn(format("Test %s has no duration, so the %s profile is replaced by a constant target throughput",
+                        testContext.getTestId(), targetThroughputProfile));
             }
+        }
+    }
 
-            bindOptionalProperty(worker, testCase, OptionalTestProperties.LOG_FREQUENCY.getPropertyName());
+    private IWorker spawnWorkerThreads(Field testContextField, Field workerProbeField, Probe probe, Field operationProbesField,
+                                       Probe[] operationProbes, Field metronomeField) throws Exception {
+        if (workerModel == WorkerModel.EVENT_LOOP) {
+            return startEventLoopWorkers(testContextField, workerProbeField, probe, operationProbesField, operationProbes);
+        }
 
-            spawner.spawn(worker);
+        IWorker worker = null;
+        ThreadSpawner spawner = new ThreadSpawner(testContext.getTestId());
+        int stepSize = threadCount;
+        while (stepSize > 0) {
+            increaseThreadCount(stepSize);
+            for (int i = 0; i < stepSize; i++) {
+                worker = createWorker(testContextField, workerProbeField, probe, operationProbesField, operationProbes,
+                        metronomeField);
+                Thread workerThread = spawner.spawn(worker);
+                workerThreadIds.add(workerThread.getId());
+            }
+            stepSize = concurrencySweep.awaitNextStep(testContext);
         }
         spawner.awaitCompletion();
 
         return worker;
     }
 
+    private IWorker startEventLoopWorkers(Field testContextField, Field workerProbeField, Probe probe,
+                                          Field operationProbesField, Probe[] operationProbes) throws Exception {
+        int carrierCount = (carrierThreadCount > 0) ? carrierThreadCount : Runtime.getRuntime().availableProcessors();
+        LOGGER.info(format("Running %d logical workers for test %s on %d carrier threads", threadCount,
+                testContext.getTestId(), carrierCount));
+        if (workerTargetThroughput > 0 || workerMetronomeIntervalUs > 0) {
+            // a metronome blocks the calling thread, which would block all logical workers of a carrier thread
+            LOGGER.warn(format("The %s worker model doesn't support pacing, the logical workers of test %s are not paced",
+                    workerModel, testContext.getTestId()));
+        }
+
+        IWorker worker = null;
+        EventLoopGroup eventLoopGroup = new EventLoopGroup(testContext.getTestId(), carrierCount, probe, operationProbes);
+        for (Thread carrierThread : eventLoopGroup.getCarrierThreads()) {
+            workerThreadIds.add(carrierThread.getId());
+        }
+        int stepSize = threadCount;
+        while (stepSize > 0) {
+            increaseThreadCount(stepSize);
+            for (int i = 0; i < stepSize; i++) {
+                worker = createWorker(testContextField, workerProbeField, probe, operationProbesField, operationProbes, null);
+                eventLoopGroup.start(worker);
+            }
+            stepSize = concurrencySweep.awaitNextStep(testContext);
+        }
+        eventLoopGroup.awaitCompletion();
+
+        return worker;
+    }
+
+    private synchronized void increaseThreadCount(int stepSize) {
+        concurrencySweep.increaseThreadCount(testContext.getTestId(), stepSize);
+        // the target throughput of this worker is split between all worker threads, including the new ones
+        setWorkerTargetThroughput(workerTargetThroughput);
+    }
+
+    private IWorker createWorker(Field testContextField, Field workerProbeField, Probe probe, Field operationProbesField,
+                                 Probe[] operationProbes, Field metronomeField) throws Exception {
+        IWorker worker = invokeMethod(testClassInstance, runWithWorkerMethod);
+
+        if (testContextField != null) {
+            setFieldValue(worker, testContextField, testContext);
+        }
+        if (workerProbeField != null) {
+            setFieldValue(worker, workerProbeField, probe);
+        }
+        if (operationProbesField != null && operationProbes != null) {
+            setFieldValue(worker, operationProbesField, operationProbes);
+        }
+        if (metronomeField != null) {
+            Metronome metronome = createMetronome();
+            if (metronome != null) {
+                setFieldValue(worker, metronomeField, metronome);
+            }
+        }
+
+        bindOptionalProperty(worker, testCase, OptionalTestProperties.LOG_FREQUENCY.getPropertyName());
+        bindOptionalProperty(worker, testCase, OptionalTestProperties.WORKER_METRONOME_INTERVAL_US.getPropertyName());
+        bindOptionalProperty(worker, testCase, OptionalTestProperties.MAX_IN_FLIGHT.getPropertyName());
+        injectWorkloadTracer(worker, createdWorkerCount++);
+        return worker;
+    }
+
+    private void assertWorkloadTraceSupport(IWorker workerInstance) {
+        if (workloadTraceMode == WorkloadTraceMode.NONE) {
+            return;
+        }
+        // the steps of asynchronous workers overlap, so their random values cannot be assigned to a single step
+        boolean isAsync = (workerInstance instanceof AbstractAsyncWorker || workerInstance instanceof AbstractEventLoopWorker);
+        if (!(workerInstance instanceof AbstractWorker) || isAsync) {
+            throw new IllegalTestException(format("Workload traces are just supported by synchronous workers based on %s,"
+                    + " but the worker is a %s", AbstractWorker.class.getSimpleName(), workerInstance.getClass().getName()));
+        }
+        LOGGER.info(format("Workload trace mode of test %s is %s (directory: %s)", testContext.getTestId(), workloadTraceMode,
+                new File(workloadTraceDirectory).getAbsolutePath()));
+    }
+
+    private void injectWorkloadTracer(IWorker worker, int workerIndex) {
+        if (workloadTraceMode == WorkloadTraceMode.NONE) {
+            return;
+        }
+        Set<? extends Enum> operations = ((AbstractWorker<?>) worker).getOperations();
+        Class<?> operationClass = operations.isEmpty() ? null : operations.iterator().next().getDeclaringClass();
+        File traceFile = new File(workloadTraceDirectory, "trace-" + testContext.getTestId() + '-' + workerIndex + ".bin");
+
+        WorkloadTracer workloadTracer;
+        if (workloadTraceMode == WorkloadTraceMode.RECORD) {
+            workloadTracer = WorkloadTracer.record(traceFile, operationClass);
+        } else {
+            workloadTracer = WorkloadTracer.replay(traceFile, operationClass, workloadTraceReplaySpeed);
+        }
+        // the fields are looked up on AbstractWorker, since a test may declare its own fields with the same names
+        setFieldValue(worker, getField(AbstractWorker.class, "workloadTracer", WorkloadTracer.class), workloadTracer);
+        // the Random of the worker is replaced before the worker is started, so all its random values are traced
+        Random tracedRandom = workloadTracer.createRandom(new FastRandom());
+        setFieldValue(worker, getField(AbstractWorker.class, "random", Random.class), tracedRandom);
+    }
+
+    private synchronized Metronome createMetronome() {
+        Metronome metronome;
+        if (workerTargetThroughput > 0) {
+            // each worker thread gets its own metronome with an equal share of the target throughput of this worker
+            double threadTargetThroughput = workerTargetThroughput / concurrencySweep.getCurrentThreadCount();
+            metronome = withLoadProfile(threadTargetThroughput, targetThroughputProfile, targetThroughputDurationSeconds,
+                    targetThroughputProfileSteps, metronomeType);
+            if (metronome instanceof LoadProfileMetronome) {
+                metronomes.add((LoadProfileMetronome) metronome);
+            }
+        } else if (workerMetronomeIntervalUs > 0) {
+            metronome = withFixedIntervalUs(workerMetronomeIntervalUs, metronomeType);
+        } else {
+            return null;
+        }
+
+        if (metronome instanceof AbstractMetronome) {
+            // all metronomes of the test share a probe, but each one records via its own ProbeHandle
+            Probe schedulingErrorProbe = getOrCreateProbe(testContext.getTestId() + SCHEDULING_ERROR_PROBE_NAME, false, true,
+                    ProbeImpl.LATENCY_UNIT, ProbeImpl.MAXIMUM_LATENCY, ProbeImpl.LATENCY_PRECISION, false, 1);
+            ((AbstractMetronome) metronome).setSchedulingErrorProbeHandle(schedulingErrorProbe.threadHandle());
+        }
+        return metronome;
+    }
+
+    /**
+     * Changes the target throughput of this worker, which is split equally between all running worker threads of the test.
+     *
+     * The worker threads are just paced if the test has been started with a target throughput.
+     *
+     * @param workerTargetThroughput the new target throughput of this worker in operations per second
+     */
+    public synchronized void setWorkerTargetThroughput(double workerTargetThroughput) {
+        this.workerTargetThroughput = workerTargetThroughput;
+        for (LoadProfileMetronome metronome : metronomes) {
+            metronome.setTargetThroughput(workerTargetThroughput / concurrencySweep.getCurrentThreadCount());
+        }
+    }
+
     boolean hasProbe(String probeName) {
         return probeMap.keySet().contains(probeName);
     }
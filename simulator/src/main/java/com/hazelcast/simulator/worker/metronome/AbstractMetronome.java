@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.probes.ProbeHandle;
+
+import static java.lang.Math.max;
+import static org.apache.commons.lang3.RandomUtils.nextLong;
+
+/**
+ * Base class for {@link Metronome} implementations, which schedule their ticks on the intended start times.
+ *
+ * The wait interval on the first {@link #waitForNext()} call is randomized. The following ticks are scheduled from the intended
+ * start time of the previous tick, so a stalled caller will catch up on the missed ticks without waiting. The waiting itself is
+ * done according to the configured {@link MetronomeType}.
+ *
+ * The scheduling error is the delay between the intended start time of a tick and the moment the caller has been woken up. It
+ * can be recorded in a {@link ProbeHandle}, to see how accurate the pacing is. Ticks which are behind the schedule are not
+ * recorded, since the caller didn't have to wait for them.
+ */
+public abstract class AbstractMetronome implements Metronome {
+
+    private final MetronomeType type;
+
+    private ProbeHandle schedulingErrorProbeHandle;
+
+    private long startedNanos;
+    private long waitUntil;
+
+    AbstractMetronome(MetronomeType type) {
+        this.type = type;
+    }
+
+    /**
+     * Sets the {@link ProbeHandle} to record the scheduling error of this metronome.
+     *
+     * The {@link ProbeHandle} has to be exclusively used by this metronome, since it is not thread-safe.
+     *
+     * @param schedulingErrorProbeHandle the {@link ProbeHandle} to record the scheduling error
+     */
+    public void setSchedulingErrorProbeHandle(ProbeHandle schedulingErrorProbeHandle) {
+        this.schedulingErrorProbeHandle = schedulingErrorProbeHandle;
+    }
+
+    public MetronomeType getType() {
+        return type;
+    }
+
+    @Override
+    public long waitForNext() {
+        // set random interval on the first run
+        if (waitUntil == 0) {
+            startedNanos = System.nanoTime();
+            waitUntil = startedNanos + nextLong(0, getIntervalNanos(0));
+        } else if (isRescheduled()) {
+            // drop the ticks which are behind the new schedule
+            waitUntil = max(waitUntil, System.nanoTime());
+        }
+
+        if (System.nanoTime() < waitUntil) {
+            type.waitUntil(waitUntil);
+            if (schedulingErrorProbeHandle != null) {
+                schedulingErrorProbeHandle.recordValue(System.nanoTime() - waitUntil);
+            }
+        }
+
+        // set interval for next call, based on the intended and not the actual start time
+        long intendedStart = waitUntil;
+        waitUntil += getIntervalNanos(intendedStart - startedNanos);
+        return intendedStart;
+    }
+
+    /**
+     * Returns the interval to the next tick.
+     *
+     * @param elapsedNanos the time between the first and the current tick
+     * @return the interval in nanoseconds
+     */
+    abstract long getIntervalNanos(long elapsedNanos);
+
+    /**
+     * Returns if the schedule has been changed since the last call.
+     *
+     * @return <tt>true</tt> if the ticks behind the schedule should be dropped, <tt>false</tt> otherwise
+     */
+    boolean isRescheduled() {
+        return false;
+    }
+}
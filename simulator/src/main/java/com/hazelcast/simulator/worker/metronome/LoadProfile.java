@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.cos;
+import static java.lang.Math.floor;
+import static java.lang.Math.min;
+
+/**
+ * Defines how the target throughput of a test develops over the run duration.
+ *
+ * The load factor is the fraction of the target throughput which should be reached at a given progress of the run, where a
+ * progress of <tt>0</tt> is the start and <tt>1</tt> is the end of the configured duration.
+ */
+public enum LoadProfile {
+
+    /**
+     * Runs with the full target throughput.
+     */
+    CONSTANT {
+        @Override
+        public double getLoadFactor(double progress, int steps) {
+            return 1;
+        }
+    },
+
+    /**
+     * Increases the throughput linearly up to the target throughput at the end of the duration.
+     */
+    RAMP {
+        @Override
+        public double getLoadFactor(double progress, int steps) {
+            return min(1, progress);
+        }
+    },
+
+    /**
+     * Increases the throughput in equal steps, the last step runs with the full target throughput.
+     */
+    STEP {
+        @Override
+        public double getLoadFactor(double progress, int steps) {
+            if (progress >= 1) {
+                return 1;
+            }
+            return (floor(progress * steps) + 1) / steps;
+        }
+    },
+
+    /**
+     * Oscillates the throughput between zero and the target throughput, with <tt>steps</tt> periods over the duration.
+     */
+    SINE {
+        @Override
+        public double getLoadFactor(double progress, int steps) {
+            return (1 - cos(2 * PI * progress * steps)) / 2;
+        }
+    };
+
+    /**
+     * Returns the fraction of the target throughput for the given progress of the run.
+     *
+     * @param progress the elapsed fraction of the run duration
+     * @param steps    the number of steps of {@link #STEP} or the number of periods of {@link #SINE}
+     * @return the load factor between <tt>0</tt> and <tt>1</tt>
+     */
+    public abstract double getLoadFactor(double progress, int steps);
+}
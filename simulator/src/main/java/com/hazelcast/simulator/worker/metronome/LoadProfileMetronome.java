@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.lang.Math.round;
+
+/**
+ * {@link Metronome} implementation which waits on a target throughput, which develops according to a {@link LoadProfile}.
+ *
+ * The ticks are scheduled on their intended start times, so a stalled caller will catch up on the missed ticks without waiting.
+ * The interval to the next tick is calculated from the load factor at the intended start time of the current tick.
+ *
+ * The target throughput can be changed while the metronome is running, e.g. to search the maximum sustainable throughput.
+ *
+ * It is recommended to create a new instance for each worker thread, so they are clocked interleaved.
+ */
+public final class LoadProfileMetronome extends AbstractMetronome {
+
+    /**
+     * The load factor is never lower than this value, so a profile which starts at zero load still makes progress.
+     */
+    static final double MIN_LOAD_FACTOR = 0.01;
+
+    private static final double ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LoadProfile loadProfile;
+    private final long durationNanos;
+    private final int steps;
+
+    private volatile double targetThroughput;
+    private volatile boolean isRescheduled;
+
+    private LoadProfileMetronome(double targetThroughput, LoadProfile loadProfile, long durationNanos, int steps,
+                                 MetronomeType type) {
+        super(type);
+        this.targetThroughput = targetThroughput;
+        this.loadProfile = loadProfile;
+        this.durationNanos = durationNanos;
+        this.steps = steps;
+    }
+
+    /**
+     * Creates a busy looping {@link Metronome} instance with a target throughput, which develops according to a
+     * {@link LoadProfile}.
+     *
+     * @param targetThroughput the target throughput of the caller in operations per second
+     * @param loadProfile      the {@link LoadProfile} of the target throughput
+     * @param durationSeconds  the duration of the {@link LoadProfile} in seconds
+     * @param steps            the number of steps or periods of the {@link LoadProfile}
+     * @return a {@link Metronome} instance
+     */
+    public static Metronome withLoadProfile(double targetThroughput, LoadProfile loadProfile, int durationSeconds, int steps) {
+        return withLoadProfile(targetThroughput, loadProfile, durationSeconds, steps, MetronomeType.BUSY_SPIN);
+    }
+
+    /**
+     * Creates a {@link Metronome} instance with a target throughput, which develops according to a {@link LoadProfile}.
+     *
+     * If the duration is <tt>0</tt> the {@link LoadProfile} cannot be applied and the full target throughput is used.
+     *
+     * @param targetThroughput the target throughput of the caller in operations per second
+     * @param loadProfile      the {@link LoadProfile} of the target throughput
+     * @param durationSeconds  the duration of the {@link LoadProfile} in seconds
+     * @param steps            the number of steps or periods of the {@link LoadProfile}
+     * @param type             the {@link MetronomeType} which defines how to wait
+     * @return a {@link Metronome} instance
+     */
+    public static Metronome withLoadProfile(double targetThroughput, LoadProfile loadProfile, int durationSeconds, int steps,
+                                            MetronomeType type) {
+        if (targetThroughput <= 0) {
+            return SimpleMetronome.withFixedIntervalUs(0);
+        }
+        if (steps < 1) {
+            throw new IllegalArgumentException("Steps of the load profile must be at least 1, but was " + steps);
+        }
+        LoadProfile profile = (durationSeconds > 0) ? loadProfile : LoadProfile.CONSTANT;
+        return new LoadProfileMetronome(targetThroughput, profile, TimeUnit.SECONDS.toNanos(durationSeconds), steps, type);
+    }
+
+    /**
+     * Changes the target throughput of this metronome.
+     *
+     * Ticks which are behind the schedule of the previous target throughput are dropped, so they are not caught up with the
+     * new target throughput.
+     *
+     * @param targetThroughput the new target throughput in operations per second
+     */
+    public void setTargetThroughput(double targetThroughput) {
+        if (targetThroughput <= 0) {
+            throw new IllegalArgumentException("Target throughput must be positive, but was " + targetThroughput);
+        }
+        this.targetThroughput = targetThroughput;
+        this.isRescheduled = true;
+    }
+
+    @Override
+    long getIntervalNanos(long elapsedNanos) {
+        double progress = (durationNanos > 0) ? (double) elapsedNanos / durationNanos : 1;
+        double loadFactor = max(MIN_LOAD_FACTOR, loadProfile.getLoadFactor(progress, steps));
+        return max(1, round(ONE_SECOND_NANOS / (targetThroughput * loadFactor)));
+    }
+
+    @Override
+    boolean isRescheduled() {
+        if (isRescheduled) {
+            isRescheduled = false;
+            return true;
+        }
+        return false;
+    }
+}
@@ -22,6 +22,12 @@ public interface Metronome {
 
     /**
      * Waits for the defined interval.
+     *
+     * The returned intended start time is the moment the next operation was scheduled for. If the caller falls behind the
+     * schedule, e.g. because a previous operation stalled, the intended start time lies in the past. Measuring the latency from
+     * the intended start time corrects the latency values for coordinated omission.
+     *
+     * @return the intended start time of this tick as {@link System#nanoTime()} timestamp
      */
-    void waitForNext();
+    long waitForNext();
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Defines how a {@link Metronome} waits for its next tick.
+ */
+public enum MetronomeType {
+
+    /**
+     * Busy loops on {@link System#nanoTime()}.
+     *
+     * Most accurate, but burns a CPU core per paced thread.
+     */
+    BUSY_SPIN {
+        @Override
+        void waitUntil(long deadlineNanos) {
+            long now;
+            do {
+                now = System.nanoTime();
+            } while (now < deadlineNanos);
+        }
+    },
+
+    /**
+     * Parks the thread until the next tick.
+     *
+     * Uses no CPU while waiting, but the accuracy depends on the timer resolution of the operating system.
+     */
+    SLEEPING {
+        @Override
+        void waitUntil(long deadlineNanos) {
+            parkUntil(deadlineNanos);
+        }
+    },
+
+    /**
+     * Parks the thread until shortly before the next tick and busy loops for the remaining time.
+     */
+    HYBRID {
+        @Override
+        void waitUntil(long deadlineNanos) {
+            parkUntil(deadlineNanos - HYBRID_SPIN_NANOS);
+            BUSY_SPIN.waitUntil(deadlineNanos);
+        }
+    },
+
+    /**
+     * Parks the thread until it is woken up by a single timer thread, which is shared by all paced threads.
+     */
+    SHARED_TIMER {
+        @Override
+        void waitUntil(long deadlineNanos) {
+            SharedTimer.getInstance().waitUntil(deadlineNanos);
+        }
+    };
+
+    static final long HYBRID_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Waits until the given deadline has been reached.
+     *
+     * @param deadlineNanos the deadline as {@link System#nanoTime()} timestamp
+     */
+    abstract void waitUntil(long deadlineNanos);
+
+    private static void parkUntil(long deadlineNanos) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        while (remainingNanos > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            remainingNanos = deadlineNanos - System.nanoTime();
+        }
+    }
+}
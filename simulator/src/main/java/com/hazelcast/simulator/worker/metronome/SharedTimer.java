@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single timer thread which wakes up all threads waiting on {@link MetronomeType#SHARED_TIMER} ticks.
+ *
+ * The pending wake-ups are ordered by their deadline, so the timer thread just sleeps until the next deadline.
+ */
+final class SharedTimer extends Thread {
+
+    private static final SharedTimer INSTANCE = new SharedTimer();
+
+    private final DelayQueue<WakeUp> wakeUps = new DelayQueue<WakeUp>();
+
+    private SharedTimer() {
+        super("MetronomeSharedTimer");
+        setDaemon(true);
+        start();
+    }
+
+    static SharedTimer getInstance() {
+        return INSTANCE;
+    }
+
+    void waitUntil(long deadlineNanos) {
+        wakeUps.add(new WakeUp(deadlineNanos, Thread.currentThread()));
+        // the loop protects against spurious wake-ups
+        while (System.nanoTime() < deadlineNanos) {
+            LockSupport.park(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!isInterrupted()) {
+                LockSupport.unpark(wakeUps.take().thread);
+            }
+        } catch (InterruptedException e) {
+            interrupt();
+        }
+    }
+
+    private static final class WakeUp implements Delayed {
+
+        private final long deadlineNanos;
+        private final Thread thread;
+
+        private WakeUp(long deadlineNanos, Thread thread) {
+            this.deadlineNanos = deadlineNanos;
+            this.thread = thread;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            long otherDeadlineNanos = ((WakeUp) other).deadlineNanos;
+            return (deadlineNanos < otherDeadlineNanos) ? -1 : ((deadlineNanos == otherDeadlineNanos) ? 0 : 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return deadlineNanos == ((WakeUp) o).deadlineNanos && thread == ((WakeUp) o).thread;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (deadlineNanos ^ (deadlineNanos >>> 32)) + thread.hashCode();
+        }
+    }
+}
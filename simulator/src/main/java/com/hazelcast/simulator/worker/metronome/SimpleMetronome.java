@@ -18,24 +18,24 @@ package com.hazelcast.simulator.worker.metronome;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.Math.round;
-import static org.apache.commons.lang3.RandomUtils.nextLong;
 
 /**
- * Simple {@link Metronome} implementation which busy loops on a fixed interval.
+ * Simple {@link Metronome} implementation which waits on a fixed interval.
  *
- * The wait interval on the first {@link #waitForNext()} call is randomized.
+ * The wait interval on the first {@link #waitForNext()} call is randomized. The following ticks are scheduled at a fixed rate
+ * from the first one, so a stalled caller will catch up on the missed ticks without waiting. By default the metronome busy
+ * loops, other ways of waiting can be selected with a {@link MetronomeType}.
  *
  * It is recommended to create a new instance for each worker thread, so they are clocked interleaved.
  */
-public final class SimpleMetronome implements Metronome {
+public final class SimpleMetronome extends AbstractMetronome {
 
     private static final Metronome EMPTY_METRONOME = new EmptyMetronome();
 
     private final long intervalNanos;
 
-    private long waitUntil;
-
-    private SimpleMetronome(long intervalNanos) {
+    private SimpleMetronome(long intervalNanos, MetronomeType type) {
+        super(type);
         this.intervalNanos = intervalNanos;
     }
 
@@ -49,7 +49,31 @@ public final class SimpleMetronome implements Metronome {
         if (intervalMs == 0) {
             return EMPTY_METRONOME;
         }
-        return new SimpleMetronome(TimeUnit.MILLISECONDS.toNanos(intervalMs));
+        return new SimpleMetronome(TimeUnit.MILLISECONDS.toNanos(intervalMs), MetronomeType.BUSY_SPIN);
+    }
+
+    /**
+     * Creates a {@link Metronome} instance with a fixed microsecond interval.
+     *
+     * @param intervalUs wait interval in microseconds
+     * @return a {@link Metronome} instance
+     */
+    public static Metronome withFixedIntervalUs(long intervalUs) {
+        return withFixedIntervalUs(intervalUs, MetronomeType.BUSY_SPIN);
+    }
+
+    /**
+     * Creates a {@link Metronome} instance with a fixed microsecond interval and a {@link MetronomeType}.
+     *
+     * @param intervalUs wait interval in microseconds
+     * @param type       the {@link MetronomeType} which defines how to wait
+     * @return a {@link Metronome} instance
+     */
+    public static Metronome withFixedIntervalUs(long intervalUs, MetronomeType type) {
+        if (intervalUs == 0) {
+            return EMPTY_METRONOME;
+        }
+        return new SimpleMetronome(TimeUnit.MICROSECONDS.toNanos(intervalUs), type);
     }
 
     /**
@@ -66,30 +90,19 @@ public final class SimpleMetronome implements Metronome {
         }
 
         long intervalNanos = round((double) TimeUnit.SECONDS.toNanos(1) / frequency);
-        return new SimpleMetronome(intervalNanos);
+        return new SimpleMetronome(intervalNanos, MetronomeType.BUSY_SPIN);
     }
 
     @Override
-    public void waitForNext() {
-        // set random interval on the first run
-        if (waitUntil == 0) {
-            waitUntil = System.nanoTime() + nextLong(0, intervalNanos);
-        }
-
-        // busy loop
-        long now;
-        do {
-            now = System.nanoTime();
-        } while (now < waitUntil);
-
-        // set regular interval for next call
-        waitUntil = now + intervalNanos;
+    long getIntervalNanos(long elapsedNanos) {
+        return intervalNanos;
     }
 
     private static class EmptyMetronome implements Metronome {
 
         @Override
-        public void waitForNext() {
+        public long waitForNext() {
+            return System.nanoTime();
         }
     }
 }
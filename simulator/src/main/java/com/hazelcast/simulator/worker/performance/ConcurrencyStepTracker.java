@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import org.HdrHistogram.Histogram;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.worker.performance.PerformanceUtils.ONE_SECOND_IN_MILLIS;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Segments the performance of a test by its number of worker threads.
+ *
+ * During a concurrency sweep worker threads are added step by step, so the intervals of each step are aggregated separately.
+ * When a step is finished its throughput and latency percentiles are written to the <tt>concurrency-&lt;testId&gt;.txt</tt>
+ * file, which results in one row per probe and step of the scalability curve.
+ */
+final class ConcurrencyStepTracker {
+
+    private static final String HEADER = "Threads  Duration (ms)            Ops          Ops/s  Probe"
+            + "  Mean (us)  50% (us)  99% (us)  99.9% (us)  Max (us)";
+
+    private static final double PERCENTILE_50 = 50;
+    private static final double PERCENTILE_99 = 99;
+    private static final double PERCENTILE_999 = 99.9;
+
+    private static final Logger LOGGER = Logger.getLogger(ConcurrencyStepTracker.class);
+
+    // sorted by the probe name, so the rows of a step are always written in the same order
+    private final Map<String, Histogram> stepHistogramMap = new TreeMap<String, Histogram>();
+    private final File file;
+    private final String testId;
+    private final Map<String, TimeUnit> latencyUnitMap;
+
+    private int threadCount;
+    private long stepStartedTimestamp;
+    private long lastTimestamp;
+    private long stepOperationCount;
+
+    ConcurrencyStepTracker(String testId, Map<String, TimeUnit> latencyUnitMap) {
+        this.file = new File("concurrency-" + testId + ".txt");
+        this.testId = testId;
+        this.latencyUnitMap = latencyUnitMap;
+
+        appendText(format("%s%n", HEADER), file);
+    }
+
+    int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Adds an interval to the current step. A new step is started as soon as the number of worker threads has changed.
+     *
+     * @param currentThreadCount     the number of worker threads at the end of the interval
+     * @param intervalHistograms     the latency histograms of the interval
+     * @param intervalOperationCount the number of operations of the interval
+     * @param intervalStartTimestamp the start of the interval in milliseconds
+     * @param intervalEndTimestamp   the end of the interval in milliseconds
+     */
+    void update(int currentThreadCount, Map<String, Histogram> intervalHistograms, long intervalOperationCount,
+                long intervalStartTimestamp, long intervalEndTimestamp) {
+        if (currentThreadCount <= 0) {
+            // no worker thread has been started yet
+            return;
+        }
+        if (currentThreadCount != threadCount) {
+            finishStep();
+            threadCount = currentThreadCount;
+            stepStartedTimestamp = intervalStartTimestamp;
+        }
+
+        stepOperationCount += intervalOperationCount;
+        for (Map.Entry<String, Histogram> histogramEntry : intervalHistograms.entrySet()) {
+            Histogram stepHistogram = stepHistogramMap.get(histogramEntry.getKey());
+            if (stepHistogram == null) {
+                stepHistogramMap.put(histogramEntry.getKey(), histogramEntry.getValue().copy());
+            } else {
+                stepHistogram.add(histogramEntry.getValue());
+            }
+        }
+        lastTimestamp = intervalEndTimestamp;
+    }
+
+    /**
+     * Writes the current step to the concurrency file, if it contains at least one interval.
+     */
+    void finishStep() {
+        if (threadCount <= 0) {
+            return;
+        }
+
+        long durationMillis = lastTimestamp - stepStartedTimestamp;
+        double throughput = (durationMillis > 0) ? (stepOperationCount * ONE_SECOND_IN_MILLIS) / (double) durationMillis : 0;
+        LOGGER.info(format("Test %s did %.2f ops/s with %d worker threads", testId, throughput, threadCount));
+
+        String stepColumns = format("%7d  %13d  %13d  %13.2f", threadCount, durationMillis, stepOperationCount, throughput);
+        if (stepHistogramMap.isEmpty()) {
+            appendText(format("%s  -%n", stepColumns), file);
+        }
+        for (Map.Entry<String, Histogram> histogramEntry : stepHistogramMap.entrySet()) {
+            TimeUnit latencyUnit = getLatencyUnit(histogramEntry.getKey());
+            Histogram histogram = histogramEntry.getValue();
+            appendText(format("%s  %s  %.2f  %d  %d  %d  %d%n", stepColumns, histogramEntry.getKey(),
+                    histogram.getMean() * latencyUnit.toNanos(1) / MICROSECONDS.toNanos(1),
+                    latencyUnit.toMicros(histogram.getValueAtPercentile(PERCENTILE_50)),
+                    latencyUnit.toMicros(histogram.getValueAtPercentile(PERCENTILE_99)),
+                    latencyUnit.toMicros(histogram.getValueAtPercentile(PERCENTILE_999)),
+                    latencyUnit.toMicros(histogram.getMaxValue())), file);
+        }
+
+        threadCount = 0;
+        stepOperationCount = 0;
+        stepHistogramMap.clear();
+    }
+
+    private TimeUnit getLatencyUnit(String probeName) {
+        TimeUnit latencyUnit = latencyUnitMap.get(probeName);
+        return (latencyUnit == null) ? LATENCY_UNIT : latencyUnit;
+    }
+}
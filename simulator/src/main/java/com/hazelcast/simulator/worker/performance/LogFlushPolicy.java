@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+/**
+ * Decides when a buffered performance log is flushed.
+ *
+ * With a flush interval of <tt>0</tt> the log is flushed after each written interval, so it is always up to date. A larger flush
+ * interval reduces the write calls of the monitor thread, but the log lags behind by up to the flush interval.
+ */
+final class LogFlushPolicy {
+
+    private final long flushIntervalMillis;
+
+    private long lastFlushMillis;
+
+    LogFlushPolicy(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.lastFlushMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks if the log has to be flushed and resets the flush interval if so.
+     *
+     * @return <tt>true</tt> if the log has to be flushed, <tt>false</tt> otherwise
+     */
+    boolean isFlushDue() {
+        if (flushIntervalMillis <= 0) {
+            return true;
+        }
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastFlushMillis < flushIntervalMillis) {
+            return false;
+        }
+        lastFlushMillis = nowMillis;
+        return true;
+    }
+}
@@ -26,6 +26,7 @@ public class PerformanceState {
 
     private static final long EMPTY_OPERATION_COUNT = -1;
     private static final double EMPTY_THROUGHPUT = -1;
+    private static final double NOT_AVAILABLE = -1;
 
     private long operationCount;
     private double intervalThroughput;
@@ -35,6 +36,9 @@ public class PerformanceState {
     private long intervalMaxLatency;
     private long intervalPercentileLatency;
 
+    private double intervalCpuMicrosPerOp = NOT_AVAILABLE;
+    private double intervalAllocatedBytesPerOp = NOT_AVAILABLE;
+
     public PerformanceState() {
         this.operationCount = EMPTY_OPERATION_COUNT;
         this.intervalThroughput = EMPTY_THROUGHPUT;
@@ -51,6 +55,15 @@ public class PerformanceState {
         this.intervalMaxLatency = intervalMaxLatency;
     }
 
+    public PerformanceState(long operationCount, double intervalThroughput, double totalThroughput,
+                            double intervalAvgLatency, long intervalPercentileLatency, long intervalMaxLatency,
+                            double intervalCpuMicrosPerOp, double intervalAllocatedBytesPerOp) {
+        this(operationCount, intervalThroughput, totalThroughput, intervalAvgLatency, intervalPercentileLatency,
+                intervalMaxLatency);
+        this.intervalCpuMicrosPerOp = intervalCpuMicrosPerOp;
+        this.intervalAllocatedBytesPerOp = intervalAllocatedBytesPerOp;
+    }
+
     public void add(PerformanceState other) {
         if (other.isEmpty()) {
             return;
@@ -64,7 +77,16 @@ public class PerformanceState {
             intervalAvgLatency = other.intervalAvgLatency;
             intervalPercentileLatency = other.intervalPercentileLatency;
             intervalMaxLatency = other.intervalMaxLatency;
+
+            intervalCpuMicrosPerOp = other.intervalCpuMicrosPerOp;
+            intervalAllocatedBytesPerOp = other.intervalAllocatedBytesPerOp;
         } else {
+            // the costs per operation are weighted by the throughput, before the throughput of the other state is added
+            intervalCpuMicrosPerOp = weightedAverage(intervalCpuMicrosPerOp, intervalThroughput,
+                    other.intervalCpuMicrosPerOp, other.intervalThroughput);
+            intervalAllocatedBytesPerOp = weightedAverage(intervalAllocatedBytesPerOp, intervalThroughput,
+                    other.intervalAllocatedBytesPerOp, other.intervalThroughput);
+
             operationCount += other.operationCount;
             intervalThroughput += other.intervalThroughput;
             totalThroughput += other.totalThroughput;
@@ -75,6 +97,20 @@ public class PerformanceState {
         }
     }
 
+    private static double weightedAverage(double value, double weight, double otherValue, double otherWeight) {
+        if (otherValue < 0) {
+            return value;
+        }
+        if (value < 0) {
+            return otherValue;
+        }
+        double weightSum = weight + otherWeight;
+        if (weightSum <= 0) {
+            return (value + otherValue) / 2;
+        }
+        return (value * weight + otherValue * otherWeight) / weightSum;
+    }
+
     public boolean isEmpty() {
         return operationCount == EMPTY_OPERATION_COUNT && intervalThroughput == EMPTY_THROUGHPUT;
     }
@@ -103,6 +139,24 @@ public class PerformanceState {
         return intervalMaxLatency;
     }
 
+    /**
+     * Returns the CPU time of the worker threads per operation in the last interval.
+     *
+     * @return the CPU time per operation in microseconds or <tt>-1</tt> if not available
+     */
+    public double getIntervalCpuMicrosPerOp() {
+        return intervalCpuMicrosPerOp;
+    }
+
+    /**
+     * Returns the bytes allocated by the worker threads per operation in the last interval.
+     *
+     * @return the allocated bytes per operation or <tt>-1</tt> if not available
+     */
+    public double getIntervalAllocatedBytesPerOp() {
+        return intervalAllocatedBytesPerOp;
+    }
+
     @Override
     public String toString() {
         return "PerformanceState{"
@@ -112,6 +166,8 @@ public class PerformanceState {
                 + ", intervalAvgLatency=" + intervalAvgLatency
                 + ", intervalPercentileLatency=" + intervalPercentileLatency
                 + ", intervalMaxLatency=" + intervalMaxLatency
+                + ", intervalCpuMicrosPerOp=" + intervalCpuMicrosPerOp
+                + ", intervalAllocatedBytesPerOp=" + intervalAllocatedBytesPerOp
                 + '}';
     }
 }
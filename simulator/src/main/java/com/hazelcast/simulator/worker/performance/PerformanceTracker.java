@@ -15,36 +15,107 @@
  */
 package com.hazelcast.simulator.worker.performance;
 
-import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.probes.Probe;
 import org.HdrHistogram.Histogram;
-import org.HdrHistogram.HistogramLogReader;
-import org.HdrHistogram.HistogramLogWriter;
+import org.apache.log4j.Logger;
 
 import javax.xml.bind.DatatypeConverter;
 import java.io.File;
-import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.Deflater;
 
-import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_PRECISION;
-import static com.hazelcast.simulator.probes.impl.ProbeImpl.MAXIMUM_LATENCY;
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_UNIT;
 import static com.hazelcast.simulator.worker.performance.PerformanceUtils.ONE_SECOND_IN_MILLIS;
-import static com.hazelcast.simulator.worker.performance.PerformanceUtils.writeThroughputHeader;
-import static com.hazelcast.simulator.worker.performance.PerformanceUtils.writeThroughputStats;
-
+import static com.hazelcast.simulator.worker.performance.PerformanceUtils.resetHistograms;
+import static com.hazelcast.simulator.worker.performance.PerformanceState.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Tracks the performance of a single test and writes its throughput and latency logs.
+ *
+ * The intervals before the steady state of the test are marked with a <tt>WarmUp</tt> comment in the latency logs and are
+ * excluded from the aggregated histograms. The steady state starts with the first interval of the stable window, so the
+ * intervals of the window are buffered until the steady state has been detected. The <tt>SteadyStateCutOff</tt> comment gives
+ * the start of the window in milliseconds since the start of the test, so it can precede the last <tt>WarmUp</tt> interval. If
+ * the steady state is never reached, all intervals are aggregated. The aggregated operation count and throughput cover the same
+ * intervals as the aggregated histograms.
+ *
+ * The aggregated histograms are kept as running totals in memory, so the latency logs never have to be read again. This allows
+ * the latency logs to be rolled and compressed during long running tests. The intervals which have been added after the last
+ * update are included in the aggregated histograms as well, and the warm-up totals are dropped as soon as the steady state has
+ * been reached.
+ *
+ * If the test runs a concurrency sweep, each step is marked with a <tt>ThreadCount</tt> comment in the latency logs and is
+ * summarized by a {@link ConcurrencyStepTracker}.
+ *
+ * The CPU time and the allocated bytes of the worker threads are sampled by a {@link ThreadResourceSampler} and reported per
+ * operation, so the throughput logs also show if an operation got cheaper.
+ *
+ * The latency logs can be written in shorter intervals than the throughput is reported, so short latency spikes are not hidden
+ * in a long interval. The interval histograms are accumulated via {@link #addIntervalHistograms(Map, long, long)} until the next
+ * {@link #update(long)}, which calculates the throughput and the latency statistics of the reporting interval. The accumulated
+ * histograms of the last two reporting intervals and of the steady state window are reset and reused, so no histograms are
+ * allocated per interval.
+ *
+ * A latency probe which is registered after the tracker has been created, e.g. a per-operation probe or the probe of a thread
+ * which has been started by a concurrency sweep, gets its latency log as soon as it shows up in an interval.
+ */
 final class PerformanceTracker {
 
-    private final File throughputFile;
-    private final Map<String, HistogramLogWriter> histogramLogWriterMap = new HashMap<String, HistogramLogWriter>();
+    private static final long NOT_STEADY = -1;
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceTracker.class);
+
+    private final ThroughputLogWriter throughputLogWriter;
+    private final Map<String, RollingHistogramLogWriter> histogramLogWriterMap
+            = new HashMap<String, RollingHistogramLogWriter>();
+    private final Map<String, TimeUnit> latencyUnitMap = new HashMap<String, TimeUnit>();
+    private final Set<String> asyncProbeNames = new HashSet<String>();
+    private final Map<String, Probe> probeMap;
+    private final Map<String, Histogram> warmUpHistogramMap = new HashMap<String, Histogram>();
+    private final Map<String, Histogram> steadyStateHistogramMap = new HashMap<String, Histogram>();
+    private final Deque<WindowInterval> windowIntervals = new ArrayDeque<WindowInterval>();
+    private final String testId;
     private final long testStartedTimestamp;
+    private final long reportingIntervalMillis;
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeMillis;
+    private final Executor compressionExecutor;
+    private final long flushIntervalMillis;
+    private final SteadyStateDetector steadyStateDetector;
+    private final ConcurrencyStepTracker concurrencyStepTracker;
+    private final ThreadResourceSampler threadResourceSampler = new ThreadResourceSampler();
+
+    private long steadyStateCutOff = NOT_STEADY;
+    private boolean isSteadyStateCutOffLogged;
+    private long warmUpOperationCount;
+    private long steadyStateOperationCount;
+    private long aggregatedOperationCount;
+    private double aggregatedThroughput;
+
+    private int threadCount;
+    private int loggedThreadCount;
 
     private long lastTimestamp;
+    private long intervalIndex;
+
+    private Map<String, Histogram> accumulatedHistogramMap = new HashMap<String, Histogram>();
+    private long accumulatedOperationCount;
+    private long accumulatedTimestamp;
 
-    private Map<String, Histogram> intervalHistogramMap;
+    private Map<String, Histogram> intervalHistogramMap = new HashMap<String, Histogram>();
 
     private double intervalAvgLatency;
     private long intervalPercentileLatency;
@@ -56,18 +127,37 @@ final class PerformanceTracker {
     private double intervalThroughput;
     private double totalThroughput;
 
-    private boolean isUpdated;
+    private double intervalCpuMicrosPerOp;
+    private double intervalAllocatedBytesPerOp;
 
-    PerformanceTracker(String testId, Collection<String> probeNames, long testStartedTimestamp) {
-        throughputFile = new File("throughput-" + testId + ".txt");
-        writeThroughputHeader(throughputFile, false);
+    private boolean isUpdated;
 
-        for (String probeName : probeNames) {
-            histogramLogWriterMap.put(probeName, createHistogramLogWriter(testId, probeName, testStartedTimestamp));
-        }
+    PerformanceTracker(String testId, Map<String, Probe> probeMap, long testStartedTimestamp, long reportingIntervalMillis,
+                       SteadyStateDetector steadyStateDetector, long maxSegmentBytes, long maxSegmentAgeMillis,
+                       Executor compressionExecutor, boolean isConcurrencySweep, long flushIntervalMillis) {
+        throughputLogWriter = new ThroughputLogWriter(new File("throughput-" + testId + ".txt"), false, flushIntervalMillis);
 
+        this.probeMap = probeMap;
+        this.testId = testId;
         this.testStartedTimestamp = testStartedTimestamp;
+        this.reportingIntervalMillis = reportingIntervalMillis;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAgeMillis = maxSegmentAgeMillis;
+        this.compressionExecutor = compressionExecutor;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.steadyStateDetector = steadyStateDetector;
+        this.concurrencyStepTracker = isConcurrencySweep ? new ConcurrencyStepTracker(testId, latencyUnitMap) : null;
         this.lastTimestamp = testStartedTimestamp;
+        this.accumulatedTimestamp = testStartedTimestamp;
+
+        for (Map.Entry<String, Probe> probeEntry : probeMap.entrySet()) {
+            Probe probe = probeEntry.getValue();
+            if (!probe.isLatencyProbe()) {
+                // a counter probe is just a throughput source, so there is no latency file
+                continue;
+            }
+            createHistogramLogWriter(probeEntry.getKey(), probe.getLatencyUnit());
+        }
     }
 
     long getIntervalOperationCount() {
@@ -92,15 +182,58 @@ final class PerformanceTracker {
         return oldIsUpdated;
     }
 
-    void update(Map<String, Histogram> intervalHistograms, long intervalPercentileLatency, double intervalAvgLatency,
-                long intervalMaxLatency, long intervalOperationCount, long currentTimestamp) {
-        this.intervalHistogramMap = intervalHistograms;
+    /**
+     * Sets the number of worker threads of the test, which is used to segment a concurrency sweep.
+     *
+     * @param threadCount the current number of worker threads
+     */
+    void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
 
-        this.intervalPercentileLatency = intervalPercentileLatency;
-        this.intervalAvgLatency = intervalAvgLatency;
-        this.intervalMaxLatency = intervalMaxLatency;
+    /**
+     * Samples the CPU time and the allocated bytes of the worker threads, which are related to the operations of the next update.
+     *
+     * @param workerThreadIds the ids of the worker threads of the test
+     */
+    void sampleThreadResources(Collection<Long> workerThreadIds) {
+        threadResourceSampler.sample(workerThreadIds);
+    }
 
-        this.intervalOperationCount = intervalOperationCount;
+    /**
+     * Adds the interval histograms of the latency probes and the operation count of a latency log interval, which are accounted
+     * by the next {@link #update(long)}.
+     *
+     * @param intervalHistograms     the interval histograms of the latency probes
+     * @param intervalOperationCount the operation count of the throughput probes
+     * @param timestamp              the end of the latency log interval
+     */
+    void addIntervalHistograms(Map<String, Histogram> intervalHistograms, long intervalOperationCount, long timestamp) {
+        // the interval histograms are recycled by the probes, so they are just added to the accumulated histograms
+        for (Map.Entry<String, Histogram> histogramEntry : intervalHistograms.entrySet()) {
+            Histogram intervalHistogram = histogramEntry.getValue();
+            Histogram accumulatedHistogram = accumulatedHistogramMap.get(histogramEntry.getKey());
+            if (accumulatedHistogram == null) {
+                accumulatedHistogram = new Histogram(intervalHistogram.getNumberOfSignificantValueDigits());
+                accumulatedHistogramMap.put(histogramEntry.getKey(), accumulatedHistogram);
+            }
+            accumulatedHistogram.add(intervalHistogram);
+        }
+        accumulatedOperationCount += intervalOperationCount;
+        accumulatedTimestamp = timestamp;
+    }
+
+    /**
+     * Calculates the throughput and the latency statistics of the reporting interval from all interval histograms which have been
+     * added since the last update.
+     *
+     * @param currentTimestamp the end of the reporting interval
+     */
+    void update(long currentTimestamp) {
+        Map<String, Histogram> intervalHistograms = accumulatedHistogramMap;
+        updateIntervalLatencies(intervalHistograms);
+
+        this.intervalOperationCount = accumulatedOperationCount;
         this.totalOperationCount += intervalOperationCount;
 
         long intervalTimeDelta = currentTimestamp - lastTimestamp;
@@ -109,75 +242,295 @@ final class PerformanceTracker {
         this.intervalThroughput = (intervalOperationCount * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta;
         this.totalThroughput = (totalOperationCount * ONE_SECOND_IN_MILLIS / (double) totalTimeDelta);
 
+        this.intervalCpuMicrosPerOp = threadResourceSampler.getCpuMicrosPerOperation(intervalOperationCount);
+        this.intervalAllocatedBytesPerOp = threadResourceSampler.getAllocatedBytesPerOperation(intervalOperationCount);
+
+        if (steadyStateCutOff == NOT_STEADY) {
+            updateWarmUp(intervalHistograms);
+        } else {
+            addToTotalHistograms(intervalHistograms, steadyStateHistogramMap);
+            steadyStateOperationCount += intervalOperationCount;
+        }
+        if (concurrencyStepTracker != null) {
+            concurrencyStepTracker.update(threadCount, intervalHistograms, intervalOperationCount, lastTimestamp,
+                    currentTimestamp);
+        }
+
+        // the histograms of the previous reporting interval are reused for the next one
+        this.accumulatedHistogramMap = intervalHistogramMap;
+        this.intervalHistogramMap = intervalHistograms;
+        resetHistograms(accumulatedHistogramMap);
+        this.accumulatedOperationCount = 0;
         this.lastTimestamp = currentTimestamp;
+        // rounded, so a jitter of the reporting interval doesn't change the index
+        this.intervalIndex = Math.round((currentTimestamp - testStartedTimestamp) / (double) reportingIntervalMillis);
         this.isUpdated = true;
     }
 
     void writeStatsToFile(String timestamp) {
-        writeThroughputStats(throughputFile, timestamp, totalOperationCount, intervalOperationCount, intervalThroughput, 0, 0);
+        throughputLogWriter.writeStats(timestamp, totalOperationCount, intervalOperationCount, intervalThroughput,
+                intervalCpuMicrosPerOp, intervalAllocatedBytesPerOp);
+    }
 
-        for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
+    /**
+     * Writes the interval histograms of a latency log interval to the latency logs.
+     *
+     * @param intervalHistograms        the interval histograms of the latency probes
+     * @param intervalInFlightCounts    the current in-flight counts of the latency probes
+     * @param intervalAvgInFlightCounts the average in-flight counts of the latency probes in the interval
+     */
+    void writeLatencyLogs(Map<String, Histogram> intervalHistograms, Map<String, Long> intervalInFlightCounts,
+                          Map<String, Double> intervalAvgInFlightCounts) {
+        for (Map.Entry<String, Histogram> histogramEntry : intervalHistograms.entrySet()) {
             String probeName = histogramEntry.getKey();
-            HistogramLogWriter histogramLogWriter = histogramLogWriterMap.get(probeName);
+            RollingHistogramLogWriter histogramLogWriter = getOrCreateHistogramLogWriter(probeName);
+
+            // the in-flight count is logged as soon as a probe has been used for asynchronous measurements
+            Long inFlightCount = intervalInFlightCounts.get(probeName);
+            Double avgInFlightCount = intervalAvgInFlightCounts.get(probeName);
+            if (inFlightCount != null && (inFlightCount > 0 || avgInFlightCount > 0 || asyncProbeNames.contains(probeName))) {
+                asyncProbeNames.add(probeName);
+                histogramLogWriter.outputComment(format("InFlight=%d AvgInFlight=%.2f", inFlightCount, avgInFlightCount));
+            }
+
+            if (concurrencyStepTracker != null && concurrencyStepTracker.getThreadCount() != loggedThreadCount) {
+                histogramLogWriter.outputComment("ThreadCount=" + concurrencyStepTracker.getThreadCount());
+            }
+            if (steadyStateCutOff == NOT_STEADY) {
+                histogramLogWriter.outputComment("WarmUp");
+            } else if (!isSteadyStateCutOffLogged) {
+                histogramLogWriter.outputComment("SteadyStateCutOff=" + steadyStateCutOff);
+            }
 
             Histogram intervalHistogram = histogramEntry.getValue();
             histogramLogWriter.outputIntervalHistogram(intervalHistogram);
         }
+        isSteadyStateCutOffLogged = (steadyStateCutOff != NOT_STEADY);
+        if (concurrencyStepTracker != null) {
+            loggedThreadCount = concurrencyStepTracker.getThreadCount();
+        }
+    }
+
+    Map<String, TimeUnit> getLatencyUnits() {
+        return latencyUnitMap;
     }
 
     PerformanceState createPerformanceState() {
         return new PerformanceState(totalOperationCount, intervalThroughput, totalThroughput,
-                intervalAvgLatency, intervalPercentileLatency, intervalMaxLatency);
+                intervalAvgLatency, intervalPercentileLatency, intervalMaxLatency, intervalCpuMicrosPerOp,
+                intervalAllocatedBytesPerOp);
+    }
+
+    /**
+     * Returns the index of the last reporting interval, which is derived from its end relative to the start of the test.
+     *
+     * Since the index is not counted, it stays comparable between the workers, even if a worker has delayed or skipped a
+     * reporting interval. The coordinator merges the interval histograms of all workers with the same interval index.
+     *
+     * @return the index of the last reporting interval
+     */
+    long getIntervalIndex() {
+        return intervalIndex;
+    }
+
+    /**
+     * Returns the encoded interval histograms of the last reporting interval, so the coordinator can merge them into cluster-wide
+     * percentiles. Each reporting interval is just returned once.
+     *
+     * @return the compressed and Base64 encoded interval histograms per probe
+     */
+    Map<String, String> getAndResetEncodedIntervalHistograms() {
+        Map<String, String> encodedHistograms = new HashMap<String, String>();
+        for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
+            Histogram intervalHistogram = histogramEntry.getValue();
+            if (intervalHistogram.getTotalCount() > 0) {
+                encodedHistograms.put(histogramEntry.getKey(), getEncodedHistogram(intervalHistogram));
+            }
+        }
+        resetHistograms(intervalHistogramMap);
+        return encodedHistograms;
+    }
+
+    /**
+     * Returns the start of the steady state of the test.
+     *
+     * @return the start of the aggregated intervals in milliseconds since the start of the test or <tt>-1</tt> if the steady
+     * state has not been reached, so all intervals are aggregated
+     */
+    long getSteadyStateCutOff() {
+        return steadyStateCutOff;
+    }
+
+    /**
+     * Returns the operation count of the intervals which are included in the last {@link #aggregateIntervalHistograms(String)}.
+     *
+     * @return the aggregated operation count
+     */
+    long getAggregatedOperationCount() {
+        return aggregatedOperationCount;
+    }
+
+    /**
+     * Returns the throughput of the intervals which are included in the last {@link #aggregateIntervalHistograms(String)}.
+     *
+     * @return the aggregated throughput in operations per second
+     */
+    double getAggregatedThroughput() {
+        return aggregatedThroughput;
     }
 
     Map<String, String> aggregateIntervalHistograms(String testId) {
         Map<String, String> probeResults = new HashMap<String, String>();
+        boolean isSteadyState = (steadyStateCutOff != NOT_STEADY);
+        // without steady state the warm-up histograms contain all intervals
+        Map<String, Histogram> totalHistogramMap = isSteadyState ? steadyStateHistogramMap : warmUpHistogramMap;
+        // the intervals since the last update would be lost otherwise
+        addToTotalHistograms(accumulatedHistogramMap, totalHistogramMap);
+        resetHistograms(accumulatedHistogramMap);
+        if (isSteadyState) {
+            steadyStateOperationCount += accumulatedOperationCount;
+        } else {
+            warmUpOperationCount += accumulatedOperationCount;
+        }
+        accumulatedOperationCount = 0;
+        updateAggregatedThroughput(isSteadyState);
+        if (totalHistogramMap.isEmpty()) {
+            return probeResults;
+        }
 
-        HistogramLogWriter histogramLogWriter = createHistogramLogWriter(testId, "aggregated", 0);
-        for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
+        RollingHistogramLogWriter histogramLogWriter = new RollingHistogramLogWriter(getLatencyFile(testId, "aggregated"),
+                getLatencyFileHeader(testId, "aggregated"), null, 0, 0, 0, null, 0);
+        if (steadyStateCutOff == NOT_STEADY) {
+            LOGGER.info("Test " + testId + " has not reached steady state, all intervals are aggregated");
+            histogramLogWriter.outputComment("SteadyStateCutOff=none");
+        } else {
+            histogramLogWriter.outputComment("SteadyStateCutOff=" + steadyStateCutOff);
+        }
+        for (Map.Entry<String, Histogram> histogramEntry : totalHistogramMap.entrySet()) {
             String probeName = histogramEntry.getKey();
-            HistogramLogReader histogramLogReader = createHistogramLogReader(testId, probeName);
-            Histogram combined = new Histogram(MAXIMUM_LATENCY, LATENCY_PRECISION);
-
-            Histogram histogram = (Histogram) histogramLogReader.nextIntervalHistogram();
-            while (histogram != null) {
-                combined.add(histogram);
-                histogram = (Histogram) histogramLogReader.nextIntervalHistogram();
-            }
+            Histogram combined = histogramEntry.getValue();
 
             histogramLogWriter.outputComment("probeName=" + probeName);
+            histogramLogWriter.outputComment("LatencyUnit=" + getLatencyUnit(probeName).name());
             histogramLogWriter.outputIntervalHistogram(combined);
 
             String encodedHistogram = getEncodedHistogram(combined);
             probeResults.put(probeName, encodedHistogram);
         }
+        histogramLogWriter.close();
 
         return probeResults;
     }
 
-    private static HistogramLogWriter createHistogramLogWriter(String testId, String probeName, long baseTime) {
-        try {
-            File latencyFile = getLatencyFile(testId, probeName);
-            HistogramLogWriter histogramLogWriter = new HistogramLogWriter(latencyFile);
-            histogramLogWriter.setBaseTime(baseTime);
-            histogramLogWriter.outputComment("[Latency histograms for " + testId + '.' + probeName + ']');
-            histogramLogWriter.outputLogFormatVersion();
-            histogramLogWriter.outputLegend();
+    /**
+     * Closes the throughput and latency logs of the test and finishes the last step of a concurrency sweep.
+     */
+    void close() {
+        if (concurrencyStepTracker != null) {
+            concurrencyStepTracker.finishStep();
+        }
+        throughputLogWriter.close();
+        for (RollingHistogramLogWriter histogramLogWriter : histogramLogWriterMap.values()) {
+            histogramLogWriter.close();
+        }
+    }
+
+    private RollingHistogramLogWriter getOrCreateHistogramLogWriter(String probeName) {
+        RollingHistogramLogWriter histogramLogWriter = histogramLogWriterMap.get(probeName);
+        if (histogramLogWriter != null) {
             return histogramLogWriter;
-        } catch (IOException e) {
-            throw new TestException("Could not initialize HistogramLogWriter for test " + testId, e);
         }
+        // the probe has been registered after this tracker has been created
+        Probe probe = probeMap.get(probeName);
+        histogramLogWriter = createHistogramLogWriter(probeName, (probe == null) ? LATENCY_UNIT : probe.getLatencyUnit());
+        if (concurrencyStepTracker != null && loggedThreadCount != 0) {
+            histogramLogWriter.outputComment("ThreadCount=" + loggedThreadCount);
+        }
+        if (isSteadyStateCutOffLogged) {
+            histogramLogWriter.outputComment("SteadyStateCutOff=" + steadyStateCutOff);
+        }
+        return histogramLogWriter;
     }
 
-    private static HistogramLogReader createHistogramLogReader(String testName, String probeName) {
-        try {
-            File latencyFile = getLatencyFile(testName, probeName);
-            return new HistogramLogReader(latencyFile);
-        } catch (IOException e) {
-            throw new TestException("Could not initialize HistogramLogReader for test " + testName, e);
+    private RollingHistogramLogWriter createHistogramLogWriter(String probeName, TimeUnit latencyUnit) {
+        RollingHistogramLogWriter histogramLogWriter = new RollingHistogramLogWriter(getLatencyFile(testId, probeName),
+                getLatencyFileHeader(testId, probeName), latencyUnit, testStartedTimestamp, maxSegmentBytes,
+                maxSegmentAgeMillis, compressionExecutor, flushIntervalMillis);
+        latencyUnitMap.put(probeName, latencyUnit);
+        histogramLogWriterMap.put(probeName, histogramLogWriter);
+        return histogramLogWriter;
+    }
+
+    private void updateIntervalLatencies(Map<String, Histogram> intervalHistograms) {
+        intervalPercentileLatency = Long.MIN_VALUE;
+        intervalAvgLatency = Long.MIN_VALUE;
+        intervalMaxLatency = Long.MIN_VALUE;
+        for (Map.Entry<String, Histogram> histogramEntry : intervalHistograms.entrySet()) {
+            Histogram intervalHistogram = histogramEntry.getValue();
+
+            // the performance state is always reported in microseconds
+            TimeUnit latencyUnit = getLatencyUnit(histogramEntry.getKey());
+            long percentileValue = latencyUnit.toMicros(intervalHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE));
+            intervalPercentileLatency = max(intervalPercentileLatency, percentileValue);
+            double avgValue = intervalHistogram.getMean() * latencyUnit.toNanos(1) / MICROSECONDS.toNanos(1);
+            intervalAvgLatency = max(intervalAvgLatency, avgValue);
+            intervalMaxLatency = max(intervalMaxLatency, latencyUnit.toMicros(intervalHistogram.getMaxValue()));
+        }
+    }
+
+    private void updateWarmUp(Map<String, Histogram> intervalHistograms) {
+        addToTotalHistograms(intervalHistograms, warmUpHistogramMap);
+        warmUpOperationCount += intervalOperationCount;
+
+        // the window keeps its own histograms, since the interval histograms are reused, the oldest interval is recycled
+        boolean isWindowFull = (windowIntervals.size() >= max(steadyStateDetector.getWindowSize(), 1));
+        WindowInterval lastInterval = isWindowFull ? windowIntervals.removeFirst() : new WindowInterval();
+        lastInterval.set(lastTimestamp, intervalHistograms, intervalOperationCount);
+        windowIntervals.addLast(lastInterval);
+        if (!steadyStateDetector.update(intervalThroughput)) {
+            return;
+        }
+
+        // the steady state starts with the first interval of the stable window
+        steadyStateCutOff = windowIntervals.getFirst().startTimestamp - testStartedTimestamp;
+        LOGGER.info("Test " + testId + " reached steady state after " + steadyStateCutOff + " ms");
+        for (WindowInterval windowInterval : windowIntervals) {
+            addToTotalHistograms(windowInterval.histograms, steadyStateHistogramMap);
+            steadyStateOperationCount += windowInterval.operationCount;
+        }
+        // the warm-up intervals are never aggregated after the steady state has been reached
+        windowIntervals.clear();
+        warmUpHistogramMap.clear();
+    }
+
+    private void updateAggregatedThroughput(boolean isSteadyState) {
+        aggregatedOperationCount = isSteadyState ? steadyStateOperationCount : warmUpOperationCount;
+        long startTimestamp = testStartedTimestamp + (isSteadyState ? steadyStateCutOff : 0);
+        long endTimestamp = max(lastTimestamp, accumulatedTimestamp);
+        aggregatedThroughput = (endTimestamp > startTimestamp)
+                ? (aggregatedOperationCount * ONE_SECOND_IN_MILLIS) / (double) (endTimestamp - startTimestamp) : 0;
+    }
+
+    private static void addToTotalHistograms(Map<String, Histogram> intervalHistograms, Map<String, Histogram> totalHistograms) {
+        for (Map.Entry<String, Histogram> histogramEntry : intervalHistograms.entrySet()) {
+            Histogram totalHistogram = totalHistograms.get(histogramEntry.getKey());
+            if (totalHistogram == null) {
+                totalHistograms.put(histogramEntry.getKey(), histogramEntry.getValue().copy());
+            } else {
+                totalHistogram.add(histogramEntry.getValue());
+            }
         }
     }
 
+    private TimeUnit getLatencyUnit(String probeName) {
+        TimeUnit latencyUnit = latencyUnitMap.get(probeName);
+        return (latencyUnit == null) ? LATENCY_UNIT : latencyUnit;
+    }
+
+    private static String getLatencyFileHeader(String testId, String probeName) {
+        return "[Latency histograms for " + testId + '.' + probeName + ']';
+    }
+
     private static String getEncodedHistogram(Histogram combined) {
         ByteBuffer targetBuffer = ByteBuffer.allocate(combined.getNeededByteBufferCapacity());
         int compressedLength = combined.encodeIntoCompressedByteBuffer(targetBuffer, Deflater.BEST_COMPRESSION);
@@ -188,4 +541,19 @@ final class PerformanceTracker {
     private static File getLatencyFile(String testId, String probeName) {
         return new File("latency-" + testId + '-' + probeName + ".txt");
     }
+
+    private static final class WindowInterval {
+
+        private final Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+
+        private long startTimestamp;
+        private long operationCount;
+
+        private void set(long startTimestamp, Map<String, Histogram> intervalHistograms, long operationCount) {
+            this.startTimestamp = startTimestamp;
+            this.operationCount = operationCount;
+            resetHistograms(histograms);
+            addToTotalHistograms(intervalHistograms, histograms);
+        }
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.test.TestException;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.rename;
+
+/**
+ * Writes the interval histograms of a probe to a latency log, which is rolled by size or age.
+ *
+ * The active segment is always written to the same file. When it exceeds the maximum size or age, it is renamed to
+ * <tt>&lt;file&gt;.&lt;index&gt;</tt> and compressed in the background to <tt>&lt;file&gt;.&lt;index&gt;.gz</tt>. Each segment
+ * starts with the same header, so it can be read on its own. A maximum size or age of <tt>0</tt> disables the related rolling.
+ *
+ * The active segment is written via a buffer, which is flushed according to a {@link LogFlushPolicy}. The size of a segment is
+ * counted from the written bytes, so the buffered bytes which have not been flushed yet are included.
+ */
+final class RollingHistogramLogWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(RollingHistogramLogWriter.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final String header;
+    private final TimeUnit latencyUnit;
+    private final long baseTime;
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeMillis;
+    private final Executor compressionExecutor;
+    private final LogFlushPolicy flushPolicy;
+
+    private CountingOutputStream countingStream;
+    private PrintStream printStream;
+    private HistogramLogWriter histogramLogWriter;
+    private long segmentStartedMillis;
+    private int segmentIndex;
+
+    RollingHistogramLogWriter(File file, String header, TimeUnit latencyUnit, long baseTime, long maxSegmentBytes,
+                              long maxSegmentAgeMillis, Executor compressionExecutor, long flushIntervalMillis) {
+        this.file = file;
+        this.header = header;
+        this.latencyUnit = latencyUnit;
+        this.baseTime = baseTime;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAgeMillis = maxSegmentAgeMillis;
+        this.compressionExecutor = compressionExecutor;
+        this.flushPolicy = new LogFlushPolicy(flushIntervalMillis);
+
+        openSegment();
+    }
+
+    void outputComment(String comment) {
+        histogramLogWriter.outputComment(comment);
+    }
+
+    void outputIntervalHistogram(Histogram histogram) {
+        histogramLogWriter.outputIntervalHistogram(histogram);
+        if (flushPolicy.isFlushDue()) {
+            printStream.flush();
+        }
+        if (isSegmentFull()) {
+            rollSegment();
+        }
+    }
+
+    void close() {
+        closeQuietly(printStream);
+    }
+
+    private boolean isSegmentFull() {
+        if (maxSegmentBytes > 0 && countingStream.getCount() >= maxSegmentBytes) {
+            return true;
+        }
+        return maxSegmentAgeMillis > 0 && System.currentTimeMillis() - segmentStartedMillis >= maxSegmentAgeMillis;
+    }
+
+    private void rollSegment() {
+        closeQuietly(printStream);
+
+        File segmentFile = new File(file.getPath() + '.' + (++segmentIndex));
+        rename(file, segmentFile);
+        compressionExecutor.execute(new CompressionTask(segmentFile));
+
+        openSegment();
+    }
+
+    private void openSegment() {
+        try {
+            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file), WRITE_BUFFER_SIZE);
+            countingStream = new CountingOutputStream(outputStream);
+            printStream = new PrintStream(countingStream, false, "UTF-8");
+        } catch (IOException e) {
+            throw new TestException("Could not initialize HistogramLogWriter for " + file, e);
+        }
+        histogramLogWriter = new HistogramLogWriter(printStream);
+        histogramLogWriter.setBaseTime(baseTime);
+        histogramLogWriter.outputComment(header);
+        if (latencyUnit != null) {
+            histogramLogWriter.outputComment("LatencyUnit=" + latencyUnit.name());
+        }
+        histogramLogWriter.outputLogFormatVersion();
+        histogramLogWriter.outputLegend();
+        segmentStartedMillis = System.currentTimeMillis();
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+
+    private static final class CompressionTask implements Runnable {
+
+        private final File segmentFile;
+
+        private CompressionTask(File segmentFile) {
+            this.segmentFile = segmentFile;
+        }
+
+        @Override
+        public void run() {
+            File compressedFile = new File(segmentFile.getPath() + ".gz");
+            InputStream inputStream = null;
+            OutputStream outputStream = null;
+            boolean isCompressed = false;
+            try {
+                inputStream = new FileInputStream(segmentFile);
+                outputStream = new GZIPOutputStream(new FileOutputStream(compressedFile));
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int bytesRead = inputStream.read(buffer);
+                while (bytesRead != -1) {
+                    outputStream.write(buffer, 0, bytesRead);
+                    bytesRead = inputStream.read(buffer);
+                }
+                outputStream.close();
+                isCompressed = true;
+            } catch (IOException e) {
+                LOGGER.warn("Could not compress latency log segment " + segmentFile, e);
+            } finally {
+                closeQuietly(inputStream);
+                closeQuietly(outputStream);
+            }
+            // keep the uncompressed segment if the compression has failed
+            deleteQuiet(isCompressed ? segmentFile : compressedFile);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * Detects the steady state of a test by the coefficient of variation (standard deviation divided by mean) of its interval
+ * throughput.
+ *
+ * The steady state is reached as soon as the coefficient of variation of the last interval throughput values is below the
+ * configured maximum. Once reached, the steady state is kept for the rest of the test. A window size of <tt>0</tt> disables the
+ * detection, so each interval is considered to be steady.
+ */
+final class SteadyStateDetector {
+
+    private final double[] window;
+    private final double maxCoefficientOfVariation;
+
+    private int index;
+    private int count;
+    private boolean isSteadyState;
+
+    SteadyStateDetector(int windowSize, double maxCoefficientOfVariation) {
+        if (windowSize < 0) {
+            throw new IllegalArgumentException("Steady state window must not be negative, but was " + windowSize);
+        }
+        this.window = new double[windowSize];
+        this.maxCoefficientOfVariation = maxCoefficientOfVariation;
+        this.isSteadyState = (windowSize == 0);
+    }
+
+    int getWindowSize() {
+        return window.length;
+    }
+
+    /**
+     * Adds an interval throughput value and checks if the steady state has been reached.
+     *
+     * @param intervalThroughput the throughput of the last interval
+     * @return <tt>true</tt> if the steady state has been reached, <tt>false</tt> otherwise
+     */
+    boolean update(double intervalThroughput) {
+        if (isSteadyState) {
+            return true;
+        }
+
+        window[index] = intervalThroughput;
+        index = (index + 1) % window.length;
+        if (count < window.length) {
+            count++;
+        }
+        if (count == window.length) {
+            isSteadyState = getCoefficientOfVariation() <= maxCoefficientOfVariation;
+        }
+        return isSteadyState;
+    }
+
+    double getCoefficientOfVariation() {
+        if (count == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += window[i];
+        }
+        double mean = sum / count;
+        if (mean <= 0) {
+            // a test without throughput never reaches a steady state
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double squaredDeviationSum = 0;
+        for (int i = 0; i < count; i++) {
+            double deviation = window[i] - mean;
+            squaredDeviationSum += deviation * deviation;
+        }
+        return sqrt(squaredDeviationSum / count) / mean;
+    }
+}
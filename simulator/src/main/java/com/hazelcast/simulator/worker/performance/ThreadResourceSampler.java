@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import org.apache.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Samples the CPU time and the allocated bytes of the worker threads of a test via the {@link ThreadMXBean}.
+ *
+ * The allocated bytes are just available on JVMs which implement {@link com.sun.management.ThreadMXBean}, e.g. HotSpot. If a
+ * value is not available, the per operation value is reported as <tt>-1</tt>.
+ */
+final class ThreadResourceSampler {
+
+    static final double NOT_AVAILABLE = -1;
+
+    private static final Logger LOGGER = Logger.getLogger(ThreadResourceSampler.class);
+
+    private final Map<Long, Long> lastCpuTimeMap = new HashMap<Long, Long>();
+    private final Map<Long, Long> lastAllocatedBytesMap = new HashMap<Long, Long>();
+
+    private final ThreadMXBean threadMXBean;
+    private final com.sun.management.ThreadMXBean allocationMXBean;
+
+    private long intervalCpuTimeNanos;
+    private long intervalAllocatedBytes;
+
+    ThreadResourceSampler() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+
+    ThreadResourceSampler(ThreadMXBean threadMXBean) {
+        this.threadMXBean = enableCpuTime(threadMXBean) ? threadMXBean : null;
+        this.allocationMXBean = enableAllocatedBytes(threadMXBean);
+    }
+
+    /**
+     * Samples the CPU time and the allocated bytes of the given threads since the last call.
+     *
+     * Terminated threads are skipped, so their consumption since the last sample is lost.
+     *
+     * @param threadIds the ids of the worker threads of the test
+     */
+    void sample(Collection<Long> threadIds) {
+        intervalCpuTimeNanos = 0;
+        intervalAllocatedBytes = 0;
+        for (Long threadId : threadIds) {
+            if (threadMXBean != null) {
+                intervalCpuTimeNanos += getDelta(lastCpuTimeMap, threadId, threadMXBean.getThreadCpuTime(threadId));
+            }
+            if (allocationMXBean != null) {
+                intervalAllocatedBytes += getDelta(lastAllocatedBytesMap, threadId,
+                        allocationMXBean.getThreadAllocatedBytes(threadId));
+            }
+        }
+    }
+
+    double getCpuMicrosPerOperation(long operationCount) {
+        if (threadMXBean == null || operationCount <= 0) {
+            return NOT_AVAILABLE;
+        }
+        return intervalCpuTimeNanos / (double) MICROSECONDS.toNanos(1) / operationCount;
+    }
+
+    double getAllocatedBytesPerOperation(long operationCount) {
+        if (allocationMXBean == null || operationCount <= 0) {
+            return NOT_AVAILABLE;
+        }
+        return intervalAllocatedBytes / (double) operationCount;
+    }
+
+    private static long getDelta(Map<Long, Long> lastValueMap, Long threadId, long value) {
+        if (value < 0) {
+            // the thread has been terminated
+            lastValueMap.remove(threadId);
+            return 0;
+        }
+        Long lastValue = lastValueMap.put(threadId, value);
+        return (lastValue == null) ? value : value - lastValue;
+    }
+
+    private static boolean enableCpuTime(ThreadMXBean threadMXBean) {
+        if (!threadMXBean.isThreadCpuTimeSupported()) {
+            LOGGER.info("Thread CPU time is not supported by this JVM");
+            return false;
+        }
+        try {
+            if (!threadMXBean.isThreadCpuTimeEnabled()) {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+            }
+            return true;
+        } catch (SecurityException e) {
+            LOGGER.warn("Thread CPU time could not be enabled: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean enableAllocatedBytes(ThreadMXBean threadMXBean) {
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            LOGGER.info("Thread allocated bytes are not supported by this JVM");
+            return null;
+        }
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMXBean.isThreadAllocatedMemorySupported()) {
+            LOGGER.info("Thread allocated bytes are not supported by this JVM");
+            return null;
+        }
+        try {
+            if (!allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return allocationMXBean;
+        } catch (SecurityException e) {
+            LOGGER.warn("Thread allocated bytes could not be enabled: " + e.getMessage());
+            return null;
+        }
+    }
+}
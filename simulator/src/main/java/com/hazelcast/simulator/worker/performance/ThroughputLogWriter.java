@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.test.TestException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.Formatter;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FormatUtils.fillString;
+import static com.hazelcast.simulator.worker.performance.PerformanceUtils.getNumberOfDigits;
+
+/**
+ * Writes a throughput log, either of a single test or the global throughput log of a worker.
+ *
+ * The file is kept open for the whole lifetime of the writer, so the monitor thread doesn't open and close it on each interval.
+ * The lines are formatted by a single {@link Formatter} directly into a buffered writer, which is flushed according to a
+ * {@link LogFlushPolicy} and on {@link #close()}.
+ */
+final class ThroughputLogWriter {
+
+    private static final String THROUGHPUT_FORMAT = "[%s] %,14d ops %,14d ops %,14.2f ops/s";
+    private static final String OPTIONAL_DOUBLE_FORMAT = " %,14.2f";
+    private static final String NOT_AVAILABLE_FORMAT = " %14s";
+    private static final String NOT_AVAILABLE = "n/a";
+
+    // the number of tests is formatted with a field length of 1 to 3 digits
+    private static final String[] NUMBER_OF_TESTS_FORMATS = {
+            null,
+            " %,13d/%,1d",
+            " %,12d/%,2d",
+            " %,11d/%,3d",
+    };
+
+    private final File file;
+    private final Formatter formatter;
+    private final LogFlushPolicy flushPolicy;
+
+    private boolean isClosed;
+
+    ThroughputLogWriter(File file, boolean isGlobal, long flushIntervalMillis) {
+        this.file = file;
+        try {
+            this.formatter = new Formatter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8")),
+                    Locale.US);
+        } catch (IOException e) {
+            throw new TestException("Could not open throughput log %s", file, e);
+        }
+        this.flushPolicy = new LogFlushPolicy(flushIntervalMillis);
+
+        writeHeader(isGlobal);
+    }
+
+    /**
+     * Writes the throughput of all tests of a worker.
+     *
+     * @param timestamp      the formatted timestamp of the interval
+     * @param opsSum         the total operation count of all tests
+     * @param opsDelta       the operation count of all tests in the interval
+     * @param opsPerSecDelta the throughput of all tests in the interval
+     * @param numberOfTests  the number of tests which have been updated in the interval
+     * @param totalTests     the number of tests of the worker
+     */
+    void writeStats(String timestamp, long opsSum, long opsDelta, double opsPerSecDelta, long numberOfTests, long totalTests) {
+        formatter.format(THROUGHPUT_FORMAT, timestamp, opsSum, opsDelta, opsPerSecDelta);
+        if (totalTests > 0) {
+            formatter.format(NUMBER_OF_TESTS_FORMATS[getNumberOfDigits(totalTests)], numberOfTests, totalTests);
+        }
+        formatter.format("%n");
+        flushIfDue();
+    }
+
+    /**
+     * Writes the throughput of a single test.
+     *
+     * @param timestamp           the formatted timestamp of the interval
+     * @param opsSum              the total operation count of the test
+     * @param opsDelta            the operation count of the test in the interval
+     * @param opsPerSecDelta      the throughput of the test in the interval
+     * @param cpuMicrosPerOp      the CPU time per operation in microseconds, a negative value if not available
+     * @param allocatedBytesPerOp the allocated bytes per operation, a negative value if not available
+     */
+    void writeStats(String timestamp, long opsSum, long opsDelta, double opsPerSecDelta, double cpuMicrosPerOp,
+                    double allocatedBytesPerOp) {
+        formatter.format(THROUGHPUT_FORMAT, timestamp, opsSum, opsDelta, opsPerSecDelta);
+        formatOptionalDouble(cpuMicrosPerOp);
+        formatOptionalDouble(allocatedBytesPerOp);
+        formatter.format("%n");
+        flushIfDue();
+    }
+
+    void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            flush();
+        } finally {
+            closeQuietly(formatter);
+        }
+    }
+
+    private void writeHeader(boolean isGlobal) {
+        String columns = "Timestamp                      Ops (sum)        Ops (delta)                Ops/s";
+        if (isGlobal) {
+            columns += " Number of tests";
+        } else {
+            columns += "      CPU us/op       Bytes/op";
+        }
+        formatter.format("%s%n%s%n", columns, fillString(columns.length(), '-'));
+        flush();
+    }
+
+    private void formatOptionalDouble(double value) {
+        if (value < 0) {
+            formatter.format(NOT_AVAILABLE_FORMAT, NOT_AVAILABLE);
+        } else {
+            formatter.format(OPTIONAL_DOUBLE_FORMAT, value);
+        }
+    }
+
+    private void flushIfDue() {
+        if (flushPolicy.isFlushDue()) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        formatter.flush();
+        IOException exception = formatter.ioException();
+        if (exception != null) {
+            throw new TestException("Could not write throughput log %s", file, exception);
+        }
+    }
+}
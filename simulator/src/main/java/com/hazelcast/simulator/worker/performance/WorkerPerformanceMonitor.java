@@ -20,6 +20,7 @@ import com.hazelcast.simulator.protocol.connector.ServerConnector;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.operation.PerformanceStateOperation;
 import com.hazelcast.simulator.protocol.operation.TestHistogramOperation;
+import com.hazelcast.simulator.utils.EmptyStatement;
 import com.hazelcast.simulator.worker.TestContainer;
 import org.HdrHistogram.Histogram;
 import org.apache.log4j.Logger;
@@ -30,20 +31,23 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
-import static com.hazelcast.simulator.worker.performance.PerformanceState.INTERVAL_LATENCY_PERCENTILE;
-import static com.hazelcast.simulator.worker.performance.PerformanceUtils.writeThroughputHeader;
-import static com.hazelcast.simulator.worker.performance.PerformanceUtils.writeThroughputStats;
+import static com.hazelcast.simulator.utils.ExecutorFactory.createFixedThreadPool;
+import static java.lang.Math.max;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Monitors the performance of all running tests on {@link com.hazelcast.simulator.worker.MemberWorker}
  * and {@link com.hazelcast.simulator.worker.ClientWorker} instances.
+ *
+ * The latency logs can be written with a millisecond interval, which is shorter than the interval of the throughput logs and
+ * the performance states sent to the Coordinator. So short latency spikes (e.g. by GC or migration stalls) are visible in the
+ * latency logs, while the reporting overhead stays the same.
  */
 public class WorkerPerformanceMonitor {
 
@@ -53,7 +57,21 @@ public class WorkerPerformanceMonitor {
 
     public WorkerPerformanceMonitor(ServerConnector serverConnector, Collection<TestContainer> testContainers,
                                     int workerPerformanceMonitorIntervalSeconds) {
-        this.thread = new MonitorThread(serverConnector, testContainers, workerPerformanceMonitorIntervalSeconds);
+        this(serverConnector, testContainers, workerPerformanceMonitorIntervalSeconds, 0);
+    }
+
+    /**
+     * Creates a {@link WorkerPerformanceMonitor} which writes the latency logs in a shorter interval.
+     *
+     * @param serverConnector                         the {@link ServerConnector} to send the performance states
+     * @param testContainers                          the {@link TestContainer} instances to monitor
+     * @param workerPerformanceMonitorIntervalSeconds the interval of the throughput logs and the performance states
+     * @param workerLatencyLogIntervalMillis          the interval of the latency logs, 0 to use the interval of the monitor
+     */
+    public WorkerPerformanceMonitor(ServerConnector serverConnector, Collection<TestContainer> testContainers,
+                                    int workerPerformanceMonitorIntervalSeconds, int workerLatencyLogIntervalMillis) {
+        this.thread = new MonitorThread(serverConnector, testContainers, workerPerformanceMonitorIntervalSeconds,
+                workerLatencyLogIntervalMillis);
     }
 
     public boolean start() {
@@ -66,52 +84,73 @@ public class WorkerPerformanceMonitor {
     }
 
     public void shutdown() {
-        thread.sendTestHistograms();
-
         thread.isRunning = false;
         thread.interrupt();
         joinThread(thread);
+
+        // the running totals of the trackers are just accessed by the monitor thread, so it has to be stopped first
+        thread.sendTestHistograms();
+        thread.close();
     }
 
     private static final class MonitorThread extends Thread {
 
         private static final Logger LOGGER = Logger.getLogger(MonitorThread.class);
 
-        private final File globalThroughputFile = new File("throughput.txt");
+        private static final long ONE_MEGABYTE = 1024 * 1024;
+        private static final int COMPRESSION_TERMINATION_TIMEOUT_SECONDS = 60;
+
         private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
         private final Map<String, PerformanceTracker> trackerMap = new HashMap<String, PerformanceTracker>();
+        private final ExecutorService compressionExecutor = createFixedThreadPool(1, "LatencyLogCompression");
 
         private final ServerConnector serverConnector;
         private final Collection<TestContainer> testContainers;
-        private final long intervalNanos;
+        // the global throughput log gets a single line per interval, so it's flushed on each interval
+        private final ThroughputLogWriter globalThroughputLogWriter
+                = new ThroughputLogWriter(new File("throughput.txt"), true, 0);
+        private final long latencyLogIntervalNanos;
+        private final long latencyLogIntervalsPerInterval;
+        private final long reportingIntervalMillis;
 
         private volatile boolean isRunning = true;
 
         private MonitorThread(ServerConnector serverConnector, Collection<TestContainer> testContainers,
-                              int workerPerformanceMonitorIntervalSeconds) {
+                              int workerPerformanceMonitorIntervalSeconds, int workerLatencyLogIntervalMillis) {
             super("WorkerPerformanceMonitorThread");
             setDaemon(true);
 
             this.serverConnector = serverConnector;
             this.testContainers = testContainers;
-            this.intervalNanos = TimeUnit.SECONDS.toNanos(workerPerformanceMonitorIntervalSeconds);
 
-            writeThroughputHeader(globalThroughputFile, true);
+            long intervalNanos = TimeUnit.SECONDS.toNanos(workerPerformanceMonitorIntervalSeconds);
+            long latencyLogIntervalNanos = TimeUnit.MILLISECONDS.toNanos(workerLatencyLogIntervalMillis);
+            if (latencyLogIntervalNanos <= 0 || latencyLogIntervalNanos >= intervalNanos) {
+                latencyLogIntervalNanos = intervalNanos;
+            }
+            this.latencyLogIntervalNanos = latencyLogIntervalNanos;
+            // the reporting interval is rounded to a multiple of the latency log interval
+            this.latencyLogIntervalsPerInterval = max(1, Math.round(intervalNanos / (double) latencyLogIntervalNanos));
+            this.reportingIntervalMillis = NANOSECONDS.toMillis(latencyLogIntervalsPerInterval * latencyLogIntervalNanos);
         }
 
         @Override
         public void run() {
+            long latencyLogIntervalCount = 0;
             while (isRunning) {
                 long startedNanos = System.nanoTime();
                 long currentTimestamp = System.currentTimeMillis();
 
-                updatePerformanceStates(currentTimestamp);
-                sendPerformanceStates();
-                writeStatsToFiles(currentTimestamp);
+                boolean isReportingInterval = (++latencyLogIntervalCount % latencyLogIntervalsPerInterval == 0);
+                updatePerformanceStates(currentTimestamp, isReportingInterval);
+                if (isReportingInterval) {
+                    sendPerformanceStates();
+                    writeStatsToFiles(currentTimestamp);
+                }
 
                 long elapsedNanos = System.nanoTime() - startedNanos;
-                if (intervalNanos > elapsedNanos) {
-                    sleepNanos(intervalNanos - elapsedNanos);
+                if (latencyLogIntervalNanos > elapsedNanos) {
+                    sleepNanos(latencyLogIntervalNanos - elapsedNanos);
                 } else {
                     LOGGER.warn("WorkerPerformanceMonitorThread.run() took " + NANOSECONDS.toMillis(elapsedNanos) + " ms");
                 }
@@ -125,13 +164,30 @@ public class WorkerPerformanceMonitor {
 
                 Map<String, String> histograms = tracker.aggregateIntervalHistograms(testId);
                 if (!histograms.isEmpty()) {
-                    TestHistogramOperation operation = new TestHistogramOperation(testId, histograms);
+                    TestHistogramOperation operation = new TestHistogramOperation(testId, histograms, tracker.getLatencyUnits(),
+                            tracker.getAggregatedOperationCount(), tracker.getAggregatedThroughput(),
+                            tracker.getSteadyStateCutOff());
                     serverConnector.write(SimulatorAddress.COORDINATOR, operation);
                 }
             }
         }
 
-        private void updatePerformanceStates(long currentTimestamp) {
+        private void close() {
+            for (PerformanceTracker tracker : trackerMap.values()) {
+                tracker.close();
+            }
+            globalThroughputLogWriter.close();
+
+            // wait for the compression of rolled latency logs
+            compressionExecutor.shutdown();
+            try {
+                compressionExecutor.awaitTermination(COMPRESSION_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                EmptyStatement.ignore(e);
+            }
+        }
+
+        private void updatePerformanceStates(long currentTimestamp, boolean isReportingInterval) {
             for (TestContainer testContainer : testContainers) {
                 String testId = testContainer.getTestContext().getTestId();
                 if (!testContainer.isRunning()) {
@@ -140,45 +196,51 @@ public class WorkerPerformanceMonitor {
 
                 Map<String, Probe> probeMap = testContainer.getProbeMap();
                 Map<String, Histogram> intervalHistograms = new HashMap<String, Histogram>(probeMap.size());
+                Map<String, Long> intervalInFlightCounts = new HashMap<String, Long>(probeMap.size());
+                Map<String, Double> intervalAvgInFlightCounts = new HashMap<String, Double>(probeMap.size());
 
-                long intervalPercentileLatency = Long.MIN_VALUE;
-                double intervalAvgLatency = Long.MIN_VALUE;
-                long intervalMaxLatency = Long.MIN_VALUE;
                 long intervalOperationalCount = 0;
 
                 for (Map.Entry<String, Probe> entry : probeMap.entrySet()) {
                     Probe probe = entry.getValue();
+                    if (!probe.isLatencyProbe()) {
+                        // a counter probe just contributes to the throughput, there are no latencies to track
+                        if (probe.isThroughputProbe()) {
+                            intervalOperationalCount += probe.getIntervalCount();
+                        }
+                        continue;
+                    }
+
                     Histogram intervalHistogram = probe.getIntervalHistogram();
                     intervalHistograms.put(entry.getKey(), intervalHistogram);
-
-                    long percentileValue = intervalHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE);
-                    if (percentileValue > intervalPercentileLatency) {
-                        intervalPercentileLatency = percentileValue;
-                    }
-                    double avgValue = intervalHistogram.getMean();
-                    if (avgValue > intervalAvgLatency) {
-                        intervalAvgLatency = avgValue;
-                    }
-                    long maxValue = intervalHistogram.getMaxValue();
-                    if (maxValue > intervalMaxLatency) {
-                        intervalMaxLatency = maxValue;
-                    }
+                    intervalInFlightCounts.put(entry.getKey(), probe.getInFlightCount());
+                    intervalAvgInFlightCounts.put(entry.getKey(), probe.getIntervalAverageInFlightCount());
                     if (probe.isThroughputProbe()) {
                         intervalOperationalCount += intervalHistogram.getTotalCount();
                     }
                 }
 
                 PerformanceTracker tracker = getOrCreatePerformanceTracker(testId, testContainer);
-                tracker.update(intervalHistograms, intervalPercentileLatency, intervalAvgLatency, intervalMaxLatency,
-                        intervalOperationalCount, currentTimestamp);
+                tracker.addIntervalHistograms(intervalHistograms, intervalOperationalCount, currentTimestamp);
+                if (isReportingInterval) {
+                    tracker.setThreadCount(testContainer.getConcurrencySweep().getCurrentThreadCount());
+                    tracker.sampleThreadResources(testContainer.getWorkerThreadIds());
+                    tracker.update(currentTimestamp);
+                }
+                tracker.writeLatencyLogs(intervalHistograms, intervalInFlightCounts, intervalAvgInFlightCounts);
             }
         }
 
         private PerformanceTracker getOrCreatePerformanceTracker(String testId, TestContainer testContainer) {
             PerformanceTracker tracker = trackerMap.get(testId);
             if (tracker == null) {
-                Set<String> probeNames = testContainer.getProbeMap().keySet();
-                tracker = new PerformanceTracker(testId, probeNames, testContainer.getTestStartedTimestamp());
+                SteadyStateDetector steadyStateDetector = new SteadyStateDetector(testContainer.getSteadyStateWindow(),
+                        testContainer.getSteadyStateMaxCoefficientOfVariation());
+                tracker = new PerformanceTracker(testId, testContainer.getProbeMap(), testContainer.getTestStartedTimestamp(),
+                        reportingIntervalMillis, steadyStateDetector, testContainer.getLatencyLogRollSizeMb() * ONE_MEGABYTE,
+                        TimeUnit.SECONDS.toMillis(testContainer.getLatencyLogRollIntervalSeconds()), compressionExecutor,
+                        testContainer.getConcurrencySweep().isEnabled(),
+                        TimeUnit.SECONDS.toMillis(testContainer.getPerformanceLogFlushIntervalSeconds()));
                 trackerMap.put(testId, tracker);
             }
             return tracker;
@@ -191,6 +253,11 @@ public class WorkerPerformanceMonitor {
                 if (stats.isUpdated()) {
                     String testId = trackerEntry.getKey();
                     operation.addPerformanceState(testId, stats.createPerformanceState());
+
+                    // the interval index is also sent without histograms, so the interval throughput can be related to it
+                    Map<String, String> intervalHistograms = stats.getAndResetEncodedIntervalHistograms();
+                    operation.addIntervalHistograms(testId, stats.getIntervalIndex(), intervalHistograms,
+                            stats.getLatencyUnits());
                 }
             }
             serverConnector.submit(SimulatorAddress.COORDINATOR, operation);
@@ -218,7 +285,7 @@ public class WorkerPerformanceMonitor {
             }
 
             // global performance stats
-            writeThroughputStats(globalThroughputFile, dateString, globalOperationsCount, globalIntervalOperationCount,
+            globalThroughputLogWriter.writeStats(dateString, globalOperationsCount, globalIntervalOperationCount,
                     globalIntervalThroughput, trackerMap.size(), testContainers.size());
         }
     }
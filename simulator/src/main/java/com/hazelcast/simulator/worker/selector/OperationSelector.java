@@ -15,25 +15,41 @@
  */
 package com.hazelcast.simulator.worker.selector;
 
-import java.util.Random;
+import com.hazelcast.simulator.utils.FastRandom;
+
+import java.util.Set;
 
 /**
  * Facility to select different operations based on probabilities. Each operations is represented as an enum item.
  *
  * Calling {@link #select()} method will select an operation according to the configured probabilities.
  *
+ * The selection uses an alias table, so it takes constant time and a single random number, regardless of the number of
+ * operations and the precision of their probabilities. Each column of the table holds an operation, the probability to select it
+ * and an alias operation, which is selected otherwise.
+ *
  * This class does not give any thread-safety guarantees. It is strongly recommended to construct a new instance for each thread,
- * at least to prevent contention on the random generator. Just use a single builder and call the
- * {@link OperationSelectorBuilder#build()} method in each thread constructor.
+ * since the random generator is not thread-safe. Just use a single builder and call the {@link OperationSelectorBuilder#build()}
+ * method in each thread constructor.
  *
  * @param <T> enum of operations
  */
 public class OperationSelector<T extends Enum<T>> {
-    private final Random random = new Random();
-    private final Object[] operations;
 
-    OperationSelector(Object[] operations) {
+    private static final long INT_MASK = 0xFFFFFFFFL;
+    private static final double INT_RANGE = 0x1p32;
+
+    private final FastRandom random = new FastRandom();
+    private final T[] operations;
+    private final double[] probabilities;
+    private final T[] aliases;
+    private final Set<T> operationSet;
+
+    OperationSelector(T[] operations, double[] probabilities, T[] aliases, Set<T> operationSet) {
         this.operations = operations;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+        this.operationSet = operationSet;
     }
 
     /**
@@ -41,9 +57,20 @@ public class OperationSelector<T extends Enum<T>> {
      *
      * @return selected operation
      */
-    @SuppressWarnings("unchecked")
     public T select() {
-        int chance = random.nextInt(operations.length);
-        return (T) operations[chance];
+        // the upper bits select the column of the alias table, the lower bits decide between operation and alias
+        long randomBits = random.nextLong();
+        int column = (int) (((randomBits >>> Integer.SIZE) * operations.length) >>> Integer.SIZE);
+        double chance = (randomBits & INT_MASK) / INT_RANGE;
+        return (chance < probabilities[column]) ? operations[column] : aliases[column];
+    }
+
+    /**
+     * Returns all operations which can be selected, which are all operations with a probability greater than 0.0.
+     *
+     * @return {@link Set} of selectable operations
+     */
+    public Set<T> getOperations() {
+        return operationSet;
     }
 }
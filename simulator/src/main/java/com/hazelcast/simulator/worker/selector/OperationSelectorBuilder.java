@@ -15,8 +15,13 @@
  */
 package com.hazelcast.simulator.worker.selector;
 
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
 import static java.lang.String.format;
@@ -25,25 +30,29 @@ import static java.lang.String.format;
  * Builder class to create an {@link OperationSelector} instance. Each operation is represented as an enum item and is registered
  * with its probability (0.0 to 1.0) via the {@link #addOperation(Enum, double)} method.
  *
- * The total sum of probabilities has to be exactly 1.0. You can use {@link #addDefaultOperation(Enum)} to add a default operation
- * which automatically consumes the remaining probability. The probability precision is {@value #PROBABILITY_PRECISION}.
+ * The total sum of probabilities has to be 1.0, within a tolerance of {@value #PROBABILITY_TOLERANCE}, e.g. three operations
+ * with a probability of 0.333 are accepted. The probabilities are normalized by their sum. You can use
+ * {@link #addDefaultOperation(Enum)} to add a default operation which automatically consumes the remaining probability. The
+ * probabilities can have an arbitrary precision.
  *
  * This builder class is not thread-safe. The created {@link OperationSelector} does not give any thread-safety guarantees. It is
- * strongly recommended to construct a new instance for each thread, at least to prevent contention on the random generator. Just
- * use a single builder and call the {@link #build()} method in each thread constructor.
+ * strongly recommended to construct a new instance for each thread, since the random generator is not thread-safe. Just use a
+ * single builder and call the {@link #build()} method in each thread constructor.
  *
  * @param <T> enum of operations
  */
 public class OperationSelectorBuilder<T extends Enum<T>> {
 
-    static final int PROBABILITY_PRECISION = 3;
-    static final double PROBABILITY_LENGTH = Math.pow(10, PROBABILITY_PRECISION);
-    static final double PROBABILITY_INTERVAL = 1.0 / PROBABILITY_LENGTH;
+    static final double PROBABILITY_TOLERANCE = 0.001;
 
     private final Map<T, Double> operations = new HashMap<T, Double>();
 
     private double probSum;
-    private Object[] operationsArray;
+
+    private T[] operationsArray;
+    private double[] probabilitiesArray;
+    private T[] aliasesArray;
+    private Set<T> operationSet;
 
     /**
      * Register a new operation for selection.
@@ -64,7 +73,7 @@ public class OperationSelectorBuilder<T extends Enum<T>> {
             throw new IllegalStateException("Operation " + operation + " has been already added to this selector");
         }
         probSum += probability;
-        if (probSum - 1.0 > PROBABILITY_INTERVAL) {
+        if (probSum - 1.0 > PROBABILITY_TOLERANCE) {
             probabilityMismatch();
         }
         return this;
@@ -80,7 +89,8 @@ public class OperationSelectorBuilder<T extends Enum<T>> {
      * @return this instance to allow method-chaining
      */
     public OperationSelectorBuilder<T> addDefaultOperation(T operation) {
-        addOperation(operation, 1.0 - probSum);
+        // rounding errors of the added probabilities must not result in a negative probability
+        addOperation(operation, Math.max(0.0, 1.0 - probSum));
         return this;
     }
 
@@ -90,24 +100,19 @@ public class OperationSelectorBuilder<T extends Enum<T>> {
      * @return instance of OperationSelector
      */
     public OperationSelector<T> build() {
-        if (Math.abs(probSum - 1.0) > PROBABILITY_INTERVAL) {
+        if (Math.abs(probSum - 1.0) > PROBABILITY_TOLERANCE) {
             probabilityMismatch();
         }
         if (operationsArray == null) {
-            populateOperationsArray();
+            populateAliasTable();
         }
-        return new OperationSelector<T>(operationsArray);
+        return new OperationSelector<T>(operationsArray, probabilitiesArray, aliasesArray, operationSet);
     }
 
     private void checkProbabilityArgument(double probability) {
-        if (probability < 0.0) {
+        if (probability < 0.0 || probability > 1.0) {
             throw new IllegalArgumentException("Probability has to be between 0.0 and 1.0, but was " + probability);
         }
-        double probabilityDecimalPlaces = probability - Math.floor(probability);
-        if (probabilityDecimalPlaces > 0.0 && probabilityDecimalPlaces < PROBABILITY_INTERVAL) {
-            throw new IllegalArgumentException(format("Maximum probability precision is %f, but was %f",
-                    PROBABILITY_INTERVAL, probability));
-        }
     }
 
     private void probabilityMismatch() {
@@ -118,21 +123,61 @@ public class OperationSelectorBuilder<T extends Enum<T>> {
         throw new IllegalStateException(sb.toString());
     }
 
-    private void populateOperationsArray() {
-        int arraySize = (int) PROBABILITY_LENGTH;
-        operationsArray = new Object[arraySize];
+    /**
+     * Creates the alias table with Vose's algorithm.
+     *
+     * Each operation gets a column, whose probability is scaled by the number of operations. Columns with a scaled probability
+     * below 1.0 are filled up with the excess probability of a column above 1.0, which becomes the alias of the column.
+     */
+    @SuppressWarnings("unchecked")
+    private void populateAliasTable() {
+        int size = operations.size();
+        Class<T> enumClass = operations.keySet().iterator().next().getDeclaringClass();
+        operationsArray = (T[]) Array.newInstance(enumClass, size);
+        aliasesArray = (T[]) Array.newInstance(enumClass, size);
+        probabilitiesArray = new double[size];
+
+        double[] scaledProbabilities = new double[size];
+        Deque<Integer> small = new ArrayDeque<Integer>();
+        Deque<Integer> large = new ArrayDeque<Integer>();
         int index = 0;
         for (Map.Entry<T, Double> entry : operations.entrySet()) {
-            T operation = entry.getKey();
-            for (int i = 0; i < Math.round(entry.getValue() * arraySize); i++) {
-                if (index < arraySize) {
-                    operationsArray[index] = operation;
-                    index++;
-                }
+            operationsArray[index] = entry.getKey();
+            scaledProbabilities[index] = entry.getValue() * size / probSum;
+            if (scaledProbabilities[index] < 1.0) {
+                small.add(index);
+            } else {
+                large.add(index);
+            }
+            index++;
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int smallIndex = small.poll();
+            int largeIndex = large.poll();
+            probabilitiesArray[smallIndex] = scaledProbabilities[smallIndex];
+            aliasesArray[smallIndex] = operationsArray[largeIndex];
+
+            scaledProbabilities[largeIndex] -= 1.0 - scaledProbabilities[smallIndex];
+            if (scaledProbabilities[largeIndex] < 1.0) {
+                small.add(largeIndex);
+            } else {
+                large.add(largeIndex);
             }
         }
-        if (index < arraySize) {
-            throw new IllegalStateException(format("Operations array is not filled completely (%d/%d)", index, arraySize));
+        // the remaining columns are full, apart from rounding errors
+        for (Integer remainingIndex : large) {
+            fillColumn(remainingIndex);
+        }
+        for (Integer remainingIndex : small) {
+            fillColumn(remainingIndex);
         }
+
+        operationSet = Collections.unmodifiableSet(operations.keySet());
+    }
+
+    private void fillColumn(int columnIndex) {
+        probabilitiesArray[columnIndex] = 1.0;
+        aliasesArray[columnIndex] = operationsArray[columnIndex];
     }
 }
@@ -16,9 +16,16 @@
 package com.hazelcast.simulator.worker.tasks;
 
 import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.utils.ExceptionReporter;
+import com.hazelcast.simulator.worker.metronome.Metronome;
 import com.hazelcast.simulator.worker.selector.OperationSelectorBuilder;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 
 /**
@@ -27,37 +34,107 @@ import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
  * The operation counter is automatically increased after call of {@link ExecutionCallback#onResponse}.
  * The throwable is automatically reported after call of {@link ExecutionCallback#onFailure(Throwable)}
  *
+ * The latency of an asynchronous operation is measured if its future is registered via
+ * {@link #registerCallback(ICompletableFuture)}. The measurement is started before {@link #timeStep(Enum)} is called and is
+ * finished by the response thread, since the start token travels with the callback of the future. The number of pending
+ * operations is reported by the in-flight count of the probes. If the worker is paced by a metronome, the latency since the
+ * intended start time of the operation is recorded as corrected latency, see {@link Probe#doneAsync(long, long)}.
+ *
+ * Registering the worker directly via <code>future.andThen(this)</code> still counts the operations and reports the failures,
+ * but the latency of these operations is not recorded, since the response thread cannot tell which time step the response
+ * belongs to. A warning is logged on the first such response. Migrate those tests to
+ * {@link #registerCallback(ICompletableFuture)} to measure the latency.
+ *
+ * The number of operations which are registered via {@link #registerCallback(ICompletableFuture)} and are still pending can be
+ * limited by the {@link #maxInFlight} property (pipeline depth). If the limit is reached, the worker thread backs off until a
+ * response has been received. The average pipeline depth of each interval is reported by the probes.
+ *
  * @param <O> Type of Enum used by the {@link com.hazelcast.simulator.worker.selector.OperationSelector}
  * @param <V> Type of {@link ExecutionCallback}
  */
 public abstract class AbstractAsyncWorker<O extends Enum<O>, V> extends AbstractWorker<O> implements ExecutionCallback<V> {
 
+    private static final long MAX_BACK_OFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // this field will be injected by test.properties of the test, the pipeline depth is unbounded by default
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int maxInFlight;
+
+    // decreased by the response threads, which unpark the worker thread if it is waiting for a free slot
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile Thread workerThread;
+    private volatile boolean isRegisteredDirectly;
+
+    private Probe pendingOperationProbe;
+    private long pendingIntendedStart;
+    private long pendingStartToken;
+    private long pendingOperationStartToken;
+    private boolean isMeasurementPending;
+
     public AbstractAsyncWorker(OperationSelectorBuilder<O> operationSelectorBuilder) {
         super(operationSelectorBuilder);
     }
 
     @Override
     public final void run() {
+        workerThread = Thread.currentThread();
+        Metronome metronome = getMetronome();
         while (!testContext.isStopped() && !isWorkerStopped) {
+            O operation = selector.select();
+            awaitFreeSlot();
+            pendingIntendedStart = metronome.waitForNext();
+            startMeasurement(operation);
             try {
-                timeStep(selector.select());
+                timeStep(operation);
             } catch (Exception e) {
+                abortMeasurement();
                 throw rethrow(e);
             }
+            // the measurement is still pending if no callback has been registered in the time step
+            abortMeasurement();
         }
     }
 
+    /**
+     * Registers this worker as {@link ExecutionCallback} of the given future and measures the latency of the operation.
+     *
+     * Has to be called at most once in each call of {@link #timeStep(Enum)}.
+     *
+     * @param future the {@link ICompletableFuture} of the asynchronous operation
+     */
+    protected final void registerCallback(ICompletableFuture<V> future) {
+        if (!isMeasurementPending) {
+            throw new IllegalStateException("registerCallback() can only be called once per timeStep()");
+        }
+        isMeasurementPending = false;
+
+        inFlight.incrementAndGet();
+        future.andThen(new LatencyCallback(pendingOperationProbe, pendingStartToken, pendingOperationStartToken,
+                pendingIntendedStart));
+    }
+
+    /**
+     * Counts the operation if the worker has been registered directly via <code>future.andThen(this)</code>.
+     *
+     * The latency of the operation is not recorded, use {@link #registerCallback(ICompletableFuture)} instead.
+     *
+     * @param response the result of the successful execution
+     */
     @Override
     public final void onResponse(V response) {
-        workerProbe.done();
-        increaseIteration();
-        handleResponse(response);
+        warnRegisteredDirectly();
+        processResponse(response);
     }
 
+    /**
+     * Reports the failure if the worker has been registered directly via <code>future.andThen(this)</code>.
+     *
+     * @param t the exception that is thrown
+     */
     @Override
     public final void onFailure(Throwable t) {
-        ExceptionReporter.report(testContext.getTestId(), t);
-        handleFailure(t);
+        warnRegisteredDirectly();
+        processFailure(t);
     }
 
     /**
@@ -79,4 +156,94 @@ public abstract class AbstractAsyncWorker<O extends Enum<O>, V> extends Abstract
     @SuppressWarnings("unused")
     protected void handleFailure(Throwable t) {
     }
+
+    private void processResponse(V response) {
+        increaseIteration();
+        handleResponse(response);
+    }
+
+    private void processFailure(Throwable t) {
+        ExceptionReporter.report(testContext.getTestId(), t);
+        handleFailure(t);
+    }
+
+    private void warnRegisteredDirectly() {
+        if (!isRegisteredDirectly) {
+            isRegisteredDirectly = true;
+            LOGGER.warning(getClass().getSimpleName() + " has been registered via future.andThen(this), so the latency of its"
+                    + " operations is not recorded. Use registerCallback(future) instead.");
+        }
+    }
+
+    private void awaitFreeSlot() {
+        if (maxInFlight <= 0) {
+            return;
+        }
+        // the timeout is just a safety net, since the worker thread is unparked as soon as a slot is free
+        while (inFlight.get() >= maxInFlight && !testContext.isStopped() && !isWorkerStopped) {
+            LockSupport.parkNanos(MAX_BACK_OFF_NANOS);
+        }
+    }
+
+    private void releaseSlot() {
+        if (inFlight.decrementAndGet() == maxInFlight - 1) {
+            LockSupport.unpark(workerThread);
+        }
+    }
+
+    private void startMeasurement(O operation) {
+        pendingOperationProbe = (operationProbes == null) ? null : operationProbes[operation.ordinal()];
+        pendingStartToken = workerProbe.startAsync();
+        if (pendingOperationProbe != null) {
+            pendingOperationStartToken = pendingOperationProbe.startAsync();
+        }
+        isMeasurementPending = true;
+    }
+
+    private void abortMeasurement() {
+        if (!isMeasurementPending) {
+            return;
+        }
+        isMeasurementPending = false;
+
+        workerProbe.abortAsync();
+        if (pendingOperationProbe != null) {
+            pendingOperationProbe.abortAsync();
+        }
+    }
+
+    private final class LatencyCallback implements ExecutionCallback<V> {
+
+        private final Probe operationProbe;
+        private final long startToken;
+        private final long operationStartToken;
+        private final long intendedStart;
+
+        private LatencyCallback(Probe operationProbe, long startToken, long operationStartToken, long intendedStart) {
+            this.operationProbe = operationProbe;
+            this.startToken = startToken;
+            this.operationStartToken = operationStartToken;
+            this.intendedStart = intendedStart;
+        }
+
+        @Override
+        public void onResponse(V response) {
+            workerProbe.doneAsync(startToken, intendedStart);
+            if (operationProbe != null) {
+                operationProbe.doneAsync(operationStartToken, intendedStart);
+            }
+            releaseSlot();
+            processResponse(response);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            workerProbe.abortAsync();
+            if (operationProbe != null) {
+                operationProbe.abortAsync();
+            }
+            releaseSlot();
+            processFailure(t);
+        }
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.tasks;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.simulator.probes.ProbeHandle;
+import com.hazelcast.simulator.utils.ExceptionReporter;
+import com.hazelcast.simulator.worker.selector.OperationSelectorBuilder;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Non-blocking version of {@link AbstractWorker}, which can be executed as logical worker of an {@link EventLoopGroup}.
+ *
+ * Each call of {@link #timeStepAsync(Enum)} has to start an asynchronous operation, e.g. via the async API of Hazelcast, and
+ * return its {@link ICompletableFuture}. The worker continues with the next operation in the callback of the future, so it has
+ * a single operation in flight, like a real client. The callbacks are executed by the carrier thread of the worker, so a worker
+ * instance is never executed concurrently.
+ *
+ * With the {@link WorkerModel#EVENT_LOOP} model many logical workers are multiplexed over a few carrier threads. With the default
+ * {@link WorkerModel#THREAD} model each worker runs in its own thread, which waits for the response of each operation. So the
+ * same worker can be used for both models.
+ *
+ * The operation counter is automatically increased after a response. The throwable of a failed operation is automatically
+ * reported and the worker continues with the next operation.
+ *
+ * @param <O> Type of Enum used by the {@link com.hazelcast.simulator.worker.selector.OperationSelector}
+ * @param <V> Type of the response of the asynchronous operations
+ */
+public abstract class AbstractEventLoopWorker<O extends Enum<O>, V> extends AbstractWorker<O> {
+
+    private final LogicalWorker logicalWorker = new LogicalWorker();
+
+    public AbstractEventLoopWorker(OperationSelectorBuilder<O> operationSelectorBuilder) {
+        super(operationSelectorBuilder);
+    }
+
+    /**
+     * Executes an operation in the {@link WorkerModel#THREAD} model and waits for its response.
+     *
+     * @param operation The selected operation for this iteration
+     */
+    @Override
+    protected final void timeStep(O operation) throws Exception {
+        ICompletableFuture<V> future = timeStepAsync(operation);
+        V response;
+        try {
+            response = future.get();
+        } catch (ExecutionException e) {
+            onFailure(e.getCause());
+            return;
+        }
+        handleResponse(response);
+    }
+
+    /**
+     * This method is called for each iteration and has to start an asynchronous operation without blocking.
+     *
+     * Won't be called if an error occurs in {@link #beforeRun()}.
+     *
+     * @param operation The selected operation for this iteration
+     * @return the {@link ICompletableFuture} of the asynchronous operation
+     */
+    protected abstract ICompletableFuture<V> timeStepAsync(O operation) throws Exception;
+
+    /**
+     * Override this method if you need to execute code on each worker after the iteration has been increased for a response.
+     *
+     * @param response the result of the successful execution
+     */
+    @SuppressWarnings("unused")
+    protected void handleResponse(V response) {
+    }
+
+    /**
+     * Override this method if you need to execute code on each worker after the throwable of a failed operation has been
+     * reported.
+     *
+     * @param t the exception that is thrown
+     */
+    @SuppressWarnings("unused")
+    protected void handleFailure(Throwable t) {
+    }
+
+    final void start(EventLoopCarrier carrier) {
+        logicalWorker.carrier = carrier;
+        carrier.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    beforeRun();
+                } catch (Throwable t) {
+                    logicalWorker.abort(t);
+                    return;
+                }
+                logicalWorker.run();
+            }
+        });
+    }
+
+    private void onFailure(Throwable t) {
+        ExceptionReporter.report(testContext.getTestId(), t);
+        handleFailure(t);
+    }
+
+    /**
+     * Executes the steps and callbacks of the worker on its carrier thread.
+     */
+    private final class LogicalWorker implements Runnable, ExecutionCallback<V> {
+
+        private EventLoopCarrier carrier;
+        private O operation;
+        private boolean isSampled;
+        private long started;
+
+        @Override
+        public void run() {
+            if (testContext.isStopped() || isWorkerStopped) {
+                finish();
+                return;
+            }
+
+            operation = selector.select();
+            // a counter probe samples each operation, so it is counted after the response
+            isSampled = carrier.getProbeHandle().isSampled();
+            started = isSampled ? System.nanoTime() : 0;
+            ICompletableFuture<V> future;
+            try {
+                future = timeStepAsync(operation);
+            } catch (Throwable t) {
+                abort(t);
+                return;
+            }
+            // the callback is always executed by the carrier thread, so there is no recursion for completed futures
+            future.andThen(this, carrier);
+        }
+
+        @Override
+        public void onResponse(V response) {
+            if (isSampled) {
+                long latency = System.nanoTime() - started;
+                carrier.getProbeHandle().recordValue(latency, latency);
+                ProbeHandle operationProbeHandle = carrier.getOperationProbeHandle(operation);
+                if (operationProbeHandle != null) {
+                    operationProbeHandle.recordValue(latency, latency);
+                }
+            }
+            increaseIteration();
+            try {
+                handleResponse(response);
+            } catch (Throwable t) {
+                abort(t);
+                return;
+            }
+            run();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            try {
+                AbstractEventLoopWorker.this.onFailure(t);
+            } catch (Throwable e) {
+                abort(e);
+                return;
+            }
+            run();
+        }
+
+        /**
+         * Stops the worker after an exception, like an exception stops the thread of a worker in the {@link WorkerModel#THREAD}
+         * model.
+         */
+        private void abort(Throwable t) {
+            ExceptionReporter.report(testContext.getTestId(), t);
+            carrier.workerFinished();
+        }
+
+        private void finish() {
+            try {
+                afterRun();
+            } finally {
+                carrier.workerFinished();
+            }
+        }
+    }
+}
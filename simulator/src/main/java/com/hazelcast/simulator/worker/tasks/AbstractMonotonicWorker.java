@@ -27,21 +27,22 @@ public abstract class AbstractMonotonicWorker extends AbstractWorker {
 
     @Override
     public final void run() {
-        beforeRun();
+        // runs the timing loops of the AbstractWorker, each step calls timeStep() without an operation
+        super.run();
+    }
 
-        while (!testContext.isStopped() && !isWorkerStopped) {
-            long started = System.nanoTime();
-            try {
-                timeStep();
-            } catch (Exception e) {
-                throw rethrow(e);
-            }
-            workerProbe.recordValue(System.nanoTime() - started);
+    @Override
+    void timeStepUnchecked(Enum operation) {
+        // a monotonic step has no operation
+        timeStepUnchecked();
+    }
 
-            increaseIteration();
+    private void timeStepUnchecked() {
+        try {
+            timeStep();
+        } catch (Exception e) {
+            throw rethrow(e);
         }
-
-        afterRun();
     }
 
     /**
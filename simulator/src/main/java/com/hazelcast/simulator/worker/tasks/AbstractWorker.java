@@ -18,14 +18,21 @@ package com.hazelcast.simulator.worker.tasks;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.InjectProbe;
+import com.hazelcast.simulator.utils.FastRandom;
+import com.hazelcast.simulator.worker.metronome.Metronome;
 import com.hazelcast.simulator.worker.selector.OperationSelector;
 import com.hazelcast.simulator.worker.selector.OperationSelectorBuilder;
+import com.hazelcast.simulator.worker.trace.WorkloadTracer;
 
+import java.util.Collections;
 import java.util.Random;
+import java.util.Set;
 
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.worker.metronome.SimpleMetronome.withFixedIntervalUs;
 
 /**
  * Abstract worker class which is returned by {@link com.hazelcast.simulator.test.annotations.RunWithWorker} annotated test
@@ -34,6 +41,22 @@ import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
  * Implicitly logs and measures performance. The related properties can be overwritten with the properties of the test.
  * The Operation counter is automatically increased after each {@link #timeStep(Enum)} call.
  *
+ * The worker can be paced with the <code>workerMetronomeIntervalUs</code> test property or with a <code>targetThroughput</code>
+ * for the whole test, which is split into a {@link Metronome} per worker thread by the coordinator and the
+ * {@link com.hazelcast.simulator.worker.TestContainer}. The latency of each call is then also measured from its intended start
+ * time, which is recorded if the worker probe records latencies corrected for coordinated omission
+ * (see {@link InjectProbe#recordCorrectedLatency()}). The <code>metronomeType</code> test property defines how the worker threads
+ * wait for their next operation, e.g. by busy looping or by parking the thread.
+ *
+ * If more than one operation can be selected, the latency of each operation is additionally recorded in its own probe.
+ *
+ * If the worker probe records no latencies (see {@link InjectProbe#recordLatency()}), the operations are just counted without
+ * taking any timestamps.
+ *
+ * With the <code>workloadTraceMode</code> test property the worker records its operations, their intended start times and the
+ * values drawn from {@link #getRandom()} during each {@link #timeStep(Enum)} call into a trace file, or replays such a trace
+ * (see {@link WorkloadTracer}).
+ *
  * @param <O> Type of Enum used by the {@link com.hazelcast.simulator.worker.selector.OperationSelector}
  */
 public abstract class AbstractWorker<O extends Enum<O>> implements IWorker {
@@ -43,14 +66,23 @@ public abstract class AbstractWorker<O extends Enum<O>> implements IWorker {
     // these fields will be injected by test.properties of the test
     @SuppressWarnings("checkstyle:visibilitymodifier")
     public long logFrequency;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public long workerMetronomeIntervalUs;
 
-    final Random random = new Random();
     final OperationSelector<O> selector;
 
     // these fields will be injected by the TestContainer
     TestContext testContext;
     @InjectProbe(useForThroughput = true)
     Probe workerProbe;
+    // one probe per selectable operation, indexed by the ordinal of the operation
+    Probe[] operationProbes;
+    // paces the worker thread on its share of the target throughput of the test
+    Metronome metronome;
+    // records or replays the workload of the worker
+    WorkloadTracer workloadTracer;
+    // replaced by a traced Random together with the injection of a WorkloadTracer, so before the worker runs
+    Random random = new FastRandom();
 
     // local variables
     long iteration;
@@ -61,7 +93,8 @@ public abstract class AbstractWorker<O extends Enum<O>> implements IWorker {
     }
 
     /**
-     * This constructor is just for child classes who also override the {@link #run()} method.
+     * This constructor is just for child classes without an {@link OperationSelector}, which execute each step without an
+     * operation (see {@link AbstractMonotonicWorker}).
      */
     AbstractWorker() {
         this.selector = null;
@@ -71,19 +104,145 @@ public abstract class AbstractWorker<O extends Enum<O>> implements IWorker {
     public void run() {
         beforeRun();
 
+        if (workloadTracer != null) {
+            runWithTrace();
+        } else if (workerProbe.isLatencyProbe()) {
+            runWithLatency();
+        } else {
+            runWithCount();
+        }
+
+        afterRun();
+    }
+
+    private void runWithLatency() {
+        Metronome metronome = getMetronome();
+        boolean isPaced = isPaced();
+        ProbeHandle probeHandle = workerProbe.threadHandle();
+        ProbeHandle[] operationProbeHandles = createOperationProbeHandles();
         while (!testContext.isStopped() && !isWorkerStopped) {
-            long started = System.nanoTime();
-            try {
-                timeStep(selector.select());
-            } catch (Exception e) {
-                throw rethrow(e);
+            O operation = selectOperation();
+            if (probeHandle.isSampled()) {
+                // without a pacing metronome the intended start time is the current time
+                long intendedStarted = metronome.waitForNext();
+                long started = isPaced ? System.nanoTime() : intendedStarted;
+                timeStepUnchecked(operation);
+                recordLatency(probeHandle, operationProbeHandles, operation, started, intendedStarted);
+            } else {
+                // the operation is accounted by the next sampled value, so it needs no timestamps
+                if (isPaced) {
+                    metronome.waitForNext();
+                }
+                timeStepUnchecked(operation);
             }
-            workerProbe.recordValue(System.nanoTime() - started);
 
             increaseIteration();
         }
+    }
 
-        afterRun();
+    private void runWithCount() {
+        // a counter probe needs no timestamps, so the metronome is just used to pace the worker
+        Metronome metronome = getMetronome();
+        boolean isPaced = isPaced();
+        ProbeHandle probeHandle = workerProbe.threadHandle();
+        ProbeHandle[] operationProbeHandles = createOperationProbeHandles();
+        while (!testContext.isStopped() && !isWorkerStopped) {
+            O operation = selectOperation();
+            if (isPaced) {
+                metronome.waitForNext();
+            }
+            timeStepUnchecked(operation);
+            probeHandle.done();
+            if (operationProbeHandles != null) {
+                operationProbeHandles[operation.ordinal()].done();
+            }
+
+            increaseIteration();
+        }
+    }
+
+    void runWithTrace() {
+        // every step waits for its intended start time, which is recorded or replayed with the operation
+        Metronome metronome = getMetronome();
+        ProbeHandle probeHandle = workerProbe.threadHandle();
+        ProbeHandle[] operationProbeHandles = createOperationProbeHandles();
+        O[] operations = getOperationConstants();
+        try {
+            while (!testContext.isStopped() && !isWorkerStopped && workloadTracer.nextStep()) {
+                O operation = selectTracedOperation(operations);
+                long intendedStarted = workloadTracer.awaitStep((operation == null) ? -1 : operation.ordinal(), metronome);
+                long started = System.nanoTime();
+                timeStepUnchecked(operation);
+                if (probeHandle.isSampled()) {
+                    recordLatency(probeHandle, operationProbeHandles, operation, started, intendedStarted);
+                }
+
+                increaseIteration();
+            }
+        } finally {
+            workloadTracer.close();
+        }
+    }
+
+    private O selectOperation() {
+        // a worker without an operation selector executes each step without an operation
+        return (selector == null) ? null : selector.select();
+    }
+
+    private void recordLatency(ProbeHandle probeHandle, ProbeHandle[] operationProbeHandles, O operation, long started,
+                               long intendedStarted) {
+        long done = System.nanoTime();
+        probeHandle.recordValue(done - started, done - intendedStarted);
+        if (operationProbeHandles != null) {
+            operationProbeHandles[operation.ordinal()].recordValue(done - started, done - intendedStarted);
+        }
+    }
+
+    private O selectTracedOperation(O[] operations) {
+        if (operations == null) {
+            return null;
+        }
+        return workloadTracer.isReplay() ? operations[workloadTracer.getOperationOrdinal()] : selector.select();
+    }
+
+    private O[] getOperationConstants() {
+        Set<O> operations = getOperations();
+        if (operations.isEmpty()) {
+            return null;
+        }
+        return operations.iterator().next().getDeclaringClass().getEnumConstants();
+    }
+
+    void timeStepUnchecked(O operation) {
+        try {
+            timeStep(operation);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    Metronome getMetronome() {
+        // the target throughput of the test takes precedence over the fixed metronome interval
+        return (metronome != null) ? metronome : withFixedIntervalUs(workerMetronomeIntervalUs);
+    }
+
+    boolean isPaced() {
+        return metronome != null || workerMetronomeIntervalUs > 0;
+    }
+
+    /**
+     * Returns the operations which can be selected by this worker.
+     *
+     * The {@link com.hazelcast.simulator.worker.TestContainer} creates a probe per operation, if there is more than one.
+     *
+     * @return {@link Set} of selectable operations or an empty {@link Set} if the worker has no
+     * {@link com.hazelcast.simulator.worker.selector.OperationSelector}
+     */
+    public Set<O> getOperations() {
+        if (selector == null) {
+            return Collections.emptySet();
+        }
+        return selector.getOperations();
     }
 
     /**
@@ -174,6 +333,19 @@ public abstract class AbstractWorker<O extends Enum<O>> implements IWorker {
         return iteration;
     }
 
+    ProbeHandle[] createOperationProbeHandles() {
+        if (operationProbes == null) {
+            return null;
+        }
+        ProbeHandle[] operationProbeHandles = new ProbeHandle[operationProbes.length];
+        for (int i = 0; i < operationProbes.length; i++) {
+            if (operationProbes[i] != null) {
+                operationProbeHandles[i] = operationProbes[i].threadHandle();
+            }
+        }
+        return operationProbeHandles;
+    }
+
     void increaseIteration() {
         iteration++;
         if (logFrequency > 0 && iteration % logFrequency == 0) {
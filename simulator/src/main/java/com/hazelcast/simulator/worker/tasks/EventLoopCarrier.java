@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.tasks;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
+import com.hazelcast.simulator.utils.ExceptionReporter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Carrier thread of an {@link EventLoopGroup}, which executes the steps and callbacks of its logical workers.
+ *
+ * The carrier owns the {@link ProbeHandle} instances of its logical workers, since all of them record on this thread. So there
+ * is just one recorder per carrier thread, regardless of the number of logical workers.
+ */
+final class EventLoopCarrier implements Runnable, Executor {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<Runnable>();
+
+    private final EventLoopGroup group;
+    private final String testId;
+    private final ProbeHandle probeHandle;
+    private final ProbeHandle[] operationProbeHandles;
+
+    EventLoopCarrier(EventLoopGroup group, String testId, Probe workerProbe, Probe[] operationProbes) {
+        this.group = group;
+        this.testId = testId;
+        this.probeHandle = workerProbe.threadHandle();
+        this.operationProbeHandles = createOperationProbeHandles(operationProbes);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        taskQueue.add(task);
+    }
+
+    @Override
+    public void run() {
+        while (!group.isCompleted()) {
+            Runnable task;
+            try {
+                task = taskQueue.poll(POLL_TIMEOUT_MILLIS, MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw rethrow(e);
+            }
+            if (task == null) {
+                continue;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // a failing task must not stop the carrier, since it executes the tasks of other logical workers as well
+                ExceptionReporter.report(testId, t);
+            }
+        }
+    }
+
+    ProbeHandle getProbeHandle() {
+        return probeHandle;
+    }
+
+    ProbeHandle getOperationProbeHandle(Enum operation) {
+        return (operationProbeHandles == null) ? null : operationProbeHandles[operation.ordinal()];
+    }
+
+    void workerFinished() {
+        group.workerFinished();
+    }
+
+    private static ProbeHandle[] createOperationProbeHandles(Probe[] operationProbes) {
+        if (operationProbes == null) {
+            return null;
+        }
+        ProbeHandle[] operationProbeHandles = new ProbeHandle[operationProbes.length];
+        for (int i = 0; i < operationProbes.length; i++) {
+            if (operationProbes[i] != null) {
+                operationProbeHandles[i] = operationProbes[i].threadHandle();
+            }
+        }
+        return operationProbeHandles;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.tasks;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.utils.ThreadSpawner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the logical workers of a test on a small fixed pool of carrier threads.
+ *
+ * The logical workers are assigned round-robin to the carrier threads. Each carrier thread processes the steps and the
+ * callbacks of its logical workers one after another, so a logical worker is never executed concurrently. The carrier threads
+ * are spawned via a {@link ThreadSpawner}, so their exceptions are reported for the test.
+ *
+ * This class is not thread-safe. All logical workers have to be started before {@link #awaitCompletion()} is called.
+ */
+public class EventLoopGroup {
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final ThreadSpawner spawner;
+    private final EventLoopCarrier[] carriers;
+    private final List<Thread> carrierThreads = new ArrayList<Thread>();
+
+    private volatile boolean isClosed;
+    private int nextCarrier;
+
+    /**
+     * Creates an {@link EventLoopGroup} and spawns its carrier threads.
+     *
+     * @param testId          the testId to correlate exceptions of the carrier threads with the test
+     * @param carrierCount    the number of carrier threads
+     * @param workerProbe     the worker probe of the test
+     * @param operationProbes the operation probes of the test, indexed by the ordinal of the operation, or <tt>null</tt>
+     */
+    public EventLoopGroup(String testId, int carrierCount, Probe workerProbe, Probe[] operationProbes) {
+        if (carrierCount < 1) {
+            throw new IllegalArgumentException("Carrier thread count must be at least 1, but was " + carrierCount);
+        }
+        this.spawner = new ThreadSpawner(testId);
+        this.carriers = new EventLoopCarrier[carrierCount];
+        for (int i = 0; i < carrierCount; i++) {
+            carriers[i] = new EventLoopCarrier(this, testId, workerProbe, operationProbes);
+            carrierThreads.add(spawner.spawn("EventLoopCarrier", carriers[i]));
+        }
+    }
+
+    /**
+     * Returns the carrier threads, which execute all logical workers of this group.
+     *
+     * @return the carrier threads
+     */
+    public List<Thread> getCarrierThreads() {
+        return Collections.unmodifiableList(carrierThreads);
+    }
+
+    /**
+     * Starts a logical worker on the next carrier thread.
+     *
+     * @param worker the {@link AbstractEventLoopWorker} to start
+     * @throws IllegalArgumentException if the worker is no {@link AbstractEventLoopWorker}
+     */
+    public void start(IWorker worker) {
+        if (!(worker instanceof AbstractEventLoopWorker)) {
+            throw new IllegalArgumentException("Only an AbstractEventLoopWorker can be started, but was " + worker);
+        }
+        if (isClosed) {
+            throw new IllegalStateException("Cannot start a worker after awaitCompletion() has been called");
+        }
+        activeWorkers.incrementAndGet();
+        ((AbstractEventLoopWorker<?, ?>) worker).start(carriers[nextCarrier]);
+        nextCarrier = (nextCarrier + 1) % carriers.length;
+    }
+
+    /**
+     * Waits until all logical workers have finished, which is after the response of their last operation, and stops the carrier
+     * threads.
+     */
+    public void awaitCompletion() {
+        isClosed = true;
+        spawner.awaitCompletion();
+    }
+
+    boolean isCompleted() {
+        return isClosed && activeWorkers.get() == 0;
+    }
+
+    void workerFinished() {
+        activeWorkers.decrementAndGet();
+    }
+}
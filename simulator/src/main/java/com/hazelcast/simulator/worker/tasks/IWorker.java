@@ -23,6 +23,7 @@ package com.hazelcast.simulator.worker.tasks;
  * {@link com.hazelcast.simulator.test.TestContext TestContext} testContext;
  * {@link com.hazelcast.simulator.probes.Probe Probe} workerProbe;
  * <code>long</code> logFrequency;
+ * <code>long</code> workerMetronomeIntervalUs;
  */
 public interface IWorker extends Runnable {
 
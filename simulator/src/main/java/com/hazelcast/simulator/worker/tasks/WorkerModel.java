@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.tasks;
+
+/**
+ * Defines how the workers of a {@link com.hazelcast.simulator.test.annotations.RunWithWorker} test are executed.
+ */
+public enum WorkerModel {
+
+    /**
+     * Each worker runs in its own platform thread, so the thread count of the test is the number of worker threads.
+     */
+    THREAD,
+
+    /**
+     * The workers are logical workers, which are multiplexed over a small fixed pool of carrier threads.
+     *
+     * Each logical worker has a single asynchronous operation in flight and continues with the next operation in the callback of
+     * its future, so thousands of concurrent clients can be simulated without thousands of threads. The thread count of the test
+     * is the number of logical workers. Requires an {@link AbstractEventLoopWorker}.
+     */
+    EVENT_LOOP
+}
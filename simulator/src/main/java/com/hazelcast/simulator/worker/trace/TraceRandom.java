@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.trace;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} which adds all values drawn from a delegate to the current step of a {@link WorkloadTracer}, or which returns
+ * the values of the current step if a trace is replayed.
+ *
+ * All methods of {@link Random} are mapped to a single traced value, so a replayed step returns exactly the same values as the
+ * recorded step, as long as the worker draws the same kind of values in the same order.
+ */
+final class TraceRandom extends Random {
+
+    private final WorkloadTracer tracer;
+    private final Random delegate;
+
+    /**
+     * Creates a {@link TraceRandom}.
+     *
+     * @param tracer   the {@link WorkloadTracer} which stores the values of the current step
+     * @param delegate the {@link Random} to draw the recorded values from or <tt>null</tt> if the trace is replayed
+     */
+    TraceRandom(WorkloadTracer tracer, Random delegate) {
+        super(0);
+        this.tracer = tracer;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int nextInt() {
+        if (delegate == null) {
+            return (int) tracer.replayValue();
+        }
+        return (int) tracer.recordValue(delegate.nextInt());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (delegate == null) {
+            return (int) tracer.replayValue();
+        }
+        return (int) tracer.recordValue(delegate.nextInt(bound));
+    }
+
+    @Override
+    public long nextLong() {
+        if (delegate == null) {
+            return tracer.replayValue();
+        }
+        return tracer.recordValue(delegate.nextLong());
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        if (delegate == null) {
+            return tracer.replayValue() != 0;
+        }
+        return tracer.recordValue(delegate.nextBoolean() ? 1 : 0) != 0;
+    }
+
+    @Override
+    public float nextFloat() {
+        if (delegate == null) {
+            return Float.intBitsToFloat((int) tracer.replayValue());
+        }
+        return Float.intBitsToFloat((int) tracer.recordValue(Float.floatToRawIntBits(delegate.nextFloat())));
+    }
+
+    @Override
+    public double nextDouble() {
+        if (delegate == null) {
+            return Double.longBitsToDouble(tracer.replayValue());
+        }
+        return Double.longBitsToDouble(tracer.recordValue(Double.doubleToRawLongBits(delegate.nextDouble())));
+    }
+
+    @Override
+    public synchronized double nextGaussian() {
+        if (delegate == null) {
+            return Double.longBitsToDouble(tracer.replayValue());
+        }
+        return Double.longBitsToDouble(tracer.recordValue(Double.doubleToRawLongBits(delegate.nextGaussian())));
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) nextInt();
+        }
+    }
+
+    @Override
+    protected int next(int bits) {
+        // all other methods of Random are based on this method, so they are traced as well
+        return nextInt() >>> (Integer.SIZE - bits);
+    }
+}
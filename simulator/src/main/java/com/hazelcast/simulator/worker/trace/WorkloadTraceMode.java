@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.trace;
+
+/**
+ * Defines if the workers of a test record their workload into trace files or replay the workload of trace files.
+ */
+public enum WorkloadTraceMode {
+
+    /**
+     * The workload is neither recorded nor replayed.
+     */
+    NONE,
+
+    /**
+     * Each worker records its operations, their intended start times and the random values of each step into a trace file.
+     */
+    RECORD,
+
+    /**
+     * Each worker replays the trace file which has been recorded by the worker with the same index.
+     */
+    REPLAY
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.trace;
+
+import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+
+/**
+ * Records the workload of a single worker into a compact binary trace file or replays it.
+ *
+ * Each step of the worker is stored as one record with its intended start time, the ordinal of its operation and all random
+ * values the step has drawn from the {@link Random} of the worker, e.g. a key index and a value size. A replayed trace returns
+ * the same operations and random values at the original or at a scaled rate, so two runs execute byte-identical workloads.
+ *
+ * The trace file starts with a magic number, a version and the class name of the operation enum, followed by one record per
+ * step. All numbers of a record are variable-length encoded, so small values like key indexes just need one or two bytes:
+ * <pre>
+ * record := intendedStartDeltaNanos operationOrdinal valueCount value*
+ * </pre>
+ *
+ * A tracer is used by a single worker thread, so it is not thread-safe.
+ */
+public final class WorkloadTracer implements Closeable {
+
+    private static final int MAGIC = 0x53494d54;
+    private static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_VALUE_CAPACITY = 8;
+
+    private static final int VARINT_BITS = 7;
+    private static final long VARINT_MASK = 0x7FL;
+    private static final int VARINT_CONTINUATION = 0x80;
+
+    private final File file;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final double replaySpeed;
+
+    private long[] values = new long[INITIAL_VALUE_CAPACITY];
+    private int valueCount;
+    private int valueIndex;
+
+    private boolean hasStep;
+    private int operationOrdinal = -1;
+    private long intendedStartOffsetNanos;
+    private long lastIntendedStartOffsetNanos;
+    private long startNanos;
+    private boolean isStarted;
+
+    private WorkloadTracer(File file, DataOutputStream out, DataInputStream in, double replaySpeed) {
+        this.file = file;
+        this.out = out;
+        this.in = in;
+        this.replaySpeed = replaySpeed;
+    }
+
+    /**
+     * Creates a {@link WorkloadTracer} which records the workload of a worker.
+     *
+     * @param file           the trace file
+     * @param operationClass the class of the operation enum of the worker or <tt>null</tt> if the worker has no operations
+     * @return the {@link WorkloadTracer}
+     */
+    public static WorkloadTracer record(File file, Class<?> operationClass) {
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(getOperationClassName(operationClass));
+            return new WorkloadTracer(file, out, null, 0);
+        } catch (IOException e) {
+            closeQuietly(out);
+            throw new TestException("Could not create workload trace %s", file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Creates a {@link WorkloadTracer} which replays a recorded workload.
+     *
+     * @param file           the trace file
+     * @param operationClass the class of the operation enum of the worker or <tt>null</tt> if the worker has no operations
+     * @param replaySpeed    the factor to scale the recorded rate, e.g. <tt>2.0</tt> to replay twice as fast, or <tt>0</tt> to
+     *                       replay the steps as fast as possible
+     * @return the {@link WorkloadTracer}
+     */
+    public static WorkloadTracer replay(File file, Class<?> operationClass, double replaySpeed) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new TestException("File %s is no workload trace of version %d", file.getAbsolutePath(), VERSION);
+            }
+            String operationClassName = in.readUTF();
+            if (!operationClassName.equals(getOperationClassName(operationClass))) {
+                throw new TestException("Workload trace %s has been recorded with operations of %s, but the worker uses %s",
+                        file.getAbsolutePath(), operationClassName, getOperationClassName(operationClass));
+            }
+            return new WorkloadTracer(file, null, in, replaySpeed);
+        } catch (IOException e) {
+            closeQuietly(in);
+            throw new TestException("Could not open workload trace %s", file.getAbsolutePath(), e);
+        } catch (TestException e) {
+            closeQuietly(in);
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the {@link Random} which has to be used by the worker to trace its random values.
+     *
+     * @param workerRandom the {@link Random} of the worker to draw the recorded values from
+     * @return the traced {@link Random}
+     */
+    public Random createRandom(Random workerRandom) {
+        return new TraceRandom(this, isReplay() ? null : workerRandom);
+    }
+
+    public boolean isReplay() {
+        return in != null;
+    }
+
+    /**
+     * Starts the next step of the worker.
+     *
+     * When recording, the previous step is written to the trace file. When replaying, the next step is read from the trace file.
+     *
+     * @return <tt>true</tt> if there is a next step, <tt>false</tt> if the replayed trace has been completed
+     */
+    public boolean nextStep() {
+        try {
+            if (in == null) {
+                writeStep();
+                return true;
+            }
+            return readStep();
+        } catch (IOException e) {
+            throw new TestException("Could not access workload trace %s", file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Returns the ordinal of the operation of the replayed step.
+     *
+     * @return the ordinal of the operation or <tt>-1</tt> if the worker has no operations
+     */
+    public int getOperationOrdinal() {
+        return operationOrdinal;
+    }
+
+    /**
+     * Waits for the intended start of the current step.
+     *
+     * When recording, the metronome paces the worker and its intended start time is recorded with the operation. When replaying,
+     * the recorded intended start time is scaled by the replay speed.
+     *
+     * @param operationOrdinal the ordinal of the operation of the step or <tt>-1</tt> if the worker has no operations
+     * @param metronome        the {@link Metronome} of the worker
+     * @return the intended start time of the step as {@link System#nanoTime()} timestamp
+     */
+    public long awaitStep(int operationOrdinal, Metronome metronome) {
+        if (in == null) {
+            long intendedStarted = metronome.waitForNext();
+            if (!isStarted) {
+                startNanos = intendedStarted;
+                isStarted = true;
+            }
+            this.operationOrdinal = operationOrdinal;
+            this.intendedStartOffsetNanos = intendedStarted - startNanos;
+            this.hasStep = true;
+            return intendedStarted;
+        }
+
+        long now = System.nanoTime();
+        if (!isStarted) {
+            startNanos = now;
+            isStarted = true;
+        }
+        if (replaySpeed <= 0) {
+            return now;
+        }
+        long intendedStarted = startNanos + (long) (intendedStartOffsetNanos / replaySpeed);
+        long remainingNanos = intendedStarted - now;
+        while (remainingNanos > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            remainingNanos = intendedStarted - System.nanoTime();
+        }
+        return intendedStarted;
+    }
+
+    /**
+     * Writes the last recorded step and closes the trace file.
+     */
+    @Override
+    public void close() {
+        if (in != null) {
+            closeQuietly(in);
+            return;
+        }
+        try {
+            writeStep();
+            out.close();
+        } catch (IOException e) {
+            closeQuietly(out);
+            throw new TestException("Could not write workload trace %s", file.getAbsolutePath(), e);
+        }
+    }
+
+    long recordValue(long value) {
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[valueCount++] = value;
+        return value;
+    }
+
+    long replayValue() {
+        if (valueIndex == valueCount) {
+            throw new IllegalStateException(
+                    "The replayed step has no more random values, so the worker doesn't draw the values of the recorded step");
+        }
+        return values[valueIndex++];
+    }
+
+    private void writeStep() throws IOException {
+        if (!hasStep) {
+            return;
+        }
+        writeVarLong(intendedStartOffsetNanos - lastIntendedStartOffsetNanos);
+        writeVarLong(operationOrdinal);
+        writeVarLong(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            writeVarLong(values[i]);
+        }
+        lastIntendedStartOffsetNanos = intendedStartOffsetNanos;
+        valueCount = 0;
+        hasStep = false;
+    }
+
+    private boolean readStep() throws IOException {
+        long intendedStartDeltaNanos;
+        try {
+            intendedStartDeltaNanos = readVarLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        intendedStartOffsetNanos += intendedStartDeltaNanos;
+        operationOrdinal = (int) readVarLong();
+        valueCount = (int) readVarLong();
+        if (valueCount > values.length) {
+            values = new long[valueCount];
+        }
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = readVarLong();
+        }
+        valueIndex = 0;
+        return true;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        // zig-zag encoding, so small negative values need few bytes as well
+        long encoded = (value << 1) ^ (value >> (Long.SIZE - 1));
+        while ((encoded & ~VARINT_MASK) != 0) {
+            out.writeByte((int) (encoded & VARINT_MASK) | VARINT_CONTINUATION);
+            encoded >>>= VARINT_BITS;
+        }
+        out.writeByte((int) encoded);
+    }
+
+    private long readVarLong() throws IOException {
+        long encoded = 0;
+        int shift = 0;
+        int currentByte;
+        do {
+            currentByte = in.readUnsignedByte();
+            encoded |= (currentByte & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while ((currentByte & VARINT_CONTINUATION) != 0);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    private static String getOperationClassName(Class<?> operationClass) {
+        return (operationClass == null) ? "" : operationClass.getName();
+    }
+}
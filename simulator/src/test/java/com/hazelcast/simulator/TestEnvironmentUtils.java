@@ -6,6 +6,7 @@ import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.hazelcast.simulator.utils.FileUtils.USER_HOME;
@@ -85,6 +86,20 @@ public class TestEnvironmentUtils {
         deleteQuiet(new File("workers"));
     }
 
+    public static void deleteExceptionFiles() {
+        File[] exceptionFiles = new File(".").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".exception");
+            }
+        });
+        if (exceptionFiles != null) {
+            for (File exceptionFile : exceptionFiles) {
+                deleteQuiet(exceptionFile);
+            }
+        }
+    }
+
     public static void createAgentsFileWithLocalhost() {
         agentsFile = new File(AgentsFile.NAME);
         appendText("127.0.0.1", agentsFile);
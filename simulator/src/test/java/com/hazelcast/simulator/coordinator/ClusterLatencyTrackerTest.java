@@ -0,0 +1,201 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.protocol.core.AddressLevel;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterLatencyTrackerTest {
+
+    private static final String TEST_ID = "ClusterLatencyTrackerTest";
+    private static final String PROBE_NAME = "probe";
+
+    private static final int HEADER_LINES = 2;
+    private static final int OPERATIONS_COLUMN = 3;
+    private static final int P50_COLUMN = 5;
+    private static final int P99_COLUMN = 7;
+
+    private final File performanceFile = new File("performance-" + TEST_ID + ".txt");
+    private final SimulatorAddress worker1 = new SimulatorAddress(AddressLevel.WORKER, 1, 1, 0);
+    private final SimulatorAddress worker2 = new SimulatorAddress(AddressLevel.WORKER, 2, 1, 0);
+
+    private ClusterLatencyTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new ClusterLatencyTracker(TEST_ID, performanceFile);
+    }
+
+    @After
+    public void tearDown() {
+        deleteQuiet(performanceFile);
+    }
+
+    @Test
+    public void testCompleteInterval_clusterWidePercentiles() {
+        // a slow worker with few operations must not dominate the cluster-wide percentiles
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(1000, 5000), null, 0, System.currentTimeMillis());
+        tracker.addIntervalHistograms(worker2, 1, createEncodedHistograms(99000, 100), null, 0, System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        String[] lines = fileAsText(performanceFile).split("\n");
+        assertEquals(HEADER_LINES + 1, lines.length);
+        String[] columns = lines[HEADER_LINES].trim().split("\\s+");
+        assertEquals(PROBE_NAME, columns[2]);
+        assertEquals("100", columns[P50_COLUMN]);
+        assertEquals("100", columns[P99_COLUMN]);
+
+        assertTrue(tracker.hasCompletedInterval());
+        assertEquals(149, Math.round(tracker.getIntervalAvgLatency()));
+        assertTrue(tracker.getIntervalPercentileLatency() >= 5000);
+        assertTrue(tracker.getIntervalMaxLatency() >= 5000);
+    }
+
+    @Test
+    public void testCompleteInterval_withLatencyUnit() {
+        Map<String, TimeUnit> latencyUnits = Collections.singletonMap(PROBE_NAME, TimeUnit.NANOSECONDS);
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(100, 20000), latencyUnits, 0,
+                System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        assertEquals(20, Math.round(tracker.getIntervalAvgLatency()));
+    }
+
+    @Test
+    public void testAddIntervalHistograms_laterIntervalCompletesInterval() {
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(10, 100), null, 0, System.currentTimeMillis());
+        tracker.addIntervalHistograms(worker2, 1, createEncodedHistograms(10, 100), null, 0, System.currentTimeMillis());
+        tracker.addIntervalHistograms(worker1, 2, createEncodedHistograms(10, 100), null, 0, System.currentTimeMillis());
+        assertFalse(tracker.hasCompletedInterval());
+        assertFalse(performanceFile.exists());
+
+        tracker.addIntervalHistograms(worker1, 1 + ClusterLatencyTracker.PENDING_INTERVALS, createEncodedHistograms(10, 100),
+                null, 0, System.currentTimeMillis());
+        assertTrue(tracker.hasCompletedInterval());
+        assertEquals(HEADER_LINES + 1, fileAsText(performanceFile).split("\n").length);
+
+        tracker.completeIntervals();
+        assertEquals(HEADER_LINES + 3, fileAsText(performanceFile).split("\n").length);
+    }
+
+    @Test
+    public void testAddIntervalHistograms_mergedByIntervalIndex() {
+        // worker1 reports two intervals before worker2 reports its first interval
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(10, 100), null, 0, System.currentTimeMillis());
+        tracker.addIntervalHistograms(worker1, 2, createEncodedHistograms(20, 200), null, 0, System.currentTimeMillis());
+        tracker.addIntervalHistograms(worker2, 1, createEncodedHistograms(30, 100), null, 0, System.currentTimeMillis());
+        tracker.addIntervalHistograms(worker2, 2, createEncodedHistograms(40, 200), null, 0, System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        String[] lines = fileAsText(performanceFile).split("\n");
+        assertEquals(HEADER_LINES + 2, lines.length);
+        String[] firstInterval = lines[HEADER_LINES].trim().split("\\s+");
+        assertEquals("40", firstInterval[OPERATIONS_COLUMN]);
+        assertEquals("100", firstInterval[P50_COLUMN]);
+        String[] secondInterval = lines[HEADER_LINES + 1].trim().split("\\s+");
+        assertEquals("60", secondInterval[OPERATIONS_COLUMN]);
+        assertEquals("200", secondInterval[P50_COLUMN]);
+    }
+
+    @Test
+    public void testAddIntervalHistograms_completedIntervalIsDropped() {
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(10, 100), null, 0, System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        tracker.addIntervalHistograms(worker2, 1, createEncodedHistograms(10, 100), null, 0, System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        assertEquals(HEADER_LINES + 1, fileAsText(performanceFile).split("\n").length);
+    }
+
+    @Test
+    public void testCompleteInterval_noHistograms() {
+        tracker.completeIntervals();
+
+        assertFalse(tracker.hasCompletedInterval());
+        assertFalse(performanceFile.exists());
+    }
+
+    @Test
+    public void testAddIntervalHistograms_invalidHistogram() {
+        tracker.addIntervalHistograms(worker1, 1, Collections.singletonMap(PROBE_NAME, "invalid"), null, 0,
+                System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        assertFalse(tracker.hasCompletedInterval());
+    }
+
+    @Test
+    public void testMeasurement_skipsIntervalsStartedBeforeMeasurement() {
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(10, 5000), null, 100, System.currentTimeMillis());
+        // the second interval is in progress, so the measurement starts with the third interval
+        tracker.startMeasurement(0);
+        tracker.addIntervalHistograms(worker1, 2, createEncodedHistograms(10, 5000), null, 100, System.currentTimeMillis());
+        for (int intervalIndex = 3; intervalIndex <= 4; intervalIndex++) {
+            tracker.addIntervalHistograms(worker1, intervalIndex, createEncodedHistograms(10, 100), null, 1000,
+                    System.currentTimeMillis());
+            tracker.addIntervalHistograms(worker2, intervalIndex, createEncodedHistograms(10, 200), null, 500,
+                    System.currentTimeMillis());
+        }
+        assertEquals(0, tracker.getMeasuredIntervalCount());
+
+        tracker.completeIntervals();
+
+        assertEquals(2, tracker.getMeasuredIntervalCount());
+        assertEquals(1500, tracker.getMeasuredThroughput(), 0.0001);
+        assertEquals(200, tracker.getMeasuredPercentileLatency(99));
+    }
+
+    @Test
+    public void testMeasurement_skipsSettleIntervals() {
+        tracker.addIntervalHistograms(worker1, 1, createEncodedHistograms(10, 100), null, 100, System.currentTimeMillis());
+        tracker.startMeasurement(1);
+        for (int intervalIndex = 2; intervalIndex <= 4; intervalIndex++) {
+            tracker.addIntervalHistograms(worker1, intervalIndex, createEncodedHistograms(10, 100), null, intervalIndex,
+                    System.currentTimeMillis());
+        }
+        tracker.completeIntervals();
+
+        assertEquals(1, tracker.getMeasuredIntervalCount());
+        assertEquals(4, tracker.getMeasuredThroughput(), 0.0001);
+    }
+
+    @Test
+    public void testMeasurement_withoutHistograms() {
+        tracker.startMeasurement(0);
+        tracker.addIntervalHistograms(worker1, 2, Collections.<String, String>emptyMap(), null, 100, System.currentTimeMillis());
+        tracker.completeIntervals();
+
+        assertEquals(1, tracker.getMeasuredIntervalCount());
+        assertEquals(100, tracker.getMeasuredThroughput(), 0.0001);
+        assertEquals(-1, tracker.getMeasuredPercentileLatency(99));
+        assertFalse(performanceFile.exists());
+    }
+
+    static Map<String, String> createEncodedHistograms(int valueCount, long value) {
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(1), 3);
+        histogram.recordValueWithCount(value, valueCount);
+
+        ByteBuffer targetBuffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int compressedLength = histogram.encodeIntoCompressedByteBuffer(targetBuffer, Deflater.BEST_COMPRESSION);
+        byte[] compressedArray = new byte[compressedLength];
+        System.arraycopy(targetBuffer.array(), 0, compressedArray, 0, compressedLength);
+        return Collections.singletonMap(PROBE_NAME, DatatypeConverter.printBase64Binary(compressedArray));
+    }
+}
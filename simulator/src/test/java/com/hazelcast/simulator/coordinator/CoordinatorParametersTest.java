@@ -18,7 +18,7 @@ public class CoordinatorParametersTest {
         when(properties.get("PASSIVE_MEMBERS", "true")).thenReturn("true");
 
         CoordinatorParameters coordinatorParameters = new CoordinatorParameters(properties, "workerClassPath", false, true, false,
-                true, false, LOCAL_TEARDOWN);
+                true, false, LOCAL_TEARDOWN, 1000, 30);
 
         assertEquals(properties, coordinatorParameters.getSimulatorProperties());
         assertEquals("workerClassPath", coordinatorParameters.getWorkerClassPath());
@@ -29,5 +29,7 @@ public class CoordinatorParametersTest {
         assertFalse(coordinatorParameters.isRefreshJvm());
         assertTrue(coordinatorParameters.isPassiveMembers());
         assertEquals(LOCAL_TEARDOWN, coordinatorParameters.getLastTestPhaseToSync());
+        assertEquals(1000, coordinatorParameters.getThroughputSearchLatencySlaUs());
+        assertEquals(30, coordinatorParameters.getThroughputSearchStepSeconds());
     }
 }
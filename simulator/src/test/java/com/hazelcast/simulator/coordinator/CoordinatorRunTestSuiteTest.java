@@ -80,8 +80,8 @@ public class CoordinatorRunTestSuiteTest {
     public void cleanUp() {
         deleteQuiet(new File(AgentsFile.NAME));
         deleteQuiet(new File("failures-" + testSuite.getId() + ".txt"));
-        deleteQuiet(new File("probes-" + testSuite.getId() + "_CoordinatorTest1.xml"));
-        deleteQuiet(new File("probes-" + testSuite.getId() + "_CoordinatorTest2.xml"));
+        deleteQuiet(new File("probes-" + testSuite.getId() + "_CoordinatorTest1.bin"));
+        deleteQuiet(new File("probes-" + testSuite.getId() + "_CoordinatorTest2.bin"));
     }
 
     @Test
@@ -9,13 +9,19 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.coordinator.ClusterLatencyTrackerTest.createEncodedHistograms;
+import static com.hazelcast.simulator.coordinator.PerformanceStateContainer.LATENCY_FORMAT_LENGTH;
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class PerformanceStateContainerTest {
@@ -59,6 +65,7 @@ public class PerformanceStateContainerTest {
     @After
     public void tearDown() {
         deleteQuiet(PERFORMANCE_FILE);
+        deleteQuiet(PerformanceStateContainer.getClusterPerformanceFile(TEST_CASE_ID_1));
     }
 
     @Test
@@ -67,6 +74,37 @@ public class PerformanceStateContainerTest {
         assertTrue(performance.contains("ops"));
     }
 
+    @Test
+    public void testGetPerformanceNumbers_noLatencies() {
+        Map<String, PerformanceState> performanceStates = new HashMap<String, PerformanceState>();
+        performanceStates.put(TEST_CASE_ID_1, new PerformanceState(1000, 200, 500, Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE));
+        emptyPerformanceStateContainer.updatePerformanceState(new SimulatorAddress(AddressLevel.WORKER, 1, 1, 0),
+                performanceStates);
+
+        String performance = emptyPerformanceStateContainer.getPerformanceNumbers(TEST_CASE_ID_1);
+        assertTrue(performance.contains("ops/s"));
+        assertFalse(performance.contains("max"));
+    }
+
+    @Test
+    public void testGetPerformanceNumbers_withClusterIntervalHistograms() {
+        SimulatorAddress worker1 = new SimulatorAddress(AddressLevel.WORKER, 1, 1, 0);
+        SimulatorAddress worker2 = new SimulatorAddress(AddressLevel.WORKER, 2, 1, 0);
+        Map<String, Long> intervalIndexes = Collections.singletonMap(TEST_CASE_ID_1, 1L);
+        Map<String, Map<String, TimeUnit>> latencyUnits = Collections.emptyMap();
+
+        performanceStateContainer.addIntervalHistograms(worker1, intervalIndexes,
+                Collections.singletonMap(TEST_CASE_ID_1, createEncodedHistograms(1000, 5000)), latencyUnits);
+        performanceStateContainer.addIntervalHistograms(worker2, intervalIndexes,
+                Collections.singletonMap(TEST_CASE_ID_1, createEncodedHistograms(99000, 100)), latencyUnits);
+        performanceStateContainer.completeIntervalHistograms();
+
+        String performance = performanceStateContainer.getPerformanceNumbers(TEST_CASE_ID_1);
+        assertTrue(performance.contains(formatLong(149, LATENCY_FORMAT_LENGTH) + " µs (avg)"));
+        assertTrue(PerformanceStateContainer.getClusterPerformanceFile(TEST_CASE_ID_1).exists());
+        assertNull(performanceStateContainer.getClusterLatencyTracker(TEST_CASE_ID_2));
+    }
+
     @Test
     public void testGetPerformanceNumbers_testCaseNotFound() {
         String performance = performanceStateContainer.getPerformanceNumbers("notFound");
@@ -0,0 +1,98 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.test.TestCase;
+import com.hazelcast.simulator.worker.performance.PerformanceState;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.coordinator.TestCaseRunner.createWorkerTestCase;
+import static com.hazelcast.simulator.coordinator.TestCaseRunner.isSlaMet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCaseRunnerTest {
+
+    private final TestCase testCase = new TestCase("TestCaseRunnerTest");
+
+    @Test
+    public void testCreateWorkerTestCase_noTargetThroughput() {
+        TestCase workerTestCase = createWorkerTestCase(testCase, 4, 60);
+
+        assertSame(testCase, workerTestCase);
+    }
+
+    @Test
+    public void testCreateWorkerTestCase_noActiveWorkers() {
+        testCase.setProperty("targetThroughput", "1000");
+
+        TestCase workerTestCase = createWorkerTestCase(testCase, 0, 60);
+
+        assertSame(testCase, workerTestCase);
+    }
+
+    @Test
+    public void testCreateWorkerTestCase() {
+        testCase.setProperty("targetThroughput", "1000");
+
+        TestCase workerTestCase = createWorkerTestCase(testCase, 4, 60);
+
+        assertNotSame(testCase, workerTestCase);
+        assertEquals("250.0", workerTestCase.getProperty("workerTargetThroughput"));
+        assertEquals("60", workerTestCase.getProperty("targetThroughputDurationSeconds"));
+        assertEquals("1000", workerTestCase.getProperty("targetThroughput"));
+        assertNull(testCase.getProperty("workerTargetThroughput"));
+    }
+
+    @Test
+    public void testCreateWorkerTestCase_withDuration() {
+        testCase.setProperty("targetThroughput", "1000");
+        testCase.setProperty("targetThroughputDurationSeconds", "30");
+
+        TestCase workerTestCase = createWorkerTestCase(testCase, 4, 60);
+
+        assertEquals("30", workerTestCase.getProperty("targetThroughputDurationSeconds"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateWorkerTestCase_invalidTargetThroughput() {
+        testCase.setProperty("targetThroughput", "fast");
+
+        createWorkerTestCase(testCase, 4, 60);
+    }
+
+    @Test
+    public void testIsSlaMet() {
+        PerformanceState performanceState = new PerformanceState(10000, 1000, 1000, 200, 800, 1500);
+
+        assertTrue(isSlaMet(performanceState, 1000, 1000));
+    }
+
+    @Test
+    public void testIsSlaMet_emptyPerformanceState() {
+        assertFalse(isSlaMet(new PerformanceState(), 1000, 1000));
+    }
+
+    @Test
+    public void testIsSlaMet_latencyTooHigh() {
+        PerformanceState performanceState = new PerformanceState(10000, 1000, 1000, 200, 1200, 1500);
+
+        assertFalse(isSlaMet(performanceState, 1000, 1000));
+    }
+
+    @Test
+    public void testIsSlaMet_targetThroughputNotReached() {
+        PerformanceState performanceState = new PerformanceState(10000, 500, 500, 200, 800, 1500);
+
+        assertFalse(isSlaMet(performanceState, 1000, 1000));
+    }
+
+    @Test
+    public void testIsSlaMet_noLatency() {
+        PerformanceState performanceState = new PerformanceState(10000, 1000, 1000, -1, -1, -1);
+
+        assertTrue(isSlaMet(performanceState, 1000, 1000));
+    }
+}
@@ -1,5 +1,6 @@
 package com.hazelcast.simulator.coordinator;
 
+import com.hazelcast.simulator.probes.Result;
 import com.hazelcast.simulator.protocol.core.AddressLevel;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceState;
@@ -19,6 +20,7 @@ import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_PRECISION;
 import static com.hazelcast.simulator.probes.impl.ProbeImpl.MAXIMUM_LATENCY;
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -26,15 +28,15 @@ import static org.mockito.Mockito.when;
 
 public class TestHistogramContainerTest {
 
-    private File probeFile = new File("probes-testSuiteId_testId.xml");
+    private File probeFile = new File("probes-testSuiteId_testId.bin");
     private SimulatorAddress workerAddress1 = new SimulatorAddress(AddressLevel.WORKER, 1, 1, 0);
     private SimulatorAddress workerAddress2 = new SimulatorAddress(AddressLevel.WORKER, 1, 2, 0);
 
+    private PerformanceState performanceState = new PerformanceState(2000, 10.0, 200.0, 1.0, 1, 1);
     private TestHistogramContainer testHistogramContainer;
 
     @Before
     public void setUp() {
-        PerformanceState performanceState = new PerformanceState();
 
         PerformanceStateContainer performanceStateContainer = mock(PerformanceStateContainer.class);
         when(performanceStateContainer.getPerformanceStateForTestCase("testId")).thenReturn(performanceState);
@@ -59,6 +61,43 @@ public class TestHistogramContainerTest {
         assertTrue(probeFile.exists());
     }
 
+    @Test
+    public void testAggregateHistogramsForTestCase_withAggregatedOperations() {
+        testHistogramContainer.addTestHistograms(workerAddress1, "testId", singletonMap("workerProbe", createEncodedHistogram()));
+        testHistogramContainer.addAggregatedOperations(workerAddress1, "testId", 1000, 100.0, 20000);
+        testHistogramContainer.addTestHistograms(workerAddress2, "testId", singletonMap("workerProbe", createEncodedHistogram()));
+        testHistogramContainer.addAggregatedOperations(workerAddress2, "testId", 500, 50.0, 30000);
+
+        Result result = testHistogramContainer.aggregateHistogramsForTestCase("testId", performanceState);
+
+        assertEquals(1500, result.getInvocations());
+        assertEquals(150.0, result.getThroughput(), 0.0001);
+        assertEquals(30000, result.getSteadyStateCutOff());
+        assertEquals(20, result.getHistogram("workerProbe").getTotalCount());
+    }
+
+    @Test
+    public void testAggregateHistogramsForTestCase_workerWithoutSteadyState() {
+        testHistogramContainer.addTestHistograms(workerAddress1, "testId", singletonMap("workerProbe", createEncodedHistogram()));
+        testHistogramContainer.addAggregatedOperations(workerAddress1, "testId", 1000, 100.0, 20000);
+        testHistogramContainer.addTestHistograms(workerAddress2, "testId", singletonMap("workerProbe", createEncodedHistogram()));
+        testHistogramContainer.addAggregatedOperations(workerAddress2, "testId", 500, 50.0, Result.NO_STEADY_STATE);
+
+        Result result = testHistogramContainer.aggregateHistogramsForTestCase("testId", performanceState);
+
+        assertEquals(Result.NO_STEADY_STATE, result.getSteadyStateCutOff());
+    }
+
+    @Test
+    public void testAggregateHistogramsForTestCase_withoutAggregatedOperations() {
+        testHistogramContainer.addTestHistograms(workerAddress1, "testId", singletonMap("workerProbe", createEncodedHistogram()));
+
+        Result result = testHistogramContainer.aggregateHistogramsForTestCase("testId", performanceState);
+
+        assertEquals(performanceState.getOperationCount(), result.getInvocations());
+        assertEquals(performanceState.getTotalThroughput(), result.getThroughput(), 0.0001);
+    }
+
     @Test
     public void testCreateProbeResults_invalidHistogram() {
         testHistogramContainer.addTestHistograms(workerAddress1, "testId", singletonMap("workerProbe", "invalidHistogram"));
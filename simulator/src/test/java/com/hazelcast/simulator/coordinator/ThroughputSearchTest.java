@@ -0,0 +1,59 @@
+package com.hazelcast.simulator.coordinator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThroughputSearchTest {
+
+    private static final double ASSERT_EQUALS_DELTA = 0.0001;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalidInitialTargetThroughput() {
+        new ThroughputSearch(0);
+    }
+
+    @Test
+    public void testUpdate_increasesUntilUpperBoundIsFound() {
+        ThroughputSearch search = new ThroughputSearch(1000);
+
+        search.update(true);
+        assertEquals(2000, search.getTargetThroughput(), ASSERT_EQUALS_DELTA);
+
+        search.update(true);
+        assertEquals(4000, search.getTargetThroughput(), ASSERT_EQUALS_DELTA);
+
+        search.update(false);
+        assertEquals(3000, search.getTargetThroughput(), ASSERT_EQUALS_DELTA);
+        assertEquals(2000, search.getSustainableThroughput(), ASSERT_EQUALS_DELTA);
+        assertFalse(search.isFinished());
+    }
+
+    @Test
+    public void testUpdate_findsSustainableThroughput() {
+        double capacity = 3300;
+        ThroughputSearch search = new ThroughputSearch(1000, 20, 0.01);
+
+        while (!search.isFinished()) {
+            search.update(search.getTargetThroughput() <= capacity);
+        }
+
+        assertTrue(search.getSustainableThroughput() <= capacity);
+        assertTrue(search.getSustainableThroughput() >= capacity * 0.99);
+    }
+
+    @Test
+    public void testUpdate_noTargetThroughputMeetsSla() {
+        ThroughputSearch search = new ThroughputSearch(1000, 3, 0.01);
+
+        search.update(false);
+        search.update(false);
+        search.update(false);
+
+        assertTrue(search.isFinished());
+        assertEquals(3, search.getSteps());
+        assertEquals(0, search.getSustainableThroughput(), ASSERT_EQUALS_DELTA);
+    }
+}
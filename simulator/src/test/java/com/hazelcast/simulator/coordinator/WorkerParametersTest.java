@@ -37,6 +37,7 @@ public class WorkerParametersTest {
         properties = mock(SimulatorProperties.class);
         when(properties.getHazelcastVersionSpec()).thenReturn(HazelcastJARs.OUT_OF_THE_BOX);
         when(properties.get(eq("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS"))).thenReturn("1234");
+        when(properties.get(eq("WORKER_LATENCY_LOG_INTERVAL_MILLIS"))).thenReturn("250");
         when(properties.get("PROFILER")).thenReturn(JavaProfiler.NONE.name());
         when(properties.get(eq("NUMA_CONTROL"), anyString())).thenReturn("none");
 
@@ -54,6 +55,7 @@ public class WorkerParametersTest {
         assertTrue(workerParameters.isAutoCreateHzInstance());
         assertEquals(2342, workerParameters.getWorkerStartupTimeout());
         assertEquals(1234, workerParameters.getWorkerPerformanceMonitorIntervalSeconds());
+        assertEquals(250, workerParameters.getWorkerLatencyLogIntervalMillis());
         assertEquals(HazelcastJARs.OUT_OF_THE_BOX, workerParameters.getHazelcastVersionSpec());
 
         assertEquals("memberJvmOptions", workerParameters.getMemberJvmOptions());
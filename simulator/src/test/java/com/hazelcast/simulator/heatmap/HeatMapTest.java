@@ -7,9 +7,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
-import static com.hazelcast.simulator.heatmap.HeatMap.createHistogramLogReader;
+import static com.hazelcast.simulator.heatmap.HeatMap.getLatencyLogs;
+import static com.hazelcast.simulator.heatmap.HeatMap.readLatencyUnit;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.FileUtils.appendText;
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
@@ -17,9 +25,13 @@ import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class HeatMapTest extends AbstractComputeServiceTest {
 
+    private static final String LATENCY_FILE_NAME = "latency-HeatMapTest-HeatMapTestWorkerProbe.txt";
+
     private File directory;
 
     private HeatMap heatMap;
@@ -56,6 +68,33 @@ public class HeatMapTest extends AbstractComputeServiceTest {
         heatMap.createHeatMap();
 
         assertEquals(6, heatMap.getHistogramCount());
+        assertEquals(MICROSECONDS, heatMap.getLatencyUnit());
+    }
+
+    @Test
+    public void testReadLatencyUnit() {
+        File latencyFile = new File(directory, "latency-unit.txt");
+        appendText("#[StartTime: 1450104014.643 (seconds since epoch), Mon Dec 14 15:40:14 CET 2015]\n", latencyFile);
+        appendText("#LatencyUnit=NANOSECONDS\n", latencyFile);
+        appendText("\"StartTimestamp\",\"Interval_Length\",\"Interval_Max\",\"Interval_Compressed_Histogram\"\n", latencyFile);
+
+        assertEquals(NANOSECONDS, readLatencyUnit(latencyFile));
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testReadLatencyUnit_invalidLatencyUnit() {
+        File latencyFile = new File(directory, "latency-invalid-unit.txt");
+        appendText("#LatencyUnit=LIGHTYEARS\n", latencyFile);
+
+        readLatencyUnit(latencyFile);
+    }
+
+    @Test
+    public void testReadLatencyUnit_noLatencyUnitComment() {
+        File latencyFile = new File(directory, "latency-no-unit.txt");
+        appendText("#[StartTime: 1450104014.643 (seconds since epoch), Mon Dec 14 15:40:14 CET 2015]\n", latencyFile);
+
+        assertEquals(MICROSECONDS, readLatencyUnit(latencyFile));
     }
 
     @Test
@@ -66,9 +105,40 @@ public class HeatMapTest extends AbstractComputeServiceTest {
         assertEquals(0, heatMap.getHistogramCount());
     }
 
+    @Test
+    public void testCreateHeatMap_withRolledSegments() throws Exception {
+        File directory1 = new File(directory, "workers1");
+        File latencyFile = new File(directory1, LATENCY_FILE_NAME);
+        String content = fileAsText(latencyFile);
+        writeCompressed(content, new File(directory1, LATENCY_FILE_NAME + ".1.gz"));
+        appendText(content, new File(directory1, LATENCY_FILE_NAME + ".2"));
+        // an incomplete compressed copy of an uncompressed segment is ignored
+        appendText("incomplete", new File(directory1, LATENCY_FILE_NAME + ".2.gz"));
+
+        heatMap.createHeatMap();
+
+        // the 5 intervals of each segment are appended, the intervals of the other worker are merged into them
+        assertEquals(15, heatMap.getHistogramCount());
+    }
+
+    @Test
+    public void testGetLatencyLogs() {
+        File active = new File("worker1", LATENCY_FILE_NAME);
+        File segment2 = new File("worker1", LATENCY_FILE_NAME + ".2");
+        File segment2Compressed = new File("worker1", LATENCY_FILE_NAME + ".2.gz");
+        File segment10 = new File("worker1", LATENCY_FILE_NAME + ".10.gz");
+        File otherWorker = new File("worker2", LATENCY_FILE_NAME);
+
+        List<List<File>> latencyLogs = getLatencyLogs(Arrays.asList(active, segment10, segment2Compressed, otherWorker, segment2));
+
+        assertEquals(2, latencyLogs.size());
+        assertEquals(Arrays.asList(segment2, segment10, active), latencyLogs.get(0));
+        assertEquals(Arrays.asList(otherWorker), latencyLogs.get(1));
+    }
+
     @Test(expected = CommandLineExitException.class)
-    public void testCreateHistogramLogReader_invalidFile() {
-        createHistogramLogReader(new File("notFound"), "HeatMapTest");
+    public void testReadLatencyUnit_invalidFile() {
+        readLatencyUnit(new File("notFound"));
     }
 
     private File createDirectory(String pathname) {
@@ -92,7 +162,16 @@ public class HeatMapTest extends AbstractComputeServiceTest {
         URL resource1 = classLoader.getResource(resourceFile);
         assertNotNull(resource1);
 
-        File latencyFile = new File(directory, "latency-HeatMapTest-HeatMapTestWorkerProbe.txt");
+        File latencyFile = new File(directory, LATENCY_FILE_NAME);
         appendText(fileAsText(new File(resource1.getFile())), latencyFile);
     }
+
+    private static void writeCompressed(String content, File file) throws IOException {
+        OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(file));
+        try {
+            outputStream.write(content.getBytes("UTF-8"));
+        } finally {
+            closeQuietly(outputStream);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import com.hazelcast.simulator.protocol.operation.IntegrationTestOperation;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.protocol.operation.StartTestOperation;
 import com.hazelcast.simulator.protocol.operation.StartTestPhaseOperation;
+import com.hazelcast.simulator.protocol.operation.SetTargetThroughputOperation;
 import com.hazelcast.simulator.protocol.operation.StopTestOperation;
 import com.hazelcast.simulator.test.TestCase;
 import com.hazelcast.simulator.test.TestException;
@@ -95,6 +96,17 @@ public class TestOperationProcessorTest {
         exceptionLogger.assertNoException();
     }
 
+    @Test
+    public void process_SetTargetThroughput() {
+        createTestOperationProcessor();
+
+        SetTargetThroughputOperation operation = new SetTargetThroughputOperation(1000);
+        ResponseType responseType = processor.process(operation, COORDINATOR);
+        assertEquals(SUCCESS, responseType);
+
+        exceptionLogger.assertNoException();
+    }
+
     @Test
     public void process_StartTestPhase_failingTest() throws Exception {
         createTestOperationProcessor(FailingTest.class);
@@ -13,14 +13,22 @@ import org.junit.Test;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
+import static com.hazelcast.simulator.probes.impl.ProbeImpl.LATENCY_PRECISION;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.ALWAYS_FILTER;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getAtMostOneMethodWithoutArgs;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getAtMostOneVoidMethodSkipArgsCheck;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getAtMostOneVoidMethodWithoutArgs;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeHighestTrackableValue;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeLatencyUnit;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeName;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.getProbeSignificantDigits;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.isCorrectedLatencyProbe;
+import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.isLatencyProbe;
 import static com.hazelcast.simulator.utils.AnnotationReflectionUtils.isThroughputProbe;
 import static com.hazelcast.simulator.utils.ReflectionUtils.getField;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -81,6 +89,90 @@ public class AnnotationReflectionUtilsTest {
         assertFalse(isThroughputProbe(field));
     }
 
+    @Test
+    public void testIsCorrectedLatencyProbe_withAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "correctedProbe", Probe.class);
+        assertTrue(isCorrectedLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsCorrectedLatencyProbe_withAnnotation_defaultValue() {
+        Field field = getField(AnnotationTestClass.class, "defaultValueProbe", Probe.class);
+        assertFalse(isCorrectedLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsCorrectedLatencyProbe_noAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "notAnnotatedProbe", Probe.class);
+        assertFalse(isCorrectedLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsCorrectedLatencyProbe_noFieldFound() {
+        Field field = getField(AnnotationTestClass.class, "notFound", Probe.class);
+        assertFalse(isCorrectedLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsLatencyProbe_withAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "counterProbe", Probe.class);
+        assertFalse(isLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsLatencyProbe_withAnnotation_defaultValue() {
+        Field field = getField(AnnotationTestClass.class, "defaultValueProbe", Probe.class);
+        assertTrue(isLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsLatencyProbe_noAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "notAnnotatedProbe", Probe.class);
+        assertTrue(isLatencyProbe(field));
+    }
+
+    @Test
+    public void testIsLatencyProbe_noFieldFound() {
+        Field field = getField(AnnotationTestClass.class, "notFound", Probe.class);
+        assertTrue(isLatencyProbe(field));
+    }
+
+    @Test
+    public void testGetProbeLatencyUnit_withAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "nanosProbe", Probe.class);
+        assertEquals(NANOSECONDS, getProbeLatencyUnit(field));
+    }
+
+    @Test
+    public void testGetProbeLatencyUnit_noAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "notAnnotatedProbe", Probe.class);
+        assertEquals(MICROSECONDS, getProbeLatencyUnit(field));
+    }
+
+    @Test
+    public void testGetProbeHighestTrackableValue_withAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "nanosProbe", Probe.class);
+        assertEquals(1000000, getProbeHighestTrackableValue(field));
+    }
+
+    @Test
+    public void testGetProbeHighestTrackableValue_noAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "notAnnotatedProbe", Probe.class);
+        assertEquals(0, getProbeHighestTrackableValue(field));
+    }
+
+    @Test
+    public void testGetProbeSignificantDigits_withAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "nanosProbe", Probe.class);
+        assertEquals(2, getProbeSignificantDigits(field));
+    }
+
+    @Test
+    public void testGetProbeSignificantDigits_noAnnotation() {
+        Field field = getField(AnnotationTestClass.class, "notAnnotatedProbe", Probe.class);
+        assertEquals(LATENCY_PRECISION, getProbeSignificantDigits(field));
+    }
+
     @Test
     public void testGetAtMostOneVoidMethodSkipArgsCheck() {
         Method method = getAtMostOneVoidMethodSkipArgsCheck(AnnotationTestClass.class, Warmup.class);
@@ -143,6 +235,15 @@ public class AnnotationReflectionUtilsTest {
         @InjectProbe
         private Probe defaultValueProbe;
 
+        @InjectProbe(recordCorrectedLatency = true)
+        private Probe correctedProbe;
+
+        @InjectProbe(recordLatency = false)
+        private Probe counterProbe;
+
+        @InjectProbe(latencyUnit = NANOSECONDS, highestTrackableValue = 1000000, significantDigits = 2)
+        private Probe nanosProbe;
+
         private Probe notAnnotatedProbe;
 
         @Setup
@@ -0,0 +1,64 @@
+package com.hazelcast.simulator.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FastRandomTest {
+
+    private static final int ITERATIONS = 100000;
+
+    @Test
+    public void testSameSeed_sameSequence() {
+        FastRandom random1 = new FastRandom(42);
+        FastRandom random2 = new FastRandom(42);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(random1.nextLong(), random2.nextLong());
+        }
+    }
+
+    @Test
+    public void testSetSeed_restartsSequence() {
+        FastRandom random = new FastRandom(42);
+        long first = random.nextLong();
+        random.nextLong();
+
+        random.setSeed(42);
+
+        assertEquals(first, random.nextLong());
+    }
+
+    @Test
+    public void testDefaultConstructor_differentSequences() {
+        assertNotEquals(new FastRandom().nextLong(), new FastRandom().nextLong());
+    }
+
+    @Test
+    public void testNextInt_withBound() {
+        FastRandom random = new FastRandom();
+        int bound = 10;
+        int[] counts = new int[bound];
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            int value = random.nextInt(bound);
+            assertTrue("Value " + value + " is out of bounds", value >= 0 && value < bound);
+            counts[value]++;
+        }
+        for (int count : counts) {
+            assertTrue("Distribution is not uniform: " + count, Math.abs(count - ITERATIONS / bound) < ITERATIONS / bound / 10);
+        }
+    }
+
+    @Test
+    public void testNextDouble() {
+        FastRandom random = new FastRandom();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            double value = random.nextDouble();
+            assertTrue("Value " + value + " is out of bounds", value >= 0.0 && value < 1.0);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hazelcast.simulator.worker;
 
+import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.test.TestCase;
 import com.hazelcast.simulator.test.TestContext;
@@ -12,14 +13,25 @@ import com.hazelcast.simulator.test.annotations.Teardown;
 import com.hazelcast.simulator.test.annotations.Verify;
 import com.hazelcast.simulator.test.annotations.Warmup;
 import com.hazelcast.simulator.worker.selector.OperationSelectorBuilder;
+import com.hazelcast.simulator.worker.tasks.AbstractEventLoopWorker;
+import com.hazelcast.simulator.worker.tasks.AbstractMonotonicWorker;
 import com.hazelcast.simulator.worker.tasks.AbstractWorker;
+import com.hazelcast.simulator.worker.tasks.CompletedFuture;
 import com.hazelcast.simulator.worker.tasks.IWorker;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -54,6 +66,23 @@ public class TestContainerTest {
         assertEquals(testContext, testContainer.getTestContext());
     }
 
+    @Test
+    public void testConstructor_steadyStateDefaults() {
+        testContainer = createTestContainer(new DummyTest());
+        assertEquals(0, testContainer.getSteadyStateWindow());
+        assertTrue(testContainer.getSteadyStateMaxCoefficientOfVariation() > 0);
+    }
+
+    @Test
+    public void testConstructor_steadyStateProperties() {
+        testCase.setProperty("steadyStateWindow", "5");
+        testCase.setProperty("steadyStateMaxCoefficientOfVariation", "0.25");
+
+        testContainer = createTestContainer(new DummyTest());
+        assertEquals(5, testContainer.getSteadyStateWindow());
+        assertEquals(0.25, testContainer.getSteadyStateMaxCoefficientOfVariation(), 0.0001);
+    }
+
     // =============================================================
     // =================== find annotations ========================
     // =============================================================
@@ -186,6 +215,472 @@ public class TestContainerTest {
         assertTrue(test.runWithWorkerCalled);
     }
 
+    @Test
+    public void testRunWithWorker_concurrencySweep() throws Exception {
+        testCase.setProperty("threadCount", "1");
+        testCase.setProperty("threadCountStep", "2");
+        testCase.setProperty("threadCountStepIntervalSeconds", "1");
+        testCase.setProperty("maxThreadCount", "4");
+
+        final RunWithWorkerTest test = new RunWithWorkerTest();
+        testContainer = createTestContainer(test);
+        assertTrue(testContainer.getConcurrencySweep().isEnabled());
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (testContainer.getConcurrencySweep().getCurrentThreadCount() < 4) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        // the steps are 1, 3 and 4 threads, the first worker instance is just used to get the worker class
+        assertEquals(4, testContainer.getConcurrencySweep().getCurrentThreadCount());
+        assertEquals(4, testContainer.getWorkerThreadIds().size());
+        assertEquals(5, test.workerCount.get());
+    }
+
+    @Test
+    public void testRunWithWorker_pacedWithCorrectedWorkerProbe() throws Exception {
+        testCase.setProperty("threadCount", "1");
+        testCase.setProperty("workerMetronomeIntervalUs", "1000");
+        testCase.setProperty("workerProbeRecordCorrectedLatency", "true");
+
+        final RunWithWorkerTest test = new RunWithWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                sleepMillis(200);
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        String workerProbeName = testContext.getTestId() + "WorkerProbe";
+        Probe workerProbe = testContainer.getProbeMap().get(workerProbeName);
+        Probe correctedProbe = testContainer.getProbeMap().get(workerProbeName + InjectProbe.CORRECTED_PROBE_SUFFIX);
+        assertNotNull(correctedProbe);
+        assertFalse(correctedProbe.isThroughputProbe());
+
+        long operationCount = workerProbe.getIntervalHistogram().getTotalCount();
+        assertTrue(operationCount > 0);
+        // the metronome limits the single worker thread to one operation per millisecond
+        assertTrue(operationCount <= 250);
+        assertEquals(operationCount, correctedProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRunWithWorker_operationProbes() throws Exception {
+        testCase.setProperty("threadCount", "2");
+
+        final RunWithOperationsWorkerTest test = new RunWithOperationsWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (test.getCount.get() == 0 || test.putCount.get() == 0) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        String testId = testContext.getTestId();
+        Map<String, Probe> probeMap = testContainer.getProbeMap();
+        Probe workerProbe = probeMap.get(testId + "WorkerProbe");
+        Probe getProbe = probeMap.get(testId + ".GET");
+        Probe putProbe = probeMap.get(testId + ".PUT");
+        assertFalse(probeMap.containsKey(testId + ".REMOVE"));
+        assertFalse(getProbe.isThroughputProbe());
+        assertFalse(putProbe.isThroughputProbe());
+
+        assertEquals(test.getCount.get(), getProbe.getIntervalHistogram().getTotalCount());
+        assertEquals(test.putCount.get(), putProbe.getIntervalHistogram().getTotalCount());
+        assertEquals(test.getCount.get() + test.putCount.get(), workerProbe.getIntervalHistogram().getTotalCount());
+        assertEquals(2, testContainer.getWorkerThreadIds().size());
+    }
+
+    @Test
+    public void testRunWithWorker_monotonicWorker() throws Exception {
+        testCase.setProperty("threadCount", "1");
+
+        RunWithTracedMonotonicWorkerTest test = new RunWithTracedMonotonicWorkerTest();
+        testContainer = createTestContainer(test);
+        testContainer.invoke(TestPhase.RUN);
+
+        Probe workerProbe = testContainer.getProbeMap().get(testContext.getTestId() + "WorkerProbe");
+        assertEquals(RunWithTracedWorkerTest.ITERATIONS, test.keys.size());
+        assertEquals(RunWithTracedWorkerTest.ITERATIONS, workerProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRunWithWorker_counterProbes() throws Exception {
+        testCase.setProperty("threadCount", "2");
+        testCase.setProperty("workerProbeRecordLatency", "false");
+        testCase.setProperty("workerProbeRecordCorrectedLatency", "true");
+
+        final RunWithOperationsWorkerTest test = new RunWithOperationsWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (test.getCount.get() == 0 || test.putCount.get() == 0) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        String testId = testContext.getTestId();
+        Map<String, Probe> probeMap = testContainer.getProbeMap();
+        Probe workerProbe = probeMap.get(testId + "WorkerProbe");
+        Probe getProbe = probeMap.get(testId + ".GET");
+        Probe putProbe = probeMap.get(testId + ".PUT");
+        assertFalse(probeMap.containsKey(testId + "WorkerProbe" + InjectProbe.CORRECTED_PROBE_SUFFIX));
+        assertFalse(workerProbe.isLatencyProbe());
+        assertTrue(workerProbe.isThroughputProbe());
+        assertFalse(getProbe.isLatencyProbe());
+        assertFalse(putProbe.isLatencyProbe());
+
+        assertEquals(test.getCount.get(), getProbe.getIntervalCount());
+        assertEquals(test.putCount.get(), putProbe.getIntervalCount());
+        assertEquals(test.getCount.get() + test.putCount.get(), workerProbe.getIntervalCount());
+    }
+
+    @Test
+    public void testRunWithWorker_latencySampleRate() throws Exception {
+        testCase.setProperty("threadCount", "1");
+        testCase.setProperty("latencySampleRate", "10");
+
+        final RunWithOperationsWorkerTest test = new RunWithOperationsWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (test.getCount.get() + test.putCount.get() < 100) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        String testId = testContext.getTestId();
+        Map<String, Probe> probeMap = testContainer.getProbeMap();
+        Probe workerProbe = probeMap.get(testId + "WorkerProbe");
+        assertEquals(10, workerProbe.getLatencySampleRate());
+        assertEquals(10, probeMap.get(testId + ".GET").getLatencySampleRate());
+
+        // each sampled value accounts for ten operations, just the operations after the last sample are missing
+        long operationCount = test.getCount.get() + test.putCount.get();
+        long recordedCount = workerProbe.getIntervalHistogram().getTotalCount();
+        assertEquals(0, recordedCount % 10);
+        assertTrue(recordedCount <= operationCount);
+        assertTrue(recordedCount > operationCount - 10);
+    }
+
+    @Test
+    public void testRunWithWorker_workloadTrace() throws Exception {
+        File traceDirectory = File.createTempFile("traces", "");
+        deleteQuiet(traceDirectory);
+        assertTrue(traceDirectory.mkdir());
+        try {
+            testCase.setProperty("threadCount", "1");
+            testCase.setProperty("workloadTraceDirectory", traceDirectory.getAbsolutePath());
+            testCase.setProperty("workloadTraceMode", "RECORD");
+            RunWithTracedWorkerTest recordedTest = new RunWithTracedWorkerTest();
+            testContainer = createTestContainer(recordedTest);
+            testContainer.invoke(TestPhase.RUN);
+
+            testCase.setProperty("workloadTraceMode", "REPLAY");
+            testCase.setProperty("workloadTraceReplaySpeed", "0");
+            RunWithTracedWorkerTest replayedTest = new RunWithTracedWorkerTest();
+            testContainer = createTestContainer(replayedTest);
+            testContainer.invoke(TestPhase.RUN);
+
+            assertEquals(RunWithTracedWorkerTest.ITERATIONS, recordedTest.steps.size());
+            assertEquals(recordedTest.steps, replayedTest.steps);
+        } finally {
+            deleteQuiet(traceDirectory);
+        }
+    }
+
+    @Test
+    public void testRunWithWorker_workloadTrace_monotonicWorker() throws Exception {
+        File traceDirectory = File.createTempFile("traces", "");
+        deleteQuiet(traceDirectory);
+        assertTrue(traceDirectory.mkdir());
+        try {
+            testCase.setProperty("threadCount", "1");
+            testCase.setProperty("workloadTraceDirectory", traceDirectory.getAbsolutePath());
+            testCase.setProperty("workloadTraceMode", "RECORD");
+            RunWithTracedMonotonicWorkerTest recordedTest = new RunWithTracedMonotonicWorkerTest();
+            testContainer = createTestContainer(recordedTest);
+            testContainer.invoke(TestPhase.RUN);
+
+            testCase.setProperty("workloadTraceMode", "REPLAY");
+            testCase.setProperty("workloadTraceReplaySpeed", "0");
+            RunWithTracedMonotonicWorkerTest replayedTest = new RunWithTracedMonotonicWorkerTest();
+            testContainer = createTestContainer(replayedTest);
+            testContainer.invoke(TestPhase.RUN);
+
+            assertEquals(RunWithTracedWorkerTest.ITERATIONS, recordedTest.keys.size());
+            assertEquals(recordedTest.keys, replayedTest.keys);
+        } finally {
+            deleteQuiet(traceDirectory);
+        }
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testRunWithWorker_workloadTrace_eventLoopWorker() throws Exception {
+        testCase.setProperty("workloadTraceMode", "RECORD");
+
+        testContainer = createTestContainer(new RunWithEventLoopWorkerTest());
+        testContainer.invoke(TestPhase.RUN);
+    }
+
+    @Test
+    public void testRunWithWorker_eventLoop() throws Exception {
+        testCase.setProperty("threadCount", "200");
+        testCase.setProperty("workerModel", "EVENT_LOOP");
+        testCase.setProperty("carrierThreadCount", "2");
+
+        final RunWithEventLoopWorkerTest test = new RunWithEventLoopWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (test.operationCount.get() < 1000) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        Probe workerProbe = testContainer.getProbeMap().get(testContext.getTestId() + "WorkerProbe");
+        assertEquals(test.operationCount.get(), workerProbe.getIntervalHistogram().getTotalCount());
+        assertEquals(200, test.afterRunCount.get());
+        // the logical workers are executed by the carrier threads
+        assertEquals(2, testContainer.getWorkerThreadIds().size());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testRunWithWorker_eventLoop_noEventLoopWorker() throws Exception {
+        testCase.setProperty("workerModel", "EVENT_LOOP");
+
+        testContainer = createTestContainer(new RunWithWorkerTest());
+        testContainer.invoke(TestPhase.RUN);
+    }
+
+    @Test
+    public void testRunWithWorker_targetThroughput() throws Exception {
+        testCase.setProperty("threadCount", "2");
+        testCase.setProperty("workerTargetThroughput", "200");
+
+        RunWithOperationsWorkerTest test = new RunWithOperationsWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                sleepMillis(1000);
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        // both threads run with 100 ops/s, so the test runs with about 200 ops/s
+        long operationCount = test.getCount.get() + test.putCount.get();
+        assertTrue("Expected about 200 operations, but was " + operationCount, operationCount > 100 && operationCount < 300);
+    }
+
+    @Test
+    public void testRunWithWorker_metronomeSchedulingError() throws Exception {
+        testCase.setProperty("threadCount", "2");
+        testCase.setProperty("workerMetronomeIntervalUs", "1000");
+        testCase.setProperty("metronomeType", "SLEEPING");
+
+        final RunWithOperationsWorkerTest test = new RunWithOperationsWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (test.getCount.get() + test.putCount.get() < 10) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        Probe schedulingErrorProbe = testContainer.getProbeMap().get(testContext.getTestId() + "MetronomeSchedulingError");
+        assertNotNull(schedulingErrorProbe);
+        assertFalse(schedulingErrorProbe.isThroughputProbe());
+        assertTrue(schedulingErrorProbe.getIntervalHistogram().getTotalCount() > 0);
+    }
+
+    @Test
+    public void testRunWithWorker_notPaced_noSchedulingErrorProbe() throws Exception {
+        testCase.setProperty("threadCount", "1");
+
+        final RunWithOperationsWorkerTest test = new RunWithOperationsWorkerTest();
+        testContainer = createTestContainer(test);
+        Thread testStopper = new Thread() {
+            @Override
+            public void run() {
+                while (test.getCount.get() + test.putCount.get() < 10) {
+                    sleepMillis(50);
+                }
+                testContext.stop();
+            }
+        };
+
+        testStopper.start();
+        testContainer.invoke(TestPhase.RUN);
+        testStopper.join();
+
+        assertFalse(testContainer.getProbeMap().containsKey(testContext.getTestId() + "MetronomeSchedulingError"));
+    }
+
+    private static class RunWithOperationsWorkerTest {
+
+        private enum Operation {
+            GET,
+            PUT,
+            REMOVE
+        }
+
+        private static final OperationSelectorBuilder<Operation> BUILDER = new OperationSelectorBuilder<Operation>()
+                .addOperation(Operation.PUT, 0.5)
+                .addDefaultOperation(Operation.GET);
+
+        final AtomicLong getCount = new AtomicLong();
+        final AtomicLong putCount = new AtomicLong();
+
+        @RunWithWorker
+        IWorker createWorker() {
+            return new AbstractWorker<Operation>(BUILDER) {
+
+                @Override
+                protected void timeStep(Operation operation) throws Exception {
+                    switch (operation) {
+                        case GET:
+                            getCount.incrementAndGet();
+                            break;
+                        case PUT:
+                            putCount.incrementAndGet();
+                            break;
+                        default:
+                            throw new UnsupportedOperationException();
+                    }
+                }
+            };
+        }
+    }
+
+    private static class RunWithTracedWorkerTest {
+
+        private static final int ITERATIONS = 100;
+
+        private final List<String> steps = Collections.synchronizedList(new ArrayList<String>());
+
+        @RunWithWorker
+        IWorker createWorker() {
+            return new AbstractWorker<RunWithOperationsWorkerTest.Operation>(RunWithOperationsWorkerTest.BUILDER) {
+
+                // hides the Random of AbstractWorker, which has to be traced nevertheless
+                @SuppressWarnings("unused")
+                private final Random random = new Random();
+
+                @Override
+                protected void timeStep(RunWithOperationsWorkerTest.Operation operation) throws Exception {
+                    steps.add(operation + ":" + randomInt(1000) + ":" + getRandom().nextLong());
+                    if (steps.size() == ITERATIONS) {
+                        // the replay stops at the end of the trace
+                        stopWorker();
+                    }
+                }
+            };
+        }
+    }
+
+    private static class RunWithTracedMonotonicWorkerTest {
+
+        private final List<Integer> keys = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @RunWithWorker
+        IWorker createWorker() {
+            return new AbstractMonotonicWorker() {
+
+                @Override
+                protected void timeStep() throws Exception {
+                    keys.add(randomInt(1000));
+                    if (keys.size() == RunWithTracedWorkerTest.ITERATIONS) {
+                        stopWorker();
+                    }
+                }
+            };
+        }
+    }
+
+    private static class RunWithEventLoopWorkerTest {
+
+        private enum Operation {
+            GET
+        }
+
+        private static final OperationSelectorBuilder<Operation> BUILDER = new OperationSelectorBuilder<Operation>()
+                .addDefaultOperation(Operation.GET);
+
+        final AtomicLong operationCount = new AtomicLong();
+        final AtomicLong afterRunCount = new AtomicLong();
+
+        @RunWithWorker
+        IWorker createWorker() {
+            return new AbstractEventLoopWorker<Operation, Long>(BUILDER) {
+
+                @Override
+                protected ICompletableFuture<Long> timeStepAsync(Operation operation) throws Exception {
+                    return CompletedFuture.completed(operationCount.incrementAndGet());
+                }
+
+                @Override
+                protected void afterRun() {
+                    afterRunCount.incrementAndGet();
+                }
+            };
+        }
+    }
+
     private static class RunWithWorkerTest {
 
         private enum Operation {
@@ -195,10 +690,12 @@ public class TestContainerTest {
         private static final OperationSelectorBuilder<Operation> BUILDER = new OperationSelectorBuilder<Operation>()
                 .addDefaultOperation(Operation.NOP);
 
+        final AtomicInteger workerCount = new AtomicInteger();
         volatile boolean runWithWorkerCalled;
 
         @RunWithWorker
         IWorker createWorker() {
+            workerCount.incrementAndGet();
             return new AbstractWorker<Operation>(BUILDER) {
 
                 @Override
@@ -361,6 +858,17 @@ public class TestContainerTest {
         assertTrue(testContainer.hasProbe("explicitProbeInjectedToField"));
     }
 
+    @Test
+    public void testProbeInjectCorrectedLatencyProbe() {
+        ProbeTest test = new ProbeTest();
+        testContainer = createTestContainer(test);
+
+        assertNotNull(test.correctedProbe);
+        assertTrue(testContainer.hasProbe("correctedProbe"));
+        assertTrue(testContainer.hasProbe("correctedProbe" + InjectProbe.CORRECTED_PROBE_SUFFIX));
+        assertFalse(testContainer.hasProbe("latencyProbe" + InjectProbe.CORRECTED_PROBE_SUFFIX));
+    }
+
     @SuppressWarnings("unused")
     private static class ProbeTest extends DummyTest {
 
@@ -372,6 +880,9 @@ public class TestContainerTest {
         @InjectProbe(name = "explicitProbeInjectedToField")
         private Probe namedProbe;
 
+        @InjectProbe(recordCorrectedLatency = true)
+        private Probe correctedProbe;
+
         @Setup
         public void setUp(TestContext context) {
             this.context = context;
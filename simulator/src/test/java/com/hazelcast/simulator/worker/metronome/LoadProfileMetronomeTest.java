@@ -0,0 +1,112 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.worker.metronome.LoadProfileMetronome.MIN_LOAD_FACTOR;
+import static com.hazelcast.simulator.worker.metronome.LoadProfileMetronome.withLoadProfile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoadProfileMetronomeTest {
+
+    private static final double ASSERT_EQUALS_DELTA = 0.0001;
+
+    private static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testWithLoadProfile_noTargetThroughput() {
+        Metronome metronome = withLoadProfile(0, LoadProfile.RAMP, 60, 1);
+
+        assertFalse(metronome instanceof LoadProfileMetronome);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithLoadProfile_invalidSteps() {
+        withLoadProfile(100, LoadProfile.STEP, 60, 0);
+    }
+
+    @Test
+    public void testGetIntervalNanos_constant() {
+        LoadProfileMetronome metronome = (LoadProfileMetronome) withLoadProfile(1000, LoadProfile.CONSTANT, 60, 1);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), metronome.getIntervalNanos(0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), metronome.getIntervalNanos(30 * ONE_SECOND_NANOS));
+    }
+
+    @Test
+    public void testGetIntervalNanos_noDuration() {
+        LoadProfileMetronome metronome = (LoadProfileMetronome) withLoadProfile(1000, LoadProfile.RAMP, 0, 1);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), metronome.getIntervalNanos(0));
+    }
+
+    @Test
+    public void testGetIntervalNanos_ramp() {
+        LoadProfileMetronome metronome = (LoadProfileMetronome) withLoadProfile(1000, LoadProfile.RAMP, 10, 1);
+
+        assertEquals(Math.round(ONE_SECOND_NANOS / (1000 * MIN_LOAD_FACTOR)), metronome.getIntervalNanos(0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), metronome.getIntervalNanos(5 * ONE_SECOND_NANOS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), metronome.getIntervalNanos(20 * ONE_SECOND_NANOS));
+    }
+
+    @Test
+    public void testWaitForNext_intendedStartOnSchedule() {
+        Metronome metronome = withLoadProfile(1000, LoadProfile.CONSTANT, 0, 1);
+
+        long firstIntendedStart = metronome.waitForNext();
+        long secondIntendedStart = metronome.waitForNext();
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), secondIntendedStart - firstIntendedStart);
+        assertTrue(System.nanoTime() >= secondIntendedStart);
+    }
+
+    @Test
+    public void testSetTargetThroughput() {
+        LoadProfileMetronome metronome = (LoadProfileMetronome) withLoadProfile(1000, LoadProfile.CONSTANT, 0, 1);
+
+        metronome.setTargetThroughput(500);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), metronome.getIntervalNanos(0));
+    }
+
+    @Test
+    public void testSetTargetThroughput_dropsMissedTicks() {
+        LoadProfileMetronome metronome = (LoadProfileMetronome) withLoadProfile(1000, LoadProfile.CONSTANT, 0, 1);
+        metronome.waitForNext();
+        // fall behind the schedule of the old target throughput
+        sleepMillis(50);
+
+        metronome.setTargetThroughput(500);
+        long beforeRescheduling = System.nanoTime();
+        long intendedStart = metronome.waitForNext();
+
+        assertTrue(intendedStart >= beforeRescheduling);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetTargetThroughput_invalid() {
+        LoadProfileMetronome metronome = (LoadProfileMetronome) withLoadProfile(1000, LoadProfile.CONSTANT, 0, 1);
+
+        metronome.setTargetThroughput(0);
+    }
+
+    @Test
+    public void testLoadProfile_step() {
+        assertEquals(0.25, LoadProfile.STEP.getLoadFactor(0, 4), ASSERT_EQUALS_DELTA);
+        assertEquals(0.5, LoadProfile.STEP.getLoadFactor(0.3, 4), ASSERT_EQUALS_DELTA);
+        assertEquals(1, LoadProfile.STEP.getLoadFactor(0.9, 4), ASSERT_EQUALS_DELTA);
+        assertEquals(1, LoadProfile.STEP.getLoadFactor(2, 4), ASSERT_EQUALS_DELTA);
+    }
+
+    @Test
+    public void testLoadProfile_sine() {
+        assertEquals(0, LoadProfile.SINE.getLoadFactor(0, 1), ASSERT_EQUALS_DELTA);
+        assertEquals(0.5, LoadProfile.SINE.getLoadFactor(0.25, 1), ASSERT_EQUALS_DELTA);
+        assertEquals(1, LoadProfile.SINE.getLoadFactor(0.5, 1), ASSERT_EQUALS_DELTA);
+        assertEquals(1, LoadProfile.SINE.getLoadFactor(0.25, 2), ASSERT_EQUALS_DELTA);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+public class MetronomeTypeTest {
+
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    public void testWaitUntil_busySpin() {
+        assertWaitUntil(MetronomeType.BUSY_SPIN);
+    }
+
+    @Test
+    public void testWaitUntil_sleeping() {
+        assertWaitUntil(MetronomeType.SLEEPING);
+    }
+
+    @Test
+    public void testWaitUntil_hybrid() {
+        assertWaitUntil(MetronomeType.HYBRID);
+    }
+
+    @Test
+    public void testWaitUntil_sharedTimer() {
+        assertWaitUntil(MetronomeType.SHARED_TIMER);
+    }
+
+    @Test
+    public void testWaitUntil_sharedTimer_multipleThreads() throws Exception {
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10; j++) {
+                        assertWaitUntil(MetronomeType.SHARED_TIMER);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertTrue(!thread.isAlive());
+        }
+    }
+
+    @Test
+    public void testWaitUntil_deadlineInThePast() {
+        for (MetronomeType type : MetronomeType.values()) {
+            long before = System.nanoTime();
+            type.waitUntil(before - WAIT_NANOS);
+
+            assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private static void assertWaitUntil(MetronomeType type) {
+        long deadline = System.nanoTime() + WAIT_NANOS;
+
+        type.waitUntil(deadline);
+
+        assertTrue(type + " returned before the deadline", System.nanoTime() >= deadline);
+    }
+}
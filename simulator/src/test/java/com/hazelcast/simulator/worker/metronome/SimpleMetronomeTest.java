@@ -1,9 +1,15 @@
 package com.hazelcast.simulator.worker.metronome;
 
+import com.hazelcast.simulator.probes.impl.ProbeImpl;
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.worker.metronome.SimpleMetronome.withFixedFrequency;
 import static com.hazelcast.simulator.worker.metronome.SimpleMetronome.withFixedIntervalMs;
+import static com.hazelcast.simulator.worker.metronome.SimpleMetronome.withFixedIntervalUs;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -26,76 +32,95 @@ public class SimpleMetronomeTest {
     }
 
     @Test
-    public void testSimpleMetronome_withFixedIntervalMs() {
-        int intervalMs = 50;
-        Metronome metronome = withFixedIntervalMs(intervalMs);
-        long lastTimestamp = 0;
-        for (int i = 0; i < 10; i++) {
-            long startTimestamp = System.currentTimeMillis();
-            metronome.waitForNext();
+    public void testEmptyMetronome_withFixedIntervalUs() {
+        Metronome metronome = withFixedIntervalUs(0);
+        long before = System.nanoTime();
+        long intendedStart = metronome.waitForNext();
 
-            if (lastTimestamp != 0) {
-                long currentTimestamp = System.currentTimeMillis();
-                assertTrue(currentTimestamp >= lastTimestamp + intervalMs);
-            }
-            lastTimestamp = startTimestamp;
-        }
+        assertFalse(metronome instanceof SimpleMetronome);
+        assertTrue(intendedStart >= before);
     }
 
     @Test
-    public void testSimpleMetronome_withFixedFrequency_25() {
-        float frequency = 25;
-        int intervalMs = 40;
+    public void testSimpleMetronome_withFixedIntervalUs() {
+        Metronome metronome = withFixedIntervalUs(500);
 
-        Metronome metronome = withFixedFrequency(frequency);
-        long lastTimestamp = 0;
-        for (int i = 0; i < 10; i++) {
-            long startTimestamp = System.currentTimeMillis();
-            metronome.waitForNext();
+        assertTrue(metronome instanceof SimpleMetronome);
+    }
 
-            if (lastTimestamp != 0) {
-                long currentTimestamp = System.currentTimeMillis();
-                assertTrue(currentTimestamp >= lastTimestamp + intervalMs);
-            }
-            lastTimestamp = startTimestamp;
+    @Test
+    public void testSimpleMetronome_intendedStartOnFixedSchedule() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        Metronome metronome = withFixedIntervalMs(10);
+
+        long firstIntendedStart = metronome.waitForNext();
+        // simulate a stalled operation, so the following ticks are behind the schedule
+        sleepMillis(50);
+        for (int i = 1; i <= 3; i++) {
+            long intendedStart = metronome.waitForNext();
+
+            assertEquals(firstIntendedStart + i * intervalNanos, intendedStart);
+            assertTrue(System.nanoTime() - intendedStart >= intervalNanos);
         }
     }
 
+    @Test
+    public void testSimpleMetronome_withFixedIntervalMs() {
+        Metronome metronome = withFixedIntervalMs(50);
+
+        assertFixedSchedule(metronome, TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testSimpleMetronome_withFixedFrequency_25() {
+        Metronome metronome = withFixedFrequency(25);
+
+        assertFixedSchedule(metronome, TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
     @Test
     public void testSimpleMetronome_withFixedFrequency_100() {
-        float frequency = 100;
-        int intervalMs = 10;
+        Metronome metronome = withFixedFrequency(100);
 
-        Metronome metronome = withFixedFrequency(frequency);
-        long lastTimestamp = 0;
-        for (int i = 0; i < 10; i++) {
-            long startTimestamp = System.currentTimeMillis();
-            metronome.waitForNext();
+        assertFixedSchedule(metronome, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testSimpleMetronome_withFixedFrequency_1000() {
+        Metronome metronome = withFixedFrequency(1000);
+
+        assertFixedSchedule(metronome, TimeUnit.MILLISECONDS.toNanos(1));
+    }
 
-            if (lastTimestamp != 0) {
-                long currentTimestamp = System.currentTimeMillis();
-                assertTrue(currentTimestamp >= lastTimestamp + intervalMs);
-            }
-            lastTimestamp = startTimestamp;
+    private static void assertFixedSchedule(Metronome metronome, long intervalNanos) {
+        long firstIntendedStart = metronome.waitForNext();
+        for (int i = 1; i < 10; i++) {
+            long intendedStart = metronome.waitForNext();
+
+            assertEquals(firstIntendedStart + i * intervalNanos, intendedStart);
+            assertTrue(System.nanoTime() >= intendedStart);
         }
+        assertTrue(System.nanoTime() - firstIntendedStart >= 9 * intervalNanos);
     }
 
     @Test
-    public void testSimpleMetronome_withFixedFrequency_1000() {
-        float frequency = 1000;
-        int intervalMs = 1;
+    public void testSimpleMetronome_withMetronomeType() {
+        Metronome metronome = withFixedIntervalUs(500, MetronomeType.SLEEPING);
 
-        Metronome metronome = withFixedFrequency(frequency);
-        long lastTimestamp = 0;
-        for (int i = 0; i < 10; i++) {
-            long startTimestamp = System.currentTimeMillis();
-            metronome.waitForNext();
+        assertEquals(MetronomeType.SLEEPING, ((SimpleMetronome) metronome).getType());
+    }
 
-            if (lastTimestamp != 0) {
-                long currentTimestamp = System.currentTimeMillis();
-                assertTrue(currentTimestamp >= lastTimestamp + intervalMs);
-            }
-            lastTimestamp = startTimestamp;
+    @Test
+    public void testSimpleMetronome_recordsSchedulingError() {
+        ProbeImpl probe = new ProbeImpl(false);
+        SimpleMetronome metronome = (SimpleMetronome) withFixedIntervalMs(5);
+        metronome.setSchedulingErrorProbeHandle(probe.threadHandle());
+
+        for (int i = 0; i < 3; i++) {
+            metronome.waitForNext();
         }
+
+        // the first tick may be scheduled immediately, so not all ticks have to wait
+        assertTrue(probe.getIntervalHistogram().getTotalCount() >= 2);
     }
 }
@@ -0,0 +1,93 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrencyStepTrackerTest {
+
+    private static final String TEST_ID = "ConcurrencyStepTrackerTest";
+
+    private final File file = new File("concurrency-" + TEST_ID + ".txt");
+
+    private ConcurrencyStepTracker tracker;
+
+    @Before
+    public void setUp() {
+        Map<String, TimeUnit> latencyUnitMap = new HashMap<String, TimeUnit>();
+        latencyUnitMap.put("workerProbe", TimeUnit.MICROSECONDS);
+        tracker = new ConcurrencyStepTracker(TEST_ID, latencyUnitMap);
+    }
+
+    @After
+    public void tearDown() {
+        deleteQuiet(file);
+    }
+
+    @Test
+    public void testUpdate_noThreadsStarted() {
+        tracker.update(0, createHistograms(100), 1, 0, 1000);
+        tracker.finishStep();
+
+        assertEquals(0, tracker.getThreadCount());
+        assertEquals(1, getLines().length);
+    }
+
+    @Test
+    public void testUpdate_segmentsByThreadCount() {
+        tracker.update(2, createHistograms(100), 1000, 0, 1000);
+        tracker.update(2, createHistograms(200), 1000, 1000, 2000);
+        assertEquals(2, tracker.getThreadCount());
+
+        tracker.update(4, createHistograms(400), 3000, 2000, 3000);
+        assertEquals(4, tracker.getThreadCount());
+        tracker.finishStep();
+
+        String[] lines = getLines();
+        assertEquals(3, lines.length);
+        assertStep(lines[1], 2, 2000, 2000, "1000.00");
+        assertStep(lines[2], 4, 1000, 3000, "3000.00");
+        assertTrue(lines[2].contains("400.00"));
+    }
+
+    @Test
+    public void testFinishStep_withoutLatencyProbe() {
+        tracker.update(1, Collections.<String, Histogram>emptyMap(), 500, 0, 1000);
+        tracker.finishStep();
+
+        String[] lines = getLines();
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].endsWith("-"));
+    }
+
+    private static Map<String, Histogram> createHistograms(long latency) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(latency);
+        return Collections.singletonMap("workerProbe", histogram);
+    }
+
+    private String[] getLines() {
+        return fileAsText(file).split("\n");
+    }
+
+    private static void assertStep(String line, int threadCount, long durationMillis, long operationCount, String throughput) {
+        String[] columns = line.trim().split("\\s+");
+        assertEquals(String.valueOf(threadCount), columns[0]);
+        assertEquals(String.valueOf(durationMillis), columns[1]);
+        assertEquals(String.valueOf(operationCount), columns[2]);
+        assertEquals(throughput, columns[3]);
+        assertEquals("workerProbe", columns[4]);
+    }
+}
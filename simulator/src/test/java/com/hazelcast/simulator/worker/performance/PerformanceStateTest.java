@@ -55,6 +55,28 @@ public class PerformanceStateTest {
         assertEquals(500, addState.getIntervalMaxLatency());
     }
 
+    @Test
+    public void testAdd_costPerOperation() {
+        PerformanceState addState = new PerformanceState(100, 10.0, 10.0, 175.0d, 150, 200, 20.0, 1000.0);
+
+        addState.add(new PerformanceState(150, 30.0, 30.0, 90.0d, 80, 100, 40.0, 2000.0));
+
+        // the costs per operation are weighted by the interval throughput
+        assertEquals(35.0, addState.getIntervalCpuMicrosPerOp(), 0.00001);
+        assertEquals(1750.0, addState.getIntervalAllocatedBytesPerOp(), 0.00001);
+    }
+
+    @Test
+    public void testAdd_costPerOperationNotAvailable() {
+        PerformanceState addState = new PerformanceState(100, 10.0, 10.0, 175.0d, 150, 200);
+        assertEquals(-1, addState.getIntervalCpuMicrosPerOp(), 0.00001);
+
+        addState.add(new PerformanceState(150, 30.0, 30.0, 90.0d, 80, 100, 40.0, -1));
+
+        assertEquals(40.0, addState.getIntervalCpuMicrosPerOp(), 0.00001);
+        assertEquals(-1, addState.getIntervalAllocatedBytesPerOp(), 0.00001);
+    }
+
     @Test
     public void testToString() {
         assertNotNull(new PerformanceState().toString());
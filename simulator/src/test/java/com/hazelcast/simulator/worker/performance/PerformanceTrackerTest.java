@@ -0,0 +1,233 @@
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.ProbeImpl;
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceTrackerTest {
+
+    private static final String TEST_ID = "PerformanceTrackerTest";
+    private static final String PROBE_NAME = "probe";
+    private static final String LATE_PROBE_NAME = "lateProbe";
+    private static final long REPORTING_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final Map<String, Probe> probeMap = Collections.<String, Probe>singletonMap(PROBE_NAME, new ProbeImpl(true));
+    private final long testStartedTimestamp = System.currentTimeMillis();
+
+    private PerformanceTracker tracker;
+
+    @After
+    public void tearDown() {
+        if (tracker != null) {
+            tracker.close();
+        }
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        deleteQuiet(new File("throughput-" + TEST_ID + ".txt"));
+        deleteQuiet(new File("latency-" + TEST_ID + '-' + PROBE_NAME + ".txt"));
+        deleteQuiet(new File("latency-" + TEST_ID + '-' + LATE_PROBE_NAME + ".txt"));
+        deleteQuiet(new File("latency-" + TEST_ID + "-aggregated.txt"));
+    }
+
+    @Test
+    public void testAggregateIntervalHistograms_noIntervals() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        assertTrue(tracker.aggregateIntervalHistograms(TEST_ID).isEmpty());
+    }
+
+    @Test
+    public void testAggregateIntervalHistograms_warmUp_includesIntervalsAfterLastUpdate() {
+        tracker = createTracker(new SteadyStateDetector(3, 0.1));
+
+        tracker.addIntervalHistograms(createHistograms(2), 2, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.addIntervalHistograms(createHistograms(3), 3, testStartedTimestamp + TimeUnit.SECONDS.toMillis(2));
+
+        assertEquals(5, getAggregatedTotalCount());
+    }
+
+    @Test
+    public void testAggregateIntervalHistograms_steadyState() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        tracker.addIntervalHistograms(createHistograms(2), 2, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.addIntervalHistograms(createHistograms(4), 4, testStartedTimestamp + TimeUnit.SECONDS.toMillis(2));
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(2));
+
+        assertEquals(6, getAggregatedTotalCount());
+    }
+
+    @Test
+    public void testAggregateIntervalHistograms_steadyStateStartsWithStableWindow() {
+        tracker = createTracker(new SteadyStateDetector(3, 0.1));
+
+        // the first interval is the warm-up, the next three intervals are the stable window
+        addInterval(1, 10);
+        addInterval(2, 3);
+        addInterval(3, 3);
+        addInterval(4, 3);
+
+        assertEquals(TimeUnit.SECONDS.toMillis(1), tracker.getSteadyStateCutOff());
+        assertEquals(9, getAggregatedTotalCount());
+        assertEquals(9, tracker.getAggregatedOperationCount());
+        assertEquals(3.0, tracker.getAggregatedThroughput(), 0.0001);
+    }
+
+    @Test
+    public void testAggregateIntervalHistograms_noSteadyState() {
+        tracker = createTracker(new SteadyStateDetector(3, 0.1));
+
+        addInterval(1, 10);
+        addInterval(2, 3);
+
+        assertEquals(-1, tracker.getSteadyStateCutOff());
+        assertEquals(13, getAggregatedTotalCount());
+        assertEquals(13, tracker.getAggregatedOperationCount());
+        assertEquals(6.5, tracker.getAggregatedThroughput(), 0.0001);
+    }
+
+    @Test
+    public void testAggregateIntervalHistograms_withoutLatencyLogs() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        Map<String, Histogram> intervalHistograms = createHistograms(3);
+        tracker.addIntervalHistograms(intervalHistograms, 3, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.writeLatencyLogs(intervalHistograms, Collections.<String, Long>emptyMap(), Collections.<String, Double>emptyMap());
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+
+        // the latency logs are write-only, the aggregation just uses the running totals
+        deleteQuiet(new File("latency-" + TEST_ID + '-' + PROBE_NAME + ".txt"));
+
+        assertEquals(3, getAggregatedTotalCount());
+    }
+
+    @Test
+    public void testWriteLatencyLogs_probeRegisteredAfterTrackerCreation() {
+        Map<String, Probe> probeMap = new ConcurrentHashMap<String, Probe>(this.probeMap);
+        tracker = new PerformanceTracker(TEST_ID, probeMap, testStartedTimestamp, REPORTING_INTERVAL_MILLIS,
+                new SteadyStateDetector(0, 0.1), 0, 0, null, false, 0);
+        File latencyFile = new File("latency-" + TEST_ID + '-' + LATE_PROBE_NAME + ".txt");
+        assertFalse(latencyFile.exists());
+
+        ProbeImpl lateProbe = new ProbeImpl(true, TimeUnit.NANOSECONDS, TimeUnit.MINUTES.toNanos(1), 3);
+        probeMap.put(LATE_PROBE_NAME, lateProbe);
+        lateProbe.recordValue(TimeUnit.MILLISECONDS.toNanos(1));
+        Map<String, Histogram> intervalHistograms = Collections.singletonMap(LATE_PROBE_NAME, lateProbe.getIntervalHistogram());
+        tracker.addIntervalHistograms(intervalHistograms, 1, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.writeLatencyLogs(intervalHistograms, Collections.<String, Long>emptyMap(), Collections.<String, Double>emptyMap());
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+
+        assertTrue(latencyFile.exists());
+        assertEquals(TimeUnit.NANOSECONDS, tracker.getLatencyUnits().get(LATE_PROBE_NAME));
+    }
+
+    @Test
+    public void testGetAndResetEncodedIntervalHistograms() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        tracker.addIntervalHistograms(createHistograms(2), 2, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.addIntervalHistograms(createHistograms(3), 3, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+
+        Map<String, String> histograms = tracker.getAndResetEncodedIntervalHistograms();
+        assertEquals(1, tracker.getIntervalIndex());
+        assertEquals(1, histograms.size());
+        assertEquals(5, decodeTotalCount(histograms.get(PROBE_NAME)));
+        assertTrue(tracker.getAndResetEncodedIntervalHistograms().isEmpty());
+    }
+
+    @Test
+    public void testGetIntervalIndex_derivedFromTimestamp() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        tracker.update(testStartedTimestamp + 1020);
+        assertEquals(1, tracker.getIntervalIndex());
+
+        // a skipped reporting interval doesn't shift the index of the following intervals
+        tracker.update(testStartedTimestamp + 2980);
+        assertEquals(3, tracker.getIntervalIndex());
+
+        tracker.update(testStartedTimestamp + 4010);
+        assertEquals(4, tracker.getIntervalIndex());
+    }
+
+    @Test
+    public void testGetAndResetEncodedIntervalHistograms_emptyInterval() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        tracker.addIntervalHistograms(createHistograms(0), 0, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+
+        assertTrue(tracker.getAndResetEncodedIntervalHistograms().isEmpty());
+    }
+
+    @Test
+    public void testAddIntervalHistograms_doesNotRetainIntervalHistograms() {
+        tracker = createTracker(new SteadyStateDetector(0, 0.1));
+
+        // the probes recycle their interval histograms, which are reset by the next interval
+        Map<String, Histogram> intervalHistograms = createHistograms(2);
+        tracker.addIntervalHistograms(intervalHistograms, 2, testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        intervalHistograms.get(PROBE_NAME).reset();
+        tracker.update(testStartedTimestamp + TimeUnit.SECONDS.toMillis(1));
+        addInterval(2, 3);
+
+        assertEquals(3, decodeTotalCount(tracker.getAndResetEncodedIntervalHistograms().get(PROBE_NAME)));
+        assertEquals(5, getAggregatedTotalCount());
+    }
+
+    private void addInterval(int second, int operationCount) {
+        long timestamp = testStartedTimestamp + TimeUnit.SECONDS.toMillis(second);
+        tracker.addIntervalHistograms(createHistograms(operationCount), operationCount, timestamp);
+        tracker.update(timestamp);
+    }
+
+    private PerformanceTracker createTracker(SteadyStateDetector steadyStateDetector) {
+        return new PerformanceTracker(TEST_ID, probeMap, testStartedTimestamp, REPORTING_INTERVAL_MILLIS, steadyStateDetector, 0,
+                0, null, false, 0);
+    }
+
+    private long getAggregatedTotalCount() {
+        Map<String, String> histograms = tracker.aggregateIntervalHistograms(TEST_ID);
+        assertEquals(1, histograms.size());
+
+        return decodeTotalCount(histograms.get(PROBE_NAME));
+    }
+
+    private static long decodeTotalCount(String encodedHistogram) {
+        byte[] bytes = DatatypeConverter.parseBase64Binary(encodedHistogram);
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), 0).getTotalCount();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Map<String, Histogram> createHistograms(int valueCount) {
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toMicros(1), 3);
+        for (int i = 1; i <= valueCount; i++) {
+            histogram.recordValue(i * 100);
+        }
+        return Collections.singletonMap(PROBE_NAME, histogram);
+    }
+}
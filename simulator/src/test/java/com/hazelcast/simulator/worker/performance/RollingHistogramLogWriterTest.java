@@ -0,0 +1,100 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RollingHistogramLogWriterTest {
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private File file;
+    private RollingHistogramLogWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("latency", ".hdr");
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+        deleteQuiet(file);
+        deleteQuiet(new File(file.getPath() + ".1"));
+        deleteQuiet(new File(file.getPath() + ".1.gz"));
+    }
+
+    @Test
+    public void testOutputIntervalHistogram_noRolling() {
+        writer = new RollingHistogramLogWriter(file, "header", TimeUnit.MICROSECONDS, 0, 0, 0, DIRECT_EXECUTOR, 0);
+
+        writer.outputIntervalHistogram(createHistogram());
+        writer.outputIntervalHistogram(createHistogram());
+        writer.close();
+
+        String content = fileAsText(file);
+        assertTrue(content.startsWith("#header"));
+        assertTrue(content.contains("LatencyUnit=MICROSECONDS"));
+        assertFalse(new File(file.getPath() + ".1.gz").exists());
+    }
+
+    @Test
+    public void testOutputIntervalHistogram_rollBySize() {
+        writer = new RollingHistogramLogWriter(file, "header", null, 0, 1, 0, DIRECT_EXECUTOR, 0);
+
+        writer.outputIntervalHistogram(createHistogram());
+        writer.close();
+
+        assertTrue(new File(file.getPath() + ".1.gz").exists());
+        assertFalse(new File(file.getPath() + ".1").exists());
+
+        String content = fileAsText(file);
+        assertTrue(content.startsWith("#header"));
+        assertFalse(content.contains("LatencyUnit"));
+    }
+
+    @Test
+    public void testOutputIntervalHistogram_rollBySize_withBufferedBytes() {
+        writer = new RollingHistogramLogWriter(file, "header", null, 0, 1, 0, DIRECT_EXECUTOR, TimeUnit.HOURS.toMillis(1));
+
+        // the segment is rolled although nothing has been flushed to the file yet
+        writer.outputIntervalHistogram(createHistogram());
+
+        assertTrue(new File(file.getPath() + ".1.gz").exists());
+    }
+
+    @Test
+    public void testOutputIntervalHistogram_flushInterval() {
+        writer = new RollingHistogramLogWriter(file, "header", null, 0, 0, 0, DIRECT_EXECUTOR, TimeUnit.HOURS.toMillis(1));
+
+        writer.outputIntervalHistogram(createHistogram());
+        assertEquals(0, file.length());
+
+        writer.close();
+        assertTrue(fileAsText(file).startsWith("#header"));
+    }
+
+    private static Histogram createHistogram() {
+        Histogram histogram = new Histogram(1000, 3);
+        histogram.recordValue(42);
+        return histogram;
+    }
+}
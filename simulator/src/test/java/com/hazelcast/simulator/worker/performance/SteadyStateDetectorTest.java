@@ -0,0 +1,81 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SteadyStateDetectorTest {
+
+    private static final double ASSERT_EQUALS_DELTA = 0.0001;
+
+    private final SteadyStateDetector detector = new SteadyStateDetector(3, 0.1);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_negativeWindow() {
+        new SteadyStateDetector(-1, 0.1);
+    }
+
+    @Test
+    public void testUpdate_disabled() {
+        SteadyStateDetector disabledDetector = new SteadyStateDetector(0, 0.1);
+
+        assertTrue(disabledDetector.update(100));
+    }
+
+    @Test
+    public void testUpdate_windowNotFilled() {
+        assertFalse(detector.update(1000));
+        assertFalse(detector.update(1000));
+    }
+
+    @Test
+    public void testUpdate_stableThroughput() {
+        detector.update(1000);
+        detector.update(1000);
+
+        assertTrue(detector.update(1000));
+    }
+
+    @Test
+    public void testUpdate_warmUp() {
+        assertFalse(detector.update(100));
+        assertFalse(detector.update(500));
+        assertFalse(detector.update(1000));
+        assertFalse(detector.update(1020));
+
+        assertTrue(detector.update(980));
+    }
+
+    @Test
+    public void testUpdate_steadyStateIsKept() {
+        detector.update(1000);
+        detector.update(1000);
+        detector.update(1000);
+
+        assertTrue(detector.update(10));
+    }
+
+    @Test
+    public void testUpdate_noThroughput() {
+        detector.update(0);
+        detector.update(0);
+
+        assertFalse(detector.update(0));
+    }
+
+    @Test
+    public void testGetCoefficientOfVariation() {
+        detector.update(900);
+        detector.update(1000);
+        detector.update(1100);
+
+        assertEquals(Math.sqrt(20000d / 3) / 1000, detector.getCoefficientOfVariation(), ASSERT_EQUALS_DELTA);
+    }
+
+    @Test
+    public void testGetCoefficientOfVariation_empty() {
+        assertEquals(Double.POSITIVE_INFINITY, detector.getCoefficientOfVariation(), ASSERT_EQUALS_DELTA);
+    }
+}
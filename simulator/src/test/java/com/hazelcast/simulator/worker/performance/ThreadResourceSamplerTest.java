@@ -0,0 +1,64 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.simulator.worker.performance.ThreadResourceSampler.NOT_AVAILABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ThreadResourceSamplerTest {
+
+    private final List<Long> threadIds = Collections.singletonList(Thread.currentThread().getId());
+
+    private ThreadResourceSampler sampler;
+
+    @Before
+    public void setUp() {
+        sampler = new ThreadResourceSampler();
+        sampler.sample(threadIds);
+    }
+
+    @Test
+    public void testSample() {
+        long sum = 0;
+        for (int i = 0; i < 100000; i++) {
+            sum += String.valueOf(i).length();
+        }
+        assertTrue(sum > 0);
+        sampler.sample(threadIds);
+
+        double cpuMicrosPerOperation = sampler.getCpuMicrosPerOperation(100);
+        assumeTrue(cpuMicrosPerOperation != NOT_AVAILABLE);
+        assertTrue(cpuMicrosPerOperation > 0);
+
+        double allocatedBytesPerOperation = sampler.getAllocatedBytesPerOperation(100);
+        assumeTrue(allocatedBytesPerOperation != NOT_AVAILABLE);
+        assertTrue(allocatedBytesPerOperation > 0);
+    }
+
+    @Test
+    public void testSample_noOperations() {
+        sampler.sample(threadIds);
+
+        assertEquals(NOT_AVAILABLE, sampler.getCpuMicrosPerOperation(0), 0.0);
+        assertEquals(NOT_AVAILABLE, sampler.getAllocatedBytesPerOperation(0), 0.0);
+    }
+
+    @Test
+    public void testSample_terminatedThread() throws Exception {
+        Thread thread = new Thread();
+        thread.start();
+        thread.join();
+
+        sampler.sample(Collections.singletonList(thread.getId()));
+
+        double cpuMicrosPerOperation = sampler.getCpuMicrosPerOperation(1);
+        assumeTrue(cpuMicrosPerOperation != NOT_AVAILABLE);
+        assertEquals(0.0, cpuMicrosPerOperation, 0.0);
+    }
+}
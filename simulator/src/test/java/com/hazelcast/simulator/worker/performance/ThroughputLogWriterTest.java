@@ -0,0 +1,82 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThroughputLogWriterTest {
+
+    private File file;
+    private ThroughputLogWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("throughput", ".txt");
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+        deleteQuiet(file);
+    }
+
+    @Test
+    public void testWriteStats_test() {
+        writer = new ThroughputLogWriter(file, false, 0);
+
+        writer.writeStats("timestamp", 1234567, 1000, 1000.5, 12.345, -1);
+
+        String[] lines = fileAsText(file).split(NEW_LINE);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].endsWith("CPU us/op       Bytes/op"));
+        assertEquals("[timestamp]      1,234,567 ops          1,000 ops       1,000.50 ops/s          12.35            n/a",
+                lines[2]);
+    }
+
+    @Test
+    public void testWriteStats_global() {
+        writer = new ThroughputLogWriter(file, true, 0);
+
+        writer.writeStats("timestamp", 1234567, 1000, 1000.5, 5, 12);
+
+        String[] lines = fileAsText(file).split(NEW_LINE);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].endsWith("Number of tests"));
+        assertEquals("[timestamp]      1,234,567 ops          1,000 ops       1,000.50 ops/s            5/12", lines[2]);
+    }
+
+    @Test
+    public void testWriteStats_global_noTests() {
+        writer = new ThroughputLogWriter(file, true, 0);
+
+        writer.writeStats("timestamp", 0, 0, 0, 0, 0);
+
+        String[] lines = fileAsText(file).split(NEW_LINE);
+        assertEquals("[timestamp]              0 ops              0 ops           0.00 ops/s", lines[2]);
+    }
+
+    @Test
+    public void testWriteStats_flushInterval() {
+        writer = new ThroughputLogWriter(file, false, TimeUnit.HOURS.toMillis(1));
+        String header = fileAsText(file);
+
+        writer.writeStats("timestamp", 1, 1, 1, 1, 1);
+        assertEquals(header, fileAsText(file));
+
+        writer.close();
+        writer = null;
+        assertFalse(header.equals(fileAsText(file)));
+    }
+}
@@ -4,6 +4,7 @@ import com.hazelcast.simulator.protocol.connector.ServerConnector;
 import com.hazelcast.simulator.protocol.core.AddressLevel;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.operation.LogOperation;
+import com.hazelcast.simulator.protocol.operation.PerformanceStateOperation;
 import com.hazelcast.simulator.test.TestPhase;
 import com.hazelcast.simulator.tests.PerformanceMonitorProbeTest;
 import com.hazelcast.simulator.tests.PerformanceMonitorTest;
@@ -22,11 +23,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
@@ -36,6 +41,7 @@ import static org.mockito.Mockito.when;
 public class WorkerPerformanceMonitorTest {
 
     private static final VerificationWithTimeout VERIFY_TIMEOUT = timeout(TimeUnit.SECONDS.toMillis(1));
+    private static final File LATENCY_FILE = new File("latency-DummyTestContext-DummyTestContextWorkerProbe.txt");
 
     private final ConcurrentMap<String, TestContainer> tests = new ConcurrentHashMap<String, TestContainer>();
     private final DummyTestContext testContext = new DummyTestContext();
@@ -55,14 +61,16 @@ public class WorkerPerformanceMonitorTest {
 
     @After
     public void tearDown() {
-        performanceMonitor.shutdown();
+        if (performanceMonitor != null) {
+            performanceMonitor.shutdown();
+        }
     }
 
     @AfterClass
     public static void cleanUp() {
         deleteQuiet(new File("throughput.txt"));
         deleteQuiet(new File("throughput-DummyTestContext.txt"));
-        deleteQuiet(new File("latency-DummyTestContext-DummyTestContextWorkerProbe.txt"));
+        deleteQuiet(LATENCY_FILE);
         deleteQuiet(new File("latency-DummyTestContext-aggregated.txt"));
     }
 
@@ -124,6 +132,47 @@ public class WorkerPerformanceMonitorTest {
         verifyServerConnector();
     }
 
+    @Test
+    public void test_testWithProbe_latencyLogInterval() throws Exception {
+        performanceMonitor = new WorkerPerformanceMonitor(serverConnector, tests.values(), 1, 100);
+
+        PerformanceMonitorProbeTest test = new PerformanceMonitorProbeTest();
+        addTest(test);
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    tests.get("test").invoke(TestPhase.RUN);
+                } catch (Exception e) {
+                    EmptyStatement.ignore(e);
+                }
+            }
+        };
+        thread.start();
+
+        test.recordValue(TimeUnit.MICROSECONDS.toNanos(500));
+
+        assertTrue(performanceMonitor.start());
+        sleepMillis(1500);
+
+        test.stopTest();
+        thread.join();
+        performanceMonitor.shutdown();
+        performanceMonitor = null;
+
+        // the latency log contains an interval histogram per latency log interval
+        int histogramCount = 0;
+        for (String line : fileAsText(LATENCY_FILE).split(NEW_LINE)) {
+            if (!line.isEmpty() && Character.isDigit(line.charAt(0))) {
+                histogramCount++;
+            }
+        }
+        assertTrue("Expected at least 5 interval histograms, but found " + histogramCount, histogramCount >= 5);
+        // the performance states are still reported in the interval of the monitor
+        verify(serverConnector, atMost(2)).submit(eq(SimulatorAddress.COORDINATOR), any(PerformanceStateOperation.class));
+    }
+
     @Test
     public void test_testAfterRun() throws Exception {
         addTest(new PerformanceMonitorTest());
@@ -5,8 +5,10 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class OperationSelectorTest {
@@ -70,7 +72,7 @@ public class OperationSelectorTest {
     @Test(expected = IllegalStateException.class)
     public void testAddOperations_sumOfProbabilitiesExceedsLimit_MaximumPrecision() {
         builder.addOperation(Operation.OP1, 0.8)
-               .addOperation(Operation.OP2, 0.2 + OperationSelectorBuilder.PROBABILITY_INTERVAL)
+               .addOperation(Operation.OP2, 0.2 + 2 * OperationSelectorBuilder.PROBABILITY_TOLERANCE)
                .build();
     }
 
@@ -87,19 +89,30 @@ public class OperationSelectorTest {
     }
 
     @Test
-    public void testAddOperations_maxPrecisionHitsLimit() {
-        builder.addOperation(Operation.OP1, OperationSelectorBuilder.PROBABILITY_INTERVAL)
+    public void testAddOperations_fineGrainedProbability() {
+        builder.addOperation(Operation.OP1, 0.0005)
+               .addOperation(Operation.OP2, 0.12345)
                .addDefaultOperation(Operation.DEFAULT)
                .build();
     }
 
-    @Test(expected = IllegalArgumentException.class)
-    public void testAddOperations_maxPrecisionExceeded() {
-        builder.addOperation(Operation.OP1, OperationSelectorBuilder.PROBABILITY_INTERVAL / 2)
-               .addDefaultOperation(Operation.DEFAULT)
+    @Test
+    public void testAddOperations_sumOfProbabilitiesWithinTolerance() {
+        builder.addOperation(Operation.OP1, 0.5)
+               .addOperation(Operation.OP2, 0.5 + OperationSelectorBuilder.PROBABILITY_TOLERANCE / 2)
                .build();
     }
 
+    @Test
+    public void testAddOperations_sumOfProbabilitiesBelowOneWithinTolerance() {
+        selector = builder.addOperation(Operation.OP1, 0.333)
+                          .addOperation(Operation.OP2, 0.333)
+                          .addOperation(Operation.DEFAULT, 0.333)
+                          .build();
+
+        assertEquals(3, selector.getOperations().size());
+    }
+
     @Test
     public void testAddOperations_floatingPointMadness() {
         // these probabilities add up to 1.0000000000000002
@@ -128,6 +141,19 @@ public class OperationSelectorTest {
         builder.addOperation(Operation.OP1, 0.0);
     }
 
+    @Test
+    public void testGetOperations() {
+        selector = builder.addOperation(Operation.OP1, 0.5)
+                          .addOperation(Operation.OP2, 0.0)
+                          .addDefaultOperation(Operation.DEFAULT)
+                          .build();
+
+        Set<Operation> operations = selector.getOperations();
+        assertEquals(2, operations.size());
+        assertTrue(operations.contains(Operation.OP1));
+        assertTrue(operations.contains(Operation.DEFAULT));
+    }
+
     @Test
     public void testSelect_defaultOperations() {
         double op1Probability = 0.1;
@@ -167,6 +193,22 @@ public class OperationSelectorTest {
         assertCountIsWithinTolerance(Operation.OP3, op3Count, op3Probability);
     }
 
+    @Test
+    public void testSelect_fineGrainedDistribution() {
+        double op1Probability = 0.4995;
+        double op2Probability = 0.0005;
+
+        selector = builder.addOperation(Operation.OP1, op1Probability)
+                          .addOperation(Operation.OP2, op2Probability)
+                          .addDefaultOperation(Operation.DEFAULT)
+                          .build();
+
+        Map<Operation, Integer> opsStats = exerciseSelector(selector);
+        assertCountIsWithinTolerance(Operation.OP1, opsStats.get(Operation.OP1), op1Probability);
+        assertCountIsWithinTolerance(Operation.DEFAULT, opsStats.get(Operation.DEFAULT), 0.5);
+        assertTrue("Operation OP2 with a fine-grained probability was never selected", opsStats.containsKey(Operation.OP2));
+    }
+
     private void assertCountIsWithinTolerance(Operation op, int count, double probability) {
         double lowerBound = (ITERATIONS * probability - ITERATIONS * TOLERANCE);
         double upperBound = (ITERATIONS * probability + ITERATIONS * TOLERANCE);
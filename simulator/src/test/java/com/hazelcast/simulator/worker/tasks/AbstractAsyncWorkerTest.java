@@ -0,0 +1,257 @@
+package com.hazelcast.simulator.worker.tasks;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.ProbeImpl;
+import com.hazelcast.simulator.worker.DummyTestContext;
+import com.hazelcast.simulator.worker.selector.OperationSelectorBuilder;
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.deleteExceptionFiles;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractAsyncWorkerTest {
+
+    private static final int ITERATIONS = 100;
+
+    private enum Operation {
+        REGISTER,
+        SKIP
+    }
+
+    private Probe workerProbe;
+    private Probe registerProbe;
+    private Probe skipProbe;
+    private Worker worker;
+
+    @Before
+    public void setUp() {
+        workerProbe = new ProbeImpl(true);
+        registerProbe = new ProbeImpl(false);
+        skipProbe = new ProbeImpl(false);
+
+        worker = new Worker(new OperationSelectorBuilder<Operation>()
+                .addOperation(Operation.REGISTER, 0.5)
+                .addDefaultOperation(Operation.SKIP));
+        worker.testContext = new DummyTestContext();
+        worker.workerProbe = workerProbe;
+        worker.operationProbes = new Probe[]{registerProbe, skipProbe};
+    }
+
+    @After
+    public void tearDown() {
+        deleteExceptionFiles();
+    }
+
+    @Test
+    public void testRun_latencyRecordedByResponseThread() throws Exception {
+        worker.run();
+
+        int pendingCount = worker.futures.size();
+        assertTrue(pendingCount > 0);
+        assertEquals(pendingCount, workerProbe.getInFlightCount());
+        assertEquals(pendingCount, registerProbe.getInFlightCount());
+        assertEquals(0, skipProbe.getInFlightCount());
+
+        Thread responseThread = new Thread() {
+            @Override
+            public void run() {
+                sleepMillis(50);
+                for (FakeFuture future : worker.futures) {
+                    future.complete(1L);
+                }
+            }
+        };
+        responseThread.start();
+        responseThread.join();
+
+        assertEquals(0, workerProbe.getInFlightCount());
+        assertEquals(0, registerProbe.getInFlightCount());
+        assertEquals(pendingCount, worker.getIteration());
+
+        Histogram histogram = workerProbe.getIntervalHistogram();
+        assertEquals(pendingCount, histogram.getTotalCount());
+        assertTrue(histogram.getMinValue() >= TimeUnit.MILLISECONDS.toMicros(50));
+        assertEquals(pendingCount, registerProbe.getIntervalHistogram().getTotalCount());
+        assertEquals(0, skipProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRun_failedResponse() throws Exception {
+        worker.run();
+
+        int pendingCount = worker.futures.size();
+        for (FakeFuture future : worker.futures) {
+            future.fail(new RuntimeException("expected"));
+        }
+
+        assertEquals(0, workerProbe.getInFlightCount());
+        assertEquals(0, workerProbe.getIntervalHistogram().getTotalCount());
+        assertEquals(pendingCount, worker.failureCount);
+    }
+
+    @Test
+    public void testRun_maxInFlight() throws Exception {
+        worker.maxInFlight = 5;
+        Thread workerThread = new Thread(worker);
+        workerThread.start();
+
+        // the worker backs off as soon as the pipeline is full
+        while (worker.futures.size() < 5) {
+            sleepMillis(10);
+        }
+        sleepMillis(100);
+        assertEquals(5, worker.futures.size());
+        assertEquals(5, workerProbe.getInFlightCount());
+
+        int completedCount = 0;
+        while (workerThread.isAlive() || completedCount < worker.futures.size()) {
+            FakeFuture future = null;
+            synchronized (worker.futures) {
+                assertTrue(worker.futures.size() - completedCount <= 5);
+                if (completedCount < worker.futures.size()) {
+                    future = worker.futures.get(completedCount);
+                }
+            }
+            if (future == null) {
+                sleepMillis(1);
+                continue;
+            }
+            future.complete(1L);
+            completedCount++;
+        }
+        workerThread.join();
+
+        assertEquals(0, workerProbe.getInFlightCount());
+        assertEquals(completedCount, worker.getIteration());
+        assertEquals(completedCount, workerProbe.getIntervalHistogram().getTotalCount());
+        assertTrue(workerProbe.getIntervalAverageInFlightCount() > 1.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegisterCallback_outsideOfTimeStep() {
+        worker.registerCallback(new FakeFuture());
+    }
+
+    @Test
+    public void testRun_registeredDirectly_countsOperations() {
+        worker.isRegisteringDirectly = true;
+        worker.run();
+
+        // the operations are counted, but their latency can't be related to a time step
+        assertEquals(ITERATIONS, worker.timeStepCount);
+        assertEquals(ITERATIONS, worker.getIteration());
+        assertEquals(0, workerProbe.getInFlightCount());
+        assertEquals(0, workerProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRun_registeredDirectly_reportsFailures() {
+        worker.isRegisteringDirectly = true;
+        worker.isFailingDirectly = true;
+        worker.run();
+
+        assertEquals(ITERATIONS, worker.failureCount);
+        assertEquals(0, worker.getIteration());
+    }
+
+    private static final class Worker extends AbstractAsyncWorker<Operation, Long> {
+
+        private final List<FakeFuture> futures = Collections.synchronizedList(new ArrayList<FakeFuture>());
+
+        private boolean isRegisteringDirectly;
+        private boolean isFailingDirectly;
+        private int timeStepCount;
+        private int failureCount;
+
+        private Worker(OperationSelectorBuilder<Operation> operationSelectorBuilder) {
+            super(operationSelectorBuilder);
+        }
+
+        @Override
+        protected void timeStep(Operation operation) throws Exception {
+            if (isRegisteringDirectly) {
+                FakeFuture future = new FakeFuture();
+                future.andThen(this);
+                if (isFailingDirectly) {
+                    future.fail(new RuntimeException("expected"));
+                } else {
+                    future.complete(1L);
+                }
+            } else if (operation == Operation.REGISTER) {
+                FakeFuture future = new FakeFuture();
+                registerCallback(future);
+                futures.add(future);
+            }
+
+            if (++timeStepCount == ITERATIONS) {
+                stopWorker();
+            }
+        }
+
+        @Override
+        protected void handleFailure(Throwable t) {
+            failureCount++;
+        }
+    }
+
+    private static final class FakeFuture implements ICompletableFuture<Long> {
+
+        private ExecutionCallback<Long> callback;
+
+        void complete(Long value) {
+            callback.onResponse(value);
+        }
+
+        void fail(Throwable t) {
+            callback.onFailure(t);
+        }
+
+        @Override
+        public void andThen(ExecutionCallback<Long> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void andThen(ExecutionCallback<Long> callback, Executor executor) {
+            this.callback = callback;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+
+        @Override
+        public Long get() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Long get(long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.hazelcast.simulator.worker.tasks;
+
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.ProbeImpl;
+import com.hazelcast.simulator.worker.DummyTestContext;
+import com.hazelcast.simulator.worker.selector.OperationSelectorBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.deleteExceptionFiles;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractEventLoopWorkerTest {
+
+    private static final int ITERATIONS = 20;
+
+    private enum Operation {
+        PUT,
+        GET
+    }
+
+    private DummyTestContext testContext;
+    private Probe workerProbe;
+    private Probe putProbe;
+    private Probe getProbe;
+
+    @Before
+    public void setUp() {
+        testContext = new DummyTestContext();
+        workerProbe = new ProbeImpl(true);
+        putProbe = new ProbeImpl(false);
+        getProbe = new ProbeImpl(false);
+    }
+
+    @After
+    public void tearDown() {
+        deleteExceptionFiles();
+    }
+
+    @Test
+    public void testEventLoop() {
+        EventLoopGroup eventLoopGroup = new EventLoopGroup(testContext.getTestId(), 2, workerProbe,
+                new Probe[]{putProbe, getProbe});
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int i = 0; i < 100; i++) {
+            Worker worker = createWorker(false);
+            workers.add(worker);
+            eventLoopGroup.start(worker);
+        }
+        eventLoopGroup.awaitCompletion();
+
+        for (Worker worker : workers) {
+            assertEquals(1, worker.beforeRunCount);
+            assertEquals(1, worker.afterRunCount);
+            assertEquals(ITERATIONS, worker.getIteration());
+            assertEquals(ITERATIONS, worker.responseCount);
+        }
+        assertEquals(100 * ITERATIONS, workerProbe.getIntervalHistogram().getTotalCount());
+        long operationCount = putProbe.getIntervalHistogram().getTotalCount() + getProbe.getIntervalHistogram().getTotalCount();
+        assertEquals(100 * ITERATIONS, operationCount);
+    }
+
+    @Test
+    public void testEventLoop_failedOperations() {
+        EventLoopGroup eventLoopGroup = new EventLoopGroup(testContext.getTestId(), 1, workerProbe, null);
+        Worker worker = createWorker(true);
+        eventLoopGroup.start(worker);
+        eventLoopGroup.awaitCompletion();
+
+        assertEquals(ITERATIONS, worker.failureCount);
+        assertEquals(0, worker.getIteration());
+        assertEquals(1, worker.afterRunCount);
+        assertEquals(0, workerProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testEventLoop_stoppedTestContext() {
+        testContext.stop();
+
+        EventLoopGroup eventLoopGroup = new EventLoopGroup(testContext.getTestId(), 1, workerProbe, null);
+        Worker worker = createWorker(false);
+        eventLoopGroup.start(worker);
+        eventLoopGroup.awaitCompletion();
+
+        assertEquals(0, worker.getIteration());
+        assertEquals(1, worker.afterRunCount);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStart_afterAwaitCompletion() {
+        EventLoopGroup eventLoopGroup = new EventLoopGroup(testContext.getTestId(), 1, workerProbe, null);
+        eventLoopGroup.awaitCompletion();
+
+        eventLoopGroup.start(createWorker(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_noCarrierThreads() {
+        new EventLoopGroup(testContext.getTestId(), 0, workerProbe, null);
+    }
+
+    @Test
+    public void testThreadModel() {
+        Worker worker = createWorker(false);
+        worker.run();
+
+        assertEquals(ITERATIONS, worker.getIteration());
+        assertEquals(ITERATIONS, worker.responseCount);
+        assertEquals(ITERATIONS, workerProbe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testThreadModel_failedOperations() {
+        Worker worker = createWorker(true);
+        worker.run();
+
+        assertEquals(ITERATIONS, worker.failureCount);
+        assertTrue(worker.responseCount == 0);
+    }
+
+    private Worker createWorker(boolean fail) {
+        Worker worker = new Worker(new OperationSelectorBuilder<Operation>()
+                .addOperation(Operation.PUT, 0.5)
+                .addDefaultOperation(Operation.GET), fail);
+        worker.testContext = testContext;
+        worker.workerProbe = workerProbe;
+        worker.operationProbes = new Probe[]{putProbe, getProbe};
+        return worker;
+    }
+
+    private static final class Worker extends AbstractEventLoopWorker<Operation, Long> {
+
+        private final boolean fail;
+
+        private int timeStepCount;
+        private int responseCount;
+        private int failureCount;
+        private int beforeRunCount;
+        private int afterRunCount;
+
+        private Worker(OperationSelectorBuilder<Operation> operationSelectorBuilder, boolean fail) {
+            super(operationSelectorBuilder);
+            this.fail = fail;
+        }
+
+        @Override
+        protected void beforeRun() {
+            beforeRunCount++;
+        }
+
+        @Override
+        protected ICompletableFuture<Long> timeStepAsync(Operation operation) throws Exception {
+            if (++timeStepCount == ITERATIONS) {
+                stopWorker();
+            }
+            if (fail) {
+                return CompletedFuture.failed(new RuntimeException("expected"));
+            }
+            return CompletedFuture.completed((long) timeStepCount);
+        }
+
+        @Override
+        protected void handleResponse(Long response) {
+            responseCount++;
+        }
+
+        @Override
+        protected void handleFailure(Throwable t) {
+            failureCount++;
+        }
+
+        @Override
+        protected void afterRun() {
+            afterRunCount++;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hazelcast.simulator.worker.tasks;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Already completed {@link ICompletableFuture}, which executes its callbacks via the given {@link Executor}.
+ */
+public final class CompletedFuture<V> implements ICompletableFuture<V> {
+
+    private final V value;
+    private final Throwable failure;
+
+    private CompletedFuture(V value, Throwable failure) {
+        this.value = value;
+        this.failure = failure;
+    }
+
+    public static <V> CompletedFuture<V> completed(V value) {
+        return new CompletedFuture<V>(value, null);
+    }
+
+    public static <V> CompletedFuture<V> failed(Throwable failure) {
+        return new CompletedFuture<V>(null, failure);
+    }
+
+    @Override
+    public void andThen(ExecutionCallback<V> callback) {
+        complete(callback);
+    }
+
+    @Override
+    public void andThen(final ExecutionCallback<V> callback, Executor executor) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                CompletedFuture.this.complete(callback);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return true;
+    }
+
+    @Override
+    public V get() throws ExecutionException {
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return value;
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws ExecutionException {
+        return get();
+    }
+
+    private void complete(ExecutionCallback<V> callback) {
+        if (failure != null) {
+            callback.onFailure(failure);
+        } else {
+            callback.onResponse(value);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.hazelcast.simulator.worker.trace;
+
+import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.utils.FastRandom;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorkloadTracerTest {
+
+    private enum Operation {
+        GET,
+        PUT
+    }
+
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("trace", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        deleteQuiet(file);
+    }
+
+    @Test
+    public void testRecordAndReplay() {
+        WorkloadTracer recorder = WorkloadTracer.record(file, Operation.class);
+        assertFalse(recorder.isReplay());
+        Random recordRandom = recorder.createRandom(new FastRandom());
+        Metronome metronome = new FixedMetronome();
+
+        int[] keys = new int[3];
+        long[] longs = new long[3];
+        double[] doubles = new double[3];
+        for (int i = 0; i < 3; i++) {
+            assertTrue(recorder.nextStep());
+            recorder.awaitStep(i % 2, metronome);
+            keys[i] = recordRandom.nextInt(1000);
+            longs[i] = recordRandom.nextLong();
+            doubles[i] = recordRandom.nextDouble();
+        }
+        recorder.close();
+
+        WorkloadTracer replayer = WorkloadTracer.replay(file, Operation.class, 0);
+        assertTrue(replayer.isReplay());
+        Random replayRandom = replayer.createRandom(new FastRandom());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(replayer.nextStep());
+            assertEquals(i % 2, replayer.getOperationOrdinal());
+            replayer.awaitStep(-1, null);
+            assertEquals(keys[i], replayRandom.nextInt(1000));
+            assertEquals(longs[i], replayRandom.nextLong());
+            assertEquals(doubles[i], replayRandom.nextDouble(), 0.0);
+        }
+        assertFalse(replayer.nextStep());
+        replayer.close();
+    }
+
+    @Test
+    public void testRecordAndReplay_otherRandomMethods() {
+        WorkloadTracer recorder = WorkloadTracer.record(file, null);
+        Random recordRandom = recorder.createRandom(new FastRandom());
+        recorder.nextStep();
+        recorder.awaitStep(-1, new FixedMetronome());
+        boolean booleanValue = recordRandom.nextBoolean();
+        float floatValue = recordRandom.nextFloat();
+        double gaussianValue = recordRandom.nextGaussian();
+        byte[] bytes = new byte[5];
+        recordRandom.nextBytes(bytes);
+        recorder.close();
+
+        WorkloadTracer replayer = WorkloadTracer.replay(file, null, 0);
+        Random replayRandom = replayer.createRandom(null);
+        assertTrue(replayer.nextStep());
+        assertEquals(-1, replayer.getOperationOrdinal());
+        assertEquals(booleanValue, replayRandom.nextBoolean());
+        assertEquals(floatValue, replayRandom.nextFloat(), 0.0f);
+        assertEquals(gaussianValue, replayRandom.nextGaussian(), 0.0);
+        byte[] replayedBytes = new byte[5];
+        replayRandom.nextBytes(replayedBytes);
+        assertArrayEquals(bytes, replayedBytes);
+        replayer.close();
+    }
+
+    @Test
+    public void testReplay_withRecordedRate() {
+        recordSteps(3);
+
+        WorkloadTracer replayer = WorkloadTracer.replay(file, Operation.class, 1.0);
+        long firstIntendedStart = 0;
+        long lastIntendedStart = 0;
+        while (replayer.nextStep()) {
+            lastIntendedStart = replayer.awaitStep(-1, null);
+            if (firstIntendedStart == 0) {
+                firstIntendedStart = lastIntendedStart;
+            }
+            assertTrue(System.nanoTime() >= lastIntendedStart);
+        }
+        replayer.close();
+
+        assertEquals(2 * INTERVAL_NANOS, lastIntendedStart - firstIntendedStart);
+    }
+
+    @Test
+    public void testReplay_withScaledRate() {
+        recordSteps(3);
+
+        WorkloadTracer replayer = WorkloadTracer.replay(file, Operation.class, 2.0);
+        replayer.nextStep();
+        long firstIntendedStart = replayer.awaitStep(-1, null);
+        replayer.nextStep();
+        long secondIntendedStart = replayer.awaitStep(-1, null);
+        replayer.close();
+
+        assertEquals(INTERVAL_NANOS / 2, secondIntendedStart - firstIntendedStart);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReplay_moreValuesThanRecorded() {
+        recordSteps(1);
+
+        WorkloadTracer replayer = WorkloadTracer.replay(file, Operation.class, 0);
+        Random replayRandom = replayer.createRandom(null);
+        try {
+            replayer.nextStep();
+            replayRandom.nextInt();
+        } finally {
+            replayer.close();
+        }
+    }
+
+    @Test(expected = TestException.class)
+    public void testReplay_otherOperations() {
+        recordSteps(1);
+
+        WorkloadTracer.replay(file, String.class, 0);
+    }
+
+    @Test(expected = TestException.class)
+    public void testReplay_noTraceFile() {
+        appendText("no trace", file);
+
+        WorkloadTracer.replay(file, Operation.class, 0);
+    }
+
+    @Test(expected = TestException.class)
+    public void testReplay_fileNotFound() {
+        deleteQuiet(file);
+
+        WorkloadTracer.replay(file, Operation.class, 0);
+    }
+
+    @Test
+    public void testRecord_compactValues() {
+        WorkloadTracer recorder = WorkloadTracer.record(file, Operation.class);
+        Random recordRandom = recorder.createRandom(new FastRandom());
+        Metronome metronome = new FixedMetronome();
+        for (int i = 0; i < 1000; i++) {
+            recorder.nextStep();
+            recorder.awaitStep(0, metronome);
+            recordRandom.nextInt(100);
+        }
+        recorder.close();
+
+        // each step needs a few bytes for the time delta, the operation, the value count and a small key index
+        assertTrue(file.length() < 1000 * 8);
+        assertNotEquals(0, file.length());
+    }
+
+    private void recordSteps(int stepCount) {
+        WorkloadTracer recorder = WorkloadTracer.record(file, Operation.class);
+        Metronome metronome = new FixedMetronome();
+        for (int i = 0; i < stepCount; i++) {
+            recorder.nextStep();
+            recorder.awaitStep(Operation.GET.ordinal(), metronome);
+        }
+        recorder.close();
+    }
+
+    private static final class FixedMetronome implements Metronome {
+
+        private long intendedStart = System.nanoTime();
+
+        @Override
+        public long waitForNext() {
+            long result = intendedStart;
+            intendedStart += INTERVAL_NANOS;
+            return result;
+        }
+    }
+}
@@ -167,7 +167,7 @@ public class AsyncAtomicLongTest {
                 default:
                     throw new UnsupportedOperationException();
             }
-            future.andThen(this);
+            registerCallback(future);
 
             if (batchSize > 0) {
                 batch.add(future);
@@ -20,6 +20,7 @@ import com.hazelcast.core.IMap;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.ProbeHandle;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.TestRunner;
 import com.hazelcast.simulator.test.annotations.RunWithWorker;
@@ -104,6 +105,9 @@ public class IntIntMapTest {
 
     private class Worker extends AbstractWorker<Operation> {
 
+        private final ProbeHandle putProbeHandle = putProbe.threadHandle();
+        private final ProbeHandle getProbeHandle = getProbe.threadHandle();
+
         public Worker() {
             super(operationSelectorBuilder);
         }
@@ -115,18 +119,18 @@ public class IntIntMapTest {
             switch (operation) {
                 case PUT:
                     int value = randomValue();
-                    putProbe.started();
+                    putProbeHandle.started();
                     if (useSet) {
                         map.set(key, value);
                     } else {
                         map.put(key, value);
                     }
-                    putProbe.done();
+                    putProbeHandle.done();
                     break;
                 case GET:
-                    getProbe.started();
+                    getProbeHandle.started();
                     map.get(key);
-                    getProbe.done();
+                    getProbeHandle.done();
                     break;
                 default:
                     throw new UnsupportedOperationException();
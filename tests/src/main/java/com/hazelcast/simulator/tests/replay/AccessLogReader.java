@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.replay;
+
+import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.tests.replay.AccessLogRecord.Operation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * Streams the records of a key-level access log via memory-mapped I/O.
+ *
+ * The log is mapped in windows of a fixed size, so arbitrary large logs can be read without loading them into the heap.
+ * When a record doesn't fit into the remaining window, the next window is mapped starting at that record.
+ *
+ * Two formats are supported:
+ * <ul>
+ * <li>{@link Format#CSV}: one <code>timestamp,operation,key,valueSize</code> line per record. Empty lines, lines starting with
+ * <code>#</code> and lines not starting with a digit (e.g. a header) are skipped. The key may contain commas.</li>
+ * <li>{@link Format#BINARY}: a sequence of records as written by a {@link java.io.DataOutputStream}: the timestamp as long, the
+ * ordinal of the {@link Operation} as byte, the length of the UTF-8 encoded key as unsigned short, the key bytes and the value
+ * size as int.</li>
+ * </ul>
+ *
+ * The unit of the timestamps is milliseconds. This class is not thread-safe.
+ */
+public final class AccessLogReader implements Closeable {
+
+    /**
+     * The supported formats of an access log.
+     */
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int MAX_KEY_LENGTH = 0xFFFF;
+    private static final int BINARY_HEADER_LENGTH = 8 + 1 + 2;
+    private static final int BINARY_VALUE_SIZE_LENGTH = 4;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final File file;
+    private final Format format;
+    private final int windowSize;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final long fileSize;
+
+    private byte[] bytes = new byte[MAX_KEY_LENGTH];
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long recordCount;
+
+    public AccessLogReader(File file, Format format) {
+        this(file, format, DEFAULT_WINDOW_SIZE);
+    }
+
+    AccessLogReader(File file, Format format, int windowSize) {
+        this.file = file;
+        this.format = format;
+        this.windowSize = windowSize;
+        try {
+            this.randomAccessFile = new RandomAccessFile(file, "r");
+            this.channel = randomAccessFile.getChannel();
+            this.fileSize = channel.size();
+        } catch (IOException e) {
+            throw new TestException("Could not open access log %s", file.getAbsolutePath(), e);
+        }
+        map(0);
+    }
+
+    /**
+     * Reads the next record of the access log.
+     *
+     * @param record the {@link AccessLogRecord} to fill
+     * @return <tt>true</tt> if a record was read, <tt>false</tt> if the end of the log has been reached
+     * @throws TestException if the log is malformed or could not be read
+     */
+    public boolean next(AccessLogRecord record) {
+        boolean hasNext = (format == Format.BINARY) ? nextBinary(record) : nextCsv(record);
+        if (hasNext) {
+            recordCount++;
+        }
+        return hasNext;
+    }
+
+    /**
+     * Returns the number of records which have been read.
+     *
+     * @return the number of read records
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() {
+        window = null;
+        closeQuietly(randomAccessFile);
+    }
+
+    private boolean nextBinary(AccessLogRecord record) {
+        if (!ensureRemaining(BINARY_HEADER_LENGTH)) {
+            return false;
+        }
+        long timestamp = window.getLong();
+        int ordinal = window.get();
+        int keyLength = window.getShort() & MAX_KEY_LENGTH;
+        if (ordinal < 0 || ordinal >= OPERATIONS.length) {
+            throw new TestException("Unknown operation code %d in record %d of access log %s", ordinal, recordCount + 1,
+                    file.getAbsolutePath());
+        }
+        if (!ensureRemaining(keyLength + BINARY_VALUE_SIZE_LENGTH)) {
+            throw new TestException("Truncated record %d in access log %s", recordCount + 1, file.getAbsolutePath());
+        }
+        window.get(bytes, 0, keyLength);
+        String key = new String(bytes, 0, keyLength, UTF_8);
+        record.set(timestamp, OPERATIONS[ordinal], key, window.getInt());
+        return true;
+    }
+
+    private boolean nextCsv(AccessLogRecord record) {
+        String line;
+        do {
+            line = nextLine();
+            if (line == null) {
+                return false;
+            }
+        } while (line.isEmpty() || !Character.isDigit(line.charAt(0)));
+
+        int firstComma = line.indexOf(',');
+        int secondComma = (firstComma < 0) ? -1 : line.indexOf(',', firstComma + 1);
+        int lastComma = line.lastIndexOf(',');
+        if (secondComma < 0 || lastComma <= secondComma) {
+            throw new TestException("Malformed line '%s' in access log %s", line, file.getAbsolutePath());
+        }
+        try {
+            long timestamp = Long.parseLong(line.substring(0, firstComma).trim());
+            Operation operation = Operation.valueOf(line.substring(firstComma + 1, secondComma).trim().toUpperCase());
+            int valueSize = Integer.parseInt(line.substring(lastComma + 1).trim());
+            record.set(timestamp, operation, line.substring(secondComma + 1, lastComma), valueSize);
+            return true;
+        } catch (IllegalArgumentException e) {
+            throw new TestException("Malformed line '%s' in access log %s", line, file.getAbsolutePath(), e);
+        }
+    }
+
+    private String nextLine() {
+        if (!ensureRemaining(1)) {
+            return null;
+        }
+        int start = window.position();
+        int end = indexOfLineEnd(start);
+        if (end < 0) {
+            if (start == 0) {
+                throw new TestException("Line exceeds window size of %d bytes in access log %s", windowSize,
+                        file.getAbsolutePath());
+            }
+            map(windowStart + start);
+            return nextLine();
+        }
+        int length = end - start;
+        if (bytes.length < length) {
+            bytes = new byte[length];
+        }
+        window.get(bytes, 0, length);
+        if (window.hasRemaining()) {
+            // skip the line separator
+            window.get();
+        }
+        return new String(bytes, 0, length, UTF_8).trim();
+    }
+
+    private int indexOfLineEnd(int start) {
+        int limit = window.limit();
+        for (int i = start; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        // the last line of the log doesn't need a line separator
+        return (windowStart + limit == fileSize) ? limit : -1;
+    }
+
+    private boolean ensureRemaining(int length) {
+        if (window.remaining() >= length) {
+            return true;
+        }
+        long position = windowStart + window.position();
+        if (position + length > fileSize) {
+            return false;
+        }
+        map(position);
+        if (window.remaining() < length) {
+            throw new TestException("Record exceeds window size of %d bytes in access log %s", windowSize,
+                    file.getAbsolutePath());
+        }
+        return true;
+    }
+
+    private void map(long position) {
+        try {
+            window = channel.map(READ_ONLY, position, Math.min(windowSize, fileSize - position));
+            windowStart = position;
+        } catch (IOException e) {
+            throw new TestException("Could not map access log %s at position %d", file.getAbsolutePath(), position, e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.replay;
+
+/**
+ * A single entry of a key-level access log, as read by the {@link AccessLogReader}.
+ *
+ * The record is mutable, so a worker thread can reuse a single instance for the whole log.
+ */
+public final class AccessLogRecord {
+
+    /**
+     * The operations which can be replayed from an access log.
+     *
+     * The ordinal of the operation is used as operation code in the binary access log format.
+     */
+    public enum Operation {
+        GET,
+        PUT,
+        REMOVE
+    }
+
+    private long timestamp;
+    private Operation operation;
+    private String key;
+    private int valueSize;
+
+    void set(long timestamp, Operation operation, String key, int valueSize) {
+        this.timestamp = timestamp;
+        this.operation = operation;
+        this.key = key;
+        this.valueSize = valueSize;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getValueSize() {
+        return valueSize;
+    }
+
+    /**
+     * Returns the slot of this record if the log is partitioned by key hash into the given number of slots.
+     *
+     * Since the hash of a {@link String} is stable, all worker threads in all Simulator Workers agree on the slot of a key.
+     *
+     * @param slotCount the number of slots
+     * @return the slot of the record in the range of [0, slotCount)
+     */
+    public int getSlot(int slotCount) {
+        return (key.hashCode() & Integer.MAX_VALUE) % slotCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AccessLogRecord{"
+                + "timestamp=" + timestamp
+                + ", operation=" + operation
+                + ", key='" + key + '\''
+                + ", valueSize=" + valueSize
+                + '}';
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.replay;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.test.TestRunner;
+import com.hazelcast.simulator.test.annotations.InjectProbe;
+import com.hazelcast.simulator.test.annotations.RunWithWorker;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.tests.replay.AccessLogRecord.Operation;
+import com.hazelcast.simulator.worker.tasks.IWorker;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.tests.icache.helpers.CacheUtils.createCacheManager;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static java.lang.String.format;
+
+/**
+ * Replays a key-level access log, e.g. recorded in production, against an {@link IMap} or an {@link javax.cache.Cache}.
+ *
+ * Every record of the log (see {@link AccessLogReader} for the supported formats) consists of a timestamp, an operation, a key
+ * and a value size. The log is partitioned by the hash of the key over all Simulator Workers, so every key is accessed by a
+ * single Simulator Worker. Each Simulator Worker streams the log once via memory-mapped I/O and skips the records of the other
+ * Simulator Workers, so the log file has to be available on every Simulator Worker. Its worker threads share this reader and
+ * take the records in the order of the log, so operations on the same key may overlap if they are close to each other.
+ *
+ * The <code>workerCount</code> has to be set to the number of Simulator Workers which run this test.
+ *
+ * With a <code>replaySpeed</code> of 1 the operations are replayed at the recorded speed, with a value of 2 twice as fast and
+ * so on. The probes also record the latencies corrected for coordinated omission, which are measured from the intended start
+ * given by the log. With a <code>replaySpeed</code> of 0 the operations are replayed as fast as possible. The worker threads
+ * stop at the end of the log.
+ */
+public class AccessLogReplayTest {
+
+    public enum Structure {
+        MAP,
+        CACHE
+    }
+
+    private static final ILogger LOGGER = Logger.getLogger(AccessLogReplayTest.class);
+
+    // properties
+    public String basename = AccessLogReplayTest.class.getSimpleName();
+    public String logFile;
+    public AccessLogReader.Format logFormat = AccessLogReader.Format.CSV;
+    public Structure structure = Structure.MAP;
+    public double replaySpeed = 1;
+    public int workerCount = 1;
+
+    // probes
+    @InjectProbe(recordCorrectedLatency = true)
+    public Probe getProbe;
+    @InjectProbe(recordCorrectedLatency = true)
+    public Probe putProbe;
+    @InjectProbe(recordCorrectedLatency = true)
+    public Probe removeProbe;
+
+    final AtomicLong replayedRecords = new AtomicLong();
+
+    // the reader is shared by all worker threads, the fields are guarded by this lock
+    private final Object readerLock = new Object();
+    private AccessLogReader reader;
+    private long firstTimestamp = -1;
+    private long startNanos;
+
+    private IMap<String, byte[]> map;
+    private CacheManager cacheManager;
+    private Cache<String, byte[]> cache;
+    private int workerIndex;
+
+    @Setup
+    public void setUp(TestContext testContext) {
+        if (logFile == null) {
+            throw new IllegalArgumentException("The logFile property is required");
+        }
+        if (workerCount < 1 || replaySpeed < 0) {
+            throw new IllegalArgumentException(format("Invalid properties workerCount=%d replaySpeed=%f", workerCount,
+                    replaySpeed));
+        }
+
+        HazelcastInstance targetInstance = testContext.getTargetInstance();
+        if (structure == Structure.MAP) {
+            map = targetInstance.getMap(basename);
+        } else {
+            cacheManager = createCacheManager(targetInstance);
+            cache = cacheManager.getCache(basename);
+        }
+        workerIndex = (int) (targetInstance.getAtomicLong(basename + ":WorkerIndex").getAndIncrement() % workerCount);
+        reader = new AccessLogReader(new File(logFile), logFormat);
+        LOGGER.info(format("%s: replaying %s as worker %d of %d", basename, logFile, workerIndex + 1, workerCount));
+    }
+
+    @Teardown
+    public void tearDown() {
+        LOGGER.info(format("%s: replayed %d records", basename, replayedRecords.get()));
+        closeQuietly(reader);
+        if (map != null) {
+            map.destroy();
+        }
+        if (cacheManager != null) {
+            cacheManager.destroyCache(basename);
+        }
+    }
+
+    /**
+     * Reads the next record of this Simulator Worker from the shared reader.
+     *
+     * @param record the {@link AccessLogRecord} to fill
+     * @return <tt>true</tt> if a record was read, <tt>false</tt> if the end of the log has been reached
+     */
+    private boolean nextRecord(AccessLogRecord record) {
+        synchronized (readerLock) {
+            while (reader.next(record)) {
+                if (firstTimestamp == -1) {
+                    firstTimestamp = record.getTimestamp();
+                    startNanos = System.nanoTime();
+                }
+                if (record.getSlot(workerCount) == workerIndex) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @RunWithWorker
+    public Worker createWorker() {
+        return new Worker();
+    }
+
+    @SuppressFBWarnings({"UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD", "NP_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD"})
+    private class Worker implements IWorker {
+
+        // these fields will be injected by the TestContainer
+        public TestContext testContext;
+        @InjectProbe(useForThroughput = true, recordCorrectedLatency = true)
+        public Probe workerProbe;
+
+        private final AccessLogRecord record = new AccessLogRecord();
+
+        @Override
+        public void run() {
+            while (!testContext.isStopped() && nextRecord(record)) {
+                replay(getIntendedStartNanos());
+            }
+        }
+
+        private long getIntendedStartNanos() {
+            if (replaySpeed == 0) {
+                return System.nanoTime();
+            }
+            // the first timestamp and the start have been written under the lock before the first record of this thread was read
+            long offsetNanos = TimeUnit.MILLISECONDS.toNanos(record.getTimestamp() - firstTimestamp);
+            long intendedStartNanos = startNanos + (long) (offsetNanos / replaySpeed);
+            long delayNanos = intendedStartNanos - System.nanoTime();
+            if (delayNanos > 0) {
+                sleepNanos(delayNanos);
+            }
+            return intendedStartNanos;
+        }
+
+        private void replay(long intendedStartNanos) {
+            Probe operationProbe = getOperationProbe(record.getOperation());
+            workerProbe.started();
+            operationProbe.started();
+            if (map != null) {
+                replayOnMap();
+            } else {
+                replayOnCache();
+            }
+            operationProbe.done(intendedStartNanos);
+            workerProbe.done(intendedStartNanos);
+            replayedRecords.incrementAndGet();
+        }
+
+        private void replayOnMap() {
+            switch (record.getOperation()) {
+                case GET:
+                    map.get(record.getKey());
+                    break;
+                case PUT:
+                    map.set(record.getKey(), new byte[record.getValueSize()]);
+                    break;
+                default:
+                    map.delete(record.getKey());
+            }
+        }
+
+        private void replayOnCache() {
+            switch (record.getOperation()) {
+                case GET:
+                    cache.get(record.getKey());
+                    break;
+                case PUT:
+                    cache.put(record.getKey(), new byte[record.getValueSize()]);
+                    break;
+                default:
+                    cache.remove(record.getKey());
+            }
+        }
+
+        private Probe getOperationProbe(Operation operation) {
+            switch (operation) {
+                case GET:
+                    return getProbe;
+                case PUT:
+                    return putProbe;
+                default:
+                    return removeProbe;
+            }
+        }
+
+        @Override
+        public void afterCompletion() {
+            // nothing to do here
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        AccessLogReplayTest test = new AccessLogReplayTest();
+        test.logFile = args.length > 0 ? args[0] : "access.log";
+        new TestRunner<AccessLogReplayTest>(test).run();
+    }
+}
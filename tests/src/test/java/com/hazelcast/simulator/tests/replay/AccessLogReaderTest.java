@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.replay;
+
+import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.tests.replay.AccessLogReader.Format;
+import com.hazelcast.simulator.tests.replay.AccessLogRecord.Operation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AccessLogReaderTest {
+
+    private final AccessLogRecord record = new AccessLogRecord();
+
+    private File file;
+    private AccessLogReader reader;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("access", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        closeQuietly(reader);
+        deleteQuiet(file);
+    }
+
+    @Test
+    public void testNext_csv() {
+        writeText("# recorded access log\n"
+                + "timestamp,op,key,valueSize\n"
+                + "1000,get,foo,0\r\n"
+                + "\n"
+                + "1005,PUT,bar,128\n"
+                + "1010,remove,key,with,commas,0", file);
+        reader = new AccessLogReader(file, Format.CSV);
+
+        assertNextRecord(1000, Operation.GET, "foo", 0);
+        assertNextRecord(1005, Operation.PUT, "bar", 128);
+        assertNextRecord(1010, Operation.REMOVE, "key,with,commas", 0);
+        assertFalse(reader.next(record));
+        assertEquals(3, reader.getRecordCount());
+    }
+
+    @Test
+    public void testNext_csv_remapsWindow() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(i).append(",put,key").append(i).append(',').append(i).append('\n');
+        }
+        writeText(sb.toString(), file);
+        reader = new AccessLogReader(file, Format.CSV, 32);
+
+        for (int i = 0; i < 100; i++) {
+            assertNextRecord(i, Operation.PUT, "key" + i, i);
+        }
+        assertFalse(reader.next(record));
+    }
+
+    @Test(expected = TestException.class)
+    public void testNext_csv_lineExceedsWindow() {
+        writeText("1000,put,aVeryLongKeyWhichDoesNotFitIntoTheWindow,0\n", file);
+        reader = new AccessLogReader(file, Format.CSV, 16);
+
+        reader.next(record);
+    }
+
+    @Test(expected = TestException.class)
+    public void testNext_csv_missingField() {
+        writeText("1000,put,0\n", file);
+        reader = new AccessLogReader(file, Format.CSV);
+
+        reader.next(record);
+    }
+
+    @Test(expected = TestException.class)
+    public void testNext_csv_unknownOperation() {
+        writeText("1000,evict,foo,0\n", file);
+        reader = new AccessLogReader(file, Format.CSV);
+
+        reader.next(record);
+    }
+
+    @Test
+    public void testNext_binary() throws Exception {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            for (int i = 0; i < 100; i++) {
+                writeBinaryRecord(out, i, Operation.values()[i % 3], "key" + i, i);
+            }
+        } finally {
+            closeQuietly(out);
+        }
+        reader = new AccessLogReader(file, Format.BINARY, 32);
+
+        for (int i = 0; i < 100; i++) {
+            assertNextRecord(i, Operation.values()[i % 3], "key" + i, i);
+        }
+        assertFalse(reader.next(record));
+        assertEquals(100, reader.getRecordCount());
+    }
+
+    @Test(expected = TestException.class)
+    public void testNext_binary_unknownOperation() throws Exception {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            out.writeLong(1000);
+            out.writeByte(Operation.values().length);
+            out.writeShort(0);
+            out.writeInt(0);
+        } finally {
+            closeQuietly(out);
+        }
+        reader = new AccessLogReader(file, Format.BINARY);
+
+        reader.next(record);
+    }
+
+    @Test(expected = TestException.class)
+    public void testNext_binary_truncatedRecord() throws Exception {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            out.writeLong(1000);
+            out.writeByte(Operation.GET.ordinal());
+            out.writeShort(10);
+        } finally {
+            closeQuietly(out);
+        }
+        reader = new AccessLogReader(file, Format.BINARY);
+
+        reader.next(record);
+    }
+
+    @Test(expected = TestException.class)
+    public void testConstructor_missingFile() {
+        deleteQuiet(file);
+
+        reader = new AccessLogReader(file, Format.CSV);
+    }
+
+    @Test
+    public void testGetSlot() {
+        writeText("1000,get,foo,0\n", file);
+        reader = new AccessLogReader(file, Format.CSV);
+
+        assertTrue(reader.next(record));
+        assertEquals(0, record.getSlot(1));
+        assertEquals(("foo".hashCode() & Integer.MAX_VALUE) % 7, record.getSlot(7));
+    }
+
+    private void assertNextRecord(long timestamp, Operation operation, String key, int valueSize) {
+        assertTrue(reader.next(record));
+        assertEquals(timestamp, record.getTimestamp());
+        assertEquals(operation, record.getOperation());
+        assertEquals(key, record.getKey());
+        assertEquals(valueSize, record.getValueSize());
+    }
+
+    private static void writeBinaryRecord(DataOutputStream out, long timestamp, Operation operation, String key, int valueSize)
+            throws IOException {
+        byte[] keyBytes = key.getBytes("UTF-8");
+        out.writeLong(timestamp);
+        out.writeByte(operation.ordinal());
+        out.writeShort(keyBytes.length);
+        out.write(keyBytes);
+        out.writeInt(valueSize);
+    }
+}
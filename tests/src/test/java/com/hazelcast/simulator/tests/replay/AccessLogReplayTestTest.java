@@ -0,0 +1,47 @@
+package com.hazelcast.simulator.tests.replay;
+
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.simulator.test.TestRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static org.junit.Assert.assertEquals;
+
+public class AccessLogReplayTestTest {
+
+    private static final int RECORD_COUNT = 1000;
+
+    private File logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        logFile = File.createTempFile("access", ".log");
+
+        StringBuilder sb = new StringBuilder("timestamp,op,key,valueSize\n");
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            sb.append(i).append(',').append(i % 2 == 0 ? "put" : "get").append(",key").append(i % 100).append(",16\n");
+        }
+        writeText(sb.toString(), logFile);
+    }
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+        deleteQuiet(logFile);
+    }
+
+    @Test
+    public void test() throws Exception {
+        AccessLogReplayTest test = new AccessLogReplayTest();
+        test.logFile = logFile.getAbsolutePath();
+        test.replaySpeed = 0;
+        new TestRunner<AccessLogReplayTest>(test).withDuration(5).run();
+
+        assertEquals(RECORD_COUNT, test.replayedRecords.get());
+    }
+}
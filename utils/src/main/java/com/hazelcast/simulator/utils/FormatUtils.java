@@ -17,6 +17,7 @@ package com.hazelcast.simulator.utils;
 
 import java.util.Iterator;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 import static java.util.Arrays.fill;
@@ -129,6 +130,31 @@ public final class FormatUtils {
         return format("%02dd %02dh %02dm %02ds", days, hours, minutes, moduloSeconds);
     }
 
+    /**
+     * Returns the symbol of a {@link TimeUnit}, e.g. to label latency values.
+     *
+     * @param timeUnit the {@link TimeUnit}
+     * @return the symbol of the {@link TimeUnit}
+     */
+    public static String getTimeUnitSymbol(TimeUnit timeUnit) {
+        switch (timeUnit) {
+            case NANOSECONDS:
+                return "ns";
+            case MICROSECONDS:
+                return "µs";
+            case MILLISECONDS:
+                return "ms";
+            case SECONDS:
+                return "s";
+            case MINUTES:
+                return "min";
+            case HOURS:
+                return "h";
+            default:
+                return "d";
+        }
+    }
+
     public static String humanReadableByteCount(long bytes, boolean si) {
         int unit = si ? SI_BYTES_FACTOR : IEC_BYTES_FACTOR;
         if (bytes < unit) {
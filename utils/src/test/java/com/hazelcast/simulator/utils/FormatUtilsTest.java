@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.utils.FormatUtils.fillString;
 import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
@@ -11,6 +12,7 @@ import static com.hazelcast.simulator.utils.FormatUtils.formatIpAddress;
 import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.humanReadableByteCount;
+import static com.hazelcast.simulator.utils.FormatUtils.getTimeUnitSymbol;
 import static com.hazelcast.simulator.utils.FormatUtils.join;
 import static com.hazelcast.simulator.utils.FormatUtils.padLeft;
 import static com.hazelcast.simulator.utils.FormatUtils.padRight;
@@ -148,6 +150,17 @@ public class FormatUtilsTest {
         assertEqualsStringFormat("Expected human readable seconds to be %s, but was %s", expected, actual);
     }
 
+    @Test
+    public void testGetTimeUnitSymbol() {
+        assertEquals("ns", getTimeUnitSymbol(TimeUnit.NANOSECONDS));
+        assertEquals("µs", getTimeUnitSymbol(TimeUnit.MICROSECONDS));
+        assertEquals("ms", getTimeUnitSymbol(TimeUnit.MILLISECONDS));
+        assertEquals("s", getTimeUnitSymbol(TimeUnit.SECONDS));
+        assertEquals("min", getTimeUnitSymbol(TimeUnit.MINUTES));
+        assertEquals("h", getTimeUnitSymbol(TimeUnit.HOURS));
+        assertEquals("d", getTimeUnitSymbol(TimeUnit.DAYS));
+    }
+
     @Test
     public void testHumanReadableByteCount_Byte_SI() {
         String actual = humanReadableByteCount(42, false);
@@ -16,7 +16,7 @@
 package com.hazelcast.simulator.visualizer.io;
 
 import com.hazelcast.simulator.probes.Result;
-import com.hazelcast.simulator.probes.xml.ResultXmlUtils;
+import com.hazelcast.simulator.probes.binary.ResultBinaryUtils;
 import com.hazelcast.simulator.visualizer.data.Model;
 
 import javax.swing.*;
@@ -35,7 +35,8 @@ public class ResultParserWorker extends SwingWorker<Result, Void> {
 
     @Override
     protected Result doInBackground() throws Exception {
-        return ResultXmlUtils.fromXml(file);
+        // binary results are streamed, XML results of older runs are still supported
+        return ResultBinaryUtils.fromFile(file);
     }
 
     @Override
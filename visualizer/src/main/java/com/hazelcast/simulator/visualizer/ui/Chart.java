@@ -32,6 +32,10 @@ import javax.swing.event.ChangeListener;
 import java.awt.*;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.utils.FormatUtils.getTimeUnitSymbol;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 import static com.hazelcast.simulator.visualizer.utils.DataSetUtils.getHistogramDataSet;
 import static com.hazelcast.simulator.visualizer.utils.ListenerUtils.addHorizontalMouseListener;
@@ -72,8 +76,8 @@ public class Chart extends JPanel {
         horizontalSlidersPanel.add(mainHorizontalSlider);
         horizontalSlidersPanel.add(fineHorizontalSlider);
 
-        JFreeChart chart = ChartFactory.createHistogram("Latency Distribution", "Latency (µs)", "Operations", null,
-                PlotOrientation.VERTICAL, true, true, true);
+        JFreeChart chart = ChartFactory.createHistogram("Latency Distribution", getLatencyAxisLabel(MICROSECONDS),
+                "Operations", null, PlotOrientation.VERTICAL, true, true, true);
 
         plot = chart.getXYPlot();
         plot.setForegroundAlpha(ALPHA);
@@ -140,6 +144,8 @@ public class Chart extends JPanel {
         double scalingPercentile = autoScaleRadioButtons.getEnabledPercentile();
         AggregatedDataSet aggregatedDataSet = new AggregatedDataSet();
         Set<String> benchmarkNames = model.getBenchmarkNames();
+        TimeUnit displayUnit = getDisplayUnit(benchmarkNames, selectedProbes);
+        plot.getDomainAxis().setLabel(getLatencyAxisLabel(displayUnit));
         for (String benchmarkName : benchmarkNames) {
             Result result = model.getBenchmarkResult(benchmarkName);
             for (String selectedProbe : selectedProbes) {
@@ -148,7 +154,8 @@ public class Chart extends JPanel {
                     continue;
                 }
                 String name = benchmarkName + " - " + selectedProbe;
-                SimulatorHistogramDataSet dataSet = getHistogramDataSet(histogram, accuracy, scalingPercentile);
+                long valueFactor = result.getLatencyUnit(selectedProbe).toNanos(1) / displayUnit.toNanos(1);
+                SimulatorHistogramDataSet dataSet = getHistogramDataSet(histogram, accuracy, scalingPercentile, valueFactor);
                 if (dataSet != null) {
                     aggregatedDataSet.addNewSeries(dataSet, name);
                 }
@@ -157,6 +164,30 @@ public class Chart extends JPanel {
         return aggregatedDataSet;
     }
 
+    /**
+     * Returns the finest latency unit of the selected probes, so histograms with different units can be shown in one chart.
+     */
+    private TimeUnit getDisplayUnit(Set<String> benchmarkNames, List<String> selectedProbes) {
+        TimeUnit displayUnit = null;
+        for (String benchmarkName : benchmarkNames) {
+            Result result = model.getBenchmarkResult(benchmarkName);
+            for (String selectedProbe : selectedProbes) {
+                if (result.getHistogram(selectedProbe) == null) {
+                    continue;
+                }
+                TimeUnit latencyUnit = result.getLatencyUnit(selectedProbe);
+                if (displayUnit == null || latencyUnit.compareTo(displayUnit) < 0) {
+                    displayUnit = latencyUnit;
+                }
+            }
+        }
+        return (displayUnit == null) ? MICROSECONDS : displayUnit;
+    }
+
+    private static String getLatencyAxisLabel(TimeUnit latencyUnit) {
+        return "Latency (" + getTimeUnitSymbol(latencyUnit) + ")";
+    }
+
     private void updateDataSet(AggregatedDataSet dataSet) {
         plot.getDomainAxis().setAutoRange(true);
         plot.getRangeAxis().setAutoRange(true);
@@ -18,9 +18,9 @@ package com.hazelcast.simulator.visualizer.ui;
 import com.hazelcast.simulator.visualizer.data.Model;
 import com.hazelcast.simulator.visualizer.io.ResultParserWorker;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.jfree.ui.ExtensionFileFilter;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -95,7 +95,7 @@ public final class MainUI extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 JFileChooser fileChooser = new JFileChooser(lastFileChooserDirectory);
-                fileChooser.setFileFilter(new ExtensionFileFilter("XML Files", "xml"));
+                fileChooser.setFileFilter(new FileNameExtensionFilter("Probe Results", "bin", "xml"));
                 int returnValue = fileChooser.showOpenDialog(null);
                 if (returnValue == JFileChooser.APPROVE_OPTION) {
                     lastFileChooserDirectory = fileChooser.getSelectedFile();
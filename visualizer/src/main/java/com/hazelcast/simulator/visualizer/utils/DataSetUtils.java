@@ -26,6 +26,20 @@ public final class DataSetUtils {
     }
 
     public static SimulatorHistogramDataSet getHistogramDataSet(Histogram histogram, int accuracy, double scalingPercentile) {
+        return getHistogramDataSet(histogram, accuracy, scalingPercentile, 1);
+    }
+
+    /**
+     * Creates a {@link SimulatorHistogramDataSet} from a {@link Histogram}.
+     *
+     * @param histogram         the {@link Histogram}
+     * @param accuracy          the bucket width in units of the histogram values
+     * @param scalingPercentile the percentile (0.0 to 1.0) used for the auto scale value
+     * @param valueFactor       factor to convert the histogram values into the displayed latency unit
+     * @return the {@link SimulatorHistogramDataSet} or <tt>null</tt> if the histogram is <tt>null</tt>
+     */
+    public static SimulatorHistogramDataSet getHistogramDataSet(Histogram histogram, int accuracy, double scalingPercentile,
+                                                                long valueFactor) {
         if (histogram == null) {
             return null;
         }
@@ -36,15 +50,15 @@ public final class DataSetUtils {
         for (HistogramIterationValue value : histogram.linearBucketValues(accuracy)) {
             int values = (int) value.getCountAddedInThisIterationStep();
             if (values > 0) {
-                long lowerBound = value.getValueIteratedFrom();
-                long upperBound = value.getValueIteratedTo();
+                long lowerBound = value.getValueIteratedFrom() * valueFactor;
+                long upperBound = value.getValueIteratedTo() * valueFactor;
                 SimpleHistogramBin bin = new SimpleHistogramBin(lowerBound, upperBound, true, false);
                 bin.setItemCount(values);
                 histogramDataSet.addBin(bin);
             }
         }
 
-        histogramDataSet.setAutoScaleValue(histogram.getValueAtPercentile(scalingPercentile * 100));
+        histogramDataSet.setAutoScaleValue(histogram.getValueAtPercentile(scalingPercentile * 100) * valueFactor);
         return histogramDataSet;
     }
 }